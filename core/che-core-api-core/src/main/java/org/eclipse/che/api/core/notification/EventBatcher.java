@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates events by key (channel or destination) and passes them to the sender as one batch
+ * when batch window expires or batch reaches the maximum size, whichever happens first.
+ *
+ * <p>Batches are sent by single thread, so batches with the same key are sent in the order they were created.
+ * Events which can't be sent, e.g. the sender fails or the batcher is stopped, are dropped and logged.
+ *
+ * @param <K>
+ *         type of batch key
+ */
+class EventBatcher<K> {
+    private static final Logger LOG = LoggerFactory.getLogger(EventBatcher.class);
+
+    static final long STOP_TIMEOUT_MS = 10_000;
+
+    /** Sends batch of events, events are in publication order. */
+    @FunctionalInterface
+    interface Sender<K> {
+        void send(K key, List<Object> events, long firstEventTime) throws Exception;
+    }
+
+    private final long                     windowMs;
+    private final int                      maxEvents;
+    private final Sender<K>                sender;
+    private final Map<K, Batch>            batches;
+    private final ScheduledExecutorService scheduler;
+
+    private boolean stopped;
+
+    EventBatcher(String name, long windowMs, int maxEvents, Sender<K> sender) {
+        this.windowMs = windowMs;
+        this.maxEvents = maxEvents;
+        this.sender = sender;
+        this.batches = new HashMap<>();
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNameFormat(name + "-batcher")
+                                                                                      .setDaemon(true)
+                                                                                      .build());
+    }
+
+    void add(K key, Object event) {
+        final Batch full;
+        synchronized (batches) {
+            if (stopped) {
+                LOG.warn("Batcher is stopped, event to {} is dropped", key);
+                return;
+            }
+            Batch batch = batches.get(key);
+            if (batch == null) {
+                batches.put(key, batch = new Batch(key));
+                final Batch scheduled = batch;
+                scheduler.schedule(() -> flush(scheduled), windowMs, TimeUnit.MILLISECONDS);
+            }
+            batch.events.add(event);
+            if (batch.events.size() < maxEvents) {
+                return;
+            }
+            batches.remove(key);
+            full = batch;
+        }
+        scheduler.execute(() -> send(full));
+    }
+
+    /**
+     * Sends all the pending batches and stops this batcher.
+     * Full batches which are already queued are sent first, so the order of batches is kept.
+     * Waits at most {@link #STOP_TIMEOUT_MS} for sending, batches which are not sent in time are dropped.
+     */
+    void stop() {
+        final List<Batch> pending;
+        synchronized (batches) {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            pending = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        // scheduler runs immediate tasks in submission order, so this task runs after the queued full batches,
+        // tasks which are left after it are flushes of the batches taken above
+        final CountDownLatch drained = new CountDownLatch(1);
+        scheduler.execute(() -> {
+            pending.forEach(this::send);
+            drained.countDown();
+        });
+        try {
+            if (!drained.await(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Pending events are not sent in {} ms, the rest of them is dropped", STOP_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler.shutdownNow();
+    }
+
+    private void flush(Batch batch) {
+        synchronized (batches) {
+            if (!batches.remove(batch.key, batch)) {
+                // already sent because it was full
+                return;
+            }
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        final long lag = System.currentTimeMillis() - batch.created;
+        try {
+            sender.send(batch.key, batch.events, batch.created);
+        } catch (Exception e) {
+            LOG.error(String.format("Failed to send batch of %d events to %s, the events are dropped. Cause: %s",
+                                    batch.events.size(), batch.key, e.getMessage()), e);
+            return;
+        }
+        LOG.debug("Sent batch of {} events to {}, lag {} ms", batch.events.size(), batch.key, lag);
+    }
+
+    private class Batch {
+        final K            key;
+        final long         created;
+        final List<Object> events;
+
+        Batch(K key) {
+            this.key = key;
+            this.created = System.currentTimeMillis();
+            this.events = new ArrayList<>();
+        }
+    }
+}
@@ -11,31 +11,66 @@
 package org.eclipse.che.api.core.notification;
 
 import org.eclipse.che.commons.lang.NameGenerator;
+import org.everrest.core.impl.provider.json.ArrayValue;
 import org.everrest.core.impl.provider.json.JsonGenerator;
 import org.everrest.core.impl.provider.json.JsonParser;
 import org.everrest.core.impl.provider.json.JsonValue;
 import org.everrest.core.impl.provider.json.JsonWriter;
+import org.everrest.core.impl.provider.json.LongValue;
 import org.everrest.core.impl.provider.json.ObjectBuilder;
+import org.everrest.core.impl.provider.json.ObjectValue;
 import org.everrest.core.impl.provider.json.StringValue;
 import org.everrest.websockets.message.ChannelBroadcastMessage;
 import org.everrest.websockets.message.InputMessage;
 import org.everrest.websockets.message.RestInputMessage;
-import org.everrest.websockets.message.RestOutputMessage;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.MediaType;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
+ * Converts events to websocket messages and back.
+ *
+ * <p>Single event is sent as JSON object with additional {@code $type} field.
+ * Batch of events is sent only by {@link WSocketEventBusClient} to {@link WSocketEventBusServer},
+ * as JSON object with fields:
+ * <ul>
+ * <li>{@code $batch} - gzipped and base64 encoded JSON array of events</li>
+ * <li>{@code $time} - time in milliseconds when the first event of the batch was published</li>
+ * </ul>
+ * Broadcast messages are never batched since browser clients which listen to the channels can't decode batches.
+ *
  * @author andrew00x
  */
 class Messages {
+    private static final ConcurrentMap<String, Class<?>> EVENT_CLASSES = new ConcurrentHashMap<>();
+
     static RestInputMessage clientMessage(Object event) throws Exception {
+        return eventBusMessage(toJson(event));
+    }
+
+    private static RestInputMessage eventBusMessage(String body) {
         RestInputMessage message = new RestInputMessage();
-        message.setBody(toJson(event));
+        message.setBody(body);
         message.setMethod(HttpMethod.POST);
         message.setHeaders(new org.everrest.websockets.message.Pair[]{
                 new org.everrest.websockets.message.Pair("Content-type", MediaType.APPLICATION_JSON)});
@@ -55,39 +90,112 @@ class Messages {
         return message;
     }
 
-    static Object restoreEventFromBroadcastMessage(RestOutputMessage message) throws Exception {
-        return fromJson(message.getBody());
+    static RestInputMessage clientBatchMessage(List<Object> events, long firstEventTime) throws Exception {
+        return eventBusMessage(toBatchJson(events, firstEventTime));
     }
 
-    static Object restoreEventFromClientMessage(String message) throws Exception {
-        if (message != null) {
-            return fromJson(message);
+    /**
+     * Restores events from the body of broadcast or client message, client message contains either single event or batch of events.
+     *
+     * @param message
+     *         message body
+     * @param lagConsumer
+     *         receives number of events and time in milliseconds elapsed since publication of the first event of the batch,
+     *         isn't called for single event
+     */
+    static List<Object> restoreEvents(String message, BatchLagConsumer lagConsumer) throws Exception {
+        final JsonValue node = parse(message);
+        if (node == null) {
+            return Collections.emptyList();
         }
-        return null;
+        final JsonValue batchNode = node.getElement("$batch");
+        if (batchNode == null) {
+            final Object event = toEvent(node);
+            return event == null ? Collections.emptyList() : Collections.singletonList(event);
+        }
+        final JsonParser parser = new JsonParser();
+        final byte[] compressed = Base64.getDecoder().decode(batchNode.getStringValue());
+        try (Reader reader = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(compressed)), UTF_8)) {
+            parser.parse(reader);
+        }
+        final JsonValue array = parser.getJsonObject();
+        final List<Object> events = new ArrayList<>(array.size());
+        for (Iterator<JsonValue> it = array.getElements(); it.hasNext(); ) {
+            final Object event = toEvent(it.next());
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        final JsonValue timeNode = node.getElement("$time");
+        if (timeNode != null && lagConsumer != null) {
+            lagConsumer.accept(events.size(), System.currentTimeMillis() - timeNode.getLongValue());
+        }
+        return events;
     }
 
     private static String toJson(Object event) throws Exception {
+        return write(toJsonValue(event));
+    }
+
+    private static JsonValue toJsonValue(Object event) throws Exception {
         final String type = event.getClass().getName();
         final JsonValue json = JsonGenerator.createJsonObject(event);
         json.addElement("$type", new StringValue(type));
+        return json;
+    }
+
+    private static String toBatchJson(List<Object> events, long firstEventTime) throws Exception {
+        final ArrayValue array = new ArrayValue();
+        for (Object event : events) {
+            array.addElement(toJsonValue(event));
+        }
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(write(array).getBytes(UTF_8));
+        }
+        final ObjectValue batch = new ObjectValue();
+        batch.addElement("$batch", new StringValue(Base64.getEncoder().encodeToString(compressed.toByteArray())));
+        batch.addElement("$time", new LongValue(firstEventTime));
+        return write(batch);
+    }
+
+    private static String write(JsonValue json) throws Exception {
         final Writer w = new StringWriter();
         json.writeTo(new JsonWriter(w));
         return w.toString();
     }
 
-    private static Object fromJson(String json) throws Exception {
+    private static JsonValue parse(String json) throws Exception {
         if (json == null || json.isEmpty()) {
             return null;
         }
         final JsonParser parser = new JsonParser();
         parser.parse(new StringReader(json));
-        final JsonValue node = parser.getJsonObject();
+        return parser.getJsonObject();
+    }
+
+    private static Object toEvent(JsonValue node) throws Exception {
         final JsonValue typeNode = node.getElement("$type");
         final String type;
         if (typeNode == null || (type = typeNode.getStringValue()) == null) {
             return null;
         }
-        return ObjectBuilder.createObject(Class.forName(type), node);
+        return ObjectBuilder.createObject(eventClass(type), node);
+    }
+
+    private static Class<?> eventClass(String type) throws ClassNotFoundException {
+        Class<?> eventClass = EVENT_CLASSES.get(type);
+        if (eventClass == null) {
+            eventClass = Class.forName(type);
+            EVENT_CLASSES.putIfAbsent(type, eventClass);
+        }
+        return eventClass;
+    }
+
+    /** Receives size and propagation lag of restored batch of events. */
+    @FunctionalInterface
+    interface BatchLagConsumer {
+        void accept(int size, long lagMs);
     }
 
     private Messages() {
@@ -35,6 +35,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -49,12 +50,21 @@ import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * Receives event over websocket and publish them to the local EventsService.
  *
+ * <p>When {@value #BATCH_WINDOW_MS_PROPERTY} is greater than 0, propagated events are accumulated
+ * per server during this window or until there are {@value #BATCH_MAX_EVENTS_PROPERTY} events
+ * and sent as one compressed message. Batching must be enabled only when all the servers the events are
+ * propagated to are {@link WSocketEventBusServer}s which are able to decode batches, e.g. by workspace agent
+ * which propagates events to Che server only.
+ *
  * @author andrew00x
  */
 @Singleton
 public final class WSocketEventBusClient {
     private static final Logger LOG = LoggerFactory.getLogger(WSocketEventBusClient.class);
 
+    static final String BATCH_WINDOW_MS_PROPERTY  = "notification.client.batch.window_ms";
+    static final String BATCH_MAX_EVENTS_PROPERTY = "notification.client.batch.max_events";
+
     private static final long WS_CONNECTION_TIMEOUT = 2;
 
     private final EventService                         eventService;
@@ -64,7 +74,16 @@ public final class WSocketEventBusClient {
     private final ConcurrentMap<URI, Future<WSClient>> connections;
     private final AtomicBoolean                        start;
 
-    private ExecutorService executor;
+    @com.google.inject.Inject(optional = true)
+    @Named(BATCH_WINDOW_MS_PROPERTY)
+    private long batchWindowMs;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(BATCH_MAX_EVENTS_PROPERTY)
+    private int batchMaxEvents = 100;
+
+    private ExecutorService   executor;
+    private EventBatcher<URI> batcher;
 
     @Inject
     public WSocketEventBusClient(EventService eventService,
@@ -83,6 +102,9 @@ public final class WSocketEventBusClient {
     void start() {
         if (start.compareAndSet(false, true)) {
             if (policy != null) {
+                if (batchWindowMs > 0) {
+                    batcher = new EventBatcher<>("WSocketEventBusClient", batchWindowMs, batchMaxEvents, this::sendBatch);
+                }
                 eventService.subscribe(new EventSubscriber<Object>() {
                     @Override
                     public void onEvent(Object event) {
@@ -122,7 +144,11 @@ public final class WSocketEventBusClient {
             try {
                 final WSClient client = future.get();
                 if (policy != null && policy.shouldPropagated(client.getServerUri(), event)) {
-                    client.send(messageConverter.toString(Messages.clientMessage(event)));
+                    if (batcher != null) {
+                        batcher.add(client.getServerUri(), event);
+                    } else {
+                        client.send(messageConverter.toString(Messages.clientMessage(event)));
+                    }
                 }
             } catch (Exception e) {
                 LOG.error(e.getMessage(), e);
@@ -130,10 +156,24 @@ public final class WSocketEventBusClient {
         });
     }
 
+    private void sendBatch(URI serverUri, List<Object> events, long firstEventTime) throws Exception {
+        final Future<WSClient> future = connections.get(serverUri);
+        if (future == null || !future.isDone()) {
+            LOG.warn("Connection to {} is closed, {} events are dropped", serverUri, events.size());
+            return;
+        }
+        future.get().send(messageConverter.toString(Messages.clientBatchMessage(events, firstEventTime)));
+    }
+
     @PreDestroy
     void stop() {
-        if (start.compareAndSet(true, false) && executor != null) {
-            executor.shutdownNow();
+        if (start.compareAndSet(true, false)) {
+            if (batcher != null) {
+                batcher.stop();
+            }
+            if (executor != null) {
+                executor.shutdownNow();
+            }
         }
     }
 
@@ -205,8 +245,7 @@ public final class WSocketEventBusClient {
                         if ("x-everrest-websocket-channel".equals(header.getName())) {
                             final String channel = header.getValue();
                             if (channel != null && channels.contains(channel)) {
-                                final Object event = Messages.restoreEventFromBroadcastMessage(message);
-                                if (event != null) {
+                                for (Object event : Messages.restoreEvents(message.getBody(), null)) {
                                     eventService.publish(event);
                                 }
                             }
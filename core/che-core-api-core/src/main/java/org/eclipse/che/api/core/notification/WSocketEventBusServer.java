@@ -25,6 +25,11 @@ import javax.ws.rs.core.MediaType;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * Receives events from {@link WSocketEventBusClient}s and broadcasts local events to websocket channels.
+ *
+ * <p>Client may send events either one by one or in batches, see {@link WSocketEventBusClient}.
+ * Local events are broadcast one by one, as browser clients listen to the same channels.
+ *
  * @author andrew00x
  */
 @Singleton
@@ -48,8 +53,7 @@ public final class WSocketEventBusServer {
     @Consumes(MediaType.APPLICATION_JSON)
     public void event(String message) {
         try {
-            final Object event = Messages.restoreEventFromClientMessage(message);
-            if (event != null) {
+            for (Object event : Messages.restoreEvents(message, this::onBatchReceived)) {
                 eventService.publish(event);
             }
         } catch (Exception e) {
@@ -81,6 +85,10 @@ public final class WSocketEventBusServer {
         }
     }
 
+    private void onBatchReceived(int size, long lagMs) {
+        LOG.debug("Received batch of {} events, propagation lag {} ms", size, lagMs);
+    }
+
     protected String resolveChannelName(Object event) {
         final EventOrigin eventOrigin = event.getClass().getAnnotation(EventOrigin.class);
         if (eventOrigin == null) {
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import org.eclipse.che.dto.server.BinaryDtoWriter;
+import org.eclipse.che.dto.server.BinarySerializable;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.shared.DTO;
+
+import javax.inject.Singleton;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Implementation of {@link MessageBodyReader} and {@link MessageBodyWriter} for DTOs and lists of DTOs in compact binary format,
+ * see {@link BinaryDtoWriter}. Intended for communication between Che servers, browsers always get JSON.
+ *
+ * @see CheJsonProvider
+ * @see BinaryDtoResponseFilter
+ */
+@Singleton
+@Provider
+@Produces({BinaryDtoWriter.MEDIA_TYPE})
+@Consumes({BinaryDtoWriter.MEDIA_TYPE})
+public class CheBinaryDtoProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(BinaryDtoWriter.MEDIA_TYPE);
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        // generic type of list isn't available when it is wrapped into Response, elements are checked while writing
+        return BinarySerializable.class.isAssignableFrom(type) || List.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
+        httpHeaders.putSingle(HttpHeaders.CACHE_CONTROL, "public, no-cache, no-store, no-transform");
+        if (t instanceof List) {
+            DtoFactory.getInstance().toBinaryArray((List<?>)t, entityStream);
+        } else {
+            DtoFactory.getInstance().toBinary(t, entityStream);
+        }
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type.isAnnotationPresent(DTO.class) || (type.isAssignableFrom(List.class) && isDtoList(genericType));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException,
+                                                                                                        WebApplicationException {
+        if (type.isAnnotationPresent(DTO.class)) {
+            return DtoFactory.getInstance().createDtoFromBinary(entityStream, type);
+        }
+        final Class<?> elementClass = (Class<?>)((ParameterizedType)genericType).getActualTypeArguments()[0];
+        return DtoFactory.getInstance().createListDtoFromBinary(entityStream, elementClass);
+    }
+
+    /** Checks whether the generic type is a list which contains DTOs, e.g. {@code List<WorkspaceDto>}. */
+    private static boolean isDtoList(Type genericType) {
+        if (genericType instanceof ParameterizedType) {
+            final Type elementType = ((ParameterizedType)genericType).getActualTypeArguments()[0];
+            return elementType instanceof Class && ((Class<?>)elementType).isAnnotationPresent(DTO.class);
+        }
+        return false;
+    }
+}
@@ -28,8 +28,10 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
@@ -80,8 +82,12 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
         // Add Cache-Control before start write body.
         httpHeaders.putSingle(HttpHeaders.CACHE_CONTROL, "public, no-cache, no-store, no-transform");
         if (t instanceof JsonSerializable) {
-            try (Writer w = new OutputStreamWriter(entityStream, Charset.forName("UTF-8"))) {
-                w.write(((JsonSerializable)t).toJson());
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(entityStream, Charset.forName("UTF-8")))) {
+                DtoFactory.getInstance().toJson(t, w);
+            }
+        } else if (t instanceof List && isDtoList(genericType)) {
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(entityStream, Charset.forName("UTF-8")))) {
+                DtoFactory.getInstance().toJsonArray((List<?>)t, w);
             }
         } else {
             delegate.writeTo(t, type, genericType, annotations, mediaType, httpHeaders, entityStream);
@@ -100,20 +106,31 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
     public T readFrom(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType,
                       MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException, WebApplicationException {
         if (type.isAnnotationPresent(DTO.class)) {
-            return DtoFactory.getInstance().createDtoFromJson(entityStream, type);
+            // DTO is read directly from the stream, the whole body is never loaded into memory
+            return DtoFactory.getInstance().createDtoFromJson(new InputStreamReader(entityStream, Charset.forName("UTF-8")), type);
         } else if (type.isAssignableFrom(List.class) && genericType instanceof ParameterizedType) {
             ParameterizedType parameterizedType = (ParameterizedType)genericType;
             Type elementType = parameterizedType.getActualTypeArguments()[0];
             if (elementType instanceof Class) {
                 Class elementClass = (Class)elementType;
                 if (elementClass.isAnnotationPresent(DTO.class)) {
-                    return (T)DtoFactory.getInstance().createListDtoFromJson(entityStream, elementClass);
+                    return (T)DtoFactory.getInstance().createListDtoFromJson(new InputStreamReader(entityStream, Charset.forName("UTF-8")),
+                                                                             elementClass);
                 }
             }
         }
         return (T)delegate.readFrom(type, genericType, annotations, mediaType, httpHeaders, entityStream);
     }
 
+    /** Checks whether the generic type is a list which contains DTOs, e.g. {@code List<WorkspaceDto>}. */
+    private static boolean isDtoList(Type genericType) {
+        if (genericType instanceof ParameterizedType) {
+            final Type elementType = ((ParameterizedType)genericType).getActualTypeArguments()[0];
+            return elementType instanceof Class && ((Class<?>)elementType).isAnnotationPresent(DTO.class);
+        }
+        return false;
+    }
+
     /**
      * Get Set of classes that we never try to serialize or deserialize. Returned Set is mutable and new classes may be added in ignored
      * Set.
@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.rest;
 
-import com.google.common.io.CharStreams;
+import com.google.common.io.ByteStreams;
 
 import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ConflictException;
@@ -23,6 +23,7 @@ import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.subject.Subject;
+import org.eclipse.che.dto.server.BinaryDtoWriter;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
@@ -35,18 +36,21 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.Reader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -57,6 +61,11 @@ import static java.util.Objects.requireNonNull;
  * <p>The instance of this request is reusable, which means that
  * it is possible to call {@link #request()} method more than one time per instance
  *
+ * <p>Connection settings, limits and executor for asynchronous requests are shared
+ * by all the requests created by the same {@link DefaultHttpJsonRequestFactory}.
+ * Request body is streamed to the connection, response body is always read completely,
+ * so the JDK reuses the connection for next requests.
+ *
  * @author Yevhenii Voevodin
  * @see DefaultHttpJsonRequestFactory
  */
@@ -64,26 +73,42 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
 
     private static final int      DEFAULT_QUERY_PARAMS_LIST_SIZE = 5;
     private static final Object[] EMPTY_ARRAY                    = new Object[0];
+    private static final int      STREAMING_CHUNK_SIZE           = 8192;
 
-    private final String url;
+    private final String                        url;
+    private final DefaultHttpJsonRequestFactory factory;
 
     private int                   timeout;
     private String                method;
     private Object                body;
     private List<Pair<String, ?>> queryParams;
     private String                authorizationHeaderValue;
+    private boolean               binaryDto;
 
-    protected DefaultHttpJsonRequest(String url, String method) {
+    protected DefaultHttpJsonRequest(String url, String method, DefaultHttpJsonRequestFactory factory) {
         this.url = requireNonNull(url, "Required non-null url");
         this.method = method;
+        this.factory = requireNonNull(factory, "Required non-null request factory");
+    }
+
+    protected DefaultHttpJsonRequest(String url, String method) {
+        this(url, method, DefaultHttpJsonRequestFactory.DEFAULT);
+    }
+
+    protected DefaultHttpJsonRequest(String url, DefaultHttpJsonRequestFactory factory) {
+        this(url, HttpMethod.GET, factory);
     }
 
     protected DefaultHttpJsonRequest(String url) {
         this(url, HttpMethod.GET);
     }
 
+    protected DefaultHttpJsonRequest(Link link, DefaultHttpJsonRequestFactory factory) {
+        this(requireNonNull(link, "Required non-null link").getHref(), link.getMethod(), factory);
+    }
+
     protected DefaultHttpJsonRequest(Link link) {
-        this(requireNonNull(link, "Required non-null link").getHref(), link.getMethod());
+        this(link, DefaultHttpJsonRequestFactory.DEFAULT);
     }
 
     @Override
@@ -134,6 +159,12 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
         return this;
     }
 
+    @Override
+    public HttpJsonRequest preferBinaryDto() {
+        binaryDto = true;
+        return this;
+    }
+
     @Override
     public String getUrl() {
         final UriBuilder ub = UriBuilder.fromUri(url);
@@ -159,6 +190,12 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
         return doRequest(timeout, url, method, body, queryParams, authorizationHeaderValue);
     }
 
+    /** Performs this request in the thread pool of the {@link DefaultHttpJsonRequestFactory} which created this request. */
+    @Override
+    public CompletableFuture<HttpJsonResponse> asyncRequest() {
+        return asyncRequest(factory.getAsyncExecutor());
+    }
+
     /**
      * Makes this request using {@link HttpURLConnection}.
      *
@@ -167,7 +204,7 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
      * <br>Encodes query parameters in "UTF-8".
      *
      * @param timeout
-     *         request timeout, used only if it is greater than 0
+     *         request timeout, used only if it is greater than 0, otherwise timeouts of request factory are used
      * @param url
      *         request url
      * @param method
@@ -220,13 +257,40 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
             }
             url = ub.build().toString();
         }
-        final HttpURLConnection conn = (HttpURLConnection)new URL(url).openConnection();
-        conn.setConnectTimeout(timeout > 0 ? timeout : 60000);
-        conn.setReadTimeout(timeout > 0 ? timeout : 60000);
+        final URL requestUrl = new URL(url);
+        final int connectTimeout = timeout > 0 ? timeout : factory.getConnectTimeout();
+        final Semaphore connection = factory.acquireConnection(requestUrl, connectTimeout);
+        try {
+            return makeRequest(requestUrl, connectTimeout, timeout > 0 ? timeout : factory.getReadTimeout(), method, body,
+                               authorizationHeaderValue, authToken);
+        } finally {
+            factory.releaseConnection(connection);
+        }
+    }
+
+    private DefaultHttpJsonResponse makeRequest(URL url,
+                                                int connectTimeout,
+                                                int readTimeout,
+                                                String method,
+                                                Object body,
+                                                String authorizationHeaderValue,
+                                                String authToken) throws IOException,
+                                                                         ServerException,
+                                                                         ForbiddenException,
+                                                                         NotFoundException,
+                                                                         UnauthorizedException,
+                                                                         ConflictException,
+                                                                         BadRequestException {
+        final HttpURLConnection conn = (HttpURLConnection)url.openConnection();
+        conn.setConnectTimeout(connectTimeout);
+        conn.setReadTimeout(readTimeout);
+        // connection is closed only if its response isn't read completely, otherwise it is kept alive for next requests
+        boolean reusable = false;
         try {
             conn.setRequestMethod(method);
             //drop a hint for server side that we want to receive application/json
-            conn.addRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+            conn.addRequestProperty(HttpHeaders.ACCEPT, binaryDto ? BinaryDtoWriter.MEDIA_TYPE + ", " + MediaType.APPLICATION_JSON
+                                                                  : MediaType.APPLICATION_JSON);
             if (!isNullOrEmpty(authorizationHeaderValue)) {
                 conn.setRequestProperty(HttpHeaders.AUTHORIZATION, authorizationHeaderValue);
             } else if (authToken != null) {
@@ -235,14 +299,16 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
             if (body != null) {
                 conn.addRequestProperty(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
                 conn.setDoOutput(true);
+                // otherwise the JDK buffers the whole body in memory to compute its length
+                conn.setChunkedStreamingMode(STREAMING_CHUNK_SIZE);
 
                 if (HttpMethod.DELETE.equals(method)) { //to avoid jdk bug described here http://bugs.java.com/view_bug.do?bug_id=7157360
                     conn.setRequestMethod(HttpMethod.POST);
                     conn.setRequestProperty("X-HTTP-Method-Override", HttpMethod.DELETE);
                 }
 
-                try (OutputStream output = conn.getOutputStream()) {
-                    output.write(DtoFactory.getInstance().toJson(body).getBytes());
+                try (Writer output = new BufferedWriter(new OutputStreamWriter(conn.getOutputStream(), UTF_8))) {
+                    DtoFactory.getInstance().toJson(body, output);
                 }
             }
 
@@ -252,10 +318,8 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
                 if (in == null) {
                     in = conn.getInputStream();
                 }
-                final String str;
-                try (Reader reader = new InputStreamReader(in)) {
-                    str = CharStreams.toString(reader);
-                }
+                final String str = new String(readFullyAndClose(in), UTF_8);
+                reusable = true;
                 final String contentType = conn.getContentType();
                 if (contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON)) {
                     final ServiceError serviceError = DtoFactory.getInstance().createDtoFromJson(str, ServiceError.class);
@@ -278,18 +342,28 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
                 }
                 // Can't parse content as json or content has format other we expect for error.
                 throw new IOException(String.format("Failed access: %s, method: %s, response code: %d, message: %s",
-                                                    UriBuilder.fromUri(url).replaceQuery("token").build(), method, responseCode, str));
+                                                    UriBuilder.fromUri(url.toString()).replaceQuery("token").build(), method, responseCode,
+                                                    str));
             }
             final String contentType = conn.getContentType();
-            if (contentType != null && !contentType.startsWith(MediaType.APPLICATION_JSON)) {
+            final boolean binaryResponse = binaryDto && contentType != null && contentType.startsWith(BinaryDtoWriter.MEDIA_TYPE);
+            if (contentType != null && !contentType.startsWith(MediaType.APPLICATION_JSON) && !binaryResponse) {
                 throw new IOException(conn.getResponseMessage());
             }
 
-            try (Reader reader = new InputStreamReader(conn.getInputStream())) {
-                return new DefaultHttpJsonResponse(CharStreams.toString(reader), responseCode);
-            }
+            final byte[] responseBody = readFullyAndClose(conn.getInputStream());
+            reusable = true;
+            return new DefaultHttpJsonResponse(responseBody, responseCode, binaryResponse);
         } finally {
-            conn.disconnect();
+            if (!reusable) {
+                conn.disconnect();
+            }
+        }
+    }
+
+    private static byte[] readFullyAndClose(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            return ByteStreams.toByteArray(stream);
         }
     }
 
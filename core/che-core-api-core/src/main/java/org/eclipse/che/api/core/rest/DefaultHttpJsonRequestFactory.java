@@ -10,26 +10,163 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.rest;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Creates {@link DefaultHttpJsonRequest} instances.
  *
+ * <p>Requests created by the same factory share connection settings:
+ * <ul>
+ * <li>connections are kept alive and reused by the JDK for subsequent requests to the same host</li>
+ * <li>number of concurrent connections to the same host is limited, request waits for a free connection
+ * at most connect timeout</li>
+ * <li>asynchronous requests are performed by the bounded thread pool of the factory</li>
+ * </ul>
+ *
  * @author Yevhenii Voevodin
  */
 @Singleton
 public class DefaultHttpJsonRequestFactory implements HttpJsonRequestFactory {
+    public static final String CONNECT_TIMEOUT_MS_PROPERTY       = "che.http.client.connect_timeout_ms";
+    public static final String READ_TIMEOUT_MS_PROPERTY          = "che.http.client.read_timeout_ms";
+    public static final String MAX_CONNECTIONS_PER_HOST_PROPERTY = "che.http.client.max_connections_per_host";
+    public static final String ASYNC_THREADS_PROPERTY            = "che.http.client.async_threads";
+
+    /**
+     * Factory used by requests created directly, without factory.
+     * It is not managed by the container, its pool is shut down with {@link #shutdownDefault()}.
+     */
+    static final DefaultHttpJsonRequestFactory DEFAULT = new DefaultHttpJsonRequestFactory();
+
+    @Inject(optional = true)
+    @Named(CONNECT_TIMEOUT_MS_PROPERTY)
+    private int connectTimeoutMs = 60000;
+
+    @Inject(optional = true)
+    @Named(READ_TIMEOUT_MS_PROPERTY)
+    private int readTimeoutMs = 60000;
+
+    @Inject(optional = true)
+    @Named(MAX_CONNECTIONS_PER_HOST_PROPERTY)
+    private int maxConnectionsPerHost = 20;
+
+    @Inject(optional = true)
+    @Named(ASYNC_THREADS_PROPERTY)
+    private int asyncThreads = 10;
+
+    private final ConcurrentMap<String, Semaphore> hostConnections = new ConcurrentHashMap<>();
+
+    private volatile ExecutorService asyncExecutor;
 
     @Override
     public HttpJsonRequest fromUrl(@NotNull String url) {
-        return new DefaultHttpJsonRequest(url);
+        return new DefaultHttpJsonRequest(url, this);
     }
 
     @Override
     public HttpJsonRequest fromLink(@NotNull Link link) {
-        return new DefaultHttpJsonRequest(link);
+        return new DefaultHttpJsonRequest(link, this);
+    }
+
+    /** Stops threads of asynchronous requests of this factory. */
+    @PreDestroy
+    public void shutdown() {
+        shutdownAsyncExecutor();
+    }
+
+    /** Stops threads of asynchronous requests of the {@link #DEFAULT} factory, called when the application is stopped. */
+    public static void shutdownDefault() {
+        DEFAULT.shutdownAsyncExecutor();
+    }
+
+    /** Stops threads of asynchronous requests, the next asynchronous request starts a new pool. */
+    synchronized void shutdownAsyncExecutor() {
+        final ExecutorService executor = asyncExecutor;
+        if (executor != null) {
+            asyncExecutor = null;
+            executor.shutdownNow();
+        }
+    }
+
+    int getConnectTimeout() {
+        return connectTimeoutMs;
+    }
+
+    int getReadTimeout() {
+        return readTimeoutMs;
+    }
+
+    /** Returns executor for asynchronous requests, threads are created on demand and die when they are idle. */
+    Executor getAsyncExecutor() {
+        ExecutorService executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    final ThreadPoolExecutor pool = new ThreadPoolExecutor(asyncThreads,
+                                                                           asyncThreads,
+                                                                           60L,
+                                                                           TimeUnit.SECONDS,
+                                                                           new LinkedBlockingQueue<>(),
+                                                                           new ThreadFactoryBuilder().setNameFormat("HttpJsonRequest-%d")
+                                                                                                     .setDaemon(true)
+                                                                                                     .build());
+                    pool.allowCoreThreadTimeOut(true);
+                    asyncExecutor = executor = pool;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Waits for a free connection to the host of the given url.
+     *
+     * @return permit which must be released with {@link #releaseConnection(Semaphore)} when the request is completed,
+     * or {@code null} when number of connections is not limited
+     * @throws IOException
+     *         when there is no free connection during connect timeout or waiting is interrupted
+     */
+    Semaphore acquireConnection(URL url, int timeoutMs) throws IOException {
+        if (maxConnectionsPerHost <= 0) {
+            return null;
+        }
+        final int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        final String host = url.getProtocol() + "://" + url.getHost() + ':' + port;
+        final Semaphore connections = hostConnections.computeIfAbsent(host, key -> new Semaphore(maxConnectionsPerHost, true));
+        try {
+            if (!connections.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException(String.format("Timeout waiting for a free connection to '%s', %d connections per host are in use",
+                                                    host, maxConnectionsPerHost));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a free connection to " + host, e);
+        }
+        return connections;
+    }
+
+    void releaseConnection(Semaphore connections) {
+        if (connections != null) {
+            connections.release();
+        }
     }
 }
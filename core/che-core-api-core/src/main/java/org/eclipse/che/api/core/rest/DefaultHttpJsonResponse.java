@@ -10,7 +10,10 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.rest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Map;
@@ -19,12 +22,18 @@ import org.eclipse.che.commons.json.JsonHelper;
 import org.eclipse.che.commons.json.JsonParseException;
 import org.eclipse.che.dto.server.DtoFactory;
 
+import com.google.gson.JsonIOException;
 import com.google.gson.reflect.TypeToken;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
 /**
  * Default implementation of {@link HttpJsonResponse}.
+ *
+ * <p>When response is created from the raw UTF-8 body, DTOs are parsed directly from the body bytes
+ * and the body is decoded to string only if {@link #asString()} is called. Body in binary DTO format,
+ * see {@link HttpJsonRequest#preferBinaryDto()}, can be read only as DTO or list of DTOs.
  * 
  * @author Yevhenii Voevodin
  */
@@ -32,29 +41,70 @@ public class DefaultHttpJsonResponse implements HttpJsonResponse {
 
     private static final Type STRING_MAP_TYPE = new TypeToken<Map<String, String>>() {}.getType();
 
-    private final String responseBody;
-    private final int responseCode;
+    private final byte[]  responseBytes;
+    private final int     responseCode;
+    private final boolean binary;
+
+    private String responseBody;
 
     protected DefaultHttpJsonResponse(String response, int responseCode) {
         this.responseBody = response;
+        this.responseBytes = null;
         this.responseCode = responseCode;
+        this.binary = false;
+    }
+
+    protected DefaultHttpJsonResponse(byte[] response, int responseCode) {
+        this(response, responseCode, false);
+    }
+
+    protected DefaultHttpJsonResponse(byte[] response, int responseCode, boolean binary) {
+        this.responseBytes = requireNonNull(response, "Required non-null response");
+        this.responseCode = responseCode;
+        this.binary = binary;
     }
 
     @Override
     public String asString() {
+        if (binary) {
+            throw new IllegalStateException("Response body is in binary DTO format, it can be read only as DTO");
+        }
+        if (responseBody == null && responseBytes != null) {
+            responseBody = new String(responseBytes, UTF_8);
+        }
         return responseBody;
     }
 
     @Override
     public <T> T asDto(Class<T> dtoInterface) {
         requireNonNull(dtoInterface, "Required non-null dto interface");
-        return DtoFactory.getInstance().createDtoFromJson(responseBody, dtoInterface);
+        if (responseBytes == null) {
+            return DtoFactory.getInstance().createDtoFromJson(responseBody, dtoInterface);
+        }
+        try {
+            if (binary) {
+                return DtoFactory.getInstance().createDtoFromBinary(new ByteArrayInputStream(responseBytes), dtoInterface);
+            }
+            return DtoFactory.getInstance().createDtoFromJson(newBodyReader(), dtoInterface);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
     }
 
     @Override
     public <T> List<T> asList(Class<T> dtoInterface) {
         requireNonNull(dtoInterface, "Required non-null dto interface");
-        return DtoFactory.getInstance().createListDtoFromJson(responseBody, dtoInterface);
+        if (responseBytes == null) {
+            return DtoFactory.getInstance().createListDtoFromJson(responseBody, dtoInterface);
+        }
+        try {
+            if (binary) {
+                return DtoFactory.getInstance().createListDtoFromBinary(new ByteArrayInputStream(responseBytes), dtoInterface);
+            }
+            return DtoFactory.getInstance().createListDtoFromJson(newBodyReader(), dtoInterface);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
     }
 
     @Override
@@ -67,7 +117,7 @@ public class DefaultHttpJsonResponse implements HttpJsonResponse {
     public <T> T as(Class<T> clazz, Type genericType) throws IOException {
         requireNonNull(clazz, "Required non-null class");
         try {
-            return JsonHelper.fromJson(responseBody, clazz, genericType);
+            return JsonHelper.fromJson(asString(), clazz, genericType);
         } catch (JsonParseException jsonEx) {
             throw new IOException(jsonEx.getLocalizedMessage(), jsonEx);
         }
@@ -77,5 +127,9 @@ public class DefaultHttpJsonResponse implements HttpJsonResponse {
     public int getResponseCode() {
         return responseCode;
     }
+
+    private Reader newBodyReader() {
+        return new InputStreamReader(new ByteArrayInputStream(responseBytes), UTF_8);
+    }
 }
 
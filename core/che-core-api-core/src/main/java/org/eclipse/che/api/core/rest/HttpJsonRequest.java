@@ -19,6 +19,7 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.UnauthorizedException;
 import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.dto.server.JsonSerializable;
 
 import javax.validation.constraints.NotNull;
@@ -27,6 +28,8 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Defines simple set of methods for requesting json objects.
@@ -141,6 +144,19 @@ public interface HttpJsonRequest {
      */
     HttpJsonRequest setTimeout(int timeoutMs);
 
+    /**
+     * Asks server to send DTOs in compact binary format instead of JSON, see {@link CheBinaryDtoProvider}.
+     * Server sends JSON if response is not a DTO or a list of DTOs, or if it doesn't support the binary format.
+     * Binary response can be read only with {@link HttpJsonResponse#asDto(Class)} and {@link HttpJsonResponse#asList(Class)}.
+     *
+     * <p>Default implementation does nothing, so response is JSON.
+     *
+     * @return this request instance
+     */
+    default HttpJsonRequest preferBinaryDto() {
+        return this;
+    }
+
     /**
      * Returns HTTP URL built from source URL
      * and query parameters added to this request.
@@ -177,6 +193,41 @@ public interface HttpJsonRequest {
                                       ConflictException,
                                       BadRequestException;
 
+    /**
+     * Makes this request asynchronously, see {@link #request()}.
+     *
+     * <p>Default implementation makes request in the caller thread,
+     * implementations which have own thread pool should override it.
+     *
+     * @return future which is completed with response of this request or exceptionally
+     * with one of exceptions declared by {@link #request()}
+     */
+    default CompletableFuture<HttpJsonResponse> asyncRequest() {
+        return asyncRequest(Runnable::run);
+    }
+
+    /**
+     * Makes this request asynchronously with the given executor, see {@link #request()}.
+     * {@link EnvironmentContext} of the caller thread is used for the request.
+     *
+     * @param executor
+     *         executor which performs the request
+     * @return future which is completed with response of this request or exceptionally
+     * with one of exceptions declared by {@link #request()}
+     */
+    default CompletableFuture<HttpJsonResponse> asyncRequest(@NotNull Executor executor) {
+        Objects.requireNonNull(executor, "Required non-null executor");
+        final CompletableFuture<HttpJsonResponse> future = new CompletableFuture<>();
+        executor.execute(ThreadLocalPropagateContext.wrap(() -> {
+            try {
+                future.complete(request());
+            } catch (Exception x) {
+                future.completeExceptionally(x);
+            }
+        }));
+        return future;
+    }
+
     /**
      * Uses {@link HttpMethod#GET} as a request method.
      *
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.everrest;
+
+import org.eclipse.che.api.core.rest.CheBinaryDtoProvider;
+import org.eclipse.che.dto.server.BinarySerializable;
+import org.everrest.core.ApplicationContext;
+import org.everrest.core.Filter;
+import org.everrest.core.GenericContainerResponse;
+import org.everrest.core.ResponseFilter;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+/**
+ * Switches JSON responses with DTO entities to the compact binary format when client explicitly accepts it,
+ * e.g. {@code Accept: application/x-che-dto, application/json;q=0.9}.
+ *
+ * <p>Services declare {@code application/json} only, so clients that don't mention the binary media type
+ * (browsers, IDE) are not affected. Wildcards in {@code Accept} header never enable the binary format.
+ * Errors are always sent as JSON, clients parse them regardless of the requested format.
+ *
+ * @see CheBinaryDtoProvider
+ */
+@Filter
+public class BinaryDtoResponseFilter implements ResponseFilter {
+
+    @Override
+    public void doFilter(GenericContainerResponse containerResponse) {
+        final Object entity = containerResponse.getEntity();
+        if (entity == null
+            || containerResponse.getStatus() / 100 != 2
+            || !MediaType.APPLICATION_JSON_TYPE.isCompatible(containerResponse.getContentType())
+            || !isBinarySerializable(entity)
+            || !acceptsBinary(ApplicationContext.getCurrent().getHttpHeaders().getAcceptableMediaTypes())) {
+            return;
+        }
+        containerResponse.setResponse(Response.fromResponse(containerResponse.getResponse())
+                                              .type(CheBinaryDtoProvider.MEDIA_TYPE)
+                                              .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                                              .build());
+    }
+
+    private static boolean isBinarySerializable(Object entity) {
+        if (entity instanceof List) {
+            final List<?> entities = (List<?>)entity;
+            if (entities.isEmpty()) {
+                return false;
+            }
+            for (Object element : entities) {
+                if (element != null && !(element instanceof BinarySerializable)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return entity instanceof BinarySerializable;
+    }
+
+    private static boolean acceptsBinary(List<MediaType> acceptableMediaTypes) {
+        for (MediaType mediaType : acceptableMediaTypes) {
+            if (CheBinaryDtoProvider.MEDIA_TYPE.getType().equalsIgnoreCase(mediaType.getType())
+                && CheBinaryDtoProvider.MEDIA_TYPE.getSubtype().equalsIgnoreCase(mediaType.getSubtype())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
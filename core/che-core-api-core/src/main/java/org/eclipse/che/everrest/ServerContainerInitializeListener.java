@@ -13,6 +13,7 @@ package org.eclipse.che.everrest;
 import com.google.common.base.MoreObjects;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import org.eclipse.che.api.core.rest.DefaultHttpJsonRequestFactory;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.subject.Subject;
 import org.everrest.core.DependencySupplier;
@@ -111,6 +112,7 @@ public class ServerContainerInitializeListener implements ServletContextListener
                 executor.shutdownNow();
             }
         }
+        DefaultHttpJsonRequestFactory.shutdownDefault();
     }
 
     protected ServerEndpointConfig createWsServerEndpointConfig(ServletContext servletContext) {
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link EventBatcher}.
+ */
+public class EventBatcherTest {
+    private final BlockingQueue<List<Object>> sent = new LinkedBlockingQueue<>();
+
+    private EventBatcher<String> batcher;
+
+    @AfterMethod
+    public void tearDown() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+        sent.clear();
+    }
+
+    @Test
+    public void shouldSendBatchWhenItReachesMaxSize() throws Exception {
+        batcher = new EventBatcher<>("test", 60_000, 3, (key, events, time) -> sent.add(new ArrayList<>(events)));
+
+        batcher.add("channel", "a");
+        batcher.add("channel", "b");
+        batcher.add("channel", "c");
+        batcher.add("channel", "d");
+
+        assertEquals(sent.poll(5, TimeUnit.SECONDS), asList("a", "b", "c"));
+        assertNull(sent.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldSendBatchWhenWindowExpires() throws Exception {
+        batcher = new EventBatcher<>("test", 100, 100, (key, events, time) -> sent.add(new ArrayList<>(events)));
+
+        batcher.add("channel", "a");
+        batcher.add("channel", "b");
+
+        assertEquals(sent.poll(5, TimeUnit.SECONDS), asList("a", "b"));
+    }
+
+    @Test
+    public void shouldAccumulateEventsPerKey() throws Exception {
+        final List<String> keys = new ArrayList<>();
+        batcher = new EventBatcher<>("test", 60_000, 2, (key, events, time) -> {
+            keys.add(key);
+            sent.add(new ArrayList<>(events));
+        });
+
+        batcher.add("first", "a");
+        batcher.add("second", "b");
+        batcher.add("first", "c");
+
+        assertEquals(sent.poll(5, TimeUnit.SECONDS), asList("a", "c"));
+        assertEquals(keys, asList("first"));
+    }
+
+    @Test
+    public void shouldSendPendingEventsOnStop() throws Exception {
+        batcher = new EventBatcher<>("test", 60_000, 100, (key, events, time) -> sent.add(new ArrayList<>(events)));
+
+        batcher.add("channel", "a");
+        batcher.stop();
+
+        assertEquals(sent.poll(), asList("a"));
+    }
+
+    @Test
+    public void shouldSendQueuedFullBatchesBeforePendingOnStop() throws Exception {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        batcher = new EventBatcher<>("test", 60_000, 1, (key, events, time) -> {
+            sending.countDown();
+            release.await();
+            sent.add(new ArrayList<>(events));
+        });
+        batcher.add("channel", "a");
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        batcher.add("channel", "b");
+
+        final Thread stopping = new Thread(batcher::stop);
+        stopping.start();
+        release.countDown();
+        stopping.join(5000);
+
+        assertEquals(sent.poll(), asList("a"));
+        assertEquals(sent.poll(), asList("b"));
+    }
+
+    @Test
+    public void shouldDropEventsAddedAfterStop() throws Exception {
+        batcher = new EventBatcher<>("test", 60_000, 1, (key, events, time) -> sent.add(new ArrayList<>(events)));
+        batcher.stop();
+
+        batcher.add("channel", "a");
+
+        assertNull(sent.poll(200, TimeUnit.MILLISECONDS));
+    }
+}
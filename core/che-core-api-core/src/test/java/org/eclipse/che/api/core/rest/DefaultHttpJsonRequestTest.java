@@ -45,6 +45,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 import javax.ws.rs.HttpMethod;
 
@@ -60,7 +62,9 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 /**
  * Tests of {@link DefaultHttpJsonRequest}.
@@ -263,6 +267,48 @@ public class DefaultHttpJsonRequestTest {
         assertEquals(request.request().asString(), TestService.JSON_OBJECT);
     }
 
+    @Test
+    public void shouldMakeAsyncRequest(ITestContext ctx) throws Exception {
+        final HttpJsonRequest request = new DefaultHttpJsonRequestFactory().fromUrl(getUrl(ctx) + "/application-json");
+
+        assertEquals(request.useGetMethod().asyncRequest().get().asString(), TestService.JSON_OBJECT);
+    }
+
+    @Test
+    public void shouldNotShutdownPoolOfDefaultFactoryWithInjectedFactory(ITestContext ctx) throws Exception {
+        final DefaultHttpJsonRequest request = new DefaultHttpJsonRequest(getUrl(ctx) + "/application-json");
+        request.useGetMethod().asyncRequest().get();
+        final ExecutorService defaultExecutor = (ExecutorService)DefaultHttpJsonRequestFactory.DEFAULT.getAsyncExecutor();
+
+        new DefaultHttpJsonRequestFactory().shutdown();
+
+        assertFalse(defaultExecutor.isShutdown());
+    }
+
+    @Test
+    public void shouldShutdownPoolOfDefaultFactory(ITestContext ctx) throws Exception {
+        final DefaultHttpJsonRequest request = new DefaultHttpJsonRequest(getUrl(ctx) + "/application-json");
+        request.useGetMethod().asyncRequest().get();
+        final ExecutorService defaultExecutor = (ExecutorService)DefaultHttpJsonRequestFactory.DEFAULT.getAsyncExecutor();
+
+        DefaultHttpJsonRequestFactory.shutdownDefault();
+
+        assertTrue(defaultExecutor.isShutdown());
+        assertEquals(request.asyncRequest().get().asString(), TestService.JSON_OBJECT);
+    }
+
+    @Test
+    public void shouldCompleteAsyncRequestExceptionallyWhenResponseCodeIs404(ITestContext ctx) throws Exception {
+        final HttpJsonRequest request = new DefaultHttpJsonRequestFactory().fromUrl(getUrl(ctx) + "/404/response-code-test");
+
+        try {
+            request.useGetMethod().asyncRequest().get();
+            fail("Expected exception was not thrown");
+        } catch (ExecutionException x) {
+            assertTrue(x.getCause() instanceof NotFoundException);
+        }
+    }
+
     @Test
     public void shouldEncodeRequestUrlInDefaultHttpJsonRequestAndDecodeInService(ITestContext ctx) throws Exception {
         final String base = getUrl(ctx) + "/decode";
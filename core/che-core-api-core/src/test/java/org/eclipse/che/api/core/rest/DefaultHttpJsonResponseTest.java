@@ -18,6 +18,7 @@ import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Set;
 
@@ -74,6 +75,21 @@ public class DefaultHttpJsonResponseTest {
         assertEquals(response.asList(Link.class), singletonList(testLink));
     }
     
+    @Test
+    public void shouldReadDtoFromBinaryBody() throws Exception {
+        final Link testLink = createLink("POST", "http://localhost:8080", "rel");
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DtoFactory.getInstance().toBinary(testLink, body);
+        final DefaultHttpJsonResponse response = new DefaultHttpJsonResponse(body.toByteArray(), 200, true);
+
+        assertEquals(response.asDto(Link.class), testLink);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldNotReturnBinaryBodyAsString() throws Exception {
+        new DefaultHttpJsonResponse(new byte[0], 200, true).asString();
+    }
+
     @Test(expectedExceptions = NullPointerException.class)
     public void shouldThrowNullPointerExceptionWhenClazzIsNull() throws Exception {
         new DefaultHttpJsonResponse("{}", 200).as(null, null);
@@ -11,6 +11,7 @@
 
 package org.eclipse.che.dto.generator;
 
+import org.eclipse.che.dto.server.BinaryDtoWriter;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
@@ -70,8 +71,13 @@ public class DtoImplServerTemplate extends DtoImpl {
         // equals, hashCode, serialization and copy constructor
         emitEqualsAndHashCode(methods, builder);
         emitSerializer(methods, builder);
+        emitStreamingSerializer(methods, builder);
         emitDeserializer(methods, builder);
         emitDeserializerShortcut(builder);
+        emitStreamingDeserializer(methods, builder);
+        List<Method> taggedMethods = getBinaryTaggedMethods(methods);
+        emitBinarySerializer(taggedMethods, builder);
+        emitBinaryDeserializer(taggedMethods, builder);
         emitCopyConstructor(methods, builder);
         // Delegation DTO methods.
         emitDelegateMethods(builder);
@@ -301,8 +307,14 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("\n");
         builder.append("    @Override\n");
         builder.append("    public String toJson() {\n");
-        // The default toJson() creates its own JSON for internal printing, thus keeping JSONs values is safe
-        builder.append("      return gson.toJson(toJsonElementInt(false));\n");
+        // The default toJson() streams fields directly thus there is no need to build and copy JSON tree
+        builder.append("      java.io.StringWriter out = new java.io.StringWriter();\n");
+        builder.append("      try {\n");
+        builder.append("        writeTo(newJsonWriter(out));\n");
+        builder.append("      } catch (IOException e) {\n");
+        builder.append("        throw new com.google.gson.JsonIOException(e);\n");
+        builder.append("      }\n");
+        builder.append("      return out.toString();\n");
         builder.append("    }\n");
         builder.append("\n");
         builder.append("    @Override\n");
@@ -451,6 +463,176 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
     }
 
+    /**
+     * Generates method that writes fields of DTO to a {@code JsonWriter} one by one. Output is the same as printed result of
+     * {@code toJsonElement()} but JSON tree for DTO and all nested DTOs, lists and maps isn't created.
+     */
+    private void emitStreamingSerializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void writeTo(JsonWriter out) throws IOException {\n");
+        if (isCompactJson()) {
+            builder.append("      out.beginArray();\n");
+            for (Method method : getters) {
+                emitStreamingSerializeFieldForMethodCompact(method, builder);
+            }
+            builder.append("      out.endArray();\n");
+        } else {
+            builder.append("      out.beginObject();\n");
+            for (Method getter : getters) {
+                emitStreamingSerializeFieldForMethod(getter, builder);
+            }
+            builder.append("      out.endObject();\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    private void emitStreamingSerializeFieldForMethod(Method getter, StringBuilder builder) {
+        builder.append("      out.name(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+        List<Type> expandedTypes = expandType(getter.getGenericReturnType());
+        emitStreamingSerializerImpl(expandedTypes, 0, builder, getJavaFieldName(getter.getName()), "      ");
+    }
+
+    private void emitStreamingSerializeFieldForMethodCompact(Method getter, StringBuilder builder) {
+        if (getter == null) {
+            builder.append("      out.nullValue();\n");
+            return;
+        }
+        List<Type> expandedTypes = expandType(getter.getGenericReturnType());
+        String fieldName = getJavaFieldName(getter.getName());
+        if (isLastMethod(getter) && isList(getRawClass(expandedTypes.get(0)))) {
+            // the same as for JSON tree, empty list in the last position is omitted
+            builder.append("      this.").append(getEnsureName(fieldName)).append("();\n");
+            builder.append("      if (!this.").append(fieldName).append(".isEmpty()) {\n");
+            emitStreamingSerializerImpl(expandedTypes, 0, builder, fieldName, "        ");
+            builder.append("      }\n");
+            return;
+        }
+        emitStreamingSerializerImpl(expandedTypes, 0, builder, fieldName, "      ");
+    }
+
+    /**
+     * Produces code to write the value of the given variable to the {@code out} JsonWriter.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java type that will be the input for serialization
+     * @param i
+     *         indentation string
+     */
+    private void emitStreamingSerializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i) {
+        Type type = expandedTypes.get(depth);
+        String value = depth == 0 ? "this." + inVar : inVar;
+        String childInVar = inVar + "_";
+        String entryVar = "entry" + depth;
+        Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass)) {
+            String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            // top level collection is always initialized, nested ones may be null
+            String j = i;
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            } else {
+                builder.append(i).append("if (").append(value).append(" == null) {\n");
+                builder.append(i).append("  out.nullValue();\n");
+                builder.append(i).append("} else {\n");
+                j = i + "  ";
+            }
+            builder.append(j).append("out.beginArray();\n");
+            builder.append(j).append("for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(value)
+                   .append(") {\n");
+            emitStreamingSerializerImpl(expandedTypes, depth + 1, builder, childInVar, j + "  ");
+            builder.append(j).append("}\n");
+            builder.append(j).append("out.endArray();\n");
+            if (depth > 0) {
+                builder.append(i).append("}\n");
+            }
+        } else if (isMap(rawClass)) {
+            String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            // top level collection is always initialized, nested ones may be null
+            String j = i;
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            } else {
+                builder.append(i).append("if (").append(value).append(" == null) {\n");
+                builder.append(i).append("  out.nullValue();\n");
+                builder.append(i).append("} else {\n");
+                j = i + "  ";
+            }
+            builder.append(j).append("out.beginObject();\n");
+            builder.append(j).append("for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                   .append(" : ").append(value).append(".entrySet()) {\n");
+            builder.append(j).append("  out.name(").append(entryVar).append(".getKey());\n");
+            builder.append(j).append("  ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                   .append(".getValue();\n");
+            emitStreamingSerializerImpl(expandedTypes, depth + 1, builder, childInVar, j + "  ");
+            builder.append(j).append("}\n");
+            builder.append(j).append("out.endObject();\n");
+            if (depth > 0) {
+                builder.append(i).append("}\n");
+            }
+        } else if (rawClass.isEnum()) {
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  out.value(").append(value).append(".name());\n");
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            emitStreamingSerializeDto(getImplNameForDto(rawClass), value, builder, i);
+        } else if (rawClass.equals(String.class)) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == boolean.class) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == int.class
+                   || rawClass == long.class
+                   || rawClass == double.class
+                   || rawClass == float.class
+                   || rawClass == short.class
+                   || rawClass == byte.class) {
+            // Write boxed numbers as JsonPrimitive does, e.g. float must not be widened to double
+            builder.append(i).append("out.value(").append(Primitives.wrap(rawClass).getName()).append(".valueOf(").append(value)
+                   .append("));\n");
+        } else if (rawClass == Boolean.class) {
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  out.value(").append(value).append(".booleanValue());\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("if (").append(value).append(" instanceof JsonElement) {\n");
+            builder.append(i).append("  gson.toJson((JsonElement)").append(value).append(", out);\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("}\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                emitStreamingSerializeDto(dtoImplementation.getCanonicalName(), value, builder, i);
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
+    private void emitStreamingSerializeDto(String implName, String value, StringBuilder builder, String i) {
+        builder.append(i).append("if (").append(value).append(" == null) {\n");
+        builder.append(i).append("  out.nullValue();\n");
+        builder.append(i).append("} else {\n");
+        builder.append(i).append("  ((").append(implName).append(")").append(value).append(").writeTo(out);\n");
+        builder.append(i).append("}\n");
+    }
+
     /** Generates a static factory method that creates a new instance based on a JsonElement. */
     private void emitDeserializer(List<Method> getters, StringBuilder builder) {
         // The default fromJsonElement(json) works in unsafe mode and clones the JSON's for 'any' properties
@@ -605,6 +787,411 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
     }
     
+    /**
+     * Generates a static factory method that creates a new instance reading fields directly from a {@code JsonReader}. Result is
+     * the same as for {@code fromJsonElement()} but JSON tree for DTO and all nested DTOs, lists and maps isn't created.
+     */
+    private void emitStreamingDeserializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName()).append(" readFrom(JsonReader in) throws IOException {\n");
+        builder.append("      if (in.peek() == JsonToken.NULL) {\n");
+        builder.append("        in.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        if (isCompactJson()) {
+            builder.append("      int index = 0;\n");
+            builder.append("      in.beginArray();\n");
+            builder.append("      while (in.hasNext()) {\n");
+            builder.append("        switch (index++) {\n");
+            for (Method method : getters) {
+                if (method != null) {
+                    int index = Preconditions.checkNotNull(method.getAnnotation(SerializationIndex.class)).value() - 1;
+                    emitStreamingDeserializeFieldForMethod(method, String.valueOf(index), builder);
+                }
+            }
+            builder.append("          default:\n");
+            builder.append("            in.skipValue();\n");
+            builder.append("        }\n");
+            builder.append("      }\n");
+            builder.append("      in.endArray();\n");
+        } else {
+            builder.append("      in.beginObject();\n");
+            builder.append("      while (in.hasNext()) {\n");
+            builder.append("        switch (in.nextName()) {\n");
+            for (Method getter : getters) {
+                emitStreamingDeserializeFieldForMethod(getter, quoteStringLiteral(getJsonFieldName(getter)), builder);
+            }
+            builder.append("          default:\n");
+            builder.append("            in.skipValue();\n");
+            builder.append("        }\n");
+            builder.append("      }\n");
+            builder.append("      in.endObject();\n");
+        }
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    private void emitStreamingDeserializeFieldForMethod(Method method, String caseLabel, StringBuilder builder) {
+        final String fieldName = getFieldNameFromGetterName(method.getName());
+        final String fieldNameOut = fieldName + "Out";
+        final Class<?> rawClass = method.getReturnType();
+        builder.append("          case ").append(caseLabel).append(": {\n");
+        if (rawClass.isPrimitive()) {
+            // null can't be assigned to primitive field, keep default value
+            builder.append("            if (in.peek() == JsonToken.NULL) {\n");
+            builder.append("              in.nextNull();\n");
+            builder.append("              break;\n");
+            builder.append("            }\n");
+        }
+        emitStreamingDeserializerImpl(expandType(method.getGenericReturnType()), 0, builder, fieldNameOut, "            ");
+        builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+        builder.append("            break;\n");
+        builder.append("          }\n");
+    }
+
+    /**
+     * Produces code to read value of the given type from the {@code in} JsonReader.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the java variable that will be the output for deserialization
+     * @param i
+     *         indentation string
+     */
+    private void emitStreamingDeserializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i) {
+        Type type = expandedTypes.get(depth);
+        String childOutVar = outVar + "_";
+        Class<?> rawClass = getRawClass(type);
+
+        if (isList(rawClass) || isMap(rawClass)) {
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (in.peek() == JsonToken.NULL) {\n");
+            builder.append(i).append("  in.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            if (isList(rawClass)) {
+                builder.append(i).append("  in.beginArray();\n");
+                builder.append(i).append("  while (in.hasNext()) {\n");
+                emitStreamingDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  in.endArray();\n");
+            } else {
+                String keyVar = "key" + depth;
+                builder.append(i).append("  in.beginObject();\n");
+                builder.append(i).append("  while (in.hasNext()) {\n");
+                builder.append(i).append("    String ").append(keyVar).append(" = in.nextName();\n");
+                emitStreamingDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar)
+                       .append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  in.endObject();\n");
+            }
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(".readFrom(in);\n");
+        } else if (rawClass == boolean.class) {
+            // the same as JsonPrimitive.getAsBoolean() string value is accepted as well
+            builder.append(i).append("boolean ").append(outVar)
+                   .append(" = in.peek() == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();\n");
+        } else if (rawClass == int.class || rawClass == long.class || rawClass == double.class) {
+            String primitiveName = rawClass.getSimpleName();
+            String primitiveNameCap = primitiveName.substring(0, 1).toUpperCase() + primitiveName.substring(1);
+            builder.append(i).append(primitiveName).append(" ").append(outVar).append(" = in.next").append(primitiveNameCap)
+                   .append("();\n");
+        } else if (rawClass == float.class) {
+            builder.append(i).append("float ").append(outVar).append(" = (float)in.nextDouble();\n");
+        } else if (rawClass == short.class || rawClass == byte.class) {
+            builder.append(i).append(rawClass.getSimpleName()).append(" ").append(outVar).append(" = (").append(rawClass.getSimpleName())
+                   .append(")in.nextInt();\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("JsonElement ").append(outVar).append(" = new JsonParser().parse(in);\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                       .append(dtoImplementation.getCanonicalName()).append(".readFrom(in);\n");
+            } else {
+                // Use gson to handle all other types, it reads value directly from the stream.
+                String rawClassName = rawClass.getName().replace('$', '.');
+                builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = gson.fromJson(in, ")
+                       .append(rawClassName).append(".class);\n");
+            }
+        }
+    }
+
+    /**
+     * Returns getters ordered by tags of the fields in binary format. Tag is the {@link SerializationIndex} of the field
+     * if it is set, otherwise it is computed from JSON name of the field, see {@link BinaryDtoWriter#fieldTag(String)},
+     * so adding or removing other fields doesn't change it.
+     */
+    private List<Method> getBinaryTaggedMethods(List<Method> getters) {
+        List<Method> tagged = new ArrayList<>(getters.size());
+        for (Method getter : getters) {
+            if (getter != null) {
+                tagged.add(getter);
+            }
+        }
+        tagged.sort((m1, m2) -> Integer.compare(getBinaryTag(m1), getBinaryTag(m2)));
+        for (int i = 1; i < tagged.size(); i++) {
+            if (getBinaryTag(tagged.get(i - 1)) == getBinaryTag(tagged.get(i))) {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Fields '" +
+                                                   getJsonFieldName(tagged.get(i - 1)) + "' and '" +
+                                                   getJsonFieldName(tagged.get(i)) + "' have the same binary tag");
+            }
+        }
+        return tagged;
+    }
+
+    private int getBinaryTag(Method getter) {
+        SerializationIndex serializationIndex = getter.getAnnotation(SerializationIndex.class);
+        return serializationIndex != null ? serializationIndex.value() : BinaryDtoWriter.fieldTag(getJsonFieldName(getter));
+    }
+
+    /**
+     * Generates method that writes fields of DTO in binary format to a {@code BinaryDtoWriter}. Fields are identified by tags,
+     * see {@link #getBinaryTaggedMethods(List)}, names of the fields aren't written. Compact DTOs are written in the same way.
+     */
+    private void emitBinarySerializer(List<Method> taggedMethods, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void writeTo(BinaryDtoWriter out) throws IOException {\n");
+        builder.append("      out.beginObject();\n");
+        for (Method getter : taggedMethods) {
+            builder.append("      out.field(").append(getBinaryTag(getter)).append(");\n");
+            emitBinarySerializerImpl(expandType(getter.getGenericReturnType()), 0, builder, getJavaFieldName(getter.getName()), "      ");
+        }
+        builder.append("      out.endObject();\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to write the value of the given variable to the {@code out} BinaryDtoWriter.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java type that will be the input for serialization
+     * @param i
+     *         indentation string
+     */
+    private void emitBinarySerializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i) {
+        Type type = expandedTypes.get(depth);
+        String value = depth == 0 ? "this." + inVar : inVar;
+        String childInVar = inVar + "_";
+        String entryVar = "entry" + depth;
+        Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            // top level collection is always initialized, nested ones may be null
+            String j = i;
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            } else {
+                builder.append(i).append("if (").append(value).append(" == null) {\n");
+                builder.append(i).append("  out.nullValue();\n");
+                builder.append(i).append("} else {\n");
+                j = i + "  ";
+            }
+            if (isList(rawClass)) {
+                builder.append(j).append("out.beginArray(").append(value).append(".size());\n");
+                builder.append(j).append("for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(value)
+                       .append(") {\n");
+            } else {
+                builder.append(j).append("out.beginMap(").append(value).append(".size());\n");
+                builder.append(j).append("for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                       .append(" : ").append(value).append(".entrySet()) {\n");
+                builder.append(j).append("  out.key(").append(entryVar).append(".getKey());\n");
+                builder.append(j).append("  ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                       .append(".getValue();\n");
+            }
+            emitBinarySerializerImpl(expandedTypes, depth + 1, builder, childInVar, j + "  ");
+            builder.append(j).append("}\n");
+            if (depth > 0) {
+                builder.append(i).append("}\n");
+            }
+        } else if (rawClass.isEnum()) {
+            builder.append(i).append("out.value(").append(value).append(" == null ? null : ").append(value).append(".name());\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            emitBinarySerializeDto(getImplNameForDto(rawClass), value, builder, i);
+        } else if (rawClass == String.class
+                   || rawClass == boolean.class
+                   || rawClass == long.class
+                   || rawClass == double.class
+                   || rawClass == float.class) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == int.class || rawClass == short.class || rawClass == byte.class) {
+            builder.append(i).append("out.value((long)").append(value).append(");\n");
+        } else if (rawClass == Boolean.class
+                   || rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            String unboxed = Primitives.unwrap(rawClass) == float.class || Primitives.unwrap(rawClass) == double.class
+                             || rawClass == Boolean.class ? Primitives.unwrap(rawClass).getName() : "long";
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  out.value(").append(value).append(".").append(unboxed).append("Value());\n");
+            builder.append(i).append("}\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("out.jsonValue(").append(value).append(" instanceof JsonElement ? (JsonElement)").append(value)
+                   .append(" : null);\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                emitBinarySerializeDto(dtoImplementation.getCanonicalName(), value, builder, i);
+            } else {
+                // Other types are handled by gson, write them as JSON
+                builder.append(i).append("out.jsonValue(").append(value).append(" == null ? null : gson.toJsonTree(").append(value)
+                       .append("));\n");
+            }
+        }
+    }
+
+    private void emitBinarySerializeDto(String implName, String value, StringBuilder builder, String i) {
+        builder.append(i).append("if (").append(value).append(" == null) {\n");
+        builder.append(i).append("  out.nullValue();\n");
+        builder.append(i).append("} else {\n");
+        builder.append(i).append("  ((").append(implName).append(")").append(value).append(").writeTo(out);\n");
+        builder.append(i).append("}\n");
+    }
+
+    /**
+     * Generates a static factory method that creates a new instance reading fields from a {@code BinaryDtoReader}.
+     * Fields with unknown tags are skipped, so DTO written by a newer version of the interface, which has more fields,
+     * can be read.
+     */
+    private void emitBinaryDeserializer(List<Method> taggedMethods, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName()).append(" readFrom(BinaryDtoReader in) throws IOException {\n");
+        builder.append("      if (in.readNull()) {\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        builder.append("      in.beginObject();\n");
+        builder.append("      for (int tag = in.nextField(); tag != 0; tag = in.nextField()) {\n");
+        builder.append("        switch (tag) {\n");
+        for (Method method : taggedMethods) {
+            final String fieldName = getFieldNameFromGetterName(method.getName());
+            final String fieldNameOut = fieldName + "Out";
+            builder.append("          case ").append(getBinaryTag(method)).append(": {\n");
+            if (method.getReturnType().isPrimitive()) {
+                // null can't be assigned to primitive field, keep default value
+                builder.append("            if (in.readNull()) {\n");
+                builder.append("              break;\n");
+                builder.append("            }\n");
+            }
+            emitBinaryDeserializerImpl(expandType(method.getGenericReturnType()), 0, builder, fieldNameOut, "            ");
+            builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+            builder.append("            break;\n");
+            builder.append("          }\n");
+        }
+        builder.append("          default:\n");
+        builder.append("            in.skipValue();\n");
+        builder.append("        }\n");
+        builder.append("      }\n");
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to read value of the given type from the {@code in} BinaryDtoReader.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the java variable that will be the output for deserialization
+     * @param i
+     *         indentation string
+     */
+    private void emitBinaryDeserializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i) {
+        Type type = expandedTypes.get(depth);
+        String childOutVar = outVar + "_";
+        Class<?> rawClass = getRawClass(type);
+
+        if (isList(rawClass) || isMap(rawClass)) {
+            String sizeVar = "size" + depth;
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (!in.readNull()) {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            if (isList(rawClass)) {
+                builder.append(i).append("  for (int ").append(sizeVar).append(" = in.beginArray(); ").append(sizeVar).append(" > 0; ")
+                       .append(sizeVar).append("--) {\n");
+                emitBinaryDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+            } else {
+                String keyVar = "key" + depth;
+                builder.append(i).append("  for (int ").append(sizeVar).append(" = in.beginMap(); ").append(sizeVar).append(" > 0; ")
+                       .append(sizeVar).append("--) {\n");
+                builder.append(i).append("    String ").append(keyVar).append(" = in.readKey();\n");
+                emitBinaryDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar)
+                       .append(");\n");
+            }
+            builder.append(i).append("  }\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass.isEnum()) {
+            String rawClassName = rawClass.getName().replace('$', '.');
+            String nameVar = outVar + "Name";
+            builder.append(i).append("String ").append(nameVar).append(" = in.readString();\n");
+            builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = ").append(nameVar).append(" == null ? null : ")
+                   .append(rawClassName).append(".valueOf(").append(nameVar).append(");\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(".readFrom(in);\n");
+        } else if (rawClass == String.class) {
+            builder.append(i).append("String ").append(outVar).append(" = in.readString();\n");
+        } else if (rawClass.isPrimitive() && rawClass != char.class) {
+            builder.append(i).append(rawClass.getSimpleName()).append(" ").append(outVar).append(" = ");
+            appendBinaryReadPrimitiveExpression(rawClass, builder).append(";\n");
+        } else if (Primitives.isWrapperType(rawClass) && rawClass != Character.class && rawClass != Void.class) {
+            builder.append(i).append(rawClass.getSimpleName()).append(" ").append(outVar).append(" = in.readNull() ? null : ");
+            appendBinaryReadPrimitiveExpression(Primitives.unwrap(rawClass), builder).append(";\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("JsonElement ").append(outVar).append(" = in.readJson();\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                       .append(dtoImplementation.getCanonicalName()).append(".readFrom(in);\n");
+            } else {
+                // Other types are handled by gson, they are written as JSON
+                String rawClassName = rawClass.getName().replace('$', '.');
+                builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = gson.fromJson(in.readJson(), ")
+                       .append(rawClassName).append(".class);\n");
+            }
+        }
+    }
+
+    private static StringBuilder appendBinaryReadPrimitiveExpression(Class<?> primitive, StringBuilder builder) {
+        if (primitive == boolean.class) {
+            return builder.append("in.readBoolean()");
+        } else if (primitive == long.class) {
+            return builder.append("in.readLong()");
+        } else if (primitive == double.class) {
+            return builder.append("in.readDouble()");
+        } else if (primitive == float.class) {
+            return builder.append("in.readFloat()");
+        } else if (primitive == int.class) {
+            return builder.append("in.readInt()");
+        } else if (primitive == short.class) {
+            return builder.append("in.readShort()");
+        } else if (primitive == byte.class) {
+            return builder.append("in.readByte()");
+        }
+        return builder.append("in.readLong()");
+    }
+
     /**
      * Append the expression that clones the given JsonElement variable into a new value. If the copyJons run-time
      * parameter is set to false, then the expression won't perform a clone but instead will reuse the variable by
@@ -643,7 +1230,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
         builder.append(" implements ");
         builder.append(dtoInterface.getCanonicalName());
-        builder.append(", JsonSerializable ");
+        builder.append(", JsonSerializable, BinarySerializable ");
         builder.append(" {\n\n");
         emitFactoryMethod(builder);
         emitDefaultConstructor(builder);
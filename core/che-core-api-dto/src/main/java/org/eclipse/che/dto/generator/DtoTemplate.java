@@ -191,6 +191,9 @@ public class DtoTemplate {
         builder.append(packageName);
         builder.append(";\n\n");
         if ("server".equals(implType)) {
+            builder.append("import org.eclipse.che.dto.server.BinaryDtoReader;\n");
+            builder.append("import org.eclipse.che.dto.server.BinaryDtoWriter;\n");
+            builder.append("import org.eclipse.che.dto.server.BinarySerializable;\n");
             builder.append("import org.eclipse.che.dto.server.JsonSerializable;\n");
             builder.append("\n");
             builder.append("import com.google.gson.Gson;\n");
@@ -201,7 +204,11 @@ public class DtoTemplate {
             builder.append("import com.google.gson.JsonObject;\n");
             builder.append("import com.google.gson.JsonParser;\n");
             builder.append("import com.google.gson.JsonPrimitive;\n");
+            builder.append("import com.google.gson.stream.JsonReader;\n");
+            builder.append("import com.google.gson.stream.JsonToken;\n");
+            builder.append("import com.google.gson.stream.JsonWriter;\n");
             builder.append("\n");
+            builder.append("import java.io.IOException;\n");
             builder.append("import java.util.List;\n");
             builder.append("import java.util.Map;\n");
         }
@@ -230,6 +237,14 @@ public class DtoTemplate {
         builder.append(" {\n\n");
         if ("server".equals(implType)) {
             builder.append("  private static final Gson gson = new GsonBuilder().disableHtmlEscaping().create();\n\n");
+            // JsonWriter configured in the same way as Gson configures it for printing JsonElement
+            builder.append("  static JsonWriter newJsonWriter(java.io.Writer out) {\n");
+            builder.append("    JsonWriter writer = new JsonWriter(out);\n");
+            builder.append("    writer.setLenient(true);\n");
+            builder.append("    writer.setHtmlSafe(false);\n");
+            builder.append("    writer.setSerializeNulls(false);\n");
+            builder.append("    return writer;\n");
+            builder.append("  }\n\n");
             builder.append("  @Override\n" +
                            "  public void accept(org.eclipse.che.dto.server.DtoFactory dtoFactory) {\n");
             for (DtoImpl dto : getDtoInterfaces()) {
@@ -248,6 +263,14 @@ public class DtoTemplate {
                 builder.append("        public ").append(dtoInterface).append(" fromJson(com.google.gson.JsonElement json) {\n")
                        .append("            return ").append(dto.getImplClassName()).append(".fromJsonElement(json);\n");
                 builder.append("        }\n\n");
+                builder.append("        public ").append(dtoInterface)
+                       .append(" fromJson(com.google.gson.stream.JsonReader json) throws java.io.IOException {\n")
+                       .append("            return ").append(dto.getImplClassName()).append(".readFrom(json);\n");
+                builder.append("        }\n\n");
+                builder.append("        public ").append(dtoInterface)
+                       .append(" fromBinary(org.eclipse.che.dto.server.BinaryDtoReader in) throws java.io.IOException {\n")
+                       .append("            return ").append(dto.getImplClassName()).append(".readFrom(in);\n");
+                builder.append("        }\n\n");
                 builder.append("        public ").append(dtoInterface).append(" clone(").append(dtoInterface).append(" origin) {\n")
                        .append("            return new ").append(dto.getImplClassName()).append("(origin);\n");
                 builder.append("        }\n");
@@ -0,0 +1,332 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static java.util.Objects.requireNonNull;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.ARRAY;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.DOUBLE;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.END_OF_OBJECT;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.FALSE;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.FLOAT;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.INT;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.JSON;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.MAP;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.NULL;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.OBJECT;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.STRING;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.TRUE;
+
+/**
+ * Reads DTOs written by {@link BinaryDtoWriter}.
+ *
+ * <p>Numeric values are converted to the requested type, so e.g. {@code int} field may be read with {@link #readDouble()},
+ * integer value which doesn't fit into the requested integer type is not truncated, {@link IOException} is thrown instead.
+ * Methods that read a value throw {@link IOException} if type of the next value is not compatible with the requested one.
+ *
+ * @see BinaryDtoWriter
+ */
+public class BinaryDtoReader implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final byte[]      buffer;
+
+    private int position;
+    private int limit;
+
+    public BinaryDtoReader(InputStream in) {
+        this.in = requireNonNull(in, "Required non-null input stream");
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /** Returns {@code true} if there is no more data in the stream. */
+    public boolean isEndOfStream() throws IOException {
+        return position == limit && !fill();
+    }
+
+    /** Consumes the next value if it is null and returns {@code true}, otherwise the next value stays unread. */
+    public boolean readNull() throws IOException {
+        if (peekType() == NULL) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean readBoolean() throws IOException {
+        final byte type = readType();
+        if (type == TRUE) {
+            return true;
+        } else if (type == FALSE) {
+            return false;
+        }
+        throw unexpectedType("boolean", type);
+    }
+
+    public long readLong() throws IOException {
+        final byte type = readType();
+        if (type != INT) {
+            throw unexpectedType("integer", type);
+        }
+        final long zigzag = readVarLong();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public int readInt() throws IOException {
+        return (int)readLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public short readShort() throws IOException {
+        return (short)readLong(Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+    public byte readByte() throws IOException {
+        return (byte)readLong(Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    public double readDouble() throws IOException {
+        final byte type = peekType();
+        if (type == DOUBLE) {
+            position++;
+            return Double.longBitsToDouble(readFixed(8));
+        } else if (type == FLOAT) {
+            position++;
+            return Float.intBitsToFloat((int)readFixed(4));
+        } else if (type == INT) {
+            return readLong();
+        }
+        throw unexpectedType("number", type);
+    }
+
+    public float readFloat() throws IOException {
+        return (float)readDouble();
+    }
+
+    /** Reads string value, returns {@code null} if the next value is null. */
+    public String readString() throws IOException {
+        final byte type = readType();
+        if (type == NULL) {
+            return null;
+        } else if (type == STRING) {
+            return readUtf8();
+        }
+        throw unexpectedType("string", type);
+    }
+
+    /** Reads value of any JSON type, returns {@link JsonNull#INSTANCE} if the next value is null. */
+    public JsonElement readJson() throws IOException {
+        final byte type = readType();
+        if (type == NULL) {
+            return JsonNull.INSTANCE;
+        } else if (type == JSON) {
+            return new JsonParser().parse(readUtf8());
+        }
+        throw unexpectedType("json", type);
+    }
+
+    public void beginObject() throws IOException {
+        final byte type = readType();
+        if (type != OBJECT) {
+            throw unexpectedType("object", type);
+        }
+    }
+
+    /** Returns tag of the next field in the current object or {@code 0} when all fields of the object are read. */
+    public int nextField() throws IOException {
+        return readSize();
+    }
+
+    /** Starts reading of array and returns number of its elements. */
+    public int beginArray() throws IOException {
+        final byte type = readType();
+        if (type != ARRAY) {
+            throw unexpectedType("array", type);
+        }
+        return readSize();
+    }
+
+    /** Starts reading of map and returns number of its entries. */
+    public int beginMap() throws IOException {
+        final byte type = readType();
+        if (type != MAP) {
+            throw unexpectedType("map", type);
+        }
+        return readSize();
+    }
+
+    public String readKey() throws IOException {
+        return readUtf8();
+    }
+
+    /** Skips the next value. */
+    public void skipValue() throws IOException {
+        final byte type = readType();
+        switch (type) {
+            case NULL:
+            case FALSE:
+            case TRUE:
+                break;
+            case INT:
+                readVarLong();
+                break;
+            case DOUBLE:
+                skip(8);
+                break;
+            case FLOAT:
+                skip(4);
+                break;
+            case STRING:
+            case JSON:
+                skip(readSize());
+                break;
+            case OBJECT:
+                while (nextField() != END_OF_OBJECT) {
+                    skipValue();
+                }
+                break;
+            case ARRAY:
+                for (int i = readSize(); i > 0; i--) {
+                    skipValue();
+                }
+                break;
+            case MAP:
+                for (int i = readSize(); i > 0; i--) {
+                    skip(readSize());
+                    skipValue();
+                }
+                break;
+            default:
+                throw new IOException("Unknown type of value " + type);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private byte peekType() throws IOException {
+        ensure(1);
+        return buffer[position];
+    }
+
+    private byte readType() throws IOException {
+        ensure(1);
+        return buffer[position++];
+    }
+
+    private String readUtf8() throws IOException {
+        final int length = readSize();
+        if (length <= buffer.length) {
+            ensure(length);
+            final String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+        final byte[] bytes = new byte[length];
+        int read = limit - position;
+        System.arraycopy(buffer, position, bytes, 0, read);
+        position = limit;
+        while (read < length) {
+            final int n = in.read(bytes, read, length - read);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            read += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readLong(long min, long max) throws IOException {
+        final long value = readLong();
+        if (value < min || value > max) {
+            throw new IOException("Value " + value + " is out of range [" + min + ", " + max + "]");
+        }
+        return value;
+    }
+
+    /** Reads non-negative variable length integer which fits into int, e.g. length of string or number of elements. */
+    private int readSize() throws IOException {
+        final long size = readVarLong();
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Malformed size " + size);
+        }
+        return (int)size;
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            ensure(1);
+            final byte b = buffer[position++];
+            result |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    private long readFixed(int size) throws IOException {
+        ensure(size);
+        long result = 0;
+        for (int i = 0; i < size; i++) {
+            result = (result << 8) | (buffer[position++] & 0xFF);
+        }
+        return result;
+    }
+
+    private void skip(int size) throws IOException {
+        while (size > 0) {
+            ensure(1);
+            final int n = Math.min(size, limit - position);
+            position += n;
+            size -= n;
+        }
+    }
+
+    /** Makes sure at least {@code size} bytes are available in buffer, {@code size} must not be greater than buffer size. */
+    private void ensure(int size) throws IOException {
+        while (limit - position < size) {
+            if (!fill()) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        final int n = in.read(buffer, limit, buffer.length - limit);
+        if (n <= 0) {
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    private IOException unexpectedType(String expected, byte actual) {
+        return new IOException("Expected " + expected + " but value of type " + actual + " found");
+    }
+}
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonElement;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes DTOs in compact binary format.
+ *
+ * <p>Each value starts with one byte type marker (see constants of this class) followed by value data:
+ * <ul>
+ * <li>integer numbers are written as zigzag encoded variable length integers</li>
+ * <li>strings and map keys are written as variable length size of UTF-8 bytes followed by the bytes</li>
+ * <li>objects are written as sequence of pairs [field tag, value] terminated with {@code 0} tag,
+ * field tag is variable length integer, field names are never written</li>
+ * <li>arrays and maps are written as variable length number of elements followed by elements</li>
+ * </ul>
+ * Field tags are assigned by DTO generator, tag is the serialization index of the field if it is set, otherwise it is
+ * computed from JSON name of the field by {@link #fieldTag(String)}, so tags don't change when other fields are added
+ * or removed. Each value carries its type and size, so reader skips fields with unknown tags and a DTO written by
+ * a newer version of the interface can be read with an older one.
+ *
+ * @see BinaryDtoReader
+ */
+public class BinaryDtoWriter implements Flushable, Closeable {
+    /** Media type for DTOs in binary format. */
+    public static final String MEDIA_TYPE = "application/x-che-dto";
+
+    static final byte NULL   = 0;
+    static final byte FALSE  = 1;
+    static final byte TRUE   = 2;
+    static final byte INT    = 3;
+    static final byte DOUBLE = 4;
+    static final byte FLOAT  = 5;
+    static final byte STRING = 6;
+    static final byte OBJECT = 7;
+    static final byte ARRAY  = 8;
+    static final byte MAP    = 9;
+    static final byte JSON   = 10;
+
+    static final int END_OF_OBJECT = 0;
+
+    /** Tags computed from field names are not greater than this value, so they take at most 3 bytes. */
+    static final int MAX_FIELD_TAG = (1 << 21) - 1;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[]       buffer;
+
+    private int position;
+
+    public BinaryDtoWriter(OutputStream out) {
+        this.out = requireNonNull(out, "Required non-null output stream");
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    public BinaryDtoWriter nullValue() throws IOException {
+        writeByte(NULL);
+        return this;
+    }
+
+    public BinaryDtoWriter value(boolean value) throws IOException {
+        writeByte(value ? TRUE : FALSE);
+        return this;
+    }
+
+    public BinaryDtoWriter value(long value) throws IOException {
+        writeByte(INT);
+        writeVarLong((value << 1) ^ (value >> 63));
+        return this;
+    }
+
+    public BinaryDtoWriter value(double value) throws IOException {
+        writeByte(DOUBLE);
+        final long bits = Double.doubleToLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((byte)(bits >>> shift));
+        }
+        return this;
+    }
+
+    public BinaryDtoWriter value(float value) throws IOException {
+        writeByte(FLOAT);
+        final int bits = Float.floatToIntBits(value);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            writeByte((byte)(bits >>> shift));
+        }
+        return this;
+    }
+
+    /** Writes string value, {@code null} is written as null value. */
+    public BinaryDtoWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeByte(STRING);
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    /** Writes value of any JSON type as JSON text, {@code null} is written as null value. */
+    public BinaryDtoWriter jsonValue(JsonElement value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeByte(JSON);
+        writeBytes(value.toString().getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    public BinaryDtoWriter beginObject() throws IOException {
+        writeByte(OBJECT);
+        return this;
+    }
+
+    /** Writes tag of the next field of the current object, value of the field must be written next. */
+    public BinaryDtoWriter field(int tag) throws IOException {
+        if (tag <= END_OF_OBJECT) {
+            throw new IllegalArgumentException("Field tag must be positive, but was " + tag);
+        }
+        writeVarLong(tag);
+        return this;
+    }
+
+    /**
+     * Returns tag of the field with the given JSON name, it depends only on the name, so it is the same on both sides
+     * and doesn't change when other fields of DTO are added or removed.
+     */
+    public static int fieldTag(String jsonName) {
+        return Math.floorMod(jsonName.hashCode(), MAX_FIELD_TAG) + 1;
+    }
+
+    public BinaryDtoWriter endObject() throws IOException {
+        writeVarLong(END_OF_OBJECT);
+        return this;
+    }
+
+    /** Starts array, exactly {@code size} values must be written next. */
+    public BinaryDtoWriter beginArray(int size) throws IOException {
+        writeByte(ARRAY);
+        writeVarLong(size);
+        return this;
+    }
+
+    /** Starts map, exactly {@code size} pairs of {@link #key(String)} and value must be written next. */
+    public BinaryDtoWriter beginMap(int size) throws IOException {
+        writeByte(MAP);
+        writeVarLong(size);
+        return this;
+    }
+
+    public BinaryDtoWriter key(String key) throws IOException {
+        writeBytes(key.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        writeVarLong(bytes.length);
+        if (bytes.length > buffer.length - position) {
+            out.write(buffer, 0, position);
+            position = 0;
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((byte)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((byte)value);
+    }
+
+    private void writeByte(byte b) throws IOException {
+        if (position == buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        buffer[position++] = b;
+    }
+}
@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import java.io.IOException;
+
+/**
+ * An entity that may serialize itself in compact binary format, see {@link BinaryDtoWriter}.
+ * Implemented by all generated server DTOs.
+ */
+public interface BinarySerializable {
+
+    /** Writes DTO in binary format to the given writer. */
+    void writeTo(BinaryDtoWriter writer) throws IOException;
+}
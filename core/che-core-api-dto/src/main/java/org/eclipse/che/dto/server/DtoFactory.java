@@ -10,26 +10,26 @@
  *******************************************************************************/
 package org.eclipse.che.dto.server;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
-import org.eclipse.che.commons.lang.reflect.ParameterizedTypeImpl;
 import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.JsonArray;
 import org.eclipse.che.dto.shared.JsonStringMap;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -43,24 +43,6 @@ import java.util.concurrent.ConcurrentHashMap;
  * @author andrew00x
  */
 public final class DtoFactory {
-    private static final Gson gson = new GsonBuilder().serializeNulls().create();
-
-    private static final LoadingCache<Type, ParameterizedType> listTypeCache = CacheBuilder.newBuilder().concurrencyLevel(16).build(
-            new CacheLoader<Type, ParameterizedType>() {
-                @Override
-                public ParameterizedType load(Type type) {
-                    return new ParameterizedTypeImpl(List.class, type);
-                }
-            });
-
-    private static final LoadingCache<Type, ParameterizedType> mapTypeCache = CacheBuilder.newBuilder().concurrencyLevel(16).build(
-            new CacheLoader<Type, ParameterizedType>() {
-                @Override
-                public ParameterizedType load(Type type) {
-                    return new ParameterizedTypeImpl(Map.class, String.class, type);
-                }
-            });
-
     private static final DtoFactory INSTANCE = new DtoFactory();
 
     public static DtoFactory getInstance() {
@@ -137,12 +119,115 @@ public final class DtoFactory {
     }
 
     public <T> String toJson(T dto) {
+        final StringWriter writer = new StringWriter();
+        try {
+            toJson(dto, writer);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Serializes DTO to JSON format and writes result to the specified writer. Fields of DTO are streamed one by one, no intermediate
+     * JSON tree is created.
+     *
+     * @param dto
+     *         DTO object
+     * @param writer
+     *         writer for JSON data
+     * @throws IllegalArgumentException
+     *         if specified object is not instance of {@link JsonSerializable}
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toJson(T dto, Writer writer) throws IOException {
         if (dto instanceof JsonSerializable) {
-            return ((JsonSerializable)dto).toJson();
+            final JsonWriter jsonWriter = newJsonWriter(writer);
+            ((JsonSerializable)dto).writeTo(jsonWriter);
+            jsonWriter.flush();
+            return;
         }
         throw new IllegalArgumentException("JsonSerializable instance required. ");
     }
 
+    /**
+     * Serializes list of DTOs to JSON array and writes result to the specified writer. Each DTO is streamed directly to the writer.
+     *
+     * @param dtos
+     *         list of DTO objects
+     * @param writer
+     *         writer for JSON data
+     * @throws IllegalArgumentException
+     *         if any of specified objects is not instance of {@link JsonSerializable}
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public void toJsonArray(List<?> dtos, Writer writer) throws IOException {
+        final JsonWriter jsonWriter = newJsonWriter(writer);
+        jsonWriter.beginArray();
+        for (Object dto : dtos) {
+            if (dto == null) {
+                jsonWriter.nullValue();
+            } else if (dto instanceof JsonSerializable) {
+                ((JsonSerializable)dto).writeTo(jsonWriter);
+            } else {
+                throw new IllegalArgumentException("JsonSerializable instance required. ");
+            }
+        }
+        jsonWriter.endArray();
+        jsonWriter.flush();
+    }
+
+    /**
+     * Serializes DTO in compact binary format, see {@link BinaryDtoWriter}, and writes result to the specified stream.
+     *
+     * @param dto
+     *         DTO object
+     * @param out
+     *         stream for binary data
+     * @throws IllegalArgumentException
+     *         if specified object is not instance of {@link BinarySerializable}
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toBinary(T dto, OutputStream out) throws IOException {
+        if (dto instanceof BinarySerializable) {
+            final BinaryDtoWriter writer = new BinaryDtoWriter(out);
+            ((BinarySerializable)dto).writeTo(writer);
+            writer.flush();
+            return;
+        }
+        throw new IllegalArgumentException("BinarySerializable instance required. ");
+    }
+
+    /**
+     * Serializes list of DTOs in compact binary format, see {@link BinaryDtoWriter}, and writes result to the specified stream.
+     *
+     * @param dtos
+     *         list of DTO objects
+     * @param out
+     *         stream for binary data
+     * @throws IllegalArgumentException
+     *         if any of specified objects is not instance of {@link BinarySerializable}
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public void toBinaryArray(List<?> dtos, OutputStream out) throws IOException {
+        final BinaryDtoWriter writer = new BinaryDtoWriter(out);
+        writer.beginArray(dtos.size());
+        for (Object dto : dtos) {
+            if (dto == null) {
+                writer.nullValue();
+            } else if (dto instanceof BinarySerializable) {
+                ((BinarySerializable)dto).writeTo(writer);
+            } else {
+                throw new IllegalArgumentException("BinarySerializable instance required. ");
+            }
+        }
+        writer.flush();
+    }
+
     public <T> JsonElement toJsonElement(T dto) {
         if (dto instanceof JsonSerializable) {
             return ((JsonSerializable)dto).toJsonElement();
@@ -208,14 +293,20 @@ public final class DtoFactory {
      *         if an i/o error occurs
      */
     public <T> T createDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        StringBuilder sb = new StringBuilder();
-        BufferedReader br = new BufferedReader(json);
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        final JsonReader reader = newJsonReader(json);
+        try {
+            if (reader.peek() == JsonToken.END_DOCUMENT) {
+                return null;
+            }
+            final T dto = dtoProvider.fromJson(reader);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+            return dto;
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
         }
-        return dtoProvider.fromJson(sb.toString());
     }
 
     /**
@@ -249,13 +340,11 @@ public final class DtoFactory {
      *         if can't provide any implementation for specified interface
      */
     public <T> JsonArray<T> createListDtoFromJson(String json, Class<T> dtoInterface) {
-        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list = gson.fromJson(json, listTypeCache.getUnchecked(JsonElement.class));
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
+        try {
+            return createListDtoFromJson(new StringReader(json), dtoInterface);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
         }
-        return new JsonArrayImpl<>(result);
     }
 
 
@@ -272,19 +361,16 @@ public final class DtoFactory {
      */
     public <T> JsonArray<T> createListDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list;
+        final JsonReader reader = newJsonReader(json);
+        final List<T> result = new ArrayList<>();
         try {
-            list = gson.fromJson(json, listTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                result.add(dtoProvider.fromJson(reader));
             }
-            throw e;
-        }
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
+            reader.endArray();
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
         }
         return new JsonArrayImpl<>(result);
     }
@@ -320,13 +406,11 @@ public final class DtoFactory {
      *         if can't provide any implementation for specified interface
      */
     public <T> JsonStringMap<T> createMapDtoFromJson(String json, Class<T> dtoInterface) {
-        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map = gson.fromJson(json, mapTypeCache.getUnchecked(JsonElement.class));
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
+        try {
+            return createMapDtoFromJson(new StringReader(json), dtoInterface);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
         }
-        return new JsonStringMapImpl<>(result);
     }
 
 
@@ -343,22 +427,19 @@ public final class DtoFactory {
      * @throws IOException
      *         if an i/o error occurs
      */
-    @SuppressWarnings("unchecked")
     public <T> JsonStringMap<T> createMapDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map;
+        final JsonReader reader = newJsonReader(json);
+        final Map<String, T> result = new LinkedHashMap<>();
         try {
-            map = gson.fromJson(json, mapTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String key = reader.nextName();
+                result.put(key, dtoProvider.fromJson(reader));
             }
-            throw e;
-        }
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
+            reader.endObject();
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
         }
         return new JsonStringMapImpl<>(result);
     }
@@ -382,6 +463,70 @@ public final class DtoFactory {
 
     //
 
+    /**
+     * Creates new instance of class which implements specified DTO interface and initializes its fields with data written in binary
+     * format with {@link #toBinary(Object, OutputStream)}.
+     *
+     * @param in
+     *         binary data
+     * @param dtoInterface
+     *         DTO interface
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws IOException
+     *         if an i/o error occurs or data is malformed
+     */
+    public <T> T createDtoFromBinary(InputStream in, Class<T> dtoInterface) throws IOException {
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        final BinaryDtoReader reader = new BinaryDtoReader(in);
+        if (reader.isEndOfStream()) {
+            return null;
+        }
+        return dtoProvider.fromBinary(reader);
+    }
+
+    /**
+     * Reads list of DTOs written in binary format with {@link #toBinaryArray(List, OutputStream)}.
+     *
+     * @param in
+     *         binary data
+     * @param dtoInterface
+     *         DTO interface
+     * @return list of DTO
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws IOException
+     *         if an i/o error occurs or data is malformed
+     */
+    public <T> JsonArray<T> createListDtoFromBinary(InputStream in, Class<T> dtoInterface) throws IOException {
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        final BinaryDtoReader reader = new BinaryDtoReader(in);
+        final int size = reader.beginArray();
+        final List<T> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            result.add(dtoProvider.fromBinary(reader));
+        }
+        return new JsonArrayImpl<>(result);
+    }
+
+    //
+
+    /** Creates lenient JsonReader, the same as Gson uses for parsing JSON tree. */
+    private static JsonReader newJsonReader(Reader reader) {
+        final JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.setLenient(true);
+        return jsonReader;
+    }
+
+    /** Creates JsonWriter which prints JSON in the same way as generated DTOs do it. */
+    private static JsonWriter newJsonWriter(Writer writer) {
+        final JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setLenient(true);
+        jsonWriter.setHtmlSafe(false);
+        jsonWriter.setSerializeNulls(false);
+        return jsonWriter;
+    }
+
     @SuppressWarnings("unchecked")
     private <T> DtoProvider<T> getDtoProvider(Class<T> dtoInterface) {
         DtoProvider<?> dtoProvider = dtoInterface2Providers.get(dtoInterface);
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+
+import org.eclipse.che.dto.definitions.ComplicatedDto;
+import org.eclipse.che.dto.definitions.SimpleDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonSerializable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Compares serialization of DTOs through intermediate JSON tree with streaming serialization.
+ *
+ * <p>It is not a test and is not run during the build, launch it with {@link #main(String[])}
+ * from test classpath and use {@code -prof gc} JMH option to compare allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DtoSerializationBenchmark {
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    /** Number of nested DTOs, the same number of elements is used for lists and maps. */
+    @Param({"10", "1000"})
+    public int size;
+
+    private DtoFactory           dtoFactory;
+    private ComplicatedDto       dto;
+    private List<ComplicatedDto> dtos;
+    private CharArrayWriter      writer;
+
+    @Setup
+    public void setUp() {
+        dtoFactory = DtoFactory.getInstance();
+        dto = createDto(size);
+        dtos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dtos.add(createDto(10));
+        }
+        writer = new CharArrayWriter(1024 * 1024);
+    }
+
+    @Benchmark
+    public String treeSerialization() {
+        return GSON.toJson(((JsonSerializable)dto).toJsonElement());
+    }
+
+    @Benchmark
+    public String streamingSerialization() {
+        return dtoFactory.toJson(dto);
+    }
+
+    @Benchmark
+    public int streamingSerializationToWriter() throws IOException {
+        writer.reset();
+        dtoFactory.toJson(dto, writer);
+        return writer.size();
+    }
+
+    @Benchmark
+    public int treeListSerializationToWriter() throws IOException {
+        writer.reset();
+        final JsonArray array = new JsonArray();
+        for (ComplicatedDto element : dtos) {
+            array.add(((JsonSerializable)element).toJsonElement());
+        }
+        GSON.toJson(array, writer);
+        return writer.size();
+    }
+
+    @Benchmark
+    public int streamingListSerializationToWriter() throws IOException {
+        writer.reset();
+        dtoFactory.toJsonArray(dtos, writer);
+        return writer.size();
+    }
+
+    private ComplicatedDto createDto(int size) {
+        final List<String> strings = new ArrayList<>(size);
+        final List<SimpleDto> simpleDtos = new ArrayList<>(size);
+        final Map<String, SimpleDto> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            final SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class)
+                                                  .withId(i)
+                                                  .withName("name-" + i)
+                                                  .withDefault("default value of the simple dto #" + i);
+            strings.add("string-" + i);
+            simpleDtos.add(simpleDto);
+            map.put("key-" + i, simpleDto);
+        }
+        return dtoFactory.createDto(ComplicatedDto.class)
+                         .withStrings(strings)
+                         .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                         .withSimpleDtos(simpleDtos)
+                         .withMap(map)
+                         .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE, ComplicatedDto.SimpleEnum.THREE),
+                                                        asList(ComplicatedDto.SimpleEnum.TWO)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DtoSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -10,11 +10,15 @@
  *******************************************************************************/
 package org.eclipse.che.dto;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
 
 import org.eclipse.che.dto.definitions.ComplicatedDto;
 import org.eclipse.che.dto.definitions.DTOHierarchy;
@@ -25,10 +29,16 @@ import org.eclipse.che.dto.definitions.SimpleDto;
 import org.eclipse.che.dto.definitions.model.Model;
 import org.eclipse.che.dto.definitions.model.ModelComponentDto;
 import org.eclipse.che.dto.definitions.model.ModelDto;
+import org.eclipse.che.dto.server.BinaryDtoWriter;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -331,6 +341,175 @@ public class ServerDtoTest {
         assertEquals(dto.getDefault(), expectedDefault);
     }
 
+    @Test
+    public void testStreamingSerializerProducesTheSameJsonAsJsonTree() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("<name>").withId(1);
+        Map<String, SimpleDto> map = new HashMap<>();
+        map.put("key", simpleDto);
+        map.put("null", null);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(asList("a", null, "b"))
+                                       .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                       .withSimpleDtos(asList(simpleDto, null))
+                                       .withMap(map)
+                                       .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE, null),
+                                                                      new ArrayList<ComplicatedDto.SimpleEnum>()));
+        DtoWithAny dtoWithAny = dtoFactory.createDto(DtoWithAny.class)
+                                          .withStuff(new JsonParser().parse("{\"a\":[1,null,{\"b\":\"<\"}]}"))
+                                          .withObjects(asList(new JsonPrimitive(1), null));
+        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+        for (Object origin : asList(simpleDto, dto, dtoWithAny)) {
+            StringWriter writer = new StringWriter();
+            dtoFactory.toJson(origin, writer);
+
+            String expected = gson.toJson(dtoFactory.toJsonElement(origin));
+            assertEquals(dtoFactory.toJson(origin), expected);
+            assertEquals(writer.toString(), expected);
+        }
+    }
+
+    @Test
+    public void testListOfDtosStreamingSerializer() throws Exception {
+        List<SimpleDto> dtos = asList(dtoFactory.createDto(SimpleDto.class).withName("first").withId(1),
+                                      dtoFactory.createDto(SimpleDto.class).withName("second").withId(2));
+        StringWriter writer = new StringWriter();
+
+        dtoFactory.toJsonArray(dtos, writer);
+
+        assertEquals(dtoFactory.createListDtoFromJson(writer.toString(), SimpleDto.class), dtos);
+    }
+
+    @Test
+    public void testStreamingDeserializerReadsTheSameDtoAsJsonTree() throws Exception {
+        String json = "{\"strings\":[\"a\",null],"
+                      + "\"unknown\":{\"nested\":[1,2,{\"x\":null}]},"
+                      + "\"simpleEnum\":\"TWO\","
+                      + "\"map\":{\"key\":{\"name\":\"name\",\"id\":\"2\",\"default\":\"def\"},\"null\":null},"
+                      + "\"simpleDtos\":[{\"name\":\"name\",\"id\":1},null],"
+                      + "\"arrayOfArrayOfEnum\":[[\"ONE\",\"THREE\"],null]}";
+
+        ComplicatedDto fromTree = dtoFactory.createDtoFromJson(new JsonParser().parse(json), ComplicatedDto.class);
+        ComplicatedDto fromReader = dtoFactory.createDtoFromJson(new StringReader(json), ComplicatedDto.class);
+
+        assertEquals(fromReader, fromTree);
+        assertEquals(fromReader.getMap().get("key").getId(), 2);
+        assertEquals(fromReader.getArrayOfArrayOfEnum().get(1), null);
+    }
+
+    @Test
+    public void testStreamingDeserializerWithAny() throws Exception {
+        String json = "{\"stuff\":{\"a\":[1,{\"b\":true}]},\"objects\":[\"x\",{\"y\":1},null]}";
+
+        DtoWithAny dto = dtoFactory.createDtoFromJson(new StringReader(json), DtoWithAny.class);
+
+        assertEquals(dto.getStuff(), new JsonParser().parse("{\"a\":[1,{\"b\":true}]}"));
+        assertEquals(dto.getObjects(), asList(new JsonPrimitive("x"), new JsonParser().parse("{\"y\":1}"), JsonNull.INSTANCE));
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void shouldThrowJsonSyntaxExceptionWhenStreamedJsonIsMalformed() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"name\":\"name\",\"id\":{}}"), SimpleDto.class);
+    }
+
+    @Test
+    public void testBinarySerializerRoundTrip() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("name").withId(-1).withDefault("\u0444");
+        Map<String, SimpleDto> map = new HashMap<>();
+        map.put("key", simpleDto);
+        map.put("null", null);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(asList("a", null, "b"))
+                                       .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                       .withSimpleDtos(asList(simpleDto, null))
+                                       .withMap(map)
+                                       .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE, null), null));
+        DtoWithAny dtoWithAny = dtoFactory.createDto(DtoWithAny.class)
+                                          .withStuff(new JsonParser().parse("{\"a\":[1,null,{\"b\":\"<\"}]}"))
+                                          .withObjects(asList(new JsonPrimitive(1), JsonNull.INSTANCE));
+
+        for (Object origin : asList(simpleDto, dto, dtoWithAny)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            dtoFactory.toBinary(origin, out);
+
+            Object restored = dtoFactory.createDtoFromBinary(new ByteArrayInputStream(out.toByteArray()),
+                                                             (Class<?>)origin.getClass().getInterfaces()[0]);
+
+            assertEquals(restored, origin);
+            assertTrue(out.size() < dtoFactory.toJson(origin).length());
+        }
+    }
+
+    @Test
+    public void testListOfDtosBinarySerializer() throws Exception {
+        List<SimpleDto> dtos = asList(dtoFactory.createDto(SimpleDto.class).withName("first").withId(1),
+                                      dtoFactory.createDto(SimpleDto.class).withName("second").withId(2));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        dtoFactory.toBinaryArray(dtos, out);
+
+        assertEquals(dtoFactory.createListDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), SimpleDto.class), dtos);
+    }
+
+    @Test
+    public void testBinaryTagsDependOnlyOnFieldNames() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryDtoWriter(out).beginObject()
+                                .field(BinaryDtoWriter.fieldTag("name")).value("name")
+                                .field(BinaryDtoWriter.fieldTag("id")).value(7L)
+                                .endObject()
+                                .flush();
+
+        SimpleDto dto = dtoFactory.createDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), SimpleDto.class);
+
+        assertEquals(dto, dtoFactory.createDto(SimpleDto.class).withId(7).withName("name"));
+    }
+
+    @Test
+    public void testBinaryDeserializerSkipsFieldsAddedInNewerVersionOfDto() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryDtoWriter writer = new BinaryDtoWriter(out);
+        writer.beginObject()
+              .field(BinaryDtoWriter.fieldTag("simpleDtos")).beginArray(1);
+        // newer version of SimpleDto which has fields of all kinds of values
+        writer.beginObject()
+              .field(BinaryDtoWriter.fieldTag("name")).value("name")
+              .field(BinaryDtoWriter.fieldTag("newString")).value("\u0444")
+              .field(BinaryDtoWriter.fieldTag("newNull")).nullValue()
+              .field(BinaryDtoWriter.fieldTag("newBoolean")).value(true)
+              .field(BinaryDtoWriter.fieldTag("newLong")).value(Long.MIN_VALUE)
+              .field(BinaryDtoWriter.fieldTag("newDouble")).value(1.5D)
+              .field(BinaryDtoWriter.fieldTag("newFloat")).value(1.5F)
+              .field(BinaryDtoWriter.fieldTag("newAny")).jsonValue(new JsonParser().parse("{\"a\":[1,null]}"))
+              .field(BinaryDtoWriter.fieldTag("newObject")).beginObject()
+              .field(BinaryDtoWriter.fieldTag("name")).value("nested")
+              .field(BinaryDtoWriter.fieldTag("list")).beginArray(2).value("a").beginArray(0)
+              .endObject()
+              .field(BinaryDtoWriter.fieldTag("newMap")).beginMap(2).key("a").value(1L).key("b").beginObject().endObject()
+              .field(BinaryDtoWriter.fieldTag("id")).value(7L)
+              .endObject();
+        writer.field(BinaryDtoWriter.fieldTag("strings")).beginArray(1).value("a")
+              .endObject()
+              .flush();
+
+        ComplicatedDto dto = dtoFactory.createDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), ComplicatedDto.class);
+
+        assertEquals(dto, dtoFactory.createDto(ComplicatedDto.class)
+                                    .withSimpleDtos(asList(dtoFactory.createDto(SimpleDto.class).withName("name").withId(7)))
+                                    .withStrings(asList("a")));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Value 4294967296 is out of range.*")
+    public void testBinaryDeserializerFailsWhenIntegerIsOutOfRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryDtoWriter(out).beginObject()
+                                .field(BinaryDtoWriter.fieldTag("id")).value(1L << 32)
+                                .endObject()
+                                .flush();
+
+        dtoFactory.createDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), SimpleDto.class);
+    }
+
     @Test
     public void testDelegate() {
         assertEquals(DtoFactory.getInstance().createDto(DtoWithDelegate.class).withFirstName("TEST").nameWithPrefix("### "), "### TEST");
@@ -22,7 +22,11 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
 import java.util.LinkedList;
+import java.util.Set;
 
 /**
  * @author andrew00x
@@ -80,18 +84,39 @@ public class TarUtils {
     }
 
     public static void tarFiles(File tar, long modTime, File... files) throws IOException {
-        try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(new BufferedOutputStream(new FileOutputStream(tar)))) {
-            tarOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
-            for (File f : files) {
-                if (f.isDirectory()) {
-                    addDirectoryEntry(tarOut, f.getName(), f, modTime);
-                    final String parentPath = f.getParentFile().getAbsolutePath();
-                    addDirectoryRecursively(tarOut, parentPath, f, modTime, IoUtil.ANY_FILTER);
-                } else if (f.isFile()) {
-                    addFileEntry(tarOut, f.getName(), f, modTime);
-                }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tar))) {
+            tarFiles(out, modTime, files);
+        }
+    }
+
+    /**
+     * Writes tar archive of the {@code files} to the stream, so archive may be sent without saving it to the file system.
+     * Stream {@code out} is not closed. Entries keep permissions of the files when file system supports POSIX attributes.
+     *
+     * @param out
+     *         stream to write archive to
+     * @param modTime
+     *         modification time that applied to all entries in archive instead modification time provided by method {@link
+     *         File#lastModified()}. This parameter should be {@code -1} if don't need to set any specified time
+     * @param files
+     *         files and directories to add in archive
+     * @throws IOException
+     *         if i/o error occurs
+     */
+    public static void tarFiles(OutputStream out, long modTime, File... files) throws IOException {
+        final TarArchiveOutputStream tarOut = new TarArchiveOutputStream(out);
+        tarOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        for (File f : files) {
+            if (f.isDirectory()) {
+                addDirectoryEntry(tarOut, f.getName(), f, modTime);
+                final String parentPath = f.getParentFile().getAbsolutePath();
+                addDirectoryRecursively(tarOut, parentPath, f, modTime, IoUtil.ANY_FILTER);
+            } else if (f.isFile()) {
+                addFileEntry(tarOut, f.getName(), f, modTime);
             }
         }
+        tarOut.finish();
+        tarOut.flush();
     }
 
     public static void tarFiles(File tar, File... files) throws IOException {
@@ -131,6 +156,7 @@ public class TarUtils {
         if (modTime >= 0) {
             tarEntry.setModTime(modTime);
         }
+        setPermissions(tarEntry, directory);
         tarOut.putArchiveEntry(tarEntry);
         tarOut.closeArchiveEntry();
     }
@@ -140,6 +166,7 @@ public class TarUtils {
         if (modTime >= 0) {
             tarEntry.setModTime(modTime);
         }
+        setPermissions(tarEntry, file);
         tarOut.putArchiveEntry(tarEntry);
         try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
             final byte[] buf = new byte[BUF_SIZE];
@@ -151,6 +178,23 @@ public class TarUtils {
         tarOut.closeArchiveEntry();
     }
 
+    /** Replaces default permissions of the entry with permissions of the file, e.g. to keep scripts executable. */
+    private static void setPermissions(TarArchiveEntry tarEntry, File file) throws IOException {
+        final Set<PosixFilePermission> permissions;
+        try {
+            permissions = Files.getPosixFilePermissions(file.toPath());
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system, default permissions are used
+            return;
+        }
+        int mode = 0;
+        for (PosixFilePermission permission : permissions) {
+            // permissions are declared from owner read to others execute, i.e. from the highest bit to the lowest
+            mode |= 0400 >> permission.ordinal();
+        }
+        tarEntry.setMode(tarEntry.getMode() & ~0777 | mode);
+    }
+
     public static void untar(File tar, File targetDir) throws IOException {
         try (InputStream in = new FileInputStream(tar)) {
             untar(in, targetDir);
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TarUtilsTest {
+
+    @Test
+    public void shouldKeepPermissionsAndModificationTimeOfFiles() throws Exception {
+        final Path dir = Files.createTempDirectory("bin");
+        final File script = Files.createFile(dir.resolve("run.sh")).toFile();
+        Files.setPosixFilePermissions(script.toPath(), PosixFilePermissions.fromString("rwxr-x---"));
+        assertTrue(script.setLastModified(1_400_000_000_000L));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TarUtils.tarFiles(out, -1, dir.toFile());
+
+        try (TarArchiveInputStream tarIn = new TarArchiveInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            final TarArchiveEntry dirEntry = tarIn.getNextTarEntry();
+            assertTrue(dirEntry.isDirectory());
+            assertEquals(dirEntry.getMode() & 0777, 0700);
+            final TarArchiveEntry scriptEntry = tarIn.getNextTarEntry();
+            assertEquals(scriptEntry.getName(), dir.getFileName() + "/run.sh");
+            assertTrue(scriptEntry.isFile());
+            assertEquals(scriptEntry.getMode() & 0777, 0750);
+            assertEquals(scriptEntry.getModTime().getTime(), 1_400_000_000_000L);
+        }
+    }
+}
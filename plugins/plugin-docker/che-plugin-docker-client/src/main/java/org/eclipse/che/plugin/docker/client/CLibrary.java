@@ -22,8 +22,11 @@ import java.util.List;
  */
 // C language functions
 public interface CLibrary extends Library {
-    int AF_UNIX     = 1; // Defined in 'sys/socket.h'
-    int SOCK_STREAM = 1; // Defined in 'sys/socket.h'
+    int AF_UNIX      = 1; // Defined in 'sys/socket.h'
+    int SOCK_STREAM  = 1; // Defined in 'sys/socket.h'
+    int MSG_PEEK     = 0x02; // Defined in 'sys/socket.h'
+    int MSG_DONTWAIT = 0x40; // Defined in 'sys/socket.h'
+    int EAGAIN       = 11; // Defined in 'errno.h'
 
     // Defined in 'unix.h', see http://man7.org/linux/man-pages/man7/unix.7.html
     class SockAddrUn extends Structure {
@@ -49,6 +52,23 @@ public interface CLibrary extends Library {
         }
     }
 
+    // Defined in 'poll.h', see http://man7.org/linux/man-pages/man2/poll.2.html
+    int POLLIN   = 0x001;
+    int POLLERR  = 0x008;
+    int POLLHUP  = 0x010;
+    int POLLNVAL = 0x020;
+
+    class PollFd extends Structure {
+        public int   fd;
+        public short events;
+        public short revents;
+
+        @Override
+        protected List getFieldOrder() {
+            return Arrays.asList("fd", "events", "revents");
+        }
+    }
+
     int socket(int domain, int type, int protocol);
 
     int connect(int fd, SockAddrUn sock_addr, int addr_len);
@@ -69,6 +89,11 @@ public interface CLibrary extends Library {
 
     int eventfd_read(int fd, LongByReference val);
 
+    int eventfd_write(int fd, long val);
+
+    /** Array of the descriptors must be created with {@link Structure#toArray(int)} to be contiguous in memory. */
+    int poll(PollFd[] fds, int nfds, int timeout);
+
     int open(String path, int mode);
 
     int O_RDONLY = 0x00;
@@ -10,11 +10,13 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.client;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.jna.ptr.LongByReference;
 
 import org.eclipse.che.api.core.util.SystemInfo;
 import org.eclipse.che.commons.lang.Size;
+import org.eclipse.che.plugin.docker.client.json.Event;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,82 +27,126 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import static org.eclipse.che.plugin.docker.client.CLibrary.POLLERR;
+import static org.eclipse.che.plugin.docker.client.CLibrary.POLLHUP;
+import static org.eclipse.che.plugin.docker.client.CLibrary.POLLIN;
+import static org.eclipse.che.plugin.docker.client.CLibrary.POLLNVAL;
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 /**
- * Docker container OOM detector based on cgroup usage
+ * Docker container OOM detector based on cgroup usage.
+ *
+ * <p>OOM notifications of all the containers are awaited by the single thread which polls
+ * cgroup notification descriptors of the containers at once, so detection doesn't take a thread per container.
+ * When cgroup of the container is not accessible, e.g. docker daemon is remote, OOM is detected
+ * with docker 'oom' event received from the {@link DockerEventHub}.
  *
  * @author Alexander Garagatyi
  */
 public class CgroupOOMDetector implements DockerOOMDetector {
     private static final Logger LOG = LoggerFactory.getLogger(CgroupOOMDetector.class);
 
-    private final Map<String, OOMDetector> oomDetectors;
-    private final URI                      dockerDaemonUri;
-    private final DockerConnector          dockerConnector;
-    private final ExecutorService          executor;
+    private final Map<String, OOMRegistration> registrations;
+    private final Queue<OOMRegistration>       closed;
+    private final URI                          dockerDaemonUri;
+    private final DockerConnector              dockerConnector;
+    private final DockerEventHub               eventHub;
+    private final ExecutorService              executor;
+
+    /** Descriptor which wakes up the poller when registrations are changed, created with the poller. */
+    private int wakeupFd = -1;
 
     @Inject
-    public CgroupOOMDetector(DockerConnectorConfiguration connectorConfiguration, DockerConnector dockerConnector) {
-        this(connectorConfiguration.getDockerDaemonUri(), dockerConnector);
+    public CgroupOOMDetector(DockerConnectorConfiguration connectorConfiguration,
+                             DockerConnector dockerConnector,
+                             DockerEventHub eventHub) {
+        this(connectorConfiguration.getDockerDaemonUri(), dockerConnector, eventHub);
     }
 
-    public CgroupOOMDetector(URI dockerDaemonUri, DockerConnector dockerConnector) {
+    public CgroupOOMDetector(URI dockerDaemonUri, DockerConnector dockerConnector, DockerEventHub eventHub) {
         this.dockerDaemonUri = dockerDaemonUri;
         this.dockerConnector = dockerConnector;
-        this.oomDetectors = new ConcurrentHashMap<>();
-        this.executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("CgroupOOMDetector-%d")
-                                                                                .setDaemon(true)
-                                                                                .build());
+        this.eventHub = eventHub;
+        this.registrations = new ConcurrentHashMap<>();
+        this.closed = new ConcurrentLinkedQueue<>();
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("CgroupOOMDetector-%d")
+                                                                                    .setDaemon(true)
+                                                                                    .build());
     }
 
     @Override
     public void stopDetection(String container) {
-        final OOMDetector oomDetector = oomDetectors.remove(container);
-        if (oomDetector != null) {
-            oomDetector.stop();
+        final OOMRegistration registration = registrations.remove(container);
+        if (registration != null) {
+            registration.cancel();
         }
     }
 
     @Override
     public void startDetection(String container, MessageProcessor<LogMessage> containerLogProcessor) {
-        if (needStartOOMDetector(container)) {
-            if (cgroupMount == null) {
-                LOG.warn("System doesn't support OOM events");
-                return;
-            }
-            try {
-                final long memory = dockerConnector.inspectContainer(container).getConfig().getHostConfig().getMemory();
-                OOMDetector oomDetector = new OOMDetector(container, containerLogProcessor, memory);
-                oomDetectors.putIfAbsent(container, oomDetector);
-                oomDetector = oomDetectors.get(container);
-                oomDetector.start();
-            } catch (IOException e) {
-                LOG.error(e.getLocalizedMessage(), e);
-            }
+        if (registrations.containsKey(container)) {
+            return;
+        }
+        final long memory;
+        try {
+            memory = dockerConnector.inspectContainer(container).getConfig().getHostConfig().getMemory();
+        } catch (IOException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            return;
+        }
+        OOMRegistration registration = null;
+        if (isCgroupAccessible()) {
+            registration = CgroupRegistration.register(this, container, containerLogProcessor, memory);
+        }
+        if (registration == null) {
+            registration = new EventRegistration(container, containerLogProcessor, memory);
+        }
+        if (registrations.putIfAbsent(container, registration) != null) {
+            // detection is started concurrently
+            registration.cancel();
+        } else {
+            registration.start();
         }
     }
 
-    private boolean needStartOOMDetector(String container) {
-        if (! oomDetectors.containsKey(container)) {
-            if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
+    private boolean isCgroupAccessible() {
+        if (cgroupMount == null) {
+            return false;
+        }
+        if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
+            return true;
+        }
+        if (SystemInfo.isLinux()) {
+            final String dockerDaemonHost = dockerDaemonUri.getHost();
+            if ("localhost".equals(dockerDaemonHost) || "127.0.0.1".equals(dockerDaemonHost)) {
                 return true;
             }
-            if (SystemInfo.isLinux()) {
-                final String dockerDaemonHost = dockerDaemonUri.getHost();
-                if ("localhost".equals(dockerDaemonHost) || "127.0.0.1".equals(dockerDaemonHost)) {
-                    return true;
-                }
-            }
         }
         return false;
     }
 
+    private static void logOOM(MessageProcessor<LogMessage> containerLogProcessor, long memory) {
+        try {
+            containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
+                                                         "[ERROR] The processes in this machine need more RAM. This machine started with " +
+                                                         Size.toHumanSize(memory)));
+            containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
+                                                         "[ERROR] Create a new machine configuration that allocates additional RAM or increase" +
+                                                         " the workspace RAM limit in the user dashboard."));
+        } catch (/*IOException*/ Exception e) {
+            LOG.warn(e.getMessage(), e);
+        }
+    }
+
     /*
      * Need detect OOM errors and notify users about them. Without such notification if application is killed by oom-killer client often can
      * see message "Killed" and there is no any why to see why. Unfortunately for now docker doesn't provide clear mechanism how to control
@@ -161,27 +207,116 @@ public class CgroupOOMDetector implements DockerOOMDetector {
         }
     }
 
+    /** Starts the poller if it is not started yet, returns false if the poller can't be started. */
+    private synchronized boolean startPoller() {
+        if (wakeupFd != -1) {
+            return true;
+        }
+        if ((wakeupFd = getCLibrary().eventfd(0, 0)) == -1) {
+            LOG.error("Unable create a file descriptor for event notification");
+            return false;
+        }
+        executor.execute(this::poll);
+        return true;
+    }
+
+    /** Wakes up the poller to poll the changed set of descriptors. */
+    private void wakeUpPoller() {
+        getCLibrary().eventfd_write(wakeupFd, 1);
+    }
+
+    /** Waits for notifications of all the registered cgroups, poller doesn't stop when there are no registrations. */
+    private void poll() {
+        final CLibrary cLib = getCLibrary();
+        final LongByReference eventHolder = new LongByReference();
+        //noinspection InfiniteLoopStatement
+        while (true) {
+            try {
+                final List<CgroupRegistration> polled = new ArrayList<>();
+                for (OOMRegistration registration : registrations.values()) {
+                    if (registration instanceof CgroupRegistration) {
+                        polled.add((CgroupRegistration)registration);
+                    }
+                }
+                final CLibrary.PollFd[] fds = (CLibrary.PollFd[])new CLibrary.PollFd().toArray(polled.size() + 1);
+                fds[0].fd = wakeupFd;
+                fds[0].events = POLLIN;
+                for (int i = 0; i < polled.size(); i++) {
+                    fds[i + 1].fd = polled.get(i).efd;
+                    fds[i + 1].events = POLLIN;
+                }
+                if (cLib.poll(fds, fds.length, -1) == -1) {
+                    LOG.error("Unable poll cgroup OOM notifications");
+                    continue;
+                }
+                if ((fds[0].revents & POLLIN) != 0) {
+                    cLib.eventfd_read(wakeupFd, eventHolder);
+                }
+                for (int i = 0; i < polled.size(); i++) {
+                    final short revents = fds[i + 1].revents;
+                    if ((revents & POLLIN) != 0) {
+                        cLib.eventfd_read(polled.get(i).efd, eventHolder);
+                        polled.get(i).notified();
+                    } else if ((revents & (POLLERR | POLLHUP | POLLNVAL)) != 0) {
+                        polled.get(i).stop();
+                    }
+                }
+                // descriptors are closed by the poller only, so they are never closed while polled
+                OOMRegistration registration;
+                while ((registration = closed.poll()) != null) {
+                    ((CgroupRegistration)registration).close();
+                }
+            } catch (RuntimeException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    private interface OOMRegistration {
+        void start();
+
+        void cancel();
+    }
+
     /**
      * Detects OOM with cgroup notification mechanism.
      * <p/>
      * https://access.redhat.com/documentation/en-US/Red_Hat_Enterprise_Linux/6/html/Resource_Management_Guide/sec-Using_the_Notification_API.html
      */
-    private class OOMDetector implements Runnable {
+    private static class CgroupRegistration implements OOMRegistration {
+        private final CgroupOOMDetector            detector;
         private final String                       container;
         private final MessageProcessor<LogMessage> containerLogProcessor;
         private final long                         memory;
-        private final CLibrary                     cLib;
         private final String                       containerCgroup;
 
-        private volatile boolean stopped = false;
-        private boolean started = false;
+        private int efd   = -1;
+        private int oomfd = -1;
+
+        /** Registers OOM notification of the container cgroup, returns null if registration is failed. */
+        static CgroupRegistration register(CgroupOOMDetector detector,
+                                           String container,
+                                           MessageProcessor<LogMessage> containerLogProcessor,
+                                           long memory) {
+            if (!detector.startPoller()) {
+                return null;
+            }
+            final CgroupRegistration registration = new CgroupRegistration(detector, container, containerLogProcessor, memory);
+            if (!registration.register()) {
+                registration.close();
+                return null;
+            }
+            return registration;
+        }
 
-        OOMDetector(String container, MessageProcessor<LogMessage> containerLogProcessor, long memory) {
+        private CgroupRegistration(CgroupOOMDetector detector,
+                                   String container,
+                                   MessageProcessor<LogMessage> containerLogProcessor,
+                                   long memory) {
+            this.detector = detector;
             this.container = container;
             this.containerLogProcessor = containerLogProcessor;
             this.memory = memory;
-            cLib = getCLibrary();
-
             if (systemd) {
                 containerCgroup = cgroupMount + "/memory/system.slice/docker-" + container + ".scope/";
             } else {
@@ -189,66 +324,77 @@ public class CgroupOOMDetector implements DockerOOMDetector {
             }
         }
 
-        @Override
-        public void run() {
+        private boolean register() {
+            final CLibrary cLib = getCLibrary();
             final String cf = containerCgroup + "cgroup.event_control";
             final String oomf = containerCgroup + "memory.oom_control";
-            int efd = -1;
-            int oomfd = -1;
-            try {
-                if ((efd = cLib.eventfd(0, 1)) == -1) {
-                    LOG.error("Unable create a file descriptor for event notification");
-                    return;
-                }
-                int cfd;
-                if ((cfd = cLib.open(cf, CLibrary.O_WRONLY)) == -1) {
-                    LOG.error("Unable open event control file '{}' for write", cf);
-                    return;
-                }
-                if ((oomfd = cLib.open(oomf, CLibrary.O_RDONLY)) == -1) {
-                    LOG.error("Unable open OOM event file '{}' for read", oomf);
-                    return;
-                }
-                final byte[] data = String.format("%d %d", efd, oomfd).getBytes();
-                if (cLib.write(cfd, data, data.length) != data.length) {
-                    LOG.error("Unable write event control data to file '{}'", cf);
-                    return;
-                }
-                if (cLib.close(cfd) == -1) {
-                    LOG.error("Error closing of event control file '{}'", cf);
-                    return;
-                }
-                final LongByReference eventHolder = new LongByReference();
-                if (cLib.eventfd_read(efd, eventHolder) == 0) {
-                    if (stopped) {
-                        return;
-                    }
-                    LOG.warn("OOM event received for container '{}'", container);
-                    if (readCgroupValue("memory.failcnt") > 0) {
-                        try {
-                            containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
-                                                                         "[ERROR] The processes in this machine need more RAM. This machine started with " +
-                                                                         Size.toHumanSize(memory)));
-                            containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
-                                                                         "[ERROR] Create a new machine configuration that allocates additional RAM or increase" +
-                                                                         " the workspace RAM limit in the user dashboard."));
-                        } catch (/*IOException*/ Exception e) {
-                            LOG.warn(e.getMessage(), e);
-                        }
-                    }
-                }
-            } finally {
-                if (!stopped) {
-                    stopDetection(container);
-                }
-                close(oomfd);
-                close(efd);
+            if ((efd = cLib.eventfd(0, 1)) == -1) {
+                LOG.error("Unable create a file descriptor for event notification");
+                return false;
+            }
+            int cfd;
+            if ((cfd = cLib.open(cf, CLibrary.O_WRONLY)) == -1) {
+                LOG.error("Unable open event control file '{}' for write", cf);
+                return false;
+            }
+            if ((oomfd = cLib.open(oomf, CLibrary.O_RDONLY)) == -1) {
+                LOG.error("Unable open OOM event file '{}' for read", oomf);
+                cLib.close(cfd);
+                return false;
+            }
+            final byte[] data = String.format("%d %d", efd, oomfd).getBytes();
+            if (cLib.write(cfd, data, data.length) != data.length) {
+                LOG.error("Unable write event control data to file '{}'", cf);
+                cLib.close(cfd);
+                return false;
+            }
+            if (cLib.close(cfd) == -1) {
+                LOG.error("Error closing of event control file '{}'", cf);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void start() {
+            detector.wakeUpPoller();
+        }
+
+        @Override
+        public void cancel() {
+            detector.closed.add(this);
+            detector.wakeUpPoller();
+        }
+
+        /** Called by the poller when OOM notification is received or cgroup is removed. */
+        void notified() {
+            if (detector.registrations.get(container) != this) {
+                // detection is stopped
+                return;
+            }
+            // notification is also received when cgroup is removed, e.g. container is stopped
+            if (readCgroupValue("memory.failcnt") > 0) {
+                LOG.warn("OOM event received for container '{}'", container);
+                logOOM(containerLogProcessor, memory);
             }
+            stop();
+        }
+
+        /** Stops detection from the poller thread. */
+        void stop() {
+            detector.registrations.remove(container, this);
+            close();
         }
 
-        private void close(int fd) {
-            if (fd != -1) {
-                cLib.close(fd);
+        void close() {
+            final CLibrary cLib = getCLibrary();
+            if (oomfd != -1) {
+                cLib.close(oomfd);
+                oomfd = -1;
+            }
+            if (efd != -1) {
+                cLib.close(efd);
+                efd = -1;
             }
         }
 
@@ -263,16 +409,34 @@ public class CgroupOOMDetector implements DockerOOMDetector {
             }
             return 0;
         }
+    }
 
-        synchronized void start() {
-            if (!started) {
-                started = true;
-                executor.execute(this);
-            }
+    /** Detects OOM with docker 'oom' event when cgroup of the container is not accessible. */
+    private class EventRegistration implements OOMRegistration, MessageProcessor<Event> {
+        private final String                       container;
+        private final MessageProcessor<LogMessage> containerLogProcessor;
+        private final long                         memory;
+
+        EventRegistration(String container, MessageProcessor<LogMessage> containerLogProcessor, long memory) {
+            this.container = container;
+            this.containerLogProcessor = containerLogProcessor;
+            this.memory = memory;
         }
 
-        void stop() {
-            stopped = true;
+        @Override
+        public void start() {
+            eventHub.subscribe(container, ImmutableSet.of("oom"), this);
+        }
+
+        @Override
+        public void cancel() {
+            eventHub.unsubscribe(this);
+        }
+
+        @Override
+        public void process(Event event) {
+            LOG.warn("OOM event received for container '{}'", container);
+            logOOM(containerLogProcessor, memory);
         }
     }
 }
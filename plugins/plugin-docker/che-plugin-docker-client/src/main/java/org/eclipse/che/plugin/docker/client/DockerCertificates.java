@@ -17,6 +17,7 @@ import org.eclipse.che.commons.lang.NameGenerator;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import java.io.File;
@@ -130,13 +131,23 @@ public class DockerCertificates {
         return sslcontext;
     }
 
-    private final SSLContext sslContext;
+    private final SSLContext       sslContext;
+    private final SSLSocketFactory socketFactory;
 
     private DockerCertificates(SSLContext sslContext) {
         this.sslContext = sslContext;
+        this.socketFactory = sslContext.getSocketFactory();
     }
 
     public SSLContext getSslContext() {
         return sslContext;
     }
+
+    /**
+     * Returns socket factory of the {@link #getSslContext() SSL context}.
+     * The same instance is returned each time, so https connections which use it may be kept alive and reused.
+     */
+    public SSLSocketFactory getSocketFactory() {
+        return socketFactory;
+    }
 }
\ No newline at end of file
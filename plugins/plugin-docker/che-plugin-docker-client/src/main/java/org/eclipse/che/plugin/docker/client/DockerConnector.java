@@ -10,15 +10,22 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.client;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
+import com.google.common.io.CountingOutputStream;
 import com.google.common.reflect.TypeToken;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
+import com.google.inject.Inject;
 
-import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.lang.TarUtils;
 import org.eclipse.che.commons.lang.ws.rs.ExtMediaType;
@@ -84,26 +91,25 @@ import org.eclipse.che.plugin.docker.client.params.network.InspectNetworkParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.ws.rs.core.MediaType;
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.net.UrlEscapers.urlPathSegmentEscaper;
@@ -112,6 +118,7 @@ import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.eclipse.che.commons.lang.IoUtil.readAndCloseQuietly;
+import static org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration.isUnixSocketUri;
 
 /**
  * Client for docker API.
@@ -130,10 +137,27 @@ public class DockerConnector {
                                                         .setFieldNamingPolicy(FieldNamingPolicy.UPPER_CAMEL_CASE)
                                                         .create();
 
+    public static final String BUILD_CACHE_EXPIRE_AFTER_MS_PROPERTY = "che.docker.build_cache.expire_after_ms";
+    public static final String PROGRESS_UPDATE_INTERVAL_MS_PROPERTY = "che.docker.progress_update_interval_ms";
+
+    private static final int BUILD_CACHE_MAX_SIZE = 100;
+    private static final int COPY_BUFFERS         = 4;
+    private static final int COPY_BUFFER_SIZE     = 64 * 1024;
+
     private final URI                        dockerDaemonUri;
     private final DockerRegistryAuthResolver authResolver;
     private final ExecutorService            executor;
     private final DockerConnectionFactory    connectionFactory;
+    private final boolean                    compressArchives;
+    private final Cache<String, BuiltImage>  builtImages;
+
+    @Inject(optional = true)
+    @Named(BUILD_CACHE_EXPIRE_AFTER_MS_PROPERTY)
+    private long buildCacheExpireAfterMs = 3_600_000;
+
+    @Inject(optional = true)
+    @Named(PROGRESS_UPDATE_INTERVAL_MS_PROPERTY)
+    private long progressUpdateIntervalMs = 300;
 
     protected final String apiVersionPathPrefix;
 
@@ -146,6 +170,11 @@ public class DockerConnector {
         this.connectionFactory = connectionFactory;
         this.authResolver = authResolver;
         this.apiVersionPathPrefix = dockerApiVersionPathPrefixProvider.get();
+        // compression of the uploaded archives is not worth CPU time when the daemon is local
+        this.compressArchives = dockerDaemonUri != null && !isUnixSocketUri(dockerDaemonUri);
+        this.builtImages = CacheBuilder.newBuilder()
+                                       .maximumSize(BUILD_CACHE_MAX_SIZE)
+                                       .build();
         executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
                                                          .setNameFormat("DockerApiConnector-%d")
                                                          .setDaemon(true)
@@ -641,40 +670,74 @@ public class DockerConnector {
     /**
      * Puts files into specified container.
      *
+     * <p>Tar archive of the source stream is sent to the daemon as it is read, with chunked transfer encoding.
+     *
      * @throws IOException
      *          when a problem occurs with docker api calls, or during file system operations
      * @apiNote this method implements 1.20 docker API and requires docker not less than 1.8 version
      */
     public void putResource(final PutResourceParams params) throws IOException {
-        File tarFile;
-        long length;
         try (InputStream sourceData = params.getSourceStream()) {
-            // TODO according to http spec http://www.w3.org/Protocols/rfc2616/rfc2616-sec4.html#sec4.4,
-            // it is possible to send request without specifying content length if chunked encoding header is set
-            // Investigate is it possible to write the stream to request directly
-
-            // we save stream to file, because we have to know its length
-            Path tarFilePath = Files.createTempFile("compressed-resources", ".tar");
-            tarFile = tarFilePath.toFile();
-            length = Files.copy(sourceData, tarFilePath, StandardCopyOption.REPLACE_EXISTING);
+            putArchive(params, output -> ByteStreams.copy(sourceData, output));
         }
+    }
 
-        try (InputStream tarStream = new BufferedInputStream(new FileInputStream(tarFile));
-             DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
+    /**
+     * Puts files of the local file system into specified container, files are archived
+     * while they are sent to the daemon, modification time and permissions of the files are kept.
+     * Source stream of the parameters is not used.
+     *
+     * @param files
+     *         files or directories to put, directories are put with their content
+     * @return size of the put archive in bytes
+     * @throws IOException
+     *          when a problem occurs with docker api calls, or during file system operations
+     * @apiNote this method implements 1.20 docker API and requires docker not less than 1.8 version
+     */
+    public long putFiles(final PutResourceParams params, final File... files) throws IOException {
+        final long[] archived = new long[1];
+        putArchive(params, output -> {
+            final CountingOutputStream counting = new CountingOutputStream(output);
+            TarUtils.tarFiles(counting, -1, files);
+            archived[0] = counting.getCount();
+        });
+        return archived[0];
+    }
+
+    /**
+     * Copies files from one container into another, both containers are managed by this daemon.
+     *
+     * <p>Archive of the files is downloaded and uploaded at the same time through
+     * {@value #COPY_BUFFERS} buffers of {@value #COPY_BUFFER_SIZE} bytes, so the archive
+     * is neither kept in memory nor saved to temporary file. Source stream of the target parameters is not used.
+     *
+     * @return size of the copied archive in bytes
+     * @throws IOException
+     *          when a problem occurs with docker api calls
+     * @apiNote this method implements 1.20 docker API and requires docker not less than 1.8 version
+     */
+    public long copyResource(final GetResourceParams source, final PutResourceParams target) throws IOException {
+        final PipelinedCopy pipe = new PipelinedCopy(COPY_BUFFERS, COPY_BUFFER_SIZE);
+        final long[] copied = new long[1];
+        try (InputStream sourceData = getResource(source)) {
+            putArchive(target, output -> copied[0] = pipe.copy(sourceData, output, executor));
+        }
+        return copied[0];
+    }
+
+    private void putArchive(PutResourceParams params, DockerConnection.EntityWriter archiveWriter) throws IOException {
+        try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
                                                             .method("PUT")
                                                             .path(apiVersionPathPrefix + "/containers/" + params.getContainer() +
                                                                   "/archive")
                                                             .query("path", params.getTargetPath())
                                                             .header("Content-Type", ExtMediaType.APPLICATION_X_TAR)
-                                                            .header("Content-Length", length)
-                                                            .entity(tarStream)) {
+                                                            .entity(output -> writeArchive(output, archiveWriter))) {
             addQueryParamIfNotNull(connection, "noOverwriteDirNonDir", params.isNoOverwriteDirNonDir());
             final DockerResponse response = connection.request();
             if (response.getStatus() != OK.getStatusCode()) {
                 throw getDockerException(response);
             }
-        } finally {
-            FileCleaner.addFile(tarFile);
         }
     }
 
@@ -718,6 +781,9 @@ public class DockerConnector {
     /**
      * Builds new image.
      *
+     * <p>Image previously built from the same files with the same parameters is reused without the build,
+     * see {@link #BUILD_CACHE_EXPIRE_AFTER_MS_PROPERTY}. Build with {@code noCache} parameter is always performed.
+     *
      * @param progressMonitor
      *         ProgressMonitor for images creation process
      * @return image id
@@ -736,22 +802,101 @@ public class DockerConnector {
         }
 
         // build context is set of files
-        final File tar = Files.createTempFile(null, ".tar").toFile();
-        try {
-            File[] files = new File[params.getFiles().size()];
-            files = params.getFiles().toArray(files);
-            createTarArchive(tar, files);
-            try (InputStream tarInput = new FileInputStream(tar)) {
-                DockerConnection dockerConnection = connectionFactory.openConnection(dockerDaemonUri)
-                                                                     .header("Content-Type", "application/x-compressed-tar")
-                                                                     .header("Content-Length", tar.length())
-                                                                     .entity(tarInput);
-                return buildImage(dockerConnection,
-                                  params,
-                                  progressMonitor);
+        File[] files = new File[params.getFiles().size()];
+        files = params.getFiles().toArray(files);
+        final String buildContextHash = getBuildContextHash(params, files);
+        if (buildContextHash != null) {
+            final String imageId = getPreviouslyBuiltImage(buildContextHash, params);
+            if (imageId != null) {
+                return imageId;
+            }
+        }
+
+        // tar archive of the build context is written directly to the request body,
+        // docker daemon detects whether the archive is compressed by itself
+        final File[] contextFiles = files;
+        DockerConnection dockerConnection = connectionFactory.openConnection(dockerDaemonUri)
+                                                             .header("Content-Type", compressArchives
+                                                                                     ? "application/x-compressed-tar"
+                                                                                     : ExtMediaType.APPLICATION_X_TAR)
+                                                             .entity(output -> writeBuildContext(output, contextFiles));
+        final String imageId = buildImage(dockerConnection,
+                                          params,
+                                          progressMonitor);
+        if (buildContextHash != null) {
+            builtImages.put(buildContextHash, new BuiltImage(imageId, System.currentTimeMillis()));
+        }
+        return imageId;
+    }
+
+    /**
+     * Returns hash of the build context and build parameters which affect the resulting image,
+     * or null if the image must not be taken from the cache of previously built images.
+     * Hash is computed over the same tar archive which is sent to the daemon, so it covers
+     * names, permissions and content of the files.
+     */
+    private String getBuildContextHash(BuildImageParams params, File[] files) throws IOException {
+        if (buildCacheExpireAfterMs <= 0 || Boolean.TRUE.equals(params.isNoCache())) {
+            return null;
+        }
+        final Hasher hasher = Hashing.sha256().newHasher();
+        try (OutputStream hasherOutput = Funnels.asOutputStream(hasher)) {
+            TarUtils.tarFiles(hasherOutput, 0, files);
+        }
+        final Map<String, String> buildArgs = params.getBuildArgs() == null ? null : new TreeMap<>(params.getBuildArgs());
+        hasher.putUnencodedChars(GSON.toJson(new Object[] {params.getDockerfile(), params.isDoForcePull(), buildArgs}));
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Returns id of the image previously built from the same build context, or null if there is no such image.
+     * The image is tagged with the repository requested by the build parameters,
+     * image which is removed from the daemon since it was built is evicted from the cache.
+     */
+    private String getPreviouslyBuiltImage(String buildContextHash, BuildImageParams params) throws IOException {
+        final BuiltImage builtImage = builtImages.getIfPresent(buildContextHash);
+        if (builtImage == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - builtImage.buildTime > buildCacheExpireAfterMs) {
+            builtImages.invalidate(buildContextHash);
+            return null;
+        }
+        if (params.getRepository() != null) {
+            try {
+                tag(TagParams.create(builtImage.id, params.getRepository())
+                             .withTag(params.getTag())
+                             .withForce(true));
+            } catch (ImageNotFoundException e) {
+                builtImages.invalidate(buildContextHash);
+                return null;
+            }
+        } else {
+            try {
+                inspectImage(InspectImageParams.create(builtImage.id));
+            } catch (DockerException e) {
+                if (e.getStatus() != 404) {
+                    throw e;
+                }
+                builtImages.invalidate(buildContextHash);
+                return null;
             }
-        } finally {
-            FileCleaner.addFile(tar);
+        }
+        return builtImage.id;
+    }
+
+    private void writeBuildContext(OutputStream output, File[] files) throws IOException {
+        writeArchive(output, archiveOutput -> TarUtils.tarFiles(archiveOutput, 0, files));
+    }
+
+    /** Writes tar archive to the request, archive is compressed if the daemon is not local. */
+    private void writeArchive(OutputStream output, DockerConnection.EntityWriter archiveWriter) throws IOException {
+        if (compressArchives) {
+            final GZIPOutputStream gzipOutput = new GZIPOutputStream(output, 8192);
+            archiveWriter.writeTo(gzipOutput);
+            gzipOutput.finish();
+        } else {
+            archiveWriter.writeTo(output);
         }
     }
 
@@ -910,11 +1055,12 @@ public class DockerConnector {
                 // In case of any exception main thread cancels future and close connection.
                 // If Docker connection implementation supports interrupting it will stop streaming on interruption,
                 // if not it will be stopped by closure of unix socket
+                final ProgressMonitor monitor = aggregateProgress(progressMonitor);
                 Future<String>digestFuture = executor.submit(() -> {
                     String digestPrefix = firstNonNull(params.getTag(), "latest") + ": digest: ";
                     ProgressStatus progressStatus;
                     while ((progressStatus = progressReader.next()) != null) {
-                        progressMonitor.updateProgress(progressStatus);
+                        monitor.updateProgress(progressStatus);
                         if (progressStatus.getError() != null) {
                             throw new DockerException(progressStatus.getError(), 500);
                         }
@@ -924,9 +1070,11 @@ public class DockerConnector {
                         // for example:
                         // latest: digest: sha256:9a70e6222ded459fde37c56af23887467c512628eb8e78c901f3390e49a800a0 size: 62189
                         if (status != null && status.startsWith(digestPrefix)) {
+                            flushProgress(monitor);
                             return status.substring(digestPrefix.length(), status.indexOf(" ", digestPrefix.length()));
                         }
                     }
+                    flushProgress(monitor);
 
                     LOG.error("Docker image {}:{} was successfully pushed, but its digest wasn't obtained",
                               fullRepo,
@@ -1020,11 +1168,13 @@ public class DockerConnector {
                 // In case of any exception main thread cancels future and close connection.
                 // If Docker connection implementation supports interrupting it will stop streaming on interruption,
                 // if not it will be stopped by closure of unix socket
+                final ProgressMonitor monitor = aggregateProgress(progressMonitor);
                 Future<Object> pullFuture = executor.submit(() -> {
                     ProgressStatus progressStatus;
                     while ((progressStatus = progressReader.next()) != null) {
-                        progressMonitor.updateProgress(progressStatus);
+                        monitor.updateProgress(progressStatus);
                     }
+                    flushProgress(monitor);
 
                     return null;
                 });
@@ -1274,6 +1424,24 @@ public class DockerConnector {
         }
     }
 
+    /**
+     * Wraps monitor of image pull or push with {@link ProgressAggregator},
+     * so progress of each layer is not sent to the monitor separately.
+     */
+    private ProgressMonitor aggregateProgress(ProgressMonitor progressMonitor) {
+        if (progressUpdateIntervalMs <= 0 || progressMonitor == ProgressMonitor.DEV_NULL) {
+            return progressMonitor;
+        }
+        return new ProgressAggregator(progressMonitor, progressUpdateIntervalMs);
+    }
+
+    /** Sends the last aggregated progress which is not sent yet, see {@link #aggregateProgress(ProgressMonitor)}. */
+    private static void flushProgress(ProgressMonitor monitor) {
+        if (monitor instanceof ProgressAggregator) {
+            ((ProgressAggregator)monitor).flush();
+        }
+    }
+
     private String getBuildImageId(ProgressStatus progressStatus) {
         final String stream = progressStatus.getStream();
         if (stream != null && stream.startsWith("Successfully built ")) {
@@ -1312,10 +1480,6 @@ public class DockerConnector {
         }
     }
 
-    private void createTarArchive(File tar, File... files) throws IOException {
-        TarUtils.tarFiles(tar, 0, files);
-    }
-
     /**
      * Adds given parameter to query if it set (not null).
      *
@@ -1359,4 +1523,14 @@ public class DockerConnector {
             throw new IOException(e.getLocalizedMessage(), e);
         }
     }
+
+    private static class BuiltImage {
+        final String id;
+        final long   buildTime;
+
+        BuiltImage(String id, long buildTime) {
+            this.id = id;
+            this.buildTime = buildTime;
+        }
+    }
 }
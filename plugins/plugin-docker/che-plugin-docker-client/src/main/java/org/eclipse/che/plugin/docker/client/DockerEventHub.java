@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.plugin.docker.client.exception.ContainerNotFoundException;
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.ContainerListEntry;
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.json.Filters;
+import org.eclipse.che.plugin.docker.client.params.GetEventsParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Single stream of docker containers events shared by all the consumers of the docker daemon state.
+ *
+ * <p>Hub keeps one events stream open, when the stream is broken it is opened again
+ * from the time of the last received event, so events which happen while the stream is reopened
+ * are replayed by the daemon, while already delivered events are skipped.
+ * Events are delivered to the subscribers which are interested in the event type
+ * and, optionally, in the particular container. Events are delivered to each subscriber in the order
+ * of their arrival by a separate pool, so a slow subscriber delays neither reading of the stream
+ * nor delivery to the other subscribers.
+ *
+ * <p>Hub also keeps the table of the docker containers updated by the events,
+ * so consumers may get the list of containers without calls to the docker API.
+ * The table is loaded from the docker API when the stream is opened first time
+ * and each time after the stream is broken, as the daemon keeps limited number of past events.
+ */
+@Singleton
+public class DockerEventHub {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerEventHub.class);
+
+    /** Container events which are tracked by the hub. */
+    static final List<String> CONTAINER_EVENTS = asList("create",
+                                                        "start",
+                                                        "restart",
+                                                        "die",
+                                                        "oom",
+                                                        "kill",
+                                                        "stop",
+                                                        "pause",
+                                                        "unpause",
+                                                        "rename",
+                                                        "destroy");
+
+    private static final long MIN_RECONNECT_DELAY_MS = 1000;
+    private static final long MAX_RECONNECT_DELAY_MS = 30_000;
+    private static final int  DELIVERY_THREADS       = 4;
+
+    private final DockerConnector                 docker;
+    private final ExecutorService                 executor;
+    private final ExecutorService                 deliveryExecutor;
+    private final List<Subscriber>                subscribers;
+    private final Map<String, List<Subscriber>>   containerSubscribers;
+    private final Map<String, ContainerListEntry> containers;
+    private final Set<String>                     lastSecondEvents;
+
+    private volatile boolean synchronizedWithDaemon;
+    private volatile boolean stopped;
+    private          long    lastEventTime;
+
+    @Inject
+    public DockerEventHub(DockerConnector docker) {
+        this.docker = docker;
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("DockerEventHub-%d")
+                                                                                    .setDaemon(true)
+                                                                                    .build());
+        this.deliveryExecutor = Executors.newFixedThreadPool(DELIVERY_THREADS,
+                                                             new ThreadFactoryBuilder().setNameFormat("DockerEventHub-delivery-%d")
+                                                                                       .setDaemon(true)
+                                                                                       .build());
+        this.subscribers = new CopyOnWriteArrayList<>();
+        this.containerSubscribers = new ConcurrentHashMap<>();
+        this.containers = new ConcurrentHashMap<>();
+        this.lastSecondEvents = new HashSet<>();
+    }
+
+    /**
+     * Subscribes to the events of all the containers.
+     *
+     * @param events
+     *         types of events, e.g. 'die', empty set means all the events tracked by the hub
+     * @param processor
+     *         processor of the events, receives events one by one
+     */
+    public void subscribe(Set<String> events, MessageProcessor<Event> processor) {
+        subscribers.add(new Subscriber(events, processor));
+    }
+
+    /**
+     * Subscribes to the events of the container.
+     *
+     * @param container
+     *         id of the container
+     * @param events
+     *         types of events, e.g. 'die', empty set means all the events tracked by the hub
+     * @param processor
+     *         processor of the events, receives events one by one
+     */
+    public void subscribe(String container, Set<String> events, MessageProcessor<Event> processor) {
+        containerSubscribers.computeIfAbsent(container, id -> new CopyOnWriteArrayList<>())
+                            .add(new Subscriber(events, processor));
+    }
+
+    /** Removes all the subscriptions of the processor. */
+    public void unsubscribe(MessageProcessor<Event> processor) {
+        subscribers.removeIf(subscriber -> subscriber.processor == processor);
+        containerSubscribers.values().forEach(list -> list.removeIf(subscriber -> subscriber.processor == processor));
+        containerSubscribers.values().removeIf(List::isEmpty);
+    }
+
+    /**
+     * Returns all the containers of the docker daemon including stopped ones.
+     * Containers are taken from the table maintained by the hub, docker API is called
+     * only when the table is not synchronized with the daemon, e.g. when the daemon is not accessible.
+     *
+     * @throws IOException
+     *         when the table is not synchronized and docker API call fails
+     */
+    public List<ContainerListEntry> getContainers() throws IOException {
+        if (synchronizedWithDaemon) {
+            return new ArrayList<>(containers.values());
+        }
+        return docker.listContainers();
+    }
+
+    @PostConstruct
+    void start() {
+        executor.execute(this::listen);
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+        executor.shutdownNow();
+        deliveryExecutor.shutdownNow();
+    }
+
+    private void listen() {
+        long reconnectDelayMs = MIN_RECONNECT_DELAY_MS;
+        while (!stopped) {
+            try {
+                if (!synchronizedWithDaemon) {
+                    loadContainers();
+                }
+                docker.getEvents(GetEventsParams.create()
+                                                .withSinceSecond(lastEventTime)
+                                                .withFilters(new Filters().withFilter("event", CONTAINER_EVENTS.toArray(new String[0]))),
+                                 this::process);
+                // stream is closed by the daemon, reopen it from the last event
+                reconnectDelayMs = MIN_RECONNECT_DELAY_MS;
+            } catch (IOException e) {
+                // daemon may be restarted and lose its events, so containers are loaded again after reconnect
+                synchronizedWithDaemon = false;
+                LOG.debug(e.getLocalizedMessage(), e);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                reconnectDelayMs = Math.min(reconnectDelayMs * 2, MAX_RECONNECT_DELAY_MS);
+            } catch (RuntimeException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    private void loadContainers() throws IOException {
+        if (lastEventTime == 0) {
+            // events which happen while containers are listed are replayed after the stream is opened
+            lastEventTime = System.currentTimeMillis() / 1000;
+        }
+        final List<ContainerListEntry> list = docker.listContainers();
+        containers.clear();
+        for (ContainerListEntry container : list) {
+            containers.put(container.getId(), container);
+        }
+        synchronizedWithDaemon = true;
+    }
+
+    private void process(Event event) {
+        if (event.getType() != null && !"container".equals(event.getType())) {
+            // docker swarm doesn't filter events, skip all not container events
+            return;
+        }
+        final String status = event.getStatus() != null ? event.getStatus() : event.getAction();
+        if (status == null || event.getId() == null || isProcessed(event, status)) {
+            return;
+        }
+        updateContainer(event.getId(), status);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.process(status, event);
+        }
+        final List<Subscriber> ofContainer = containerSubscribers.get(event.getId());
+        if (ofContainer != null) {
+            for (Subscriber subscriber : ofContainer) {
+                subscriber.process(status, event);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the event is already processed.
+     * Stream is reopened from the second of the last event, so events of this second may come again.
+     */
+    private boolean isProcessed(Event event, String status) {
+        if (event.getTime() < lastEventTime) {
+            return true;
+        }
+        if (event.getTime() > lastEventTime) {
+            lastEventTime = event.getTime();
+            lastSecondEvents.clear();
+        }
+        return !lastSecondEvents.add(event.getId() + ':' + status + ':' + event.getTimeNano());
+    }
+
+    private void updateContainer(String id, String status) {
+        switch (status) {
+            case "destroy":
+                containers.remove(id);
+                break;
+            case "create":
+            case "rename":
+                try {
+                    containers.put(id, toListEntry(docker.inspectContainer(id)));
+                } catch (ContainerNotFoundException e) {
+                    containers.remove(id);
+                } catch (IOException e) {
+                    LOG.warn("Can't get info of docker container '{}'. Cause: {}", id, e.getLocalizedMessage());
+                }
+                break;
+            case "start":
+            case "restart":
+            case "unpause":
+                setStatus(id, "Up");
+                break;
+            case "pause":
+                setStatus(id, "Up (Paused)");
+                break;
+            case "die":
+            case "stop":
+                setStatus(id, "Exited");
+                break;
+            default:
+                // event doesn't change state of the container
+        }
+    }
+
+    private void setStatus(String id, String status) {
+        final ContainerListEntry container = containers.get(id);
+        if (container != null) {
+            container.setStatus(status);
+        }
+    }
+
+    private static ContainerListEntry toListEntry(ContainerInfo info) {
+        final ContainerListEntry container = new ContainerListEntry();
+        container.setId(info.getId());
+        container.setNames(new String[] {info.getName()});
+        container.setImageID(info.getImage());
+        if (info.getConfig() != null) {
+            container.setImage(info.getConfig().getImage());
+            container.setLabels(info.getConfig().getLabels());
+        }
+        container.setStatus(info.getState() != null && info.getState().isRunning() ? "Up" : "Created");
+        return container;
+    }
+
+    /** Subscriber with its own queue of events, so events are delivered in order while subscribers run concurrently. */
+    private class Subscriber {
+        final Set<String>             events;
+        final MessageProcessor<Event> processor;
+        final Queue<Event>            pending;
+        final AtomicBoolean           delivering;
+
+        Subscriber(Set<String> events, MessageProcessor<Event> processor) {
+            this.events = events != null ? events : Collections.emptySet();
+            this.processor = processor;
+            this.pending = new ConcurrentLinkedQueue<>();
+            this.delivering = new AtomicBoolean();
+        }
+
+        void process(String status, Event event) {
+            if (events.isEmpty() || events.contains(status)) {
+                pending.add(event);
+                scheduleDelivery();
+            }
+        }
+
+        private void scheduleDelivery() {
+            if (delivering.compareAndSet(false, true)) {
+                try {
+                    deliveryExecutor.execute(this::deliver);
+                } catch (RejectedExecutionException e) {
+                    // hub is stopped
+                    delivering.set(false);
+                }
+            }
+        }
+
+        private void deliver() {
+            Event event;
+            while ((event = pending.poll()) != null) {
+                try {
+                    processor.process(event);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+            delivering.set(false);
+            // event may be added after the queue is found empty but before delivery is finished
+            if (!pending.isEmpty()) {
+                scheduleDelivery();
+            }
+        }
+    }
+}
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.client;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * @author andrew00x
  */
@@ -22,18 +24,30 @@ public class LogMessage {
     }
 
     private final Type   type;
-    private final String content;
+    private final byte[] bytes;
+
+    private String content;
 
     LogMessage(Type type, String content) {
         this.type = type;
+        this.bytes = null;
         this.content = content;
     }
 
+    /** Creates message with UTF-8 encoded content which is decoded only when it is requested. */
+    LogMessage(Type type, byte[] bytes) {
+        this.type = type;
+        this.bytes = bytes;
+    }
+
     public Type getType() {
         return type;
     }
 
     public String getContent() {
+        if (content == null) {
+            content = new String(bytes, UTF_8);
+        }
         return content;
     }
 
@@ -41,7 +55,7 @@ public class LogMessage {
     public String toString() {
         return "LogMessage{" +
                "type=" + type +
-               ", content='" + content + '\'' +
+               ", content='" + getContent() + '\'' +
                '}';
     }
 }
@@ -17,8 +17,17 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 /**
+ * Demultiplexes stdout/stderr frames of docker stream into lines.
+ *
+ * <p>Frames are read into a buffer which is reused for all the frames, bytes of the current line
+ * are collected in another reused buffer, so the only allocation per line is the copy of the line bytes
+ * which is decoded to string only when the content of the message is requested.
+ * Lines longer than {@value #MAX_LINE_LENGTH} bytes are split at UTF-8 character boundaries, so each part is decoded
+ * without replacement characters.
+ *
  * @author andrew00x
  */
 class LogMessagePumper extends MessagePumper<LogMessage> {
@@ -26,79 +35,151 @@ class LogMessagePumper extends MessagePumper<LogMessage> {
 
     private static final int STREAM_HEADER_LENGTH = 8;
     private static final int MAX_LINE_LENGTH      = 1024;
+    private static final int BUFFER_SIZE          = 8192;
 
     private final InputStream                  source;
     private final MessageProcessor<LogMessage> target;
+    private final byte[]                       buf;
+    private final byte[]                       line;
+
+    private int             lineLength;
+    private boolean         pendingCarriageReturn;
+    private LogMessage.Type logMessageType;
 
     LogMessagePumper(InputStream source, MessageProcessor<LogMessage> target) {
         super(null, null);
         this.source = source;
         this.target = target;
+        this.buf = new byte[BUFFER_SIZE];
+        this.line = new byte[MAX_LINE_LENGTH];
+        this.logMessageType = LogMessage.Type.DOCKER;
     }
 
     @Override
     void start() throws IOException {
-        final byte[] buf = new byte[MAX_LINE_LENGTH];
-        StringBuilder lineBuf = null;
-        boolean endOfLine = false;
-        LogMessage.Type logMessageType = LogMessage.Type.DOCKER;
         for (; ; ) {
             int r = ByteStreams.read(source, buf, 0, STREAM_HEADER_LENGTH);
-            if (r != 8) {
-                if (r != -1) {
+            if (r != STREAM_HEADER_LENGTH) {
+                if (r > 0) {
                     LOG.debug("Invalid stream, can't read header. Header of each frame must contain 8 bytes but got {}", r);
                 }
-                if (lineBuf != null && lineBuf.length() > 0) {
-                    target.process(new LogMessage(logMessageType, lineBuf.toString()));
-                    lineBuf.setLength(0);
-                }
-                break;
+                flushLine();
+                return;
             }
             logMessageType = getLogMessageType(buf);
             int remaining = getPayloadLength(buf);
             while (remaining > 0) {
                 r = source.read(buf, 0, Math.min(remaining, buf.length));
-                int offset = 0;
-                int lineLength = lineBuf != null ? lineBuf.length() : 0;
-                for (int i = 0; i < r; i++, lineLength++) {
-                    endOfLine = false;
-                    if (buf[i] == '\n' || buf[i] == '\r' || lineLength > MAX_LINE_LENGTH) {
-                        int length = i - offset;
-                        boolean isLineFeedFollowed = false;
-                        if (buf[i] == '\r') {
-                            int nextIndex = i + 1;
-                            isLineFeedFollowed = nextIndex < MAX_LINE_LENGTH && nextIndex < r && buf[nextIndex] == '\n';
-                            if (!isLineFeedFollowed) {
-                                length += 1; // include <CR> char in log message
-                            }
-                        }
-                        if (lineBuf != null && lineBuf.length() > 0) {
-                            lineBuf.append(new String(buf, offset, length));
-                            target.process(new LogMessage(logMessageType, lineBuf.toString()));
-                            lineBuf.setLength(0);
-                        } else {
-                            target.process(new LogMessage(logMessageType, new String(buf, offset, length)));
-                        }
-
-                        if (isLineFeedFollowed) {
-                            i++;
-                        }
-                        offset = i + 1;
-                        lineLength = 0;
-                        endOfLine = true;
-                    }
-                }
-                if (!endOfLine) {
-                    if (lineBuf == null) {
-                        lineBuf = new StringBuilder(MAX_LINE_LENGTH);
-                    }
-                    lineBuf.append(new String(buf, offset, r - offset));
+                if (r == -1) {
+                    LOG.debug("Invalid stream, frame is not complete, {} bytes are missing", remaining);
+                    flushLine();
+                    return;
                 }
+                processPayload(r);
                 remaining -= r;
             }
         }
     }
 
+    /**
+     * Splits payload bytes into lines by LF or CRLF, CR which is not followed by LF
+     * ends the line as well and is included in the message.
+     */
+    private void processPayload(int length) {
+        int start = 0;
+        if (pendingCarriageReturn) {
+            // previous payload ended with CR, line ends either with CRLF or with single CR
+            pendingCarriageReturn = false;
+            if (buf[0] == '\n') {
+                start = 1;
+            } else {
+                appendCarriageReturn();
+            }
+            sendLine();
+        }
+        for (int i = start; i < length; i++) {
+            if (buf[i] == '\n') {
+                appendToLine(start, i - start);
+                sendLine();
+                start = i + 1;
+            } else if (buf[i] == '\r') {
+                if (i + 1 == length) {
+                    appendToLine(start, i - start);
+                    pendingCarriageReturn = true;
+                    return;
+                }
+                if (buf[i + 1] == '\n') {
+                    appendToLine(start, i - start);
+                    i++;
+                } else {
+                    appendToLine(start, i + 1 - start);
+                }
+                sendLine();
+                start = i + 1;
+            }
+        }
+        appendToLine(start, length - start);
+    }
+
+    private void appendToLine(int offset, int length) {
+        while (length > 0) {
+            if (lineLength == MAX_LINE_LENGTH) {
+                sendFullLine();
+            }
+            final int n = Math.min(length, MAX_LINE_LENGTH - lineLength);
+            System.arraycopy(buf, offset, line, lineLength, n);
+            lineLength += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    private void appendCarriageReturn() {
+        if (lineLength == MAX_LINE_LENGTH) {
+            sendFullLine();
+        }
+        line[lineLength++] = '\r';
+    }
+
+    /** Sends the full line, bytes of its last character which is not complete yet start the next line. */
+    private void sendFullLine() {
+        int lead = lineLength - 1;
+        while (lead > 0 && lead > lineLength - 4 && (line[lead] & 0xC0) == 0x80) {
+            lead--;
+        }
+        final int end = lead > 0 && lead + getUtf8CharLength(line[lead]) > lineLength ? lead : lineLength;
+        target.process(new LogMessage(logMessageType, Arrays.copyOf(line, end)));
+        System.arraycopy(line, end, line, 0, lineLength - end);
+        lineLength -= end;
+    }
+
+    /** Returns number of bytes of UTF-8 character which starts with the given byte, 1 for malformed byte. */
+    private static int getUtf8CharLength(byte lead) {
+        if ((lead & 0xE0) == 0xC0) {
+            return 2;
+        } else if ((lead & 0xF0) == 0xE0) {
+            return 3;
+        } else if ((lead & 0xF8) == 0xF0) {
+            return 4;
+        }
+        return 1;
+    }
+
+    private void sendLine() {
+        target.process(new LogMessage(logMessageType, Arrays.copyOf(line, lineLength)));
+        lineLength = 0;
+    }
+
+    private void flushLine() {
+        if (pendingCarriageReturn) {
+            pendingCarriageReturn = false;
+            appendCarriageReturn();
+        }
+        if (lineLength > 0) {
+            sendLine();
+        }
+    }
+
     private int getPayloadLength(byte[] header) {
         return (header[7] & 0xFF) + ((header[6] & 0xFF) << 8) + ((header[5] & 0xFF) << 16) + ((header[4] & 0xFF) << 24);
     }
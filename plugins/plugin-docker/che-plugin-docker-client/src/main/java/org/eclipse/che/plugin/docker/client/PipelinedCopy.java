@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Copies data from one stream to another, reading of the source and writing to the target run in parallel.
+ *
+ * <p>Source is read into buffers of the fixed-size pool by a task of the given executor, while the caller
+ * thread writes filled buffers to the target and returns them to the pool. So slow source doesn't stall writing
+ * of already read data and vice versa, while memory is bounded with {@code buffers * bufferSize} bytes per copy.
+ */
+class PipelinedCopy {
+    // marks the end of the source
+    private static final ByteBuffer EOF = ByteBuffer.allocate(0);
+
+    private final BlockingQueue<byte[]>     pool;
+    private final BlockingQueue<ByteBuffer> filled;
+
+    private volatile IOException readError;
+
+    PipelinedCopy(int buffers, int bufferSize) {
+        this.pool = new ArrayBlockingQueue<>(buffers);
+        // one more slot for the end of stream marker
+        this.filled = new ArrayBlockingQueue<>(buffers + 1);
+        for (int i = 0; i < buffers; i++) {
+            pool.add(new byte[bufferSize]);
+        }
+    }
+
+    /**
+     * Copies all data from the source to the target, streams are not closed.
+     *
+     * @return number of copied bytes
+     * @throws IOException
+     *         if reading of the source or writing to the target fails
+     */
+    long copy(InputStream source, OutputStream target, ExecutorService executor) throws IOException {
+        final Future<?> reading = executor.submit(() -> read(source));
+        long copied = 0;
+        try {
+            for (ByteBuffer chunk = filled.take(); chunk != EOF; chunk = filled.take()) {
+                target.write(chunk.array(), 0, chunk.limit());
+                copied += chunk.limit();
+                pool.add(chunk.array());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Copying is interrupted");
+        } finally {
+            reading.cancel(true);
+        }
+        if (readError != null) {
+            throw readError;
+        }
+        return copied;
+    }
+
+    private void read(InputStream source) {
+        try {
+            boolean end = false;
+            while (!end) {
+                final byte[] buf = pool.take();
+                final int read = ByteStreams.read(source, buf, 0, buf.length);
+                // buffer is not filled only at the end of the source
+                end = read < buf.length;
+                if (read > 0) {
+                    filled.put(ByteBuffer.wrap(buf, 0, read));
+                }
+            }
+        } catch (IOException e) {
+            readError = e;
+        } catch (InterruptedException e) {
+            // writing is finished or failed
+            return;
+        }
+        filled.add(EOF);
+    }
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.plugin.docker.client.json.ProgressDetail;
+import org.eclipse.che.plugin.docker.client.json.ProgressStatus;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aggregates progress of image layers which docker sends on image pull and push.
+ *
+ * <p>Daemon reports bytes of each layer which is being downloaded, extracted or pushed many times per second,
+ * instead of forwarding these statuses aggregator sums them up per phase, e.g. "Downloading", and sends to the
+ * delegate monitor a single summary status per phase not more often than once per the update interval.
+ * Summary is sent when the next status is received after the interval elapsed, so aggregator doesn't need a timer,
+ * the last progress which is not sent yet is sent by {@link #flush()} when the stream of statuses ends.
+ * Other statuses are state transitions, e.g. layer is complete or an error occurs, they are forwarded immediately.
+ *
+ * <p>Aggregator is not thread safe, it is supposed to be used by the thread which reads the statuses.
+ */
+public class ProgressAggregator implements ProgressMonitor {
+    private static final int      PROGRESS_BAR_WIDTH = 50;
+    private static final String[] SIZE_UNITS         = {"kB", "MB", "GB", "TB"};
+
+    private final ProgressMonitor delegate;
+    private final long            updateIntervalMs;
+    // phase name -> layer id -> current and total bytes of the layer in this phase
+    private final Map<String, Map<String, long[]>> phases;
+    private final Set<String>                      changedPhases;
+
+    private long lastUpdate;
+
+    /**
+     * @param delegate
+     *         monitor which receives state transitions and summary statuses
+     * @param updateIntervalMs
+     *         minimal interval between summary statuses of the same phase
+     */
+    public ProgressAggregator(ProgressMonitor delegate, long updateIntervalMs) {
+        this.delegate = delegate;
+        this.updateIntervalMs = updateIntervalMs;
+        this.phases = new LinkedHashMap<>();
+        this.changedPhases = new LinkedHashSet<>();
+    }
+
+    @Override
+    public void updateProgress(ProgressStatus status) {
+        final String layer = status.getId();
+        if (layer == null || status.getError() != null || status.getStatus() == null) {
+            delegate.updateProgress(status);
+            return;
+        }
+        final ProgressDetail detail = status.getProgressDetail();
+        if (detail != null && detail.getCurrent() > 0) {
+            phases.computeIfAbsent(status.getStatus(), phase -> new LinkedHashMap<>())
+                  .put(layer, new long[] {detail.getCurrent(), detail.getTotal()});
+            changedPhases.add(status.getStatus());
+            final long now = System.currentTimeMillis();
+            if (now - lastUpdate >= updateIntervalMs) {
+                lastUpdate = now;
+                sendSummaries();
+            }
+            return;
+        }
+        // layer has finished the work of the previous phase, e.g. "Download complete" follows "Downloading"
+        for (Map<String, long[]> layers : phases.values()) {
+            final long[] bytes = layers.get(layer);
+            if (bytes != null && bytes[1] > 0) {
+                bytes[0] = bytes[1];
+            }
+        }
+        delegate.updateProgress(status);
+    }
+
+    /** Sends summaries of the phases which progress changed since the last summary. */
+    public void flush() {
+        if (!changedPhases.isEmpty()) {
+            lastUpdate = System.currentTimeMillis();
+            sendSummaries();
+        }
+    }
+
+    private void sendSummaries() {
+        for (String phase : changedPhases) {
+            long current = 0;
+            long total = 0;
+            int completed = 0;
+            boolean totalKnown = true;
+            final Map<String, long[]> layers = phases.get(phase);
+            for (long[] bytes : layers.values()) {
+                current += bytes[0];
+                total += bytes[1];
+                if (bytes[1] <= 0) {
+                    totalKnown = false;
+                } else if (bytes[0] >= bytes[1]) {
+                    completed++;
+                }
+            }
+            final ProgressStatus summary = new ProgressStatus();
+            summary.setStatus(phase + ' ' + completed + '/' + layers.size() + " layers");
+            summary.setProgress(totalKnown ? progressBar(current, total) + ' ' + humanSize(current) + '/' + humanSize(total)
+                                           : progressBar(0, 1) + ' ' + humanSize(current));
+            final ProgressDetail detail = new ProgressDetail();
+            detail.setCurrent(current);
+            detail.setTotal(totalKnown ? total : -1);
+            summary.setProgressDetail(detail);
+            delegate.updateProgress(summary);
+        }
+        changedPhases.clear();
+    }
+
+    /** Returns progress bar in the format of docker, e.g. {@code [=========>        ]}. */
+    private static String progressBar(long current, long total) {
+        final int filled = (int)Math.min(PROGRESS_BAR_WIDTH, current * PROGRESS_BAR_WIDTH / total);
+        final StringBuilder sb = new StringBuilder(PROGRESS_BAR_WIDTH + 2).append('[');
+        for (int i = 0; i < PROGRESS_BAR_WIDTH; i++) {
+            sb.append(i < filled ? '=' : i == filled ? '>' : ' ');
+        }
+        return sb.append(']').toString();
+    }
+
+    /** Returns size in decimal units as docker shows it, e.g. {@code 12.35 MB}. */
+    static String humanSize(long bytes) {
+        if (bytes < 1000) {
+            return bytes + " B";
+        }
+        double size = bytes;
+        int unit = -1;
+        while (size >= 1000 && unit < SIZE_UNITS.length - 1) {
+            size /= 1000;
+            unit++;
+        }
+        return String.format(Locale.ROOT, "%.2f %s", size, SIZE_UNITS[unit]);
+    }
+}
@@ -65,10 +65,16 @@ public class ChunkedInputStream extends InputStream {
         return (chunkSize - chunkPos);
     }
 
+    /** Returns true when the last chunk is read. */
+    synchronized boolean isEof() {
+        return eof;
+    }
+
     private int doRead(byte[] b, int off, int len) throws IOException {
         if (eof) {
             return -1;
         }
+        boolean lastChunk = false;
         if (chunkSize == 0) {
             chunkPos = 0;
             for (; ; ) {
@@ -93,9 +99,7 @@ public class ChunkedInputStream extends InputStream {
                 throw new IOException("Invalid chunk size");
             }
             chunkSizeBuf.setLength(0);
-            if (chunkSize == 0) {
-                eof = true;
-            }
+            lastChunk = chunkSize == 0;
         }
         final int n = input.read(b, 0, Math.min(len - off, chunkSize - chunkPos));
         chunkPos += n;
@@ -109,7 +113,9 @@ public class ChunkedInputStream extends InputStream {
             chunkSize = 0;
             chunkPos = 0;
         }
-        if (eof) {
+        if (lastChunk) {
+            // eof is set only when CRLF which follows the last chunk is read too
+            eof = true;
             return -1;
         }
         return n;
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes request body with chunked transfer encoding.
+ *
+ * <p>Written data is buffered and sent in chunks of the buffer size, so small writes don't produce small chunks.
+ * {@link #finish()} must be called to send the last chunk, underlying stream is not closed.
+ */
+public class ChunkedOutputStream extends OutputStream {
+    private static final byte[] CRLF       = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream output;
+    private final byte[]       buf;
+    private int                count;
+    private boolean            finished;
+
+    ChunkedOutputStream(OutputStream output, int chunkSize) {
+        this.output = output;
+        this.buf = new byte[chunkSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (finished) {
+            throw new IOException("Stream is finished");
+        }
+        if (count == buf.length) {
+            flushChunk();
+        }
+        buf[count++] = (byte)b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (finished) {
+            throw new IOException("Stream is finished");
+        }
+        while (len > 0) {
+            final int n = Math.min(len, buf.length - count);
+            System.arraycopy(b, off, buf, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == buf.length) {
+                flushChunk();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushChunk();
+        output.flush();
+    }
+
+    /** Sends buffered data and the last chunk. */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        flushChunk();
+        output.write(LAST_CHUNK);
+        output.flush();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+
+    private void flushChunk() throws IOException {
+        if (count == 0) {
+            // zero length chunk means the end of the body
+            return;
+        }
+        output.write(Integer.toHexString(count).getBytes(StandardCharsets.US_ASCII));
+        output.write(CRLF);
+        output.write(buf, 0, count);
+        output.write(CRLF);
+        count = 0;
+    }
+}
@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * Collects metrics of the calls to docker API per endpoint and per docker node.
+ *
+ * <p>Endpoint is the method and the path of API call where identifiers of containers, images,
+ * execs and networks are replaced with placeholders, e.g. {@code POST /containers/{id}/start}.
+ * Latency of the call is measured from sending of the request until the response status is read
+ * and is put into the histogram with fixed {@link #BUCKETS_MS buckets}. Transfer time is measured until
+ * the connection is closed, so it also includes streaming of the response, e.g. the whole image pull
+ * or events listening, and is kept apart not to distort the latency percentiles of streaming endpoints.
+ * Metrics are kept in memory since the server start. Pools of connections to docker unix sockets
+ * and copies of files between machines are exposed along with the calls,
+ * see {@link #getConnectionPools()} and {@link #getCopyMetrics()}.
+ */
+@Singleton
+public class DockerApiMetrics {
+    /** Upper bounds of the duration histogram buckets in milliseconds, the last bucket is unbounded. */
+    static final long[] BUCKETS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10_000, 30_000, 60_000};
+
+    private static final Pattern API_VERSION = Pattern.compile("^/v[0-9.]+(?=/)");
+    private static final List<String> IMAGE_ACTIONS = Arrays.asList("json", "history", "push", "tag", "get");
+    private static final List<String> IMAGE_ENDPOINTS = Arrays.asList("create", "json", "search", "load", "get", "prune");
+
+    private final ConcurrentMap<String, EndpointMetrics>          endpoints       = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, UnixSocketConnectionPool> connectionPools = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CopyMetrics>              copies          = new ConcurrentHashMap<>();
+
+    /** Starts measuring of the call to the endpoint of the docker node. */
+    Call start(String node, String method, String path) {
+        final String endpoint = method + ' ' + endpoint(path);
+        final EndpointMetrics metrics = endpoints.computeIfAbsent(node + ' ' + endpoint, key -> new EndpointMetrics(node, endpoint));
+        return new Call(metrics);
+    }
+
+    /** Returns metrics of all the endpoints which are called since the server start, ordered by node and endpoint. */
+    public List<EndpointMetrics> getMetrics() {
+        final List<EndpointMetrics> metrics = new ArrayList<>(endpoints.values());
+        metrics.sort(comparing(EndpointMetrics::getNode).thenComparing(EndpointMetrics::getEndpoint));
+        return Collections.unmodifiableList(metrics);
+    }
+
+    /** Adds the pool of connections to docker unix socket to the exposed metrics. */
+    void addConnectionPool(UnixSocketConnectionPool pool) {
+        connectionPools.put(pool.getSocketPath(), pool);
+    }
+
+    /**
+     * Returns pools of connections to docker unix sockets ordered by socket path,
+     * pools expose number of idle, active, created, reused and evicted connections.
+     */
+    public List<UnixSocketConnectionPool> getConnectionPools() {
+        final List<UnixSocketConnectionPool> pools = new ArrayList<>(connectionPools.values());
+        pools.sort(comparing(UnixSocketConnectionPool::getSocketPath));
+        return Collections.unmodifiableList(pools);
+    }
+
+    /**
+     * Records copying of files into container.
+     *
+     * @param source
+     *         kind of the copy source, e.g. {@code container} or {@code host}
+     * @param bytes
+     *         size of the copied archive
+     * @param timeMs
+     *         duration of the copy
+     */
+    public void recordCopy(String source, long bytes, long timeMs) {
+        copies.computeIfAbsent(source, CopyMetrics::new).record(bytes, timeMs);
+    }
+
+    /** Returns metrics of the copies of files into containers per kind of the source, ordered by the source. */
+    public List<CopyMetrics> getCopyMetrics() {
+        final List<CopyMetrics> metrics = new ArrayList<>(copies.values());
+        metrics.sort(comparing(CopyMetrics::getSource));
+        return Collections.unmodifiableList(metrics);
+    }
+
+    /** Returns path of docker API call without API version and identifiers of docker objects. */
+    static String endpoint(String path) {
+        final String[] segments = API_VERSION.matcher(path).replaceFirst("").split("/");
+        if (segments.length < 3) {
+            return String.join("/", segments);
+        }
+        switch (segments[1]) {
+            case "images":
+                if (segments.length == 3 && IMAGE_ENDPOINTS.contains(segments[2])) {
+                    return String.join("/", segments);
+                }
+                // image name may contain slashes, e.g. registry:5000/namespace/name
+                final String last = segments[segments.length - 1];
+                return IMAGE_ACTIONS.contains(last) && segments.length > 3 ? "/images/{name}/" + last : "/images/{name}";
+            case "containers":
+            case "networks":
+            case "volumes":
+                if (segments[2].equals("create") || segments[2].equals("json") || segments[2].equals("prune")) {
+                    return String.join("/", segments);
+                }
+                // fall through
+            case "exec":
+                segments[2] = "{id}";
+                return String.join("/", segments);
+            default:
+                return String.join("/", segments);
+        }
+    }
+
+    /** Metrics of the endpoint of the docker node. */
+    public static class EndpointMetrics {
+        private final String         node;
+        private final String         endpoint;
+        private final LongAdder      calls;
+        private final LongAdder      errors;
+        private final LongAdder      inFlight;
+        private final LongAdder      bytesSent;
+        private final LongAdder      bytesReceived;
+        private final LongAdder      totalTimeMs;
+        private final LongAdder      totalTransferTimeMs;
+        private final AtomicLongArray histogram;
+
+        private volatile long maxTimeMs;
+        private volatile long maxTransferTimeMs;
+
+        EndpointMetrics(String node, String endpoint) {
+            this.node = node;
+            this.endpoint = endpoint;
+            this.calls = new LongAdder();
+            this.errors = new LongAdder();
+            this.inFlight = new LongAdder();
+            this.bytesSent = new LongAdder();
+            this.bytesReceived = new LongAdder();
+            this.totalTimeMs = new LongAdder();
+            this.totalTransferTimeMs = new LongAdder();
+            this.histogram = new AtomicLongArray(BUCKETS_MS.length + 1);
+        }
+
+        /** Returns docker daemon address. */
+        public String getNode() {
+            return node;
+        }
+
+        /** Returns method and path of the endpoint, e.g. {@code POST /containers/{id}/start}. */
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        /** Returns number of finished calls. */
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        /** Returns number of calls which failed with I/O error or got error response status. */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /** Returns number of calls which are in progress. */
+        public long getInFlight() {
+            return inFlight.sum();
+        }
+
+        public long getBytesSent() {
+            return bytesSent.sum();
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived.sum();
+        }
+
+        /** Returns mean latency, i.e. time until the response status is read. */
+        public long getMeanTimeMs() {
+            final long calls = getCalls();
+            return calls == 0 ? 0 : totalTimeMs.sum() / calls;
+        }
+
+        public long getMaxTimeMs() {
+            return maxTimeMs;
+        }
+
+        /** Returns mean time until the connection is closed, including streaming of the response. */
+        public long getMeanTransferTimeMs() {
+            final long calls = getCalls();
+            return calls == 0 ? 0 : totalTransferTimeMs.sum() / calls;
+        }
+
+        public long getMaxTransferTimeMs() {
+            return maxTransferTimeMs;
+        }
+
+        /** Returns upper bound of the bucket which contains 50th percentile of the latency. */
+        public long getP50TimeMs() {
+            return percentile(0.5);
+        }
+
+        public long getP95TimeMs() {
+            return percentile(0.95);
+        }
+
+        public long getP99TimeMs() {
+            return percentile(0.99);
+        }
+
+        /**
+         * Returns number of calls per latency bucket, keys are upper bounds
+         * of the buckets in milliseconds or {@code +Inf} for the last one.
+         */
+        public Map<String, Long> getHistogram() {
+            final Map<String, Long> result = new LinkedHashMap<>();
+            for (int i = 0; i < histogram.length(); i++) {
+                result.put(i < BUCKETS_MS.length ? Long.toString(BUCKETS_MS[i]) : "+Inf", histogram.get(i));
+            }
+            return result;
+        }
+
+        private long percentile(double percentile) {
+            final long calls = getCalls();
+            if (calls == 0) {
+                return 0;
+            }
+            final long rank = (long)Math.ceil(calls * percentile);
+            long count = 0;
+            for (int i = 0; i < BUCKETS_MS.length; i++) {
+                count += histogram.get(i);
+                if (count >= rank) {
+                    return BUCKETS_MS[i];
+                }
+            }
+            return maxTimeMs;
+        }
+
+        private void record(long timeMs, long transferTimeMs, boolean error) {
+            int bucket = 0;
+            while (bucket < BUCKETS_MS.length && timeMs > BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            histogram.incrementAndGet(bucket);
+            totalTimeMs.add(timeMs);
+            if (timeMs > maxTimeMs) {
+                synchronized (this) {
+                    maxTimeMs = Math.max(maxTimeMs, timeMs);
+                }
+            }
+            totalTransferTimeMs.add(transferTimeMs);
+            if (transferTimeMs > maxTransferTimeMs) {
+                synchronized (this) {
+                    maxTransferTimeMs = Math.max(maxTransferTimeMs, transferTimeMs);
+                }
+            }
+            if (error) {
+                errors.increment();
+            }
+            calls.increment();
+        }
+    }
+
+    /** Metrics of copies of files into containers from the same kind of source. */
+    public static class CopyMetrics {
+        private final String    source;
+        private final LongAdder copies;
+        private final LongAdder bytes;
+        private final LongAdder totalTimeMs;
+
+        private volatile long maxTimeMs;
+
+        CopyMetrics(String source) {
+            this.source = source;
+            this.copies = new LongAdder();
+            this.bytes = new LongAdder();
+            this.totalTimeMs = new LongAdder();
+        }
+
+        /** Returns kind of the copy source, e.g. {@code container} or {@code host}. */
+        public String getSource() {
+            return source;
+        }
+
+        /** Returns number of finished copies. */
+        public long getCopies() {
+            return copies.sum();
+        }
+
+        /** Returns total size of the copied archives. */
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        public long getMeanTimeMs() {
+            final long copies = getCopies();
+            return copies == 0 ? 0 : totalTimeMs.sum() / copies;
+        }
+
+        public long getMaxTimeMs() {
+            return maxTimeMs;
+        }
+
+        /** Returns mean throughput of the copies in kilobytes per second. */
+        public long getThroughputKBps() {
+            final long timeMs = totalTimeMs.sum();
+            return timeMs == 0 ? 0 : getBytes() * 1000 / 1024 / timeMs;
+        }
+
+        private void record(long bytes, long timeMs) {
+            this.bytes.add(bytes);
+            totalTimeMs.add(timeMs);
+            if (timeMs > maxTimeMs) {
+                synchronized (this) {
+                    maxTimeMs = Math.max(maxTimeMs, timeMs);
+                }
+            }
+            copies.increment();
+        }
+    }
+
+    /** Measures single call to docker API. */
+    static class Call {
+        private final EndpointMetrics metrics;
+        private final long            start;
+
+        private long    responseTimeMs = -1;
+        private boolean error;
+        private boolean finished;
+
+        private Call(EndpointMetrics metrics) {
+            this.metrics = metrics;
+            this.start = System.currentTimeMillis();
+            metrics.inFlight.increment();
+        }
+
+        void sent(long bytes) {
+            metrics.bytesSent.add(bytes);
+        }
+
+        void received(long bytes) {
+            metrics.bytesReceived.add(bytes);
+        }
+
+        /** Marks call as failed, e.g. on I/O error or error response status. */
+        void failed() {
+            error = true;
+        }
+
+        /** Marks the end of the call latency, the response status is read, subsequent invocations are ignored. */
+        void responded() {
+            if (responseTimeMs == -1) {
+                responseTimeMs = System.currentTimeMillis() - start;
+            }
+        }
+
+        /**
+         * Records latency and transfer time of the call, latency is equal to the transfer time
+         * when the call failed before the response, subsequent invocations are ignored.
+         */
+        void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            metrics.inFlight.decrement();
+            final long transferTimeMs = System.currentTimeMillis() - start;
+            metrics.record(responseTimeMs == -1 ? transferTimeMs : responseTimeMs, transferTimeMs, error);
+        }
+    }
+}
@@ -91,6 +91,16 @@ public abstract class DockerConnection implements Closeable {
         return this;
     }
 
+    /**
+     * Sets entity which is written to the request body by the {@code writer} while the request is sent.
+     * Length of such entity is not known in advance, so it is sent with chunked transfer encoding,
+     * e.g. tar archive of the files is written directly to the connection without saving it to a temporary file.
+     */
+    public DockerConnection entity(EntityWriter writer) {
+        this.entity = new ChunkedEntity(writer);
+        return this;
+    }
+
     public DockerResponse request() throws IOException {
         return request(method, path, query.toString(), headers, entity);
     }
@@ -103,6 +113,23 @@ public abstract class DockerConnection implements Closeable {
 
     public abstract void close();
 
+    /**
+     * Checks whether docker API method responds with long-lived stream (container logs and attach,
+     * exec output, docker events), connections of such methods are never reused.
+     */
+    static boolean isStream(String path) {
+        return path.endsWith("/attach")
+               || path.endsWith("/logs")
+               || path.endsWith("/events")
+               || (path.contains("/exec/") && path.endsWith("/start"));
+    }
+
+    /** Writes entity of the request to the connection output. */
+    @FunctionalInterface
+    public interface EntityWriter {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
     static abstract class Entity<T> {
         final T entity;
 
@@ -152,4 +179,16 @@ public abstract class DockerConnection implements Closeable {
             output.flush();
         }
     }
+
+    static class ChunkedEntity extends Entity<EntityWriter> {
+        ChunkedEntity(EntityWriter entity) {
+            super(entity);
+        }
+
+        @Override
+        public void writeTo(OutputStream output) throws IOException {
+            entity.writeTo(output);
+            output.flush();
+        }
+    }
 }
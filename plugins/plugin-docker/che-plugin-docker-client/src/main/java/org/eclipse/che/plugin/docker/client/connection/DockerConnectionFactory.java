@@ -17,17 +17,28 @@ import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
 
 import javax.inject.Named;
 import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Factory for connections to docker API.
  *
  * <p>Detects connection implementation by checking docker daemon URI.
+ * Connections to unix socket are pooled per socket path, see {@link UnixSocketConnectionPool}.
+ * Calls of all the connections are recorded to {@link DockerApiMetrics} per docker daemon,
+ * the pools are exposed there as well.
  *
  * @author Alexander Garagatyi
  */
 public class DockerConnectionFactory {
     public static final String CONNECTION_TIMEOUT_MS_PROPERTY      = "che.docker.tcp_connection_timeout_ms";
     public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY = "che.docker.tcp_connection_read_timeout_ms";
+    public static final String POOL_MAX_IDLE_PROPERTY              = "che.docker.connection_pool.max_idle";
+    public static final String POOL_IDLE_TIMEOUT_MS_PROPERTY       = "che.docker.connection_pool.idle_timeout_ms";
+    public static final String POOL_MAX_ACTIVE_PROPERTY            = "che.docker.connection_pool.max_active";
+    public static final String POOL_ACQUIRE_TIMEOUT_MS_PROPERTY    = "che.docker.connection_pool.acquire_timeout_ms";
 
     @Inject(optional = true)
     @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
@@ -37,18 +48,62 @@ public class DockerConnectionFactory {
     @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
     private int connectionReadTimeoutMs = 60000;
 
-    private final DockerCertificates dockerCertificates;
+    @Inject(optional = true)
+    @Named(POOL_MAX_IDLE_PROPERTY)
+    private int poolMaxIdle = 10;
+
+    @Inject(optional = true)
+    @Named(POOL_IDLE_TIMEOUT_MS_PROPERTY)
+    private long poolIdleTimeoutMs = 30000;
+
+    @Inject(optional = true)
+    @Named(POOL_MAX_ACTIVE_PROPERTY)
+    private int poolMaxActive = 100;
+
+    @Inject(optional = true)
+    @Named(POOL_ACQUIRE_TIMEOUT_MS_PROPERTY)
+    private long poolAcquireTimeoutMs = 60000;
+
+    private final DockerCertificates                              dockerCertificates;
+    private final ConcurrentMap<String, UnixSocketConnectionPool> unixSocketPools;
+    private final DockerApiMetrics                                metrics;
 
-    @Inject
     public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
+        this(connectorConfiguration, new DockerApiMetrics());
+    }
+
+    @Inject
+    public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration, DockerApiMetrics metrics) {
         this.dockerCertificates = connectorConfiguration.getDockerCertificates();
+        this.unixSocketPools = new ConcurrentHashMap<>();
+        this.metrics = metrics;
     }
 
     public DockerConnection openConnection(URI dockerDaemonUri) {
+        final DockerConnection connection;
+        final String node;
         if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-            return new UnixSocketConnection(dockerDaemonUri.getPath());
+            node = dockerDaemonUri.getPath();
+            connection = new UnixSocketConnection(unixSocketPools.computeIfAbsent(node, this::createPool));
         } else {
-            return new TcpConnection(dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
+            node = dockerDaemonUri.getHost() + ':' + dockerDaemonUri.getPort();
+            connection = new TcpConnection(dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
         }
+        return new MeteredDockerConnection(connection, metrics, node);
+    }
+
+    private UnixSocketConnectionPool createPool(String socketPath) {
+        final UnixSocketConnectionPool pool = new UnixSocketConnectionPool(socketPath,
+                                                                           poolMaxIdle,
+                                                                           poolIdleTimeoutMs,
+                                                                           poolMaxActive,
+                                                                           poolAcquireTimeoutMs);
+        metrics.addConnectionPool(pool);
+        return pool;
+    }
+
+    /** Returns pools of connections to docker unix sockets, e.g. to expose their metrics. */
+    public Collection<UnixSocketConnectionPool> getUnixSocketPools() {
+        return Collections.unmodifiableCollection(unixSocketPools.values());
     }
 }
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.io.CountingOutputStream;
+
+import org.eclipse.che.commons.lang.Pair;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Connection which records metrics of the call to {@link DockerApiMetrics} and delegates the call itself
+ * to the connection of the actual transport. Latency of the call ends when the response status is read,
+ * call is finished when the connection is closed.
+ */
+class MeteredDockerConnection extends DockerConnection {
+    private final DockerConnection delegate;
+    private final DockerApiMetrics metrics;
+    private final String           node;
+
+    private DockerApiMetrics.Call call;
+
+    MeteredDockerConnection(DockerConnection delegate, DockerApiMetrics metrics, String node) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.node = node;
+    }
+
+    @Override
+    protected DockerResponse request(String method,
+                                     String path,
+                                     String query,
+                                     List<Pair<String, ?>> headers,
+                                     Entity<?> entity) throws IOException {
+        final DockerApiMetrics.Call call = metrics.start(node, method, path);
+        this.call = call;
+        final DockerResponse response;
+        try {
+            response = delegate.request(method, path, query, headers, entity == null ? null : countingEntity(entity, call));
+            // transports read the response status lazily, streaming of the body is not a part of latency
+            final int status = response.getStatus();
+            call.responded();
+            if (status >= 400) {
+                call.failed();
+            }
+        } catch (IOException | RuntimeException e) {
+            call.failed();
+            throw e;
+        }
+        return new MeteredResponse(response, call);
+    }
+
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            if (call != null) {
+                call.finish();
+            }
+        }
+    }
+
+    /** Returns entity of the same kind as the given one which counts written bytes. */
+    private static Entity<?> countingEntity(Entity<?> source, DockerApiMetrics.Call call) {
+        if (source instanceof ChunkedEntity) {
+            // transports check the kind of entity to choose transfer encoding
+            return new ChunkedEntity(output -> writeCounting(source, output, call));
+        }
+        return new Entity<Object>(source.entity) {
+            @Override
+            void writeTo(OutputStream output) throws IOException {
+                writeCounting(source, output, call);
+            }
+        };
+    }
+
+    private static void writeCounting(Entity<?> entity, OutputStream output, DockerApiMetrics.Call call) throws IOException {
+        final CountingOutputStream counting = new CountingOutputStream(output);
+        try {
+            entity.writeTo(counting);
+        } finally {
+            call.sent(counting.getCount());
+        }
+    }
+
+    private static class MeteredResponse implements DockerResponse {
+        private final DockerResponse        response;
+        private final DockerApiMetrics.Call call;
+
+        MeteredResponse(DockerResponse response, DockerApiMetrics.Call call) {
+            this.response = response;
+            this.call = call;
+        }
+
+        @Override
+        public int getStatus() throws IOException {
+            return response.getStatus();
+        }
+
+        @Override
+        public int getContentLength() throws IOException {
+            return response.getContentLength();
+        }
+
+        @Override
+        public String getContentType() throws IOException {
+            return response.getContentType();
+        }
+
+        @Override
+        public String getHeader(String name) throws IOException {
+            return response.getHeader(name);
+        }
+
+        @Override
+        public String[] getHeaders(String name) throws IOException {
+            return response.getHeaders(name);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(response.getInputStream()) {
+                @Override
+                public int read() throws IOException {
+                    final int b = super.read();
+                    if (b != -1) {
+                        call.received(1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    final int read = super.read(b, off, len);
+                    if (read > 0) {
+                        call.received(read);
+                    }
+                    return read;
+                }
+            };
+        }
+    }
+}
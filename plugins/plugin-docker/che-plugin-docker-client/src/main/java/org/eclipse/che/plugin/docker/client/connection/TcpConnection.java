@@ -24,16 +24,26 @@ import java.net.URL;
 import java.util.List;
 
 /**
+ * Connection to docker API over http(s).
+ *
+ * <p>Connections of short requests are kept alive by the JDK http client and reused by the next requests
+ * when the response is read completely, see {@code http.keepAlive} and {@code http.maxConnections} system properties.
+ * Long-lived streams use dedicated connections which are closed when the stream is closed.
+ *
  * @author andrew00x
  * @author Alexander Garagatyi
  */
 public class TcpConnection extends DockerConnection {
+    private static final int CHUNK_SIZE = 8192;
+
     private final URI                baseUri;
     private final DockerCertificates certificates;
     private final int                connectionTimeout;
     private final int                readTimeout;
 
     private HttpURLConnection connection;
+    private boolean           stream;
+    private TcpDockerResponse response;
 
     public TcpConnection(URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs) {
         if ("https".equals(baseUri.getScheme())) {
@@ -59,11 +69,14 @@ public class TcpConnection extends DockerConnection {
         connection.setConnectTimeout(connectionTimeout);
         connection.setReadTimeout(readTimeout);
         if ("https".equals(protocol)) {
-            ((HttpsURLConnection)connection).setSSLSocketFactory(certificates.getSslContext().getSocketFactory());
+            ((HttpsURLConnection)connection).setSSLSocketFactory(certificates.getSocketFactory());
         }
         connection.setRequestMethod(method);
-        // needed to fix bug https://github.com/docker/docker/issues/12845
-        connection.setRequestProperty("Connection", "close");
+        stream = isStream(path);
+        if (stream) {
+            // needed to fix bug https://github.com/docker/docker/issues/12845
+            connection.setRequestProperty("Connection", "close");
+        }
         for (Pair<String, ?> header : headers) {
             connection.setRequestProperty(header.first, String.valueOf(header.second));
         }
@@ -73,18 +86,32 @@ public class TcpConnection extends DockerConnection {
         }
         // Host header is mandatory in HTTP 1.1
         connection.setRequestProperty("Host", host);
+        if (entity instanceof ChunkedEntity) {
+            // otherwise the whole entity is buffered in memory to compute its length
+            connection.setChunkedStreamingMode(CHUNK_SIZE);
+        }
         if (entity != null) {
             connection.setDoOutput(true);
             try (OutputStream output = connection.getOutputStream()) {
                 entity.writeTo(output);
             }
         }
-        return new TcpDockerResponse(connection);
+        return response = new TcpDockerResponse(connection);
     }
 
     @Override
     public void close() {
-        if (connection != null) {
+        if (connection == null) {
+            return;
+        }
+        if (stream || response == null) {
+            connection.disconnect();
+            return;
+        }
+        try {
+            // closing of the response stream instead of disconnecting returns connection to the keep-alive cache
+            response.getInputStream().close();
+        } catch (IOException e) {
             connection.disconnect();
         }
     }
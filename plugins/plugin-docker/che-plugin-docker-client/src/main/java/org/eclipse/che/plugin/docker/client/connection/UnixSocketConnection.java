@@ -13,7 +13,6 @@ package org.eclipse.che.plugin.docker.client.connection;
 import com.google.common.base.Strings;
 
 import org.eclipse.che.commons.lang.Pair;
-import org.eclipse.che.plugin.docker.client.CLibrary;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
@@ -22,63 +21,74 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.net.ConnectException;
 import java.util.List;
 
-import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
-import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
-import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
-import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
-
 /**
+ * Connection to docker unix socket.
+ *
+ * <p>Socket connection is taken from the {@link UnixSocketConnectionPool} and returned back on {@link #close()}
+ * when the response is read completely, long-lived streams use dedicated socket connections.
+ *
  * @author andrew00x
  * @author Alexander Garagatyi
  */
 public class UnixSocketConnection extends DockerConnection {
-    private final String dockerSocketPath;
+    private static final int CHUNK_SIZE = 8192;
 
-    private int fd = -1;
+    private final UnixSocketConnectionPool pool;
 
-    public UnixSocketConnection(String dockerSocketPath) {
-        this.dockerSocketPath = dockerSocketPath;
+    private int                      fd = -1;
+    private boolean                  stream;
+    private UnixSocketDockerResponse response;
+
+    public UnixSocketConnection(UnixSocketConnectionPool pool) {
+        this.pool = pool;
     }
 
     @Override
     protected DockerResponse request(String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
             throws IOException {
-        fd = connect();
+        stream = isStream(path);
+        fd = stream ? pool.openStream() : pool.acquire();
         final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
-        writeHttpHeaders(output, method, path, query, headers);
-        if (entity != null) {
+        final boolean chunked = entity instanceof ChunkedEntity;
+        writeHttpHeaders(output, method, path, query, headers, chunked);
+        if (chunked) {
+            final ChunkedOutputStream chunkedOutput = new ChunkedOutputStream(output, CHUNK_SIZE);
+            entity.writeTo(chunkedOutput);
+            chunkedOutput.finish();
+        } else if (entity != null) {
             entity.writeTo(output);
         }
-        return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
+        return response = new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
     }
 
 
     @Override
     public void close() {
-        if (fd != -1) {
-            getCLibrary().close(fd);
-        }
-    }
-
-    private int connect() throws IOException {
-        final CLibrary cLib = getCLibrary();
-        int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
         if (fd == -1) {
-            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+            return;
         }
-        final SockAddrUn sockAddr = new SockAddrUn(dockerSocketPath);
-        int c = cLib.connect(fd, sockAddr, sockAddr.size());
-        if (c == -1) {
-            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+        if (stream) {
+            pool.closeStream(fd);
+        } else {
+            boolean reusable = false;
+            try {
+                reusable = response != null && response.consume();
+            } catch (IOException ignored) {
+                // connection is broken, it is closed by the pool
+            }
+            pool.release(fd, reusable);
         }
-        return fd;
+        fd = -1;
     }
 
-    private void writeHttpHeaders(OutputStream output, String method, String path, String query, List<Pair<String, ?>> headers)
-            throws IOException {
+    private void writeHttpHeaders(OutputStream output,
+                                  String method,
+                                  String path,
+                                  String query,
+                                  List<Pair<String, ?>> headers,
+                                  boolean chunked) throws IOException {
         final Writer writer = new OutputStreamWriter(output);
         writer.write(method);
         writer.write(' ');
@@ -94,6 +104,9 @@ public class UnixSocketConnection extends DockerConnection {
             writer.write(String.valueOf(header.second));
             writer.write("\r\n");
         }
+        if (chunked) {
+            writer.write("Transfer-Encoding: chunked\r\n");
+        }
         // Host header is mandatory in HTTP 1.1
         writer.write("Host: \r\n\r\n");
         writer.flush();
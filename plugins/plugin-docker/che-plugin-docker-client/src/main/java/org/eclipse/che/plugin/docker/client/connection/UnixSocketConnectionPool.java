@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+
+import org.eclipse.che.plugin.docker.client.CLibrary;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.EAGAIN;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_DONTWAIT;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_PEEK;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+/**
+ * Keeps connections to docker unix socket open between requests.
+ *
+ * <p>Short requests take a connection from the pool and return it back when their response
+ * is completely read, so the next request doesn't connect to the socket again.
+ * Long-lived streams (logs, events, attach, etc.) never share connections with short requests,
+ * they use dedicated connections which are closed when the stream is closed.
+ *
+ * <p>At most {@code maxIdle} connections are kept in the pool, connections which are not used
+ * longer than {@code idleTimeoutMs} are closed. Before reusing, the connection is checked
+ * that it is not closed by the docker daemon, e.g. after restart of the daemon.
+ * At most {@code maxActive} connections are used by short requests at the same time, the next request
+ * waits up to {@code acquireTimeoutMs} for a connection to be returned and fails if none is.
+ * Streams are not limited, they live as long as their consumers and would starve short requests.
+ */
+public class UnixSocketConnectionPool {
+    private final String            socketPath;
+    private final int               maxIdle;
+    private final long              idleTimeoutMs;
+    private final int               maxActive;
+    private final long              acquireTimeoutMs;
+    private final Semaphore         permits;
+    private final Deque<IdleSocket> idle;
+    private final AtomicInteger     active;
+    private final AtomicInteger     activeStreams;
+    private final AtomicLong        created;
+    private final AtomicLong        reused;
+    private final AtomicLong        evicted;
+
+    UnixSocketConnectionPool(String socketPath, int maxIdle, long idleTimeoutMs, int maxActive, long acquireTimeoutMs) {
+        this.socketPath = socketPath;
+        this.maxIdle = maxIdle;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxActive = maxActive;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.permits = new Semaphore(maxActive, true);
+        this.idle = new ArrayDeque<>();
+        this.active = new AtomicInteger();
+        this.activeStreams = new AtomicInteger();
+        this.created = new AtomicLong();
+        this.reused = new AtomicLong();
+        this.evicted = new AtomicLong();
+    }
+
+    /** Returns path of the docker unix socket. */
+    public String getSocketPath() {
+        return socketPath;
+    }
+
+    /** Returns number of connections kept in the pool. */
+    public synchronized int getIdle() {
+        return idle.size();
+    }
+
+    /** Returns number of connections which are used by short requests now. */
+    public int getActive() {
+        return active.get();
+    }
+
+    /** Returns maximum number of connections which may be used by short requests at the same time. */
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    /** Returns number of connections which are used by long-lived streams now. */
+    public int getActiveStreams() {
+        return activeStreams.get();
+    }
+
+    /** Returns number of connections opened since the pool creation. */
+    public long getCreated() {
+        return created.get();
+    }
+
+    /** Returns number of requests which reused connection from the pool. */
+    public long getReused() {
+        return reused.get();
+    }
+
+    /** Returns number of pooled connections closed because they were idle too long or closed by the daemon. */
+    public long getEvicted() {
+        return evicted.get();
+    }
+
+    @Override
+    public String toString() {
+        return "UnixSocketConnectionPool{" +
+               "socketPath='" + socketPath + '\'' +
+               ", idle=" + getIdle() +
+               ", active=" + getActive() +
+               ", maxActive=" + getMaxActive() +
+               ", activeStreams=" + getActiveStreams() +
+               ", created=" + getCreated() +
+               ", reused=" + getReused() +
+               ", evicted=" + getEvicted() +
+               '}';
+    }
+
+    /**
+     * Returns connection for the short request, connection must be returned with {@link #release(int, boolean)}.
+     *
+     * @throws ConnectException
+     *         when all the {@code maxActive} connections are in use longer than {@code acquireTimeoutMs}
+     *         or connection to the socket can't be opened
+     */
+    int acquire() throws IOException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ConnectException(String.format("Unable connect to unix socket: '%s', all the %d connections are in use",
+                                                         socketPath, maxActive));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s', interrupted", socketPath));
+        }
+        try {
+            final int fd = acquireSocket();
+            active.incrementAndGet();
+            return fd;
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private int acquireSocket() throws IOException {
+        for (; ; ) {
+            final IdleSocket socket;
+            synchronized (this) {
+                evictExpired();
+                // the most recently used connection is the least likely to be closed by the daemon
+                socket = idle.pollLast();
+            }
+            if (socket == null) {
+                break;
+            }
+            if (isAlive(socket.fd)) {
+                reused.incrementAndGet();
+                return socket.fd;
+            }
+            evicted.incrementAndGet();
+            close(socket.fd);
+        }
+        final int fd = connect();
+        created.incrementAndGet();
+        return fd;
+    }
+
+    /**
+     * Returns connection acquired with {@link #acquire()}.
+     *
+     * @param fd
+     *         connection descriptor
+     * @param reusable
+     *         whether the connection may be used for the next request,
+     *         false when the response is not read completely or request failed
+     */
+    void release(int fd, boolean reusable) {
+        try {
+            if (reusable) {
+                synchronized (this) {
+                    evictExpired();
+                    if (idle.size() < maxIdle) {
+                        idle.addLast(new IdleSocket(fd, System.currentTimeMillis()));
+                        return;
+                    }
+                }
+            }
+            close(fd);
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    /** Returns new connection for the long-lived stream, connection must be closed with {@link #closeStream(int)}. */
+    int openStream() throws IOException {
+        final int fd = connect();
+        created.incrementAndGet();
+        activeStreams.incrementAndGet();
+        return fd;
+    }
+
+    /** Closes connection opened with {@link #openStream()}. */
+    void closeStream(int fd) {
+        activeStreams.decrementAndGet();
+        close(fd);
+    }
+
+    /** Closes all the idle connections. */
+    public void clear() {
+        synchronized (this) {
+            for (IdleSocket socket : idle) {
+                close(socket.fd);
+            }
+            idle.clear();
+        }
+    }
+
+    /** Closes connections which are idle too long, must be called under the lock. */
+    private void evictExpired() {
+        final long expired = System.currentTimeMillis() - idleTimeoutMs;
+        for (Iterator<IdleSocket> it = idle.iterator(); it.hasNext(); ) {
+            final IdleSocket socket = it.next();
+            if (socket.lastUsed > expired) {
+                // sockets are ordered by the time of the last usage
+                break;
+            }
+            it.remove();
+            evicted.incrementAndGet();
+            close(socket.fd);
+        }
+    }
+
+    /**
+     * Checks without blocking that connection is not closed by the peer and there is no unexpected data in it,
+     * overridden in tests which don't use native library.
+     */
+    boolean isAlive(int fd) {
+        final CLibrary cLib = getCLibrary();
+        int n;
+        try {
+            n = cLib.recv(fd, new byte[1], 1, MSG_PEEK | MSG_DONTWAIT);
+        } catch (LastErrorException e) {
+            return e.getErrorCode() == EAGAIN;
+        }
+        return n == -1 && Native.getLastError() == EAGAIN;
+    }
+
+    /** Opens new connection to the socket, overridden in tests which don't use native library. */
+    int connect() throws IOException {
+        final CLibrary cLib = getCLibrary();
+        int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+        if (fd == -1) {
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", socketPath));
+        }
+        final SockAddrUn sockAddr = new SockAddrUn(socketPath);
+        int c = cLib.connect(fd, sockAddr, sockAddr.size());
+        if (c == -1) {
+            cLib.close(fd);
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", socketPath));
+        }
+        return fd;
+    }
+
+    /** Closes the connection, overridden in tests which don't use native library. */
+    void close(int fd) {
+        getCLibrary().close(fd);
+    }
+
+    private static class IdleSocket {
+        final int  fd;
+        final long lastUsed;
+
+        IdleSocket(int fd, long lastUsed) {
+            this.fd = fd;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
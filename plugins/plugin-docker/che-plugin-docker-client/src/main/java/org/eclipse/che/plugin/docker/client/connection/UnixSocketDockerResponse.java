@@ -26,6 +26,9 @@ public class UnixSocketDockerResponse implements DockerResponse {
         }
     };
 
+    /** Maximum number of unread bytes which are skipped to reuse the connection. */
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
     private final InputStream rawData;
 
     private InputStream data;
@@ -143,6 +146,11 @@ public class UnixSocketDockerResponse implements DockerResponse {
             }
         }
         this.headersFields = headerFields.toArray(new String[headerFields.size()]);
+        final int status = getStatus();
+        if (status == 204 || status == 304) {
+            // responses which never have a body, even without Content-Length header
+            return data = EMPTY;
+        }
         final int contentLength = getContentLength();
         if (contentLength == 0) {
             return data = EMPTY;
@@ -152,4 +160,46 @@ public class UnixSocketDockerResponse implements DockerResponse {
         }
         return data = "chunked".equals(getHeader("Transfer-Encoding")) ? new ChunkedInputStream(rawData) : rawData;
     }
+
+    /**
+     * Skips the rest of the response body when it is already received,
+     * so the connection may be used for the next request.
+     *
+     * <p>Never blocks waiting for the body: responses which are not completely received,
+     * responses without length (e.g. hijacked streams) and responses with {@code Connection: close}
+     * header are not consumed.
+     *
+     * @return true when the whole response is read and nothing else is received from the connection
+     */
+    synchronized boolean consume() throws IOException {
+        if (headersFields == null || "close".equalsIgnoreCase(getHeader("Connection"))) {
+            return false;
+        }
+        if (data != EMPTY && !(data instanceof LimitedInputStream) && !(data instanceof ChunkedInputStream)) {
+            return false;
+        }
+        final byte[] buf = new byte[8192];
+        int drained = 0;
+        while (!isEof(data)) {
+            if (drained > MAX_DRAIN_BYTES || rawData.available() == 0) {
+                return false;
+            }
+            final int n = data.read(buf);
+            if (n == -1) {
+                break;
+            }
+            drained += n;
+        }
+        return isEof(data) && rawData.available() == 0;
+    }
+
+    private static boolean isEof(InputStream data) {
+        if (data instanceof LimitedInputStream) {
+            return ((LimitedInputStream)data).isEof();
+        }
+        if (data instanceof ChunkedInputStream) {
+            return ((ChunkedInputStream)data).isEof();
+        }
+        return true;
+    }
 }
@@ -16,6 +16,8 @@ import com.sun.jna.LastErrorException;
 import java.io.IOException;
 import java.io.InputStream;
 
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_DONTWAIT;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_PEEK;
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 /**
@@ -65,4 +67,18 @@ public class UnixSocketInputStream extends InputStream {
         }
         return n;
     }
+
+    /** Returns number of bytes which may be read without blocking, never reads them from the socket. */
+    @Override
+    public int available() throws IOException {
+        final byte[] b = new byte[1024];
+        int n;
+        try {
+            n = cLib.recv(fd, b, b.length, MSG_PEEK | MSG_DONTWAIT);
+        } catch (LastErrorException e) {
+            // nothing to read yet
+            return 0;
+        }
+        return Math.max(n, 0);
+    }
 }
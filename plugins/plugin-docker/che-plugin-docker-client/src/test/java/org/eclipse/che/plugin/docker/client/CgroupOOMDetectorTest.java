@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.Collections;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link CgroupOOMDetector}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class CgroupOOMDetectorTest {
+    private static final String CONTAINER = "container123";
+
+    @Mock
+    private DockerConnector              docker;
+    @Mock
+    private DockerEventHub               eventHub;
+    @Mock
+    private MessageProcessor<LogMessage> logProcessor;
+
+    private CgroupOOMDetector detector;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        final ContainerInfo info = mock(ContainerInfo.class, RETURNS_DEEP_STUBS);
+        when(info.getConfig().getHostConfig().getMemory()).thenReturn(1024L * 1024 * 1024);
+        when(docker.inspectContainer(CONTAINER)).thenReturn(info);
+        // cgroup of the remote daemon containers is not accessible
+        detector = new CgroupOOMDetector(new URI("http://docker.example.com:2375"), docker, eventHub);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldDetectOOMWithDockerEventWhenCgroupIsNotAccessible() throws Exception {
+        detector.startDetection(CONTAINER, logProcessor);
+
+        final ArgumentCaptor<MessageProcessor> captor = ArgumentCaptor.forClass(MessageProcessor.class);
+        verify(eventHub).subscribe(eq(CONTAINER), eq(Collections.singleton("oom")), captor.capture());
+        captor.getValue().process(new Event().withId(CONTAINER).withStatus("oom"));
+        verify(logProcessor, times(2)).process(any(LogMessage.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldUnsubscribeFromEventsWhenDetectionIsStopped() throws Exception {
+        detector.startDetection(CONTAINER, logProcessor);
+        final ArgumentCaptor<MessageProcessor> captor = ArgumentCaptor.forClass(MessageProcessor.class);
+        verify(eventHub).subscribe(eq(CONTAINER), any(), captor.capture());
+
+        detector.stopDetection(CONTAINER);
+
+        verify(eventHub).unsubscribe(captor.getValue());
+    }
+
+    @Test
+    public void shouldNotStartDetectionTwice() throws Exception {
+        detector.startDetection(CONTAINER, logProcessor);
+        detector.startDetection(CONTAINER, logProcessor);
+
+        verify(eventHub).subscribe(eq(CONTAINER), any(), any());
+    }
+}
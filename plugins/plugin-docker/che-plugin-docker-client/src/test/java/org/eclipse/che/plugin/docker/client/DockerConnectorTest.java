@@ -101,6 +101,8 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -117,8 +119,10 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -907,12 +911,28 @@ public class DockerConnectorTest {
         verify(dockerConnection).path("/containers/" + putResourceParams.getContainer() + "/archive");
         verify(dockerConnection).query(eq("path"), eq(PATH_TO_FILE));
         verify(dockerConnection).header("Content-Type", ExtMediaType.APPLICATION_X_TAR);
-        verify(dockerConnection).header(eq("Content-Length"), anyInt());
-        verify(dockerConnection).entity(any(InputStream.class));
+        verify(dockerConnection).entity(any(DockerConnection.EntityWriter.class));
         verify(dockerConnection).request();
         verify(dockerResponse).getStatus();
     }
 
+    @Test
+    public void shouldBeAbleToCopyResourcesBetweenContainers() throws IOException {
+        GetResourceParams source = GetResourceParams.create(CONTAINER, PATH_TO_FILE);
+        PutResourceParams target = PutResourceParams.create("target_container", "/projects");
+        when(dockerResponse.getInputStream()).thenReturn(new ByteArrayInputStream(STREAM_DATA_BYTES));
+
+        dockerConnector.copyResource(source, target);
+
+        verify(dockerConnection).method(REQUEST_METHOD_GET);
+        verify(dockerConnection).path("/containers/" + CONTAINER + "/archive");
+        verify(dockerConnection).method(REQUEST_METHOD_PUT);
+        verify(dockerConnection).path("/containers/target_container/archive");
+        verify(dockerConnection).query(eq("path"), eq("/projects"));
+        verify(dockerConnection).entity(any(DockerConnection.EntityWriter.class));
+        verify(dockerConnection, times(2)).request();
+    }
+
     @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = EXCEPTION_ERROR_MESSAGE)
     public void shouldProduceErrorWhenPutsResourcesIntoContainerIfResponseCodeIsNotSuccess() throws IOException {
         InputStream source = new CloseConnectionInputStream(new ByteArrayInputStream(ERROR_MESSAGE.getBytes()), dockerConnection);
@@ -975,10 +995,9 @@ public class DockerConnectorTest {
         verify(dockerConnectionFactory).openConnection(any(URI.class));
         verify(dockerConnection).method(REQUEST_METHOD_POST);
         verify(dockerConnection).path("/build");
-        verify(dockerConnection).header("Content-Type", "application/x-compressed-tar");
-        verify(dockerConnection).header(eq("Content-Length"), anyInt());
+        verify(dockerConnection).header("Content-Type", ExtMediaType.APPLICATION_X_TAR);
         verify(dockerConnection).header(eq("X-Registry-Config"), any(byte[].class));
-        verify(dockerConnection).entity(any(InputStream.class));
+        verify(dockerConnection).entity(any(DockerConnection.EntityWriter.class));
         verify(dockerConnection).request();
         verify(dockerResponse).getStatus();
         verify(dockerResponse).getInputStream();
@@ -1023,6 +1042,69 @@ public class DockerConnectorTest {
         verify(dockerResponse).getInputStream();
     }
 
+    @Test
+    public void shouldReuseImageBuiltFromTheSameBuildContext() throws IOException {
+        final File context = createBuildContext("FROM busybox");
+        when(dockerResponse.getInputStream()).thenAnswer(invocation -> buildOutput("37a7da3b7edc"));
+        doReturn(new ImageInfo()).when(dockerConnector).inspectImage(any(InspectImageParams.class));
+
+        final String first = dockerConnector.buildImage(BuildImageParams.create(context), progressMonitor);
+        final String second = dockerConnector.buildImage(BuildImageParams.create(context), progressMonitor);
+
+        assertEquals(second, first);
+        verify(dockerConnection).request();
+    }
+
+    @Test
+    public void shouldBuildImageAgainWhenReusedImageIsRemoved() throws IOException {
+        final File context = createBuildContext("FROM busybox");
+        when(dockerResponse.getInputStream()).thenAnswer(invocation -> buildOutput("37a7da3b7edc"))
+                                             .thenAnswer(invocation -> buildOutput("5a81ec0a8b54"));
+        dockerConnector.buildImage(BuildImageParams.create(context), progressMonitor);
+        doThrow(new DockerException("No such image: 37a7da3b7edc", 404)).when(dockerConnector)
+                                                                        .inspectImage(any(InspectImageParams.class));
+
+        final String imageId = dockerConnector.buildImage(BuildImageParams.create(context), progressMonitor);
+
+        assertEquals(imageId, "5a81ec0a8b54");
+        verify(dockerConnector).inspectImage(InspectImageParams.create("37a7da3b7edc"));
+    }
+
+    @Test
+    public void shouldTagReusedImageWithRequestedRepository() throws IOException {
+        final File context = createBuildContext("FROM busybox");
+        when(dockerResponse.getInputStream()).thenAnswer(invocation -> buildOutput("37a7da3b7edc"));
+        dockerConnector.buildImage(BuildImageParams.create(context), progressMonitor);
+
+        dockerConnector.buildImage(BuildImageParams.create(context).withRepository(REPOSITORY), progressMonitor);
+
+        verify(dockerConnector).tag(TagParams.create("37a7da3b7edc", REPOSITORY).withForce(true));
+    }
+
+    @Test
+    public void shouldBuildImageAgainWhenBuildContextIsChanged() throws IOException {
+        final File context = createBuildContext("FROM busybox");
+        when(dockerResponse.getInputStream()).thenAnswer(invocation -> buildOutput("37a7da3b7edc"))
+                                             .thenAnswer(invocation -> buildOutput("5a81ec0a8b54"));
+        dockerConnector.buildImage(BuildImageParams.create(context), progressMonitor);
+        Files.write(context.toPath().resolve("Dockerfile"), "FROM alpine".getBytes());
+
+        final String imageId = dockerConnector.buildImage(BuildImageParams.create(context), progressMonitor);
+
+        assertEquals(imageId, "5a81ec0a8b54");
+    }
+
+    @Test
+    public void shouldNotReuseImageWhenBuildWithoutCacheIsRequested() throws IOException {
+        final File context = createBuildContext("FROM busybox");
+        when(dockerResponse.getInputStream()).thenAnswer(invocation -> buildOutput("37a7da3b7edc"));
+
+        dockerConnector.buildImage(BuildImageParams.create(context).withNoCache(true), progressMonitor);
+        dockerConnector.buildImage(BuildImageParams.create(context).withNoCache(true), progressMonitor);
+
+        verify(dockerConnection, times(2)).request();
+    }
+
     @Test
     public void shouldCallRemoveImageWithParametersObject() throws IOException {
         RemoveImageParams removeImageParams = RemoveImageParams.create(IMAGE);
@@ -1765,4 +1847,16 @@ public class DockerConnectorTest {
                                                                  .withIPAMConfig(new NewIpamConfig().withIPv4Address("ipv4_address")
                                                                                                     .withIPv6Address("ipv6_address")));
     }
+
+    private File createBuildContext(String dockerfileContent) throws IOException {
+        final Path context = Files.createTempDirectory("context");
+        context.toFile().deleteOnExit();
+        final Path dockerfile = Files.write(context.resolve("Dockerfile"), dockerfileContent.getBytes());
+        dockerfile.toFile().deleteOnExit();
+        return context.toFile();
+    }
+
+    private static InputStream buildOutput(String imageId) {
+        return new ByteArrayInputStream(("{\"stream\":\"Successfully built " + imageId + "\"}").getBytes());
+    }
 }
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.ContainerListEntry;
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.params.GetEventsParams;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link DockerEventHub}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class DockerEventHubTest {
+    @Mock
+    private DockerConnector docker;
+    @Mock
+    private ContainerInfo   containerInfo;
+
+    private DockerEventHub hub;
+    private CountDownLatch delivered;
+    private CountDownLatch release;
+    private long           eventTime;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        hub = new DockerEventHub(docker);
+        delivered = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        // events happen after containers are listed by the hub
+        eventTime = System.currentTimeMillis() / 1000 + 1;
+        when(docker.listContainers()).thenReturn(singletonList(container("c1", "Up 2 hours")));
+        when(docker.inspectContainer("c2")).thenReturn(containerInfo);
+        when(containerInfo.getId()).thenReturn("c2");
+        when(containerInfo.getName()).thenReturn("/workspace_c2");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        release.countDown();
+        hub.stop();
+    }
+
+    @Test
+    public void shouldDeliverEventsToSubscribersOfEventTypeAndContainer() throws Exception {
+        final List<String> all = new CopyOnWriteArrayList<>();
+        final List<String> ofC1 = new CopyOnWriteArrayList<>();
+        final CountDownLatch received = new CountDownLatch(4);
+        hub.subscribe(ImmutableSet.of("die"), event -> {
+            all.add(event.getId());
+            received.countDown();
+        });
+        hub.subscribe("c1", Collections.emptySet(), event -> {
+            ofC1.add(event.getStatus());
+            received.countDown();
+        });
+        streamEvents(event("c1", "die"), event("c2", "die"), event("c1", "destroy"));
+
+        hub.start();
+
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        assertEquals(all, asList("c1", "c2"));
+        assertEquals(ofC1, asList("die", "destroy"));
+    }
+
+    @Test
+    public void shouldNotDelayOtherSubscribersWhenSubscriberBlocks() throws Exception {
+        final List<String> blocked = new CopyOnWriteArrayList<>();
+        final List<String> other = new CopyOnWriteArrayList<>();
+        final CountDownLatch unblock = new CountDownLatch(1);
+        final CountDownLatch received = new CountDownLatch(4);
+        hub.subscribe(Collections.emptySet(), event -> {
+            try {
+                unblock.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            blocked.add(event.getStatus());
+            received.countDown();
+        });
+        hub.subscribe(Collections.emptySet(), event -> {
+            other.add(event.getStatus());
+            received.countDown();
+        });
+        streamEvents(event("c1", "die"), event("c1", "destroy"));
+
+        hub.start();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 50 && other.size() < 2; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(other, asList("die", "destroy"));
+        assertTrue(blocked.isEmpty());
+        unblock.countDown();
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        assertEquals(blocked, asList("die", "destroy"));
+    }
+
+    @Test
+    public void shouldUpdateContainersTableWithEvents() throws Exception {
+        streamEvents(event("c1", "die"), event("c2", "create"));
+
+        hub.start();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        final List<ContainerListEntry> containers = hub.getContainers();
+        assertEquals(containers.size(), 2);
+        for (ContainerListEntry container : containers) {
+            if ("c1".equals(container.getId())) {
+                assertEquals(container.getStatus(), "Exited");
+            } else {
+                assertEquals(container.getNames(), new String[] {"/workspace_c2"});
+                assertEquals(container.getStatus(), "Created");
+            }
+        }
+        verify(docker).listContainers();
+    }
+
+    @Test
+    public void shouldReopenStreamFromLastEventWithoutDuplicates() throws Exception {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch receivedAll = new CountDownLatch(2);
+        hub.subscribe(Collections.emptySet(), event -> {
+            received.add(event.getId() + ':' + event.getStatus());
+            receivedAll.countDown();
+        });
+        final AtomicInteger streams = new AtomicInteger();
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            final MessageProcessor<Event> processor = (MessageProcessor<Event>)invocation.getArguments()[1];
+            if (streams.incrementAndGet() == 1) {
+                processor.process(event("c1", "die"));
+                throw new IOException("connection reset");
+            }
+            processor.process(event("c1", "die"));
+            processor.process(event("c1", "start"));
+            delivered.countDown();
+            release.await();
+            return null;
+        }).when(docker).getEvents(any(GetEventsParams.class), any());
+
+        hub.start();
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertTrue(receivedAll.await(5, TimeUnit.SECONDS));
+        assertEquals(received, asList("c1:die", "c1:start"));
+        // containers are loaded again as daemon might be restarted
+        verify(docker, times(2)).listContainers();
+    }
+
+    @Test
+    public void shouldListContainersWithDockerApiWhenHubIsNotSynchronized() throws Exception {
+        hub.getContainers();
+
+        verify(docker).listContainers();
+        verify(docker, never()).getEvents(any(GetEventsParams.class), any());
+    }
+
+    private void streamEvents(Event... events) throws Exception {
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            final MessageProcessor<Event> processor = (MessageProcessor<Event>)invocation.getArguments()[1];
+            for (Event event : events) {
+                processor.process(event);
+            }
+            delivered.countDown();
+            release.await();
+            return null;
+        }).when(docker).getEvents(any(GetEventsParams.class), any());
+    }
+
+    private Event event(String container, String status) {
+        return new Event().withId(container).withStatus(status).withTime(eventTime);
+    }
+
+    private static ContainerListEntry container(String id, String status) {
+        final ContainerListEntry container = new ContainerListEntry();
+        container.setId(id);
+        container.setNames(new String[] {"/workspace_" + id});
+        container.setStatus(status);
+        return container;
+    }
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonStreamParser;
+
+import org.eclipse.che.plugin.docker.client.json.ProgressStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures parsing of the streams which docker daemon sends on image pull, image build
+ * and container logs attaching.
+ *
+ * <p>Streams are generated in the same shape as captured from the daemon: pull progress
+ * of several layers, output of the build steps and stdout/stderr frames of the container
+ * with lines split between frames. Streaming {@link JsonMessageReader} is compared with
+ * parsing of each message to JSON tree and binding of the tree.
+ *
+ * <p>It is not a test and is not run during the build, launch it with {@link #main(String[])}
+ * from test classpath and use {@code -prof gc} JMH option to compare allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DockerStreamsBenchmark {
+    private static final Gson GSON = new Gson();
+
+    private byte[] pullStream;
+    private byte[] buildStream;
+    private byte[] logStream;
+
+    @Setup
+    public void setUp() throws IOException {
+        pullStream = pullStream();
+        buildStream = buildStream();
+        logStream = logStream();
+    }
+
+    @Benchmark
+    public void readPullStream(Blackhole blackhole) throws IOException {
+        readStreaming(pullStream, blackhole);
+    }
+
+    @Benchmark
+    public void readPullStreamWithJsonTree(Blackhole blackhole) {
+        readWithJsonTree(pullStream, blackhole);
+    }
+
+    @Benchmark
+    public void readBuildStream(Blackhole blackhole) throws IOException {
+        readStreaming(buildStream, blackhole);
+    }
+
+    @Benchmark
+    public void readBuildStreamWithJsonTree(Blackhole blackhole) {
+        readWithJsonTree(buildStream, blackhole);
+    }
+
+    @Benchmark
+    public void pumpLogStream(Blackhole blackhole) throws IOException {
+        new LogMessagePumper(new ByteArrayInputStream(logStream), blackhole::consume).start();
+    }
+
+    @Benchmark
+    public void pumpLogStreamAndDecode(Blackhole blackhole) throws IOException {
+        new LogMessagePumper(new ByteArrayInputStream(logStream), message -> blackhole.consume(message.getContent())).start();
+    }
+
+    private static void readStreaming(byte[] stream, Blackhole blackhole) throws IOException {
+        final JsonMessageReader<ProgressStatus> reader = new JsonMessageReader<>(new ByteArrayInputStream(stream), ProgressStatus.class);
+        ProgressStatus status;
+        while ((status = reader.next()) != null) {
+            blackhole.consume(status);
+        }
+    }
+
+    private static void readWithJsonTree(byte[] stream, Blackhole blackhole) {
+        final JsonStreamParser parser = new JsonStreamParser(new InputStreamReader(new ByteArrayInputStream(stream), UTF_8));
+        while (parser.hasNext()) {
+            blackhole.consume(GSON.fromJson(parser.next(), ProgressStatus.class));
+        }
+    }
+
+    private static byte[] pullStream() {
+        final StringBuilder sb = new StringBuilder();
+        final String[] layers = {"8ddc19f16526", "a3ed95caeb02", "b2f2a1a3c8f4", "4c2e1f8a9d3b", "e7d9c2b1a0f5"};
+        for (String layer : layers) {
+            sb.append("{\"status\":\"Pulling fs layer\",\"progressDetail\":{},\"id\":\"").append(layer).append("\"}\r\n");
+        }
+        for (int i = 1; i <= 200; i++) {
+            final String layer = layers[i % layers.length];
+            sb.append("{\"status\":\"Downloading\",\"progressDetail\":{\"current\":").append(i * 65536)
+              .append(",\"total\":13107200},\"progress\":\"[=>                                                 ] ")
+              .append(i * 64).append(" kB/12.5 MB\",\"id\":\"").append(layer).append("\"}\r\n");
+        }
+        for (String layer : layers) {
+            sb.append("{\"status\":\"Pull complete\",\"progressDetail\":{},\"id\":\"").append(layer).append("\"}\r\n");
+        }
+        sb.append("{\"status\":\"Digest: sha256:4a731fb46adc5cefe3ae374a8b6020fc1b6ad667a279647766e9a3cd89f6fa92\"}\r\n")
+          .append("{\"status\":\"Status: Downloaded newer image for codenvy/ubuntu_jdk8:latest\"}\r\n");
+        return sb.toString().getBytes(UTF_8);
+    }
+
+    private static byte[] buildStream() {
+        final StringBuilder sb = new StringBuilder();
+        for (int step = 0; step < 20; step++) {
+            sb.append("{\"stream\":\"Step ").append(step).append(" : RUN apt-get install -y package").append(step).append("\\n\"}\r\n")
+              .append("{\"stream\":\" ---\\u003e Running in 3b1e4d5f6a7c\\n\"}\r\n");
+            for (int i = 0; i < 20; i++) {
+                sb.append("{\"stream\":\"Setting up package").append(step).append(" (1.0.").append(i)
+                  .append("-1ubuntu1) ...\\n\"}\r\n");
+            }
+            sb.append("{\"stream\":\" ---\\u003e 5d1c2b3a4e5f\\n\"}\r\n");
+        }
+        sb.append("{\"stream\":\"Successfully built 5d1c2b3a4e5f\\n\"}\r\n");
+        return sb.toString().getBytes(UTF_8);
+    }
+
+    private static byte[] logStream() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("2016-10-19 12:00:00,").append(i % 1000)
+              .append("[main]  INFO  o.e.c.a.w.s.WorkspaceRuntimes - Workspace 'workspace").append(i)
+              .append("' is running\n");
+        }
+        final byte[] content = sb.toString().getBytes(UTF_8);
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        // daemon sends frames of the size of container writes, which don't match line boundaries
+        for (int offset = 0, frame = 0; offset < content.length; frame++) {
+            final int length = Math.min(content.length - offset, 100 + frame % 7 * 150);
+            stream.write(ByteBuffer.allocate(8).put((byte)(frame % 5 == 0 ? 2 : 1)).put(new byte[3]).putInt(length).array(), 0, 8);
+            stream.write(content, offset, length);
+            offset += length;
+        }
+        return stream.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DockerStreamsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
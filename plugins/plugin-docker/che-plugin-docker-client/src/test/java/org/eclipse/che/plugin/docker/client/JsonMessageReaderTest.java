@@ -42,6 +42,31 @@ public class JsonMessageReaderTest {
         assertNull(reader.next());
     }
 
+    @Test
+    public void shouldReturnNullIfStreamIsEmpty() throws IOException {
+        final JsonMessageReader<ProgressStatus> reader = new JsonMessageReader<>(new ByteArrayInputStream(new byte[0]),
+                                                                                 ProgressStatus.class);
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldParseNestedObjectsOfMessages() throws IOException {
+        final String src = "{\"status\":\"Downloading\",\"progressDetail\":{\"current\":1024,\"total\":4096},\"id\":\"8ddc19f16526\"}" +
+                           "{\"status\":\"Download complete\",\"progressDetail\":{},\"id\":\"8ddc19f16526\"}";
+
+        final JsonMessageReader<ProgressStatus> reader = new JsonMessageReader<>(new ByteArrayInputStream(src.getBytes()),
+                                                                                 ProgressStatus.class);
+
+        final ProgressStatus status1 = reader.next();
+        final ProgressStatus status2 = reader.next();
+
+        assertEquals(status1.getProgressDetail().getCurrent(), 1024);
+        assertEquals(status1.getProgressDetail().getTotal(), 4096);
+        assertEquals(status2.getStatus(), "Download complete");
+        assertNull(reader.next());
+    }
+
     @Test
     public void shouldReturnNullIfJsonIsIncorrect() throws IOException {
         final String src = "not json";
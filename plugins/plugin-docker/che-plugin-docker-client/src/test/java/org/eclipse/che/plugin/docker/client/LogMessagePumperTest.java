@@ -10,12 +10,22 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.client;
 
+import com.google.common.base.Strings;
+
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -61,6 +71,83 @@ public class LogMessagePumperTest {
         logMessagePumper.start();
     }
 
+    @Test
+    public void shouldJoinLineSplitBetweenFrames() throws Exception {
+        final List<LogMessage> messages = new ArrayList<>();
+
+        new LogMessagePumper(frames(frame(1, "first li"), frame(1, "ne\r"), frame(2, "\nsecond line\n")), messages::add).start();
+
+        assertEquals(messages.size(), 2);
+        assertEquals(messages.get(0).getContent(), "first line");
+        assertEquals(messages.get(1).getContent(), "second line");
+        assertEquals(messages.get(1).getType(), LogMessage.Type.STDERR);
+    }
+
+    @Test
+    public void shouldSendEmptyLines() throws Exception {
+        final List<String> lines = new ArrayList<>();
+
+        new LogMessagePumper(frames(frame(1, "a\n\nb\n")), message -> lines.add(message.getContent())).start();
+
+        assertEquals(lines, asList("a", "", "b"));
+    }
+
+    @Test
+    public void shouldSplitTooLongLineWithoutLosingContent() throws Exception {
+        final String longLine = Strings.repeat("0123456789", 150);
+        final StringBuilder received = new StringBuilder();
+        final List<LogMessage> messages = new ArrayList<>();
+
+        new LogMessagePumper(frames(frame(1, longLine + "\n")), messages::add).start();
+
+        assertEquals(messages.size(), 2);
+        messages.forEach(message -> received.append(message.getContent()));
+        assertEquals(received.toString(), longLine);
+    }
+
+    @Test
+    public void shouldDecodeMultiByteCharsSplitBetweenFrames() throws Exception {
+        final byte[] bytes = "\u0436\u0443\u043a\n".getBytes(StandardCharsets.UTF_8);
+        final List<String> lines = new ArrayList<>();
+
+        new LogMessagePumper(frames(frame(1, Arrays.copyOfRange(bytes, 0, 3)), frame(1, Arrays.copyOfRange(bytes, 3, bytes.length))),
+                             message -> lines.add(message.getContent())).start();
+
+        assertEquals(lines, singletonList("\u0436\u0443\u043a"));
+    }
+
+    @Test
+    public void shouldSplitTooLongLineAtCharBoundary() throws Exception {
+        // the first two bytes char doesn't fit into the line after 1023 bytes of ASCII chars
+        final String longLine = Strings.repeat("a", 1023) + Strings.repeat("\u0436", 10);
+        final List<String> lines = new ArrayList<>();
+
+        new LogMessagePumper(frames(frame(1, longLine + "\n")), message -> lines.add(message.getContent())).start();
+
+        assertEquals(lines, asList(Strings.repeat("a", 1023), Strings.repeat("\u0436", 10)));
+    }
+
+    private static byte[] frame(int type, String payload) {
+        return frame(type, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] frame(int type, byte[] payload) {
+        return ByteBuffer.allocate(8 + payload.length)
+                         .put((byte)type)
+                         .put(new byte[3])
+                         .putInt(payload.length)
+                         .put(payload)
+                         .array();
+    }
+
+    private static InputStream frames(byte[]... frames) {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (byte[] frame : frames) {
+            stream.write(frame, 0, frame.length);
+        }
+        return new ByteArrayInputStream(stream.toByteArray());
+    }
+
     private InputStream getTestInputStream(String src) throws UnsupportedEncodingException {
         final byte remaining = (byte)src.getBytes("UTF-8").length;
         final byte[] stdoutHeader = {1, 0, 0, 0, 0, 0, 0, remaining};
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link PipelinedCopy}.
+ */
+public class PipelinedCopyTest {
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldCopyDataWhichIsLargerThanAllBuffers() throws Exception {
+        final byte[] data = new byte[100_000];
+        new Random().nextBytes(data);
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        final long copied = new PipelinedCopy(3, 1024).copy(new ByteArrayInputStream(data), target, executor);
+
+        assertEquals(copied, data.length);
+        assertEquals(target.toByteArray(), data);
+    }
+
+    @Test
+    public void shouldCopyEmptySource() throws Exception {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        assertEquals(new PipelinedCopy(2, 1024).copy(new ByteArrayInputStream(new byte[0]), target, executor), 0);
+        assertEquals(target.size(), 0);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "connection reset")
+    public void shouldThrowExceptionWhenSourceCanNotBeRead() throws Exception {
+        final InputStream source = new InputStream() {
+            int read;
+
+            @Override
+            public int read() throws IOException {
+                if (++read > 5000) {
+                    throw new IOException("connection reset");
+                }
+                return 'a';
+            }
+        };
+
+        new PipelinedCopy(2, 1024).copy(source, new ByteArrayOutputStream(), executor);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "broken pipe")
+    public void shouldStopReadingWhenTargetCanNotBeWritten() throws Exception {
+        final OutputStream target = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("broken pipe");
+            }
+        };
+
+        new PipelinedCopy(2, 1024).copy(new ByteArrayInputStream(new byte[100_000]), target, executor);
+    }
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.plugin.docker.client.json.ProgressDetail;
+import org.eclipse.che.plugin.docker.client.json.ProgressStatus;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Tests for {@link ProgressAggregator}.
+ */
+public class ProgressAggregatorTest {
+    private List<ProgressStatus> sent;
+
+    @BeforeMethod
+    public void setUp() {
+        sent = new ArrayList<>();
+    }
+
+    @Test
+    public void shouldForwardStatusesWithoutLayerAndErrorsImmediately() {
+        final ProgressAggregator aggregator = new ProgressAggregator(sent::add, MINUTES.toMillis(1));
+        final ProgressStatus pulling = status(null, "Pulling from library/ubuntu", 0, 0);
+        final ProgressStatus error = status("8ddc19f16526", null, 0, 0);
+        error.setError("unauthorized");
+
+        aggregator.updateProgress(pulling);
+        aggregator.updateProgress(error);
+
+        assertEquals(sent.size(), 2);
+        assertSame(sent.get(0), pulling);
+        assertSame(sent.get(1), error);
+    }
+
+    @Test
+    public void shouldForwardLayerStateChangesImmediately() {
+        final ProgressAggregator aggregator = new ProgressAggregator(sent::add, MINUTES.toMillis(1));
+
+        aggregator.updateProgress(status("8ddc19f16526", "Pulling fs layer", 0, 0));
+        aggregator.updateProgress(status("8ddc19f16526", "Download complete", 0, 0));
+        aggregator.updateProgress(status("8ddc19f16526", "Pull complete", 0, 0));
+
+        assertEquals(sent.size(), 3);
+        assertEquals(sent.get(2).getStatus(), "Pull complete");
+    }
+
+    @Test
+    public void shouldSendSummaryOfLayersProgressNotMoreOftenThanInterval() {
+        final ProgressAggregator aggregator = new ProgressAggregator(sent::add, MINUTES.toMillis(1));
+
+        aggregator.updateProgress(status("8ddc19f16526", "Downloading", 1_000_000, 4_000_000));
+        for (int i = 1; i <= 100; i++) {
+            aggregator.updateProgress(status("a3ed95caeb02", "Downloading", i * 10_000, 2_000_000));
+        }
+
+        assertEquals(sent.size(), 1);
+        final ProgressStatus summary = sent.get(0);
+        assertNull(summary.getId());
+        assertEquals(summary.getStatus(), "Downloading 0/1 layers");
+        assertEquals(summary.getProgressDetail().getCurrent(), 1_000_000);
+        assertEquals(new ProgressLineFormatterImpl().parseProgressText(summary), "1.00 MB/4.00 MB");
+    }
+
+    @Test
+    public void shouldSendNotSentProgressOnFlush() {
+        final ProgressAggregator aggregator = new ProgressAggregator(sent::add, MINUTES.toMillis(1));
+        aggregator.updateProgress(status("8ddc19f16526", "Downloading", 1_000_000, 4_000_000));
+        aggregator.updateProgress(status("8ddc19f16526", "Downloading", 4_000_000, 4_000_000));
+
+        aggregator.flush();
+        aggregator.flush();
+
+        assertEquals(sent.size(), 2);
+        final ProgressStatus summary = sent.get(1);
+        assertEquals(summary.getStatus(), "Downloading 1/1 layers");
+        assertEquals(summary.getProgressDetail().getCurrent(), 4_000_000);
+    }
+
+    @Test
+    public void shouldSumUpProgressOfLayersPerPhase() {
+        final ProgressAggregator aggregator = new ProgressAggregator(sent::add, 0);
+
+        aggregator.updateProgress(status("8ddc19f16526", "Downloading", 1_000_000, 4_000_000));
+        aggregator.updateProgress(status("a3ed95caeb02", "Downloading", 2_000_000, 2_000_000));
+        aggregator.updateProgress(status("a3ed95caeb02", "Extracting", 500_000, 2_000_000));
+
+        final ProgressStatus downloading = sent.get(1);
+        assertEquals(downloading.getStatus(), "Downloading 1/2 layers");
+        assertEquals(downloading.getProgressDetail().getCurrent(), 3_000_000);
+        assertEquals(downloading.getProgressDetail().getTotal(), 6_000_000);
+        final ProgressStatus extracting = sent.get(2);
+        assertEquals(extracting.getStatus(), "Extracting 0/1 layers");
+        assertEquals(extracting.getProgressDetail().getCurrent(), 500_000);
+    }
+
+    @Test
+    public void shouldCountLayerAsCompletedAfterItsStateChanges() {
+        final ProgressAggregator aggregator = new ProgressAggregator(sent::add, 0);
+        aggregator.updateProgress(status("8ddc19f16526", "Downloading", 1_000_000, 4_000_000));
+
+        aggregator.updateProgress(status("8ddc19f16526", "Download complete", 0, 0));
+        aggregator.updateProgress(status("a3ed95caeb02", "Downloading", 1_000, 2_000));
+
+        final ProgressStatus summary = sent.get(2);
+        assertEquals(summary.getStatus(), "Downloading 1/2 layers");
+        assertEquals(summary.getProgressDetail().getCurrent(), 4_001_000);
+    }
+
+    @Test
+    public void shouldFormatSizesAsDocker() {
+        assertEquals(ProgressAggregator.humanSize(512), "512 B");
+        assertEquals(ProgressAggregator.humanSize(9_130_000), "9.13 MB");
+        assertEquals(ProgressAggregator.humanSize(1_500_000_000), "1.50 GB");
+    }
+
+    private static ProgressStatus status(String id, String status, long current, long total) {
+        final ProgressStatus progressStatus = new ProgressStatus();
+        progressStatus.setId(id);
+        progressStatus.setStatus(status);
+        final ProgressDetail detail = new ProgressDetail();
+        detail.setCurrent(current);
+        detail.setTotal(total);
+        progressStatus.setProgressDetail(detail);
+        return progressStatus;
+    }
+}
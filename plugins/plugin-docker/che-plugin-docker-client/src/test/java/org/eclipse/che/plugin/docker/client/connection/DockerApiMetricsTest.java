@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics.CopyMetrics;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics.EndpointMetrics;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link DockerApiMetrics} and {@link MeteredDockerConnection}.
+ */
+public class DockerApiMetricsTest {
+    private static final String NODE = "/var/run/docker.sock";
+
+    private DockerApiMetrics metrics;
+
+    @BeforeMethod
+    public void setUp() {
+        metrics = new DockerApiMetrics();
+    }
+
+    @DataProvider(name = "paths")
+    public Object[][] paths() {
+        return new Object[][] {
+                {"/containers/create", "/containers/create"},
+                {"/v1.24/containers/json", "/containers/json"},
+                {"/containers/a3ed95caeb02/start", "/containers/{id}/start"},
+                {"/containers/a3ed95caeb02/json", "/containers/{id}/json"},
+                {"/containers/a3ed95caeb02", "/containers/{id}"},
+                {"/containers/a3ed95caeb02/exec", "/containers/{id}/exec"},
+                {"/exec/8ddc19f16526/start", "/exec/{id}/start"},
+                {"/images/create", "/images/create"},
+                {"/images/localhost:5000/codenvy/ubuntu/push", "/images/{name}/push"},
+                {"/images/codenvy/ubuntu/json", "/images/{name}/json"},
+                {"/images/ubuntu", "/images/{name}"},
+                {"/commit", "/commit"},
+                {"/version", "/version"}
+        };
+    }
+
+    @Test(dataProvider = "paths")
+    public void shouldReplaceIdentifiersInEndpoint(String path, String endpoint) {
+        assertEquals(DockerApiMetrics.endpoint(path), endpoint);
+    }
+
+    @Test
+    public void shouldRecordCallsPerEndpointAndNode() throws Exception {
+        final byte[] response = "{\"Id\":\"a3ed95caeb02\"}".getBytes();
+        final DockerConnection connection = new MeteredDockerConnection(new FakeConnection(201, response), metrics, NODE);
+
+        try (DockerConnection c = connection.method("POST").path("/containers/create").entity("{}".getBytes())) {
+            ByteStreams.toByteArray(c.request().getInputStream());
+        }
+        try (DockerConnection c = new MeteredDockerConnection(new FakeConnection(404, new byte[0]), metrics, NODE)) {
+            c.method("POST").path("/containers/a3ed95caeb02/start").request();
+        }
+
+        final List<EndpointMetrics> all = metrics.getMetrics();
+        assertEquals(all.size(), 2);
+        final EndpointMetrics create = all.get(0);
+        assertEquals(create.getNode(), NODE);
+        assertEquals(create.getEndpoint(), "POST /containers/create");
+        assertEquals(create.getCalls(), 1);
+        assertEquals(create.getErrors(), 0);
+        assertEquals(create.getInFlight(), 0);
+        assertEquals(create.getBytesSent(), 2);
+        assertEquals(create.getBytesReceived(), response.length);
+        final EndpointMetrics start = all.get(1);
+        assertEquals(start.getEndpoint(), "POST /containers/{id}/start");
+        assertEquals(start.getErrors(), 1);
+    }
+
+    @Test
+    public void shouldKeepKindOfChunkedEntity() throws Exception {
+        final FakeConnection delegate = new FakeConnection(200, new byte[0]);
+
+        try (DockerConnection c = new MeteredDockerConnection(delegate, metrics, NODE)) {
+            c.method("PUT").path("/containers/a3ed95caeb02/archive").entity(output -> output.write(new byte[100])).request();
+        }
+
+        assertTrue(delegate.entity instanceof DockerConnection.ChunkedEntity);
+        assertEquals(metrics.getMetrics().get(0).getBytesSent(), 100);
+    }
+
+    @Test
+    public void shouldCountCallAsInFlightUntilConnectionIsClosed() throws Exception {
+        final DockerConnection connection = new MeteredDockerConnection(new FakeConnection(200, new byte[0]), metrics, NODE);
+
+        connection.method("GET").path("/events").request();
+        assertEquals(metrics.getMetrics().get(0).getInFlight(), 1);
+        assertEquals(metrics.getMetrics().get(0).getCalls(), 0);
+
+        connection.close();
+        assertEquals(metrics.getMetrics().get(0).getInFlight(), 0);
+        assertEquals(metrics.getMetrics().get(0).getCalls(), 1);
+    }
+
+    @Test
+    public void shouldNotIncludeStreamingOfResponseInLatency() throws Exception {
+        try (DockerConnection c = new MeteredDockerConnection(new FakeConnection(200, new byte[0]), metrics, NODE)) {
+            c.method("GET").path("/events").request();
+            // listening to the events
+            Thread.sleep(300);
+        }
+
+        final EndpointMetrics events = metrics.getMetrics().get(0);
+        assertEquals(events.getCalls(), 1);
+        assertTrue(events.getMaxTimeMs() < 250, "latency " + events.getMaxTimeMs());
+        assertTrue(events.getMeanTransferTimeMs() >= 300, "transfer time " + events.getMeanTransferTimeMs());
+        assertEquals(events.getMaxTransferTimeMs(), events.getMeanTransferTimeMs());
+        assertEquals(events.getHistogram().get("+Inf"), Long.valueOf(0));
+    }
+
+    @Test
+    public void shouldEstimatePercentilesByHistogramBuckets() {
+        final EndpointMetrics endpoint = new EndpointMetrics(NODE, "GET /version");
+        final DockerApiMetrics.Call call = metrics.start(NODE, "GET", "/version");
+        call.finish();
+        // subsequent finish of the same call is ignored
+        call.finish();
+
+        final EndpointMetrics version = metrics.getMetrics().get(0);
+        assertEquals(version.getCalls(), 1);
+        assertEquals(version.getP99TimeMs(), 5);
+        assertEquals(version.getHistogram().get("5"), Long.valueOf(1));
+        assertEquals(endpoint.getP50TimeMs(), 0);
+    }
+
+    @Test
+    public void shouldExposeConnectionPoolsOrderedBySocketPath() {
+        final UnixSocketConnectionPool second = new UnixSocketConnectionPool("/var/run/docker2.sock", 10, 30_000, 100, 60_000);
+        final UnixSocketConnectionPool first = new UnixSocketConnectionPool(NODE, 10, 30_000, 100, 60_000);
+        metrics.addConnectionPool(second);
+        metrics.addConnectionPool(first);
+
+        assertEquals(metrics.getConnectionPools(), Arrays.asList(first, second));
+    }
+
+    @Test
+    public void shouldRecordCopiesPerSource() {
+        metrics.recordCopy("host", 1024, 10);
+        metrics.recordCopy("container", 4096, 1000);
+        metrics.recordCopy("container", 6144, 3000);
+
+        final List<CopyMetrics> copies = metrics.getCopyMetrics();
+        assertEquals(copies.size(), 2);
+        final CopyMetrics container = copies.get(0);
+        assertEquals(container.getSource(), "container");
+        assertEquals(container.getCopies(), 2);
+        assertEquals(container.getBytes(), 10240);
+        assertEquals(container.getMeanTimeMs(), 2000);
+        assertEquals(container.getMaxTimeMs(), 3000);
+        assertEquals(container.getThroughputKBps(), 2);
+        assertEquals(copies.get(1).getSource(), "host");
+    }
+
+    private static class FakeConnection extends DockerConnection {
+        private final int    status;
+        private final byte[] response;
+
+        private Entity<?> entity;
+
+        FakeConnection(int status, byte[] response) {
+            this.status = status;
+            this.response = response;
+        }
+
+        @Override
+        protected DockerResponse request(String method,
+                                         String path,
+                                         String query,
+                                         List<Pair<String, ?>> headers,
+                                         Entity<?> entity) throws IOException {
+            this.entity = entity;
+            if (entity != null) {
+                entity.writeTo(new ByteArrayOutputStream());
+            }
+            return new DockerResponse() {
+                @Override
+                public int getStatus() {
+                    return status;
+                }
+
+                @Override
+                public int getContentLength() {
+                    return response.length;
+                }
+
+                @Override
+                public String getContentType() {
+                    return "application/json";
+                }
+
+                @Override
+                public String getHeader(String name) {
+                    return null;
+                }
+
+                @Override
+                public String[] getHeaders(String name) {
+                    return new String[0];
+                }
+
+                @Override
+                public InputStream getInputStream() {
+                    return new ByteArrayInputStream(response);
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
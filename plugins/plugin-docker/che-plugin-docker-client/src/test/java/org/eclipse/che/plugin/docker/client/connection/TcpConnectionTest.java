@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+/**
+ * Tests for {@link TcpConnection}.
+ */
+public class TcpConnectionTest {
+    private static final byte[] RESPONSE = "[]".getBytes();
+
+    private HttpServer    server;
+    private URI           daemonUri;
+    private List<String>  connectionHeaders;
+    private List<Integer> clientPorts;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        connectionHeaders = new CopyOnWriteArrayList<>();
+        clientPorts = new CopyOnWriteArrayList<>();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            connectionHeaders.add(exchange.getRequestHeaders().getFirst("Connection"));
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(RESPONSE);
+            }
+        });
+        server.start();
+        daemonUri = new URI("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldReuseConnectionOfShortRequests() throws Exception {
+        request("/containers/json");
+        request("/containers/json");
+
+        // "Connection: close" is sent only for streams, see https://github.com/docker/docker/issues/12845
+        assertNotEquals(connectionHeaders.get(0), "close");
+        assertNotEquals(connectionHeaders.get(1), "close");
+        assertEquals(clientPorts.get(1), clientPorts.get(0));
+    }
+
+    @Test
+    public void shouldNotReuseConnectionOfStreams() throws Exception {
+        request("/containers/a3ed95caeb02/logs");
+        request("/containers/a3ed95caeb02/logs");
+
+        assertEquals(connectionHeaders.get(0), "close");
+        assertEquals(connectionHeaders.get(1), "close");
+        assertNotEquals(clientPorts.get(1), clientPorts.get(0));
+    }
+
+    private void request(String path) throws Exception {
+        try (DockerConnection connection = new TcpConnection(daemonUri, null, 5000, 5000)) {
+            final DockerResponse response = connection.method("GET").path(path).request();
+            assertEquals(response.getStatus(), 200);
+            assertEquals(ByteStreams.toByteArray(response.getInputStream()), RESPONSE);
+        }
+    }
+}
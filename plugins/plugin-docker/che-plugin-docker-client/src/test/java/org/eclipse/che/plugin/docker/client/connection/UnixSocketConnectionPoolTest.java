@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link UnixSocketConnectionPool}.
+ */
+public class UnixSocketConnectionPoolTest {
+    private static final String SOCKET = "/var/run/docker.sock";
+
+    @Test
+    public void shouldReuseReleasedConnection() throws Exception {
+        final FakePool pool = new FakePool(10, 30_000, 10, 1000);
+
+        final int fd = pool.acquire();
+        assertEquals(pool.getActive(), 1);
+        pool.release(fd, true);
+
+        assertEquals(pool.getIdle(), 1);
+        assertEquals(pool.getActive(), 0);
+        assertEquals(pool.acquire(), fd);
+        assertEquals(pool.getCreated(), 1);
+        assertEquals(pool.getReused(), 1);
+        assertFalse(pool.closed.contains(fd));
+    }
+
+    @Test
+    public void shouldCloseConnectionWhichIsNotReusable() throws Exception {
+        final FakePool pool = new FakePool(10, 30_000, 10, 1000);
+
+        final int fd = pool.acquire();
+        pool.release(fd, false);
+
+        assertTrue(pool.closed.contains(fd));
+        assertEquals(pool.getIdle(), 0);
+        assertNotEquals(pool.acquire(), fd);
+        assertEquals(pool.getCreated(), 2);
+    }
+
+    @Test
+    public void shouldKeepAtMostMaxIdleConnections() throws Exception {
+        final FakePool pool = new FakePool(1, 30_000, 10, 1000);
+
+        final int first = pool.acquire();
+        final int second = pool.acquire();
+        pool.release(first, true);
+        pool.release(second, true);
+
+        assertEquals(pool.getIdle(), 1);
+        assertTrue(pool.closed.contains(second));
+    }
+
+    @Test
+    public void shouldEvictConnectionWhichIsIdleLongerThanTimeout() throws Exception {
+        final FakePool pool = new FakePool(10, 50, 10, 1000);
+
+        final int fd = pool.acquire();
+        pool.release(fd, true);
+        Thread.sleep(100);
+
+        assertNotEquals(pool.acquire(), fd);
+        assertTrue(pool.closed.contains(fd));
+        assertEquals(pool.getEvicted(), 1);
+        assertEquals(pool.getReused(), 0);
+    }
+
+    @Test
+    public void shouldEvictConnectionWhichIsClosedByDaemon() throws Exception {
+        final FakePool pool = new FakePool(10, 30_000, 10, 1000);
+
+        final int fd = pool.acquire();
+        pool.release(fd, true);
+        pool.dead.add(fd);
+
+        assertNotEquals(pool.acquire(), fd);
+        assertTrue(pool.closed.contains(fd));
+        assertEquals(pool.getEvicted(), 1);
+    }
+
+    @Test
+    public void shouldCloseIdleConnectionsOnClear() throws Exception {
+        final FakePool pool = new FakePool(10, 30_000, 10, 1000);
+
+        final int fd = pool.acquire();
+        pool.release(fd, true);
+        pool.clear();
+
+        assertEquals(pool.getIdle(), 0);
+        assertTrue(pool.closed.contains(fd));
+    }
+
+    @Test(expectedExceptions = ConnectException.class,
+          expectedExceptionsMessageRegExp = "Unable connect to unix socket: '/var/run/docker.sock', all the 2 connections are in use")
+    public void shouldFailToAcquireConnectionWhenAllTheConnectionsAreInUse() throws Exception {
+        final FakePool pool = new FakePool(10, 30_000, 2, 100);
+        pool.acquire();
+        pool.acquire();
+
+        pool.acquire();
+    }
+
+    @Test
+    public void shouldWaitForConnectionWhenAllTheConnectionsAreInUse() throws Exception {
+        final FakePool pool = new FakePool(10, 30_000, 1, 5000);
+        final int fd = pool.acquire();
+        final Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            pool.release(fd, true);
+        });
+        releaser.start();
+
+        assertEquals(pool.acquire(), fd);
+        releaser.join();
+        assertEquals(pool.getActive(), 1);
+    }
+
+    @Test
+    public void shouldReturnPermitWhenConnectionCanNotBeOpened() throws Exception {
+        final FakePool pool = new FakePool(10, 30_000, 1, 100);
+        pool.failConnect = true;
+        try {
+            pool.acquire();
+        } catch (ConnectException ignored) {
+        }
+        pool.failConnect = false;
+
+        pool.acquire();
+        assertEquals(pool.getActive(), 1);
+    }
+
+    @Test
+    public void shouldNotLimitStreams() throws Exception {
+        final FakePool pool = new FakePool(10, 30_000, 1, 100);
+        pool.acquire();
+
+        final int stream = pool.openStream();
+        pool.openStream();
+        assertEquals(pool.getActiveStreams(), 2);
+
+        pool.closeStream(stream);
+        assertEquals(pool.getActiveStreams(), 1);
+        assertTrue(pool.closed.contains(stream));
+    }
+
+    /** Pool which doesn't use native library, descriptors are sequential numbers. */
+    private static class FakePool extends UnixSocketConnectionPool {
+        final AtomicInteger descriptors = new AtomicInteger();
+        final Set<Integer>  closed      = new HashSet<>();
+        final Set<Integer>  dead        = new HashSet<>();
+
+        volatile boolean failConnect;
+
+        FakePool(int maxIdle, long idleTimeoutMs, int maxActive, long acquireTimeoutMs) {
+            super(SOCKET, maxIdle, idleTimeoutMs, maxActive, acquireTimeoutMs);
+        }
+
+        @Override
+        int connect() throws IOException {
+            if (failConnect) {
+                throw new ConnectException("Connection refused");
+            }
+            return descriptors.incrementAndGet();
+        }
+
+        @Override
+        boolean isAlive(int fd) {
+            return !dead.contains(fd);
+        }
+
+        @Override
+        synchronized void close(int fd) {
+            closed.add(fd);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.io.ByteStreams;
+
+import org.testng.annotations.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link UnixSocketDockerResponse}.
+ */
+public class UnixSocketDockerResponseTest {
+
+    @Test
+    public void shouldConsumeUnreadBodyWithContentLength() throws Exception {
+        final UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\n" +
+                                                           "Content-Length: 2\r\n" +
+                                                           "\r\n" +
+                                                           "{}");
+
+        assertEquals(response.getStatus(), 200);
+        assertTrue(response.consume());
+    }
+
+    @Test
+    public void shouldConsumeChunkedBody() throws Exception {
+        final UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\n" +
+                                                           "Transfer-Encoding: chunked\r\n" +
+                                                           "\r\n" +
+                                                           "2\r\n" +
+                                                           "{}\r\n" +
+                                                           "0\r\n" +
+                                                           "\r\n");
+
+        assertEquals(new String(ByteStreams.toByteArray(response.getInputStream())), "{}");
+        assertTrue(response.consume());
+    }
+
+    @Test
+    public void shouldConsumeNoContentResponseWithoutLength() throws Exception {
+        final UnixSocketDockerResponse response = response("HTTP/1.1 204 No Content\r\n" +
+                                                           "\r\n");
+
+        assertEquals(response.getInputStream().read(), -1);
+        assertTrue(response.consume());
+    }
+
+    @Test
+    public void shouldNotConsumeBodyWhichIsNotReceivedYet() throws Exception {
+        final UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\n" +
+                                                           "Content-Length: 10\r\n" +
+                                                           "\r\n" +
+                                                           "{}");
+
+        assertEquals(response.getStatus(), 200);
+        assertFalse(response.consume());
+    }
+
+    @Test
+    public void shouldNotConsumeStreamWithoutLength() throws Exception {
+        final UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\n" +
+                                                           "Content-Type: application/vnd.docker.raw-stream\r\n" +
+                                                           "\r\n" +
+                                                           "output");
+
+        assertEquals(response.getStatus(), 200);
+        assertFalse(response.consume());
+    }
+
+    @Test
+    public void shouldNotConsumeResponseWhenDaemonClosesConnection() throws Exception {
+        final UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\n" +
+                                                           "Connection: close\r\n" +
+                                                           "Content-Length: 2\r\n" +
+                                                           "\r\n" +
+                                                           "{}");
+
+        assertEquals(response.getStatus(), 200);
+        assertFalse(response.consume());
+    }
+
+    @Test
+    public void shouldNotConsumeResponseWhichIsNotRead() throws Exception {
+        assertFalse(response("HTTP/1.1 200 OK\r\n\r\n").consume());
+    }
+
+    private static UnixSocketDockerResponse response(String raw) {
+        return new UnixSocketDockerResponse(new BufferedInputStream(new ByteArrayInputStream(raw.getBytes())));
+    }
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.rest.Service;
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics.CopyMetrics;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics.EndpointMetrics;
+import org.eclipse.che.plugin.docker.client.connection.UnixSocketConnectionPool;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * Exposes latency, error and traffic metrics of the calls to docker API, metrics of the connections
+ * to docker unix sockets, of the copies of files between machines and of machine snapshots.
+ *
+ * <p>Metrics disclose docker nodes and images of all the users, so they are available only to the users
+ * who are allowed to {@link #MANAGE_SYSTEM_ACTION manage} the {@link #SYSTEM_DOMAIN system}.
+ */
+@Path("/docker/metrics")
+public class DockerApiMetricsService extends Service {
+    public static final String SYSTEM_DOMAIN        = "system";
+    public static final String MANAGE_SYSTEM_ACTION = "manageSystem";
+
+    private final DockerApiMetrics metrics;
+    private final SnapshotPusher   snapshotPusher;
+
+    @Inject
+    public DockerApiMetricsService(DockerApiMetrics metrics, SnapshotPusher snapshotPusher) {
+        this.metrics = metrics;
+        this.snapshotPusher = snapshotPusher;
+    }
+
+    /**
+     * Returns metrics of docker API endpoints.
+     *
+     * @param node
+     *         docker daemon address, e.g. {@code 192.168.0.10:2375} or {@code /var/run/docker.sock},
+     *         metrics of all the daemons are returned when it is not set
+     * @param endpoint
+     *         substring of the endpoint, e.g. {@code /images/}, metrics of all the endpoints are returned when it is not set
+     * @throws ForbiddenException
+     *         when the current user is not allowed to manage the system
+     */
+    @GET
+    @Produces(APPLICATION_JSON)
+    public List<EndpointMetrics> getMetrics(@QueryParam("node") String node,
+                                            @QueryParam("endpoint") String endpoint) throws ForbiddenException {
+        checkManageSystemPermission();
+        return metrics.getMetrics()
+                      .stream()
+                      .filter(m -> node == null || m.getNode().equals(node))
+                      .filter(m -> endpoint == null || m.getEndpoint().contains(endpoint))
+                      .collect(toList());
+    }
+
+    /**
+     * Returns pools of connections to docker unix sockets, see {@link DockerApiMetrics#getConnectionPools()}.
+     *
+     * @throws ForbiddenException
+     *         when the current user is not allowed to manage the system
+     */
+    @GET
+    @Path("/pools")
+    @Produces(APPLICATION_JSON)
+    public List<UnixSocketConnectionPool> getConnectionPoolMetrics() throws ForbiddenException {
+        checkManageSystemPermission();
+        return metrics.getConnectionPools();
+    }
+
+    /**
+     * Returns number, size, duration and throughput of the copies of files into machines
+     * per kind of the source, see {@link DockerApiMetrics#getCopyMetrics()}.
+     *
+     * @throws ForbiddenException
+     *         when the current user is not allowed to manage the system
+     */
+    @GET
+    @Path("/copies")
+    @Produces(APPLICATION_JSON)
+    public List<CopyMetrics> getCopyMetrics() throws ForbiddenException {
+        checkManageSystemPermission();
+        return metrics.getCopyMetrics();
+    }
+
+    /**
+     * Returns number, duration and image size of snapshot commits and pushes, see {@link SnapshotPusher#getMetrics()}.
+     *
+     * @throws ForbiddenException
+     *         when the current user is not allowed to manage the system
+     */
+    @GET
+    @Path("/snapshots")
+    @Produces(APPLICATION_JSON)
+    public Map<String, Long> getSnapshotMetrics() throws ForbiddenException {
+        checkManageSystemPermission();
+        return snapshotPusher.getMetrics();
+    }
+
+    private static void checkManageSystemPermission() throws ForbiddenException {
+        EnvironmentContext.getCurrent().getSubject().checkPermission(SYSTEM_DOMAIN, null, MANAGE_SYSTEM_ACTION);
+    }
+}
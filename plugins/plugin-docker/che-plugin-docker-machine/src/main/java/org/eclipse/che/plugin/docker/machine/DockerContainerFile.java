@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.io.ByteStreams;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.eclipse.che.api.machine.server.exception.MachineException;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.exception.DockerException;
+import org.eclipse.che.plugin.docker.client.params.GetResourceParams;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Handle of the file in docker container which is read through the docker archive API,
+ * so reads don't start processes in the container.
+ *
+ * <p>File content is streamed from the daemon and only the requested part of it is kept in memory,
+ * the stream is closed as soon as the requested part is read. Handle remembers byte offsets
+ * of every {@value #LINE_INDEX_STEP}th line and of the last line seen by previous reads, so the next read
+ * of the same file skips the content before the requested line without scanning it for line breaks.
+ * Files are expected to be appended to, like logs, so the index is kept when the file grows and the next read
+ * of the appended lines continues scanning from the last seen line. The index is dropped when the file gets
+ * smaller or is modified without growing. Symbolic links are followed.
+ */
+public class DockerContainerFile {
+    static final int LINE_INDEX_STEP = 1000;
+    static final int MAX_SYMLINKS    = 8;
+
+    private final DockerConnector docker;
+    private final String          container;
+    private final String          path;
+    // line number (1-based) -> offset of the first byte of the line
+    private final TreeMap<Integer, Long> lineIndex;
+
+    private long size;
+    private long modTime;
+    private int  lastLine;
+
+    DockerContainerFile(DockerConnector docker, String container, String path) {
+        this.docker = docker;
+        this.container = container;
+        this.path = path;
+        this.lineIndex = new TreeMap<>();
+        this.lineIndex.put(1, 0L);
+        this.lastLine = 1;
+    }
+
+    /** Returns path of the file in container. */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Reads lines from {@code startFrom} to {@code startFrom + limit} inclusive.
+     *
+     * @param startFrom
+     *         line number to start reading from, starting from 1
+     * @param limit
+     *         number of lines to read after the {@code startFrom} line
+     * @return lines separated with line break, empty string if the file contains less than {@code startFrom} lines
+     * @throws MachineException
+     *         if file doesn't exist or any error occurs with file reading
+     */
+    public synchronized String readLines(int startFrom, int limit) throws MachineException {
+        final int endAt = startFrom + limit;
+        try (InputStream content = open()) {
+            final Map.Entry<Integer, Long> known = lineIndex.floorEntry(startFrom);
+            int line = known.getKey();
+            long offset = known.getValue();
+            long lineOffset = offset;
+            ByteStreams.skipFully(content, offset);
+
+            final ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            // line break is written before the next line, so the content doesn't end with line break
+            boolean lineBreak = false;
+            int b;
+            while (line <= endAt && (b = content.read()) != -1) {
+                offset++;
+                if (b == '\n') {
+                    line++;
+                    lineOffset = offset;
+                    if (line % LINE_INDEX_STEP == 1) {
+                        lineIndex.put(line, offset);
+                    }
+                    if (line > startFrom && line <= endAt) {
+                        if (lineBreak) {
+                            lines.write('\n');
+                        }
+                        lineBreak = true;
+                    }
+                } else if (line >= startFrom) {
+                    if (lineBreak) {
+                        lines.write('\n');
+                        lineBreak = false;
+                    }
+                    lines.write(b);
+                }
+            }
+            indexLastLine(line, lineOffset);
+            return lines.toString(UTF_8.name());
+        } catch (IOException e) {
+            throw new MachineException(format("Error occurs while reading file %s in docker container %s: %s",
+                                              path, container, e.getLocalizedMessage()), e);
+        }
+    }
+
+    /**
+     * Reads complete lines which are written to the file after the {@code offset},
+     * may be used for following the file as {@code tail -f} does.
+     *
+     * <p>Partial last line is not returned until its line break is written, unless the line is
+     * longer than {@code maxBytes}. If the file is smaller than the {@code offset}, e.g. it is truncated,
+     * it is read from the beginning.
+     *
+     * @param offset
+     *         byte offset to read from, {@link Tail#getOffset()} of the previous read or 0
+     * @param maxBytes
+     *         maximum number of bytes to read
+     * @return read content and offset for the next read
+     * @throws MachineException
+     *         if file doesn't exist or any error occurs with file reading
+     */
+    public synchronized Tail readFrom(long offset, int maxBytes) throws MachineException {
+        try (InputStream content = open()) {
+            if (offset > size) {
+                offset = 0;
+            }
+            ByteStreams.skipFully(content, offset);
+            final byte[] buf = new byte[(int)Math.min(maxBytes, size - offset)];
+            ByteStreams.readFully(content, buf);
+            int length = buf.length;
+            while (length > 0 && buf[length - 1] != '\n') {
+                length--;
+            }
+            if (length == 0 && buf.length == maxBytes) {
+                // line is too long, return it in parts
+                length = buf.length;
+            }
+            return new Tail(new String(buf, 0, length, UTF_8), offset + length);
+        } catch (IOException e) {
+            throw new MachineException(format("Error occurs while reading file %s in docker container %s: %s",
+                                              path, container, e.getLocalizedMessage()), e);
+        }
+    }
+
+    /** Opens stream of the file content and updates known size and modification time of the file. */
+    private InputStream open() throws IOException, MachineException {
+        String target = path;
+        for (int links = 0; ; links++) {
+            final TarArchiveInputStream tar = new TarArchiveInputStream(new BufferedInputStream(getResource(target)));
+            final TarArchiveEntry entry = tar.getNextTarEntry();
+            if (entry != null && entry.isSymbolicLink()) {
+                // archive contains the link itself, not the file it points to
+                tar.close();
+                if (links == MAX_SYMLINKS) {
+                    throw new MachineException("Too many levels of symbolic links in path " + path);
+                }
+                target = resolveLink(target, entry.getLinkName());
+                continue;
+            }
+            if (entry == null || !entry.isFile()) {
+                tar.close();
+                throw new MachineException("File with path " + path + " is not a regular file");
+            }
+            final long entryModTime = entry.getModTime().getTime();
+            if (entry.getSize() < size || entry.getSize() == size && entryModTime != modTime) {
+                // file is truncated, replaced or modified in place, so known offsets may be not valid anymore
+                lineIndex.tailMap(1, false).clear();
+                lastLine = 1;
+            }
+            size = entry.getSize();
+            modTime = entryModTime;
+            return new BufferedInputStream(tar);
+        }
+    }
+
+    /** Replaces the previously indexed last line, unless it is indexed as every {@value #LINE_INDEX_STEP}th line. */
+    private void indexLastLine(int line, long offset) {
+        if (line <= lastLine) {
+            return;
+        }
+        if (lastLine % LINE_INDEX_STEP != 1) {
+            lineIndex.remove(lastLine);
+        }
+        lineIndex.put(line, offset);
+        lastLine = line;
+    }
+
+    private InputStream getResource(String target) throws IOException, MachineException {
+        try {
+            return docker.getResource(GetResourceParams.create(container, target));
+        } catch (DockerException e) {
+            if (e.getStatus() == 404) {
+                throw new MachineException("File with path " + path + " not found");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves target of the symbolic link.
+     *
+     * @param link
+     *         absolute path of the link in the container
+     * @param linkName
+     *         absolute path or path relative to the directory of the link
+     * @return normalized absolute path of the link target
+     */
+    static String resolveLink(String link, String linkName) {
+        final String target = linkName.startsWith("/") ? linkName : link.substring(0, link.lastIndexOf('/') + 1) + linkName;
+        final Deque<String> names = new ArrayDeque<>();
+        for (String name : target.split("/")) {
+            if ("..".equals(name)) {
+                names.pollLast();
+            } else if (!name.isEmpty() && !".".equals(name)) {
+                names.addLast(name);
+            }
+        }
+        return '/' + String.join("/", names);
+    }
+
+    /** Part of the file read with {@link #readFrom(long, int)}. */
+    public static class Tail {
+        private final String content;
+        private final long   offset;
+
+        Tail(String content, long offset) {
+            this.content = content;
+            this.offset = offset;
+        }
+
+        /** Returns read content. */
+        public String getContent() {
+            return content;
+        }
+
+        /** Returns offset to read the next part of the file from. */
+        public long getOffset() {
+            return offset;
+        }
+    }
+}
@@ -11,6 +11,9 @@
 package org.eclipse.che.plugin.docker.machine;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import com.google.inject.assistedinject.Assisted;
 
 import org.eclipse.che.api.core.NotFoundException;
@@ -18,7 +21,6 @@ import org.eclipse.che.api.core.model.machine.Command;
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.machine.MachineSource;
 import org.eclipse.che.api.core.util.LineConsumer;
-import org.eclipse.che.api.core.util.ListLineConsumer;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.MachineRuntimeInfoImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
@@ -28,9 +30,10 @@ import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.Exec;
-import org.eclipse.che.plugin.docker.client.LogMessage;
 import org.eclipse.che.plugin.docker.client.ProgressLineFormatterImpl;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics;
 import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.HostConfig;
 import org.eclipse.che.plugin.docker.client.params.CommitParams;
 import org.eclipse.che.plugin.docker.client.params.CreateExecParams;
 import org.eclipse.che.plugin.docker.client.params.GetResourceParams;
@@ -45,16 +48,20 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.eclipse.che.plugin.docker.machine.DockerInstanceProvider.MACHINE_SNAPSHOT_PREFIX;
 
 /**
@@ -73,9 +80,19 @@ public class DockerInstance extends AbstractInstance {
      */
     public static final String LATEST_TAG = "latest";
 
+    /**
+     * Whether host directories bound to containers are accessible from the server by the same paths,
+     * e.g. server runs on the docker host or has the same directories mounted.
+     */
+    public static final String HOST_PATHS_VISIBLE_PROPERTY = "che.docker.host_paths_visible_to_server";
+
+    private static final int           MAX_CACHED_FILES      = 20;
     private static final AtomicInteger pidSequence           = new AtomicInteger(1);
     private static final String        PID_FILE_TEMPLATE     = "/tmp/docker-exec-%s.pid";
     private static final Pattern       PID_FILE_PATH_PATTERN = Pattern.compile(String.format(PID_FILE_TEMPLATE, "([0-9]+)"));
+    private static final String        CONTAINER_COPY_SOURCE = "container";
+    private static final String        HOST_COPY_SOURCE      = "host";
+    private static final String        SERVER_COPY_SOURCE    = "server";
     /**
      * Produces output in form:
      * <pre>
@@ -101,9 +118,17 @@ public class DockerInstance extends AbstractInstance {
     private final DockerInstanceProcessesCleaner              processesCleaner;
     private final ConcurrentHashMap<Integer, InstanceProcess> machineProcesses;
     private final boolean                                     snapshotUseRegistry;
+    private final Cache<String, DockerContainerFile>          files;
+    private final SnapshotPusher                              snapshotPusher;
+    private final DockerApiMetrics                            apiMetrics;
 
     private MachineRuntimeInfoImpl machineRuntime;
 
+    @com.google.inject.Inject(optional = true)
+    @Named(HOST_PATHS_VISIBLE_PROPERTY)
+    @VisibleForTesting
+    boolean hostPathsVisible;
+
     @Inject
     public DockerInstance(DockerConnector docker,
                           @Named("che.docker.registry") String registry,
@@ -116,7 +141,9 @@ public class DockerInstance extends AbstractInstance {
                           @Assisted LineConsumer outputConsumer,
                           DockerInstanceStopDetector dockerInstanceStopDetector,
                           DockerInstanceProcessesCleaner processesCleaner,
-                          @Named("che.docker.registry_for_snapshots") boolean snapshotUseRegistry) {
+                          @Named("che.docker.registry_for_snapshots") boolean snapshotUseRegistry,
+                          SnapshotPusher snapshotPusher,
+                          DockerApiMetrics apiMetrics) {
         super(machine);
         this.dockerMachineFactory = dockerMachineFactory;
         this.container = container;
@@ -131,6 +158,12 @@ public class DockerInstance extends AbstractInstance {
         this.machineProcesses = new ConcurrentHashMap<>();
         processesCleaner.trackProcesses(this);
         this.snapshotUseRegistry = snapshotUseRegistry;
+        this.snapshotPusher = snapshotPusher;
+        this.apiMetrics = apiMetrics;
+        this.files = CacheBuilder.newBuilder()
+                                 .maximumSize(MAX_CACHED_FILES)
+                                 .expireAfterAccess(10, TimeUnit.MINUTES)
+                                 .build();
     }
 
     @Override
@@ -214,30 +247,32 @@ public class DockerInstance extends AbstractInstance {
     @Override
     public MachineSource saveToSnapshot() throws MachineException {
         try {
-            String image = generateRepository();
             if(!snapshotUseRegistry) {
+                String image = generateRepository();
                 commitContainer(image, LATEST_TAG);
                 return new DockerMachineSource(image).withTag(LATEST_TAG);
             }
 
+            // snapshots of the machine share repository, so layers which are already pushed are not uploaded again
+            final String image = getSnapshotRepository();
+            final String tag = NameGenerator.generate(null, 16);
             PushParams pushParams = PushParams.create(image)
                                               .withRegistry(registry)
-                                              .withTag(LATEST_TAG);
+                                              .withTag(tag);
 
             final String fullRepo = pushParams.getFullRepo();
-            commitContainer(fullRepo, LATEST_TAG);
-            //TODO fix this workaround. Docker image is not visible after commit when using swarm
-            Thread.sleep(2000);
+            final long commitStart = System.currentTimeMillis();
+            commitContainer(fullRepo, tag);
+            snapshotPusher.recordCommit(System.currentTimeMillis() - commitStart);
             final ProgressLineFormatterImpl lineFormatter = new ProgressLineFormatterImpl();
-            final String digest = docker.push(pushParams,
-                                              progressMonitor -> {
-                                                  try {
-                                                      outputConsumer.writeLine(lineFormatter.format(progressMonitor));
-                                                  } catch (IOException ignored) {
-                                                  }
-                                              });
-            docker.removeImage(RemoveImageParams.create(fullRepo).withForce(false));
-            return new DockerMachineSource(image).withRegistry(registry).withDigest(digest).withTag(LATEST_TAG);
+            final String digest = snapshotPusher.push(pushParams,
+                                                      progressMonitor -> {
+                                                          try {
+                                                              outputConsumer.writeLine(lineFormatter.format(progressMonitor));
+                                                          } catch (IOException ignored) {
+                                                          }
+                                                      });
+            return new DockerMachineSource(image).withRegistry(registry).withDigest(digest).withTag(tag);
         } catch (IOException ioEx) {
             throw new MachineException(ioEx);
         } catch (InterruptedException e) {
@@ -266,6 +301,16 @@ public class DockerInstance extends AbstractInstance {
         return MACHINE_SNAPSHOT_PREFIX + NameGenerator.generate(null, 16);
     }
 
+    /** Returns repository which is the same for all the snapshots of this machine. */
+    @VisibleForTesting
+    String getSnapshotRepository() {
+        final String name = MACHINE_SNAPSHOT_PREFIX + Hashing.sha256()
+                                                             .hashString(getWorkspaceId() + '/' + getConfig().getName(), UTF_8)
+                                                             .toString()
+                                                             .substring(0, 16);
+        return registryNamespace != null ? registryNamespace + '/' + name : name;
+    }
+
     @Override
     public void destroy() throws MachineException {
         try {
@@ -274,6 +319,7 @@ public class DockerInstance extends AbstractInstance {
         }
 
         machineProcesses.clear();
+        files.invalidateAll();
         processesCleaner.untrackProcesses(getId());
         dockerInstanceStopDetector.stopDetection(container);
         try {
@@ -302,12 +348,7 @@ public class DockerInstance extends AbstractInstance {
 
     /**
      * Reads file content by specified file path.
-     *
-     * TODO:
-     * add file size checking,
-     * note that size checking and file content reading
-     * should be done in an atomic way,
-     * which means that two separate instance processes is not the case.
+     * File is read with the handle returned by {@link #getFile(String)}.
      *
      * @param filePath
      *         path to file on machine instance
@@ -326,53 +367,134 @@ public class DockerInstance extends AbstractInstance {
         if (limit <= 0 || startFrom <= 0) {
             throw new MachineException("Impossible to read file " + limit + " lines from " + startFrom + " line");
         }
+        return getFile(filePath).readLines(startFrom, limit);
+    }
 
-        // command sed getting file content from startFrom line to (startFrom + limit)
-        String shCommand = format("sed -n \'%1$2s, %2$2sp\' %3$2s", startFrom, startFrom + limit, filePath);
-
-        final String[] command = {"/bin/sh", "-c", shCommand};
-
-        ListLineConsumer lines = new ListLineConsumer();
+    /**
+     * Returns handle of the file in the container, which reads the file through the docker archive API.
+     * Handles are cached, so repeated reads of the same file, e.g. a process log, reuse offsets
+     * of the lines known from the previous reads.
+     *
+     * @param filePath
+     *         absolute path to file in the container
+     */
+    public DockerContainerFile getFile(String filePath) {
         try {
-            Exec exec = docker.createExec(CreateExecParams.create(container, command).withDetach(false));
-            docker.startExec(StartExecParams.create(exec.getId()), new LogMessagePrinter(lines, LogMessage::getContent));
-        } catch (IOException e) {
-            throw new MachineException(format("Error occurs while initializing command %s in docker container %s: %s",
-                                              Arrays.toString(command), container, e.getLocalizedMessage()), e);
+            return files.get(filePath, () -> new DockerContainerFile(docker, container, filePath));
+        } catch (ExecutionException e) {
+            // handle creation doesn't throw checked exceptions
+            throw new IllegalStateException(e.getCause());
         }
-
-        String content = lines.getText();
-        if (content.contains("sed: can't read " + filePath + ": No such file or directory") ||
-            content.contains("cat: " + filePath + ": No such file or directory")) {
-            throw new MachineException("File with path " + filePath + " not found");
-        }
-        return content;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Archive of the files is streamed from the source container into this container without temporary files.
+     * If both containers run on the same node, the source path is bound from the host directory and the server
+     * is configured to see host directories by the same paths, see {@link #HOST_PATHS_VISIBLE_PROPERTY},
+     * files are archived from the host and the source container is not read.
+     * Nothing is copied if the target path binds the host directory where the source files already are,
+     * e.g. projects folder shared by the machines of the workspace.
+     * Size and duration of the copies are recorded to {@link DockerApiMetrics} per kind of the source.
+     */
     @Override
     public void copy(Instance sourceMachine, String sourcePath, String targetPath, boolean overwriteDirNonDir) throws MachineException {
         if (!(sourceMachine instanceof DockerInstance)) {
             throw new MachineException("Unsupported copying between not docker machines");
         }
+        final DockerInstance source = (DockerInstance)sourceMachine;
+        final PutResourceParams target = PutResourceParams.create(container, targetPath)
+                                                          .withNoOverwriteDirNonDir(overwriteDirNonDir);
+        final long start = System.currentTimeMillis();
         try {
-            docker.putResource(PutResourceParams.create(container,
-                                                        targetPath,
-                                                        docker.getResource(GetResourceParams.create(
-                                                                ((DockerInstance)sourceMachine).container, sourcePath)))
-                                                .withNoOverwriteDirNonDir(overwriteDirNonDir));
+            final File sourceOnHost = Objects.equals(source.node.getHost(), node.getHost()) ? source.getHostFile(sourcePath) : null;
+            if (sourceOnHost == null) {
+                final long copied = docker.copyResource(GetResourceParams.create(source.container, sourcePath), target);
+                apiMetrics.recordCopy(CONTAINER_COPY_SOURCE, copied, System.currentTimeMillis() - start);
+                return;
+            }
+            final File targetOnHost = getHostFile(targetPath);
+            if (targetOnHost != null && sourceOnHost.toPath().equals(targetOnHost.toPath().resolve(sourceOnHost.getName()))) {
+                LOG.debug("Files '{}' of container {} are already in '{}' of container {}",
+                          sourcePath, source.container, targetPath, container);
+                return;
+            }
+            final long copied = docker.putFiles(target, sourceOnHost);
+            apiMetrics.recordCopy(HOST_COPY_SOURCE, copied, System.currentTimeMillis() - start);
         } catch (IOException e) {
             throw new MachineException(e.getLocalizedMessage());
         }
     }
 
     /**
-     * Not implemented.<p/>
+     * Copies files from CHE server into current machine, files are archived
+     * while they are streamed to the container.
      *
      * {@inheritDoc}
      */
     @Override
     public void copy(String sourcePath, String targetPath) throws MachineException {
-        throw new MachineException("Unsupported operation for docker machine implementation");
+        final File source = new File(sourcePath);
+        if (!source.exists()) {
+            throw new MachineException("File with path " + sourcePath + " not found");
+        }
+        final long start = System.currentTimeMillis();
+        try {
+            final long copied = docker.putFiles(PutResourceParams.create(container, targetPath), source);
+            apiMetrics.recordCopy(SERVER_COPY_SOURCE, copied, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            throw new MachineException(e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Returns file of the server file system which is bound to the given path in the container,
+     * or null if path is not bound or the server is not configured to see host directories.
+     */
+    private File getHostFile(String path) throws IOException {
+        if (!hostPathsVisible) {
+            // server in a container may have a different file at the same path
+            return null;
+        }
+        final HostConfig hostConfig = docker.inspectContainer(container).getHostConfig();
+        final String hostPath = hostConfig == null ? null : getHostPath(hostConfig.getBinds(), path);
+        if (hostPath == null) {
+            return null;
+        }
+        final File file = new File(hostPath);
+        return file.exists() ? file : null;
+    }
+
+    /**
+     * Resolves path in the container to the path on the host with the container binds.
+     *
+     * @param binds
+     *         binds of the container in format {@code host-path:container-path[:mode]}
+     * @param path
+     *         absolute path in the container
+     * @return path on the host or null if the path doesn't belong to the host directory bound to the container
+     */
+    @VisibleForTesting
+    static String getHostPath(String[] binds, String path) {
+        if (binds == null) {
+            return null;
+        }
+        String hostPath = null;
+        int boundLength = -1;
+        for (String bind : binds) {
+            final String[] parts = bind.split(":");
+            if (parts.length < 2 || !parts[0].startsWith("/")) {
+                // named volume is not a host directory
+                continue;
+            }
+            final String containerPath = parts[1].endsWith("/") ? parts[1].substring(0, parts[1].length() - 1) : parts[1];
+            if (containerPath.length() > boundLength && (path.equals(containerPath) || path.startsWith(containerPath + '/'))) {
+                hostPath = parts[0] + path.substring(containerPath.length());
+                boundLength = containerPath.length();
+            }
+        }
+        return hostPath;
     }
 
     /**
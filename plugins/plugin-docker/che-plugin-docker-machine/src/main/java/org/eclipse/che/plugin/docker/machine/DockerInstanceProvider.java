@@ -24,6 +24,7 @@ import org.eclipse.che.api.machine.server.exception.SnapshotException;
 import org.eclipse.che.api.machine.server.exception.UnsupportedRecipeException;
 import org.eclipse.che.api.machine.server.spi.Instance;
 import org.eclipse.che.api.machine.server.spi.InstanceProvider;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.params.RemoveImageParams;
@@ -69,14 +70,19 @@ public class DockerInstanceProvider implements InstanceProvider {
      */
     public static final String MACHINE_SNAPSHOT_PREFIX = "machine_snapshot_";
 
+    private static final String MANIFEST_V2_MEDIA_TYPE = "application/vnd.docker.distribution.manifest.v2+json";
+
     private final DockerConnector                               docker;
     private final boolean                                       snapshotUseRegistry;
+    private final SnapshotPusher                                snapshotPusher;
 
     @Inject
     public DockerInstanceProvider(DockerConnector docker,
-                                  @Named("che.docker.registry_for_snapshots") boolean snapshotUseRegistry) throws IOException {
+                                  @Named("che.docker.registry_for_snapshots") boolean snapshotUseRegistry,
+                                  SnapshotPusher snapshotPusher) throws IOException {
         this.docker = docker;
         this.snapshotUseRegistry = snapshotUseRegistry;
+        this.snapshotPusher = snapshotPusher;
     }
 
     @Override
@@ -148,34 +154,89 @@ public class DockerInstanceProvider implements InstanceProvider {
             throw new SnapshotException("Snapshot removing failed. Snapshot attributes are not valid");
         }
 
+        final String tag = dockerMachineSource.getTag();
+        if (snapshotPusher.discard(dockerMachineSource.getLocation(false),
+                                   pushedDigest -> removeManifest(registry, repository, tag, pushedDigest))) {
+            // snapshot is not pushed to the registry or is removed when pushed
+            return;
+        }
+
         try {
-            URL url = UriBuilder.fromUri("http://" + registry) // TODO make possible to use https here
-                                .path("/v2/{repository}/manifests/{digest}")
-                                .build(repository, dockerMachineSource.getDigest())
-                                .toURL();
-            final HttpURLConnection conn = (HttpURLConnection)url.openConnection();
-            try {
-                conn.setConnectTimeout(30 * 1000);
-                conn.setRequestMethod("DELETE");
-                // TODO add auth header for secured registry
-                // conn.setRequestProperty("Authorization", authHeader);
-                final int responseCode = conn.getResponseCode();
-                if ((responseCode / 100) != 2) {
-                    InputStream in = conn.getErrorStream();
-                    if (in == null) {
-                        in = conn.getInputStream();
-                    }
-                    LOG.error("An error occurred while deleting snapshot with url: {}\nError stream: {}",
-                              url,
-                              IoUtil.readAndCloseQuietly(in));
-                    throw new SnapshotException("Internal server error occurs. Can't remove snapshot");
-                }
-            } finally {
-                conn.disconnect();
-            }
+            // snapshots which are pushed in the background don't have digest
+            removeManifest(registry, repository, tag, dockerMachineSource.getDigest());
         } catch (IOException e) {
             LOG.error(e.getLocalizedMessage(), e);
         }
     }
 
+    /** Removes manifest of the snapshot image from the registry, manifest is found by the tag if digest is unknown. */
+    private void removeManifest(String registry,
+                                String repository,
+                                @Nullable String tag,
+                                @Nullable String digest) throws IOException, SnapshotException {
+        if (digest == null) {
+            digest = getManifestDigest(registry, repository, tag);
+            if (digest == null) {
+                LOG.warn("Snapshot image '{}/{}:{}' is not found in the registry, there is nothing to remove", registry, repository, tag);
+                return;
+            }
+        }
+        URL url = UriBuilder.fromUri("http://" + registry) // TODO make possible to use https here
+                            .path("/v2/{repository}/manifests/{digest}")
+                            .build(repository, digest)
+                            .toURL();
+        final HttpURLConnection conn = (HttpURLConnection)url.openConnection();
+        try {
+            conn.setConnectTimeout(30 * 1000);
+            conn.setRequestMethod("DELETE");
+            // TODO add auth header for secured registry
+            // conn.setRequestProperty("Authorization", authHeader);
+            final int responseCode = conn.getResponseCode();
+            if ((responseCode / 100) != 2) {
+                InputStream in = conn.getErrorStream();
+                if (in == null) {
+                    in = conn.getInputStream();
+                }
+                LOG.error("An error occurred while deleting snapshot with url: {}\nError stream: {}",
+                          url,
+                          IoUtil.readAndCloseQuietly(in));
+                throw new SnapshotException("Internal server error occurs. Can't remove snapshot");
+            }
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    /**
+     * Returns digest of the image manifest which is referenced by the tag in the registry
+     * or {@code null} if there is no such manifest, e.g. push of the snapshot failed.
+     */
+    @Nullable
+    private String getManifestDigest(String registry, String repository, String tag) throws IOException, SnapshotException {
+        if (tag == null) {
+            throw new SnapshotException("Snapshot removing failed. Snapshot has neither digest nor tag");
+        }
+        URL url = UriBuilder.fromUri("http://" + registry) // TODO make possible to use https here
+                            .path("/v2/{repository}/manifests/{tag}")
+                            .build(repository, tag)
+                            .toURL();
+        final HttpURLConnection conn = (HttpURLConnection)url.openConnection();
+        try {
+            conn.setConnectTimeout(30 * 1000);
+            conn.setRequestMethod("HEAD");
+            // digest of the manifest which is pushed by docker differs for other manifest versions
+            conn.setRequestProperty("Accept", MANIFEST_V2_MEDIA_TYPE);
+            if (conn.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
+            }
+            final String digest = conn.getHeaderField("Docker-Content-Digest");
+            if ((conn.getResponseCode() / 100) != 2 || digest == null) {
+                LOG.error("Failed to get digest of snapshot with url: {}, response code: {}", url, conn.getResponseCode());
+                throw new SnapshotException("Internal server error occurs. Can't remove snapshot");
+            }
+            return digest;
+        } finally {
+            conn.disconnect();
+        }
+    }
 }
@@ -15,32 +15,40 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Strings;
 import com.google.common.collect.ObjectArrays;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.machine.MachineLogMessage;
 import org.eclipse.che.api.core.model.machine.MachineStatus;
 import org.eclipse.che.api.core.model.machine.ServerConf;
 import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.core.util.LineConsumer;
+import org.eclipse.che.api.core.util.MessageConsumer;
 import org.eclipse.che.api.core.util.SystemInfo;
 import org.eclipse.che.api.environment.server.MachineInstanceProvider;
+import org.eclipse.che.api.environment.server.model.CheServiceBuildContextImpl;
 import org.eclipse.che.api.environment.server.model.CheServiceImpl;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.exception.SourceNotFoundException;
 import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineLimitsImpl;
+import org.eclipse.che.api.machine.server.model.impl.MachineLogMessageImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineSourceImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
 import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.Size;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
 import org.eclipse.che.plugin.docker.client.ProgressLineFormatterImpl;
 import org.eclipse.che.plugin.docker.client.ProgressMonitor;
 import org.eclipse.che.plugin.docker.client.UserSpecificDockerRegistryCredentialsProvider;
+import org.eclipse.che.plugin.docker.client.dto.AuthConfigs;
 import org.eclipse.che.plugin.docker.client.exception.ContainerNotFoundException;
+import org.eclipse.che.plugin.docker.client.exception.DockerException;
 import org.eclipse.che.plugin.docker.client.exception.ImageNotFoundException;
 import org.eclipse.che.plugin.docker.client.exception.NetworkNotFoundException;
 import org.eclipse.che.plugin.docker.client.json.ContainerConfig;
@@ -78,9 +86,15 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -107,6 +121,12 @@ public class MachineProviderImpl implements MachineInstanceProvider {
 
     public static final Pattern SNAPSHOT_LOCATION_PATTERN = Pattern.compile("(.+/)?" + MACHINE_SNAPSHOT_PREFIX + ".+");
 
+    /** Maximum number of images which are pulled or built concurrently before start of environments. */
+    public static final String IMAGE_PREPARE_THREADS_PROPERTY = "che.docker.image_prepare_threads";
+
+    /** Prepared images which were not used by a service start during this time are removed. */
+    private static final long PREPARED_IMAGE_TTL_MS = TimeUnit.HOURS.toMillis(1);
+
     private final DockerConnector                               docker;
     private final UserSpecificDockerRegistryCredentialsProvider dockerCredentials;
     private final ExecutorService                               executor;
@@ -126,6 +146,21 @@ public class MachineProviderImpl implements MachineInstanceProvider {
     private final boolean                                       snapshotUseRegistry;
     private final double                                        memorySwapMultiplier;
     private final Set<String>                                   additionalNetworks;
+    private final SharedImagePulls                              sharedPulls;
+    // workspace id + '/' + machine name -> image prepared for the machine
+    private final ConcurrentMap<String, PreparedImage>          preparedImages;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(IMAGE_PREPARE_THREADS_PROPERTY)
+    private int imagePrepareThreads = 5;
+
+    @com.google.inject.Inject(optional = true)
+    private WarmImagePool warmImagePool;
+
+    @com.google.inject.Inject(optional = true)
+    private SnapshotPusher snapshotPusher;
+
+    private volatile ExecutorService imagePrepareExecutor;
 
     @Inject
     public MachineProviderImpl(DockerConnector docker,
@@ -230,6 +265,9 @@ public class MachineProviderImpl implements MachineInstanceProvider {
                                                     .flatMap(Set::stream)
                                                     .collect(Collectors.toSet());
 
+        this.sharedPulls = new SharedImagePulls();
+        this.preparedImages = new ConcurrentHashMap<>();
+
         // TODO single point of failure in case of highly loaded system
         executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("MachineLogsStreamer-%d")
                                                                            .setDaemon(true)
@@ -260,9 +298,19 @@ public class MachineProviderImpl implements MachineInstanceProvider {
 
         String container = null;
         try {
-            String image = prepareImage(machineName,
-                                        service,
-                                        progressMonitor);
+            final long prepareStart = System.currentTimeMillis();
+            final PreparedImage prepared = takePreparedImage(workspaceId, machineName, service);
+            final String image;
+            if (prepared != null) {
+                image = usePreparedImage(prepared, service);
+                recordImageUsage(service, prepared.readyMs);
+            } else {
+                image = prepareImage(machineName,
+                                     "eclipse-che/" + service.getContainerName(),
+                                     service,
+                                     progressMonitor);
+                recordImageUsage(service, System.currentTimeMillis() - prepareStart);
+            }
 
             container = createContainer(workspaceId,
                                         machineName,
@@ -327,6 +375,84 @@ public class MachineProviderImpl implements MachineInstanceProvider {
         }
     }
 
+    /**
+     * Pulls or builds images of all the services concurrently, at most {@value #IMAGE_PREPARE_THREADS_PROPERTY}
+     * images at once for all environments. Concurrent pulls of the same image by different environments are performed once.
+     * Prepared images are used by {@link #startService} if source of service is not changed,
+     * images which are not used are removed by {@link #removePreparedImages}.
+     */
+    @Override
+    public void prepareImages(String workspaceId,
+                              Map<String, CheServiceImpl> services,
+                              MessageConsumer<MachineLogMessage> logger) throws ServerException {
+        long now = System.currentTimeMillis();
+        for (PreparedImage prepared : preparedImages.values()) {
+            if (now - prepared.created > PREPARED_IMAGE_TTL_MS && preparedImages.remove(prepared.key, prepared)) {
+                removeImageQuietly(prepared.imageName);
+            }
+        }
+
+        Map<String, Future<?>> preparations = new HashMap<>();
+        for (Map.Entry<String, CheServiceImpl> entry : services.entrySet()) {
+            String machineName = entry.getKey();
+            CheServiceImpl service = new CheServiceImpl(entry.getValue());
+            // container name is not generated yet, so image is named after workspace and machine
+            String imageName = "eclipse-che/" + (workspaceId + '_' + machineName).toLowerCase().replaceAll("[^a-z0-9_-]+", "");
+            ProgressLineFormatterImpl progressLineFormatter = new ProgressLineFormatterImpl();
+            ProgressMonitor progressMonitor = currentProgressStatus -> {
+                try {
+                    logger.consume(new MachineLogMessageImpl(machineName, progressLineFormatter.format(currentProgressStatus)));
+                } catch (IOException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            };
+            preparations.put(machineName, getImagePrepareExecutor().submit(ThreadLocalPropagateContext.wrap(() -> {
+                long prepareStart = System.currentTimeMillis();
+                String image = prepareImage(machineName, imageName, service, progressMonitor);
+                PreparedImage prepared = new PreparedImage(workspaceId,
+                                                           machineName,
+                                                           service,
+                                                           image,
+                                                           System.currentTimeMillis() - prepareStart);
+                PreparedImage previous = preparedImages.put(prepared.key, prepared);
+                if (previous != null && !previous.imageName.equals(image)) {
+                    removeImageQuietly(previous.imageName);
+                }
+                return null;
+            })));
+        }
+
+        ServerException failure = null;
+        for (Map.Entry<String, Future<?>> preparation : preparations.entrySet()) {
+            try {
+                Uninterruptibles.getUninterruptibly(preparation.getValue());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    Throwable cause = e.getCause();
+                    failure = cause instanceof ServerException ? (ServerException)cause
+                                                               : new ServerException(cause.getLocalizedMessage(), cause);
+                }
+            }
+        }
+        if (failure != null) {
+            removePreparedImages(workspaceId);
+            throw failure;
+        }
+    }
+
+    /**
+     * Removes images which were prepared by {@link #prepareImages} for the workspace
+     * but were not used by {@link #startService}.
+     */
+    @Override
+    public void removePreparedImages(String workspaceId) {
+        for (PreparedImage prepared : preparedImages.values()) {
+            if (prepared.workspaceId.equals(workspaceId) && preparedImages.remove(prepared.key, prepared)) {
+                removeImageQuietly(prepared.imageName);
+            }
+        }
+    }
+
     @Override
     public void createNetwork(String networkName) throws ServerException {
         try {
@@ -348,12 +474,12 @@ public class MachineProviderImpl implements MachineInstanceProvider {
     }
 
     private String prepareImage(String machineName,
+                                String imageName,
                                 CheServiceImpl service,
                                 ProgressMonitor progressMonitor)
             throws ServerException,
                    NotFoundException {
 
-        String imageName = "eclipse-che/" + service.getContainerName();
         if ((service.getBuild() == null || (service.getBuild().getContext() == null &&
                                             service.getBuild().getDockerfileContent() == null)) &&
             service.getImage() == null) {
@@ -362,8 +488,7 @@ public class MachineProviderImpl implements MachineInstanceProvider {
                                              machineName));
         }
 
-        if (service.getBuild() != null && (service.getBuild().getContext() != null ||
-                                           service.getBuild().getDockerfileContent() != null)) {
+        if (isBuilt(service)) {
             buildImage(service, imageName, doForcePullOnBuild, progressMonitor);
         } else {
             pullImage(service, imageName, progressMonitor);
@@ -372,6 +497,71 @@ public class MachineProviderImpl implements MachineInstanceProvider {
         return imageName;
     }
 
+    private static boolean isBuilt(CheServiceImpl service) {
+        return service.getBuild() != null && (service.getBuild().getContext() != null ||
+                                              service.getBuild().getDockerfileContent() != null);
+    }
+
+    /** Returns image prepared by {@link #prepareImages} for the given machine, or null if there is no such image. */
+    private PreparedImage takePreparedImage(String workspaceId, String machineName, CheServiceImpl service) {
+        PreparedImage prepared = preparedImages.remove(workspaceId + '/' + machineName);
+        if (prepared == null) {
+            return null;
+        }
+        if (!Objects.equals(prepared.image, service.getImage()) || !Objects.equals(prepared.build, service.getBuild())) {
+            removeImageQuietly(prepared.imageName);
+            return null;
+        }
+        return prepared;
+    }
+
+    /** Tags prepared image with the name generated for the container like image prepared on service start. */
+    private String usePreparedImage(PreparedImage prepared, CheServiceImpl service) throws IOException {
+        String imageName = "eclipse-che/" + service.getContainerName();
+        docker.tag(TagParams.create(prepared.imageName, imageName).withForce(true));
+        removeImageQuietly(prepared.imageName);
+        return imageName;
+    }
+
+    private void removeImageQuietly(String imageName) {
+        try {
+            docker.removeImage(RemoveImageParams.create(imageName).withForce(false));
+        } catch (IOException e) {
+            LOG.warn("Failed to remove image '{}'. Cause: {}", imageName, e.getLocalizedMessage());
+        }
+    }
+
+    /** Records time which preparation of the pulled image of the service took, built images are not kept warm. */
+    private void recordImageUsage(CheServiceImpl service, long readyMs) {
+        if (warmImagePool == null || service.getImage() == null || isBuilt(service)) {
+            return;
+        }
+        try {
+            warmImagePool.recordImageUsage(new DockerMachineSource(new MachineSourceImpl("image").setLocation(service.getImage()))
+                                                   .getLocation(false),
+                                           readyMs);
+        } catch (MachineException e) {
+            LOG.warn("Failed to record usage of image '{}'. Cause: {}", service.getImage(), e.getLocalizedMessage());
+        }
+    }
+
+    private ExecutorService getImagePrepareExecutor() {
+        ExecutorService prepareExecutor = imagePrepareExecutor;
+        if (prepareExecutor == null) {
+            synchronized (this) {
+                prepareExecutor = imagePrepareExecutor;
+                if (prepareExecutor == null) {
+                    imagePrepareExecutor = prepareExecutor =
+                            Executors.newFixedThreadPool(imagePrepareThreads,
+                                                         new ThreadFactoryBuilder().setNameFormat("MachineImagePreparer-%d")
+                                                                                   .setDaemon(true)
+                                                                                   .build());
+                }
+            }
+        }
+        return prepareExecutor;
+    }
+
     protected void buildImage(CheServiceImpl service,
                               String machineImageName,
                               boolean doForcePullOnBuild,
@@ -440,16 +630,35 @@ public class MachineProviderImpl implements MachineInstanceProvider {
 
         try {
             boolean isSnapshot = SNAPSHOT_LOCATION_PATTERN.matcher(dockerMachineSource.getLocation()).matches();
-            if (!isSnapshot || snapshotUseRegistry) {
+            String fullNameOfPulledImage = dockerMachineSource.getLocation(false);
+            // snapshot may be still pushed in the background, or left only on the node where it was committed
+            boolean useLocalSnapshot = isSnapshot && (!snapshotUseRegistry
+                                                      || snapshotPusher != null
+                                                         && snapshotPusher.awaitPush(fullNameOfPulledImage));
+            if (!useLocalSnapshot) {
+                AuthConfigs authConfigs = dockerCredentials.getCredentials();
                 PullParams pullParams = PullParams.create(dockerMachineSource.getRepository())
                                                   .withTag(MoreObjects.firstNonNull(dockerMachineSource.getTag(),
                                                                                     LATEST_TAG))
                                                   .withRegistry(dockerMachineSource.getRegistry())
-                                                  .withAuthConfigs(dockerCredentials.getCredentials());
-                docker.pull(pullParams, progressMonitor);
+                                                  .withAuthConfigs(authConfigs);
+                try {
+                    sharedPulls.pull(fullNameOfPulledImage,
+                                     authConfigs,
+                                     pullMonitor -> docker.pull(pullParams, pullMonitor),
+                                     progressMonitor);
+                } catch (IOException e) {
+                    // pending pushes are not kept over server restart, so snapshot may be left only on the node
+                    if (!isSnapshot || !imageExists(fullNameOfPulledImage)) {
+                        throw e;
+                    }
+                    LOG.warn("Failed to pull snapshot image '{}', image which is left on the docker node is used. Cause: {}",
+                             fullNameOfPulledImage,
+                             e.getLocalizedMessage());
+                    useLocalSnapshot = true;
+                }
             }
 
-            String fullNameOfPulledImage = dockerMachineSource.getLocation(false);
             try {
                 // tag image with generated name to allow sysadmin recognize it
                 docker.tag(TagParams.create(fullNameOfPulledImage, machineImageName));
@@ -458,12 +667,27 @@ public class MachineProviderImpl implements MachineInstanceProvider {
             }
 
             // remove unneeded tag if restoring snapshot from registry
-            if (isSnapshot && snapshotUseRegistry) {
+            if (isSnapshot && !useLocalSnapshot) {
                 docker.removeImage(RemoveImageParams.create(fullNameOfPulledImage).withForce(false));
             }
         } catch (IOException e) {
             LOG.error(e.getLocalizedMessage(), e);
             throw new MachineException("Can't create machine from image. Cause: " + e.getLocalizedMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MachineException("Machine creation is interrupted");
+        }
+    }
+
+    private boolean imageExists(String image) throws IOException {
+        try {
+            docker.inspectImage(image);
+            return true;
+        } catch (DockerException e) {
+            if (e.getStatus() == 404) {
+                return false;
+            }
+            throw e;
         }
     }
 
@@ -692,4 +916,24 @@ public class MachineProviderImpl implements MachineInstanceProvider {
         }
         return list.toArray(new String[list.size()]);
     }
+
+    private static class PreparedImage {
+        final String                     key;
+        final String                     workspaceId;
+        final String                     image;
+        final CheServiceBuildContextImpl build;
+        final String                     imageName;
+        final long                       created;
+        final long                       readyMs;
+
+        PreparedImage(String workspaceId, String machineName, CheServiceImpl service, String imageName, long readyMs) {
+            this.key = workspaceId + '/' + machineName;
+            this.workspaceId = workspaceId;
+            this.image = service.getImage();
+            this.build = service.getBuild();
+            this.imageName = imageName;
+            this.created = System.currentTimeMillis();
+            this.readyMs = readyMs;
+        }
+    }
 }
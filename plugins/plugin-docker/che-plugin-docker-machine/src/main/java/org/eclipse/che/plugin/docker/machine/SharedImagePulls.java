@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.dto.AuthConfigs;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * De-duplicates concurrent pulls of the same image.
+ *
+ * <p>When image is requested while another pull of it with the same credentials is in progress,
+ * the caller waits for that pull instead of starting a new one and receives its progress.
+ */
+class SharedImagePulls {
+
+    /** Pulls an image reporting progress to the given monitor. */
+    @FunctionalInterface
+    interface Pull {
+        void pull(ProgressMonitor progressMonitor) throws IOException;
+    }
+
+    private final ConcurrentMap<String, SharedPull> pulls = new ConcurrentHashMap<>();
+
+    /**
+     * Performs the pull or joins the same pull which is in progress.
+     *
+     * @param image
+     *         full name of the image including registry and tag
+     * @param authConfigs
+     *         credentials used for the pull, pull is shared only between callers with equal credentials
+     * @param pull
+     *         action that pulls the image
+     * @param progressMonitor
+     *         receives progress of the pull
+     * @throws IOException
+     *         when pull fails
+     */
+    void pull(String image, AuthConfigs authConfigs, Pull pull, ProgressMonitor progressMonitor) throws IOException {
+        final SharedPull newPull = new SharedPull(authConfigs, progressMonitor);
+        final SharedPull inProgress = pulls.putIfAbsent(image, newPull);
+        if (inProgress != null) {
+            if (Objects.equals(inProgress.authConfigs, authConfigs)) {
+                inProgress.monitors.add(progressMonitor);
+                inProgress.await();
+                return;
+            }
+            // credentials differ, caller must not get an image which may be inaccessible with its credentials
+            pull.pull(progressMonitor);
+            return;
+        }
+        try {
+            pull.pull(status -> newPull.monitors.forEach(monitor -> monitor.updateProgress(status)));
+            newPull.result.complete(null);
+        } catch (IOException | RuntimeException e) {
+            newPull.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            pulls.remove(image, newPull);
+        }
+    }
+
+    private static class SharedPull {
+        final AuthConfigs             authConfigs;
+        final List<ProgressMonitor>   monitors;
+        final CompletableFuture<Void> result;
+
+        SharedPull(AuthConfigs authConfigs, ProgressMonitor progressMonitor) {
+            this.authConfigs = authConfigs;
+            this.monitors = new CopyOnWriteArrayList<>();
+            this.monitors.add(progressMonitor);
+            this.result = new CompletableFuture<>();
+        }
+
+        void await() throws IOException {
+            try {
+                Uninterruptibles.getUninterruptibly(result);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException)cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                }
+                throw new IOException(cause.getLocalizedMessage(), cause);
+            }
+        }
+    }
+}
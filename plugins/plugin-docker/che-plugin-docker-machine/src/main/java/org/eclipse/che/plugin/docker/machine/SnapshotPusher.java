@@ -0,0 +1,423 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.params.PushParams;
+import org.eclipse.che.plugin.docker.client.params.RemoveImageParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes images of machine snapshots to the registry.
+ *
+ * <p>Pushes run in the background on a bounded pool, so snapshot is done as soon as the container is committed
+ * and workspace doesn't wait for the upload. When the queue of pending pushes is full the caller pushes itself,
+ * pushes which are scheduled when the pusher is stopped fail.
+ * Failed pushes are retried with growing delay, image of the snapshot is kept on the docker node
+ * until the push succeeds, so snapshot is still available on that node when all the retries fail.
+ * At most {@value #MAX_FAILED_PUSHES} last failed pushes are remembered.
+ * When pool size is 0 pushes are performed synchronously by the caller.
+ *
+ * <p>Pusher also collects duration of snapshot commits and pushes and size of snapshot images.
+ */
+@Singleton
+public class SnapshotPusher {
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotPusher.class);
+
+    public static final String PUSH_THREADS_PROPERTY    = "che.docker.snapshot.push_threads";
+    public static final String PUSH_QUEUE_SIZE_PROPERTY = "che.docker.snapshot.push_queue_size";
+    public static final String PUSH_RETRIES_PROPERTY    = "che.docker.snapshot.push_retries";
+    public static final String AWAIT_TIMEOUT_PROPERTY   = "che.docker.snapshot.await_push_timeout_ms";
+    public static final String DISCARD_TIMEOUT_PROPERTY = "che.docker.snapshot.discard_push_timeout_ms";
+
+    static final long RETRY_DELAY_MS    = 5000;
+    static final int  MAX_FAILED_PUSHES = 1000;
+
+    /** Removes manifest of the pushed image of discarded snapshot from the registry. */
+    @FunctionalInterface
+    public interface ManifestRemover {
+        /**
+         * @param digest
+         *         digest of the pushed manifest, may be {@code null} if docker doesn't report it
+         */
+        void remove(@Nullable String digest) throws Exception;
+    }
+
+    private final DockerConnector    docker;
+    private final ThreadPoolExecutor executor;
+    private final int                retries;
+    // full name of the image including registry and tag -> push which is pending or failed
+    private final ConcurrentMap<String, Push> pushes;
+    // failed pushes which are kept in pushes, the oldest first
+    private final Queue<Push>                 failedPushes;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(AWAIT_TIMEOUT_PROPERTY)
+    private long awaitTimeoutMs = 600_000;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(DISCARD_TIMEOUT_PROPERTY)
+    private long discardTimeoutMs = 30_000;
+
+    private final AtomicLong commits;
+    private final AtomicLong commitsMs;
+    private final AtomicLong pushed;
+    private final AtomicLong pushedMs;
+    private final AtomicLong imagesSize;
+    private final AtomicLong retried;
+    private final AtomicLong failed;
+    private final AtomicLong discarded;
+
+    @Inject
+    public SnapshotPusher(DockerConnector docker,
+                          @Named(PUSH_THREADS_PROPERTY) int threads,
+                          @Named(PUSH_QUEUE_SIZE_PROPERTY) int queueSize,
+                          @Named(PUSH_RETRIES_PROPERTY) int retries) {
+        this.docker = docker;
+        this.retries = retries;
+        this.pushes = new ConcurrentHashMap<>();
+        this.failedPushes = new ConcurrentLinkedQueue<>();
+        if (threads > 0) {
+            this.executor = new ThreadPoolExecutor(threads,
+                                                   threads,
+                                                   0L,
+                                                   TimeUnit.MILLISECONDS,
+                                                   new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                                                   new ThreadFactoryBuilder().setNameFormat("SnapshotPusher-%d")
+                                                                             .setDaemon(true)
+                                                                             .build(),
+                                                   (task, pool) -> {
+                                                       if (pool.isShutdown()) {
+                                                           ((Push)task).reject();
+                                                       } else {
+                                                           task.run();
+                                                       }
+                                                   });
+        } else {
+            this.executor = null;
+        }
+        this.commits = new AtomicLong();
+        this.commitsMs = new AtomicLong();
+        this.pushed = new AtomicLong();
+        this.pushedMs = new AtomicLong();
+        this.imagesSize = new AtomicLong();
+        this.retried = new AtomicLong();
+        this.failed = new AtomicLong();
+        this.discarded = new AtomicLong();
+    }
+
+    /** Records that container was committed to the snapshot image. */
+    public void recordCommit(long durationMs) {
+        commits.incrementAndGet();
+        commitsMs.addAndGet(durationMs);
+    }
+
+    /**
+     * Pushes committed image of the snapshot to the registry.
+     *
+     * @param params
+     *         parameters of the push, tag is required
+     * @param progressMonitor
+     *         receives progress of the push
+     * @return digest of the pushed image when pushes are synchronous or {@code null} when the push is scheduled
+     * @throws IOException
+     *         when synchronous push fails
+     * @throws InterruptedException
+     *         when synchronous push is interrupted
+     */
+    @Nullable
+    public String push(PushParams params, ProgressMonitor progressMonitor) throws IOException, InterruptedException {
+        final String image = params.getFullRepo() + ':' + params.getTag();
+        if (executor == null) {
+            return pushWithRetries(image, params, progressMonitor);
+        }
+        final Push push = new Push(image, params, progressMonitor);
+        pushes.put(image, push);
+        executor.execute(push);
+        return null;
+    }
+
+    /**
+     * Waits for the push of the image if it is in progress, at most the time configured by {@link #AWAIT_TIMEOUT_PROPERTY}.
+     *
+     * @param image
+     *         full name of the image including registry and tag
+     * @return {@code true} if push of the image failed or is still in progress, so the image is available only
+     * on the docker node where it was committed, otherwise {@code false}
+     * @throws InterruptedException
+     *         when waiting is interrupted
+     */
+    public boolean awaitPush(String image) throws InterruptedException {
+        final Push push = pushes.get(image);
+        if (push == null) {
+            return false;
+        }
+        try {
+            push.get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return true;
+        } catch (CancellationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Discards push of the image of removed snapshot and removes the image from the docker node.
+     *
+     * <p>Push which is not started is cancelled. Push which is in progress can't be interrupted since docker
+     * doesn't stop the upload when the client stops reading, so discard waits for it at most the time configured by
+     * {@link #DISCARD_TIMEOUT_PROPERTY}. If the push is still in progress after that, the manifest
+     * is removed from the registry with the given remover when the push succeeds.
+     *
+     * @param image
+     *         full name of the image including registry and tag
+     * @param remover
+     *         removes the manifest from the registry if the push succeeds after the discard
+     * @return {@code true} if the caller doesn't need to remove the image from the registry as it isn't pushed
+     * or will be removed by the remover, {@code false} if the image is pushed
+     */
+    public boolean discard(String image, ManifestRemover remover) {
+        final Push push = pushes.remove(image);
+        if (push == null) {
+            return false;
+        }
+        discarded.incrementAndGet();
+        failedPushes.remove(push);
+        if (push.started.compareAndSet(false, true)) {
+            // the push is not started and never will
+            push.cancel(false);
+            removeImage(image);
+            return true;
+        }
+        try {
+            push.get(discardTimeoutMs, TimeUnit.MILLISECONDS);
+            return false;
+        } catch (ExecutionException e) {
+            removeImage(image);
+            return true;
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (push.removeWhenPushed(remover)) {
+                LOG.warn("Snapshot image '{}' is still pushed, it will be removed from the registry when pushed", image);
+                return true;
+            }
+            // push is finished meanwhile
+            if (push.isFailed()) {
+                removeImage(image);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /** Returns number of pushes which are queued or in progress. */
+    public int getPendingPushes() {
+        return executor == null ? 0 : executor.getQueue().size() + executor.getActiveCount();
+    }
+
+    /**
+     * Returns metrics of snapshots: number of commits and successful, retried, failed and discarded pushes,
+     * average duration of commit and push in milliseconds and average size of snapshot image in bytes.
+     */
+    public Map<String, Long> getMetrics() {
+        final Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("commits", commits.get());
+        metrics.put("commitAverageMs", average(commitsMs, commits));
+        metrics.put("pushes", pushed.get());
+        metrics.put("pushAverageMs", average(pushedMs, pushed));
+        metrics.put("pushRetries", retried.get());
+        metrics.put("pushFailures", failed.get());
+        metrics.put("pushesDiscarded", discarded.get());
+        metrics.put("pushesPending", (long)getPendingPushes());
+        metrics.put("imageAverageSizeBytes", average(imagesSize, pushed));
+        return metrics;
+    }
+
+    /** Waits a while for the pending pushes, snapshots which are not pushed can't be restored on other nodes. */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            LOG.warn("Snapshot pusher is stopped with {} snapshots which are not pushed", getPendingPushes());
+            executor.shutdownNow();
+        }
+    }
+
+    private String pushWithRetries(String image, PushParams params, ProgressMonitor progressMonitor) throws IOException,
+                                                                                                          InterruptedException {
+        final long start = System.currentTimeMillis();
+        //TODO fix this workaround. Docker image is not visible after commit when using swarm
+        Thread.sleep(2000);
+        long size = 0;
+        try {
+            size = docker.inspectImage(image).getSize();
+        } catch (IOException e) {
+            LOG.warn("Failed to get size of snapshot image '{}'. Cause: {}", image, e.getLocalizedMessage());
+        }
+        for (int attempt = 0; ; attempt++) {
+            try {
+                final String digest = docker.push(params, progressMonitor);
+                final long duration = System.currentTimeMillis() - start;
+                pushed.incrementAndGet();
+                pushedMs.addAndGet(duration);
+                imagesSize.addAndGet(size);
+                LOG.info("Snapshot image '{}' of {} MB is pushed in {} ms", image, size / 1024 / 1024, duration);
+                removeImage(image);
+                return digest;
+            } catch (IOException e) {
+                if (attempt >= retries) {
+                    failed.incrementAndGet();
+                    LOG.error("Failed to push snapshot image '{}', it is kept on the docker node. Cause: {}",
+                              image, e.getLocalizedMessage());
+                    throw e;
+                }
+                retried.incrementAndGet();
+                LOG.warn("Failed to push snapshot image '{}', push is retried. Cause: {}", image, e.getLocalizedMessage());
+                Thread.sleep(RETRY_DELAY_MS << attempt);
+            }
+        }
+    }
+
+    private void removeImage(String image) {
+        try {
+            docker.removeImage(RemoveImageParams.create(image).withForce(false));
+        } catch (IOException e) {
+            LOG.warn("Failed to remove snapshot image '{}' from the docker node. Cause: {}", image, e.getLocalizedMessage());
+        }
+    }
+
+    private static long average(AtomicLong sum, AtomicLong count) {
+        final long countValue = count.get();
+        return countValue == 0 ? 0 : sum.get() / countValue;
+    }
+
+    private class Push extends FutureTask<String> {
+        private final String                           image;
+        private final AtomicBoolean                    started;
+        private final AtomicReference<ManifestRemover> remover;
+
+        Push(String image, PushParams params, ProgressMonitor progressMonitor) {
+            super(() -> pushWithRetries(image, params, progressMonitor));
+            this.image = image;
+            this.started = new AtomicBoolean();
+            this.remover = new AtomicReference<>();
+        }
+
+        @Override
+        public void run() {
+            // discard claims the push which is not started to cancel it
+            if (started.compareAndSet(false, true)) {
+                super.run();
+            }
+        }
+
+        /** Fails the push which can't be scheduled because the pusher is stopped. */
+        void reject() {
+            LOG.error("Snapshot pusher is stopped, snapshot image '{}' is kept on the docker node", image);
+            if (started.compareAndSet(false, true)) {
+                setException(new IOException("Snapshot pusher is stopped"));
+            }
+        }
+
+        /**
+         * Makes the push remove the manifest from the registry when the push succeeds.
+         *
+         * @return {@code false} if the push is already finished, so the manifest is not removed by the push
+         */
+        boolean removeWhenPushed(ManifestRemover manifestRemover) {
+            remover.set(manifestRemover);
+            return !isDone() || !remover.compareAndSet(manifestRemover, null);
+        }
+
+        boolean isFailed() {
+            try {
+                get(0, TimeUnit.MILLISECONDS);
+                return false;
+            } catch (ExecutionException e) {
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (TimeoutException | CancellationException e) {
+                return false;
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+            try {
+                final String digest = get();
+                pushes.remove(image, this);
+                final ManifestRemover manifestRemover = remover.getAndSet(null);
+                if (manifestRemover != null) {
+                    try {
+                        manifestRemover.remove(digest);
+                        LOG.info("Image '{}' of discarded snapshot is removed from the registry", image);
+                    } catch (Exception e) {
+                        LOG.error(String.format("Failed to remove image '%s' of discarded snapshot from the registry. Cause: %s",
+                                                image, e.getLocalizedMessage()), e);
+                    }
+                }
+            } catch (ExecutionException e) {
+                if (remover.getAndSet(null) != null) {
+                    // snapshot is discarded, image is not needed on the node either
+                    removeImage(image);
+                    return;
+                }
+                // failed pushes are kept to restore snapshot from the image which is left on the docker node
+                failedPushes.add(this);
+                while (failedPushes.size() > MAX_FAILED_PUSHES) {
+                    final Push oldest = failedPushes.poll();
+                    if (oldest != null) {
+                        pushes.remove(oldest.image, oldest);
+                    }
+                }
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+}
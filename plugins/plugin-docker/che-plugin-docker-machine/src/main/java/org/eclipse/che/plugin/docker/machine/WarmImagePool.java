@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.environment.server.EnvironmentParser;
+import org.eclipse.che.api.environment.server.model.CheServiceImpl;
+import org.eclipse.che.api.machine.server.model.impl.MachineSourceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl;
+import org.eclipse.che.api.workspace.server.spi.StackDao;
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.InitialAuthConfig;
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.exception.DockerException;
+import org.eclipse.che.plugin.docker.client.exception.ImageNotFoundException;
+import org.eclipse.che.plugin.docker.client.params.PullParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Keeps images of the configured stacks pulled on the docker node,
+ * so machines of workspaces created from these stacks start without waiting for the image download.
+ *
+ * <p>Images are pulled in the background, the most recently used first, while total size of the warm images
+ * fits into the configured budget. Size of the image which is already on the node is checked before the pull,
+ * so it is not refreshed if it doesn't fit. Size of the missing image is known only when it is pulled,
+ * so when the pulled images exceed the budget the least recently used images pulled by this pool
+ * are removed from the node, as well as the pulled images which are not kept warm anymore.
+ * The pool collects hit rate of the workspace machines starts
+ * and time which the image preparation takes for warm and cold images.
+ */
+@Singleton
+public class WarmImagePool {
+    private static final Logger LOG = LoggerFactory.getLogger(WarmImagePool.class);
+
+    public static final String STACKS_PROPERTY      = "che.docker.warm_pool.stacks";
+    public static final String MAX_SIZE_MB_PROPERTY = "che.docker.warm_pool.max_size_mb";
+    public static final String REFRESH_MIN_PROPERTY = "che.docker.warm_pool.refresh_min";
+
+    private static final String LATEST_TAG = "latest";
+
+    private final DockerConnector   docker;
+    private final InitialAuthConfig authConfig;
+    private final StackDao          stackDao;
+    private final EnvironmentParser environmentParser;
+    private final List<String>      stackIds;
+    private final long              maxSizeBytes;
+    private final AtomicLong        hits;
+    private final AtomicLong        misses;
+    private final AtomicLong        hitsReadyMs;
+    private final AtomicLong        missesReadyMs;
+    private final Map<String, Long> lastUsed;
+    private final Set<String>       pulledImages;
+
+    private volatile Set<String> warmImages;
+
+    @Inject
+    public WarmImagePool(DockerConnector docker,
+                         InitialAuthConfig authConfig,
+                         StackDao stackDao,
+                         EnvironmentParser environmentParser,
+                         @Nullable @Named(STACKS_PROPERTY) String stacks,
+                         @Named(MAX_SIZE_MB_PROPERTY) long maxSizeMb) {
+        this.docker = docker;
+        this.authConfig = authConfig;
+        this.stackDao = stackDao;
+        this.environmentParser = environmentParser;
+        this.stackIds = stacks == null ? emptyList() : Splitter.on(',').trimResults().omitEmptyStrings().splitToList(stacks);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.hitsReadyMs = new AtomicLong();
+        this.missesReadyMs = new AtomicLong();
+        this.lastUsed = new ConcurrentHashMap<>();
+        this.pulledImages = ConcurrentHashMap.newKeySet();
+        this.warmImages = new HashSet<>();
+    }
+
+    /**
+     * Pulls images of the configured stacks which are missing or outdated on the docker node,
+     * the most recently used images are pulled first, then never used ones in the order the stacks are configured.
+     */
+    @ScheduleDelay(initialDelayParameterName = REFRESH_MIN_PROPERTY,
+                   delayParameterName = REFRESH_MIN_PROPERTY,
+                   unit = TimeUnit.MINUTES)
+    public void replenish() {
+        if (stackIds.isEmpty()) {
+            return;
+        }
+        final List<DockerMachineSource> sources = new ArrayList<>();
+        for (String image : getStackImages()) {
+            sources.add(new DockerMachineSource(new MachineSourceImpl("image").setLocation(image)));
+        }
+        sources.sort(Comparator.comparingLong(source -> -lastUsed.getOrDefault(source.getLocation(false), 0L)));
+
+        // warm images in the order of their priority
+        final Map<String, Long> warm = new LinkedHashMap<>();
+        long usedBytes = 0;
+        for (DockerMachineSource source : sources) {
+            final String fullName = source.getLocation(false);
+            if (usedBytes >= maxSizeBytes) {
+                LOG.info("Warm image pool budget of {} MB is exhausted, image '{}' is not kept warm",
+                         maxSizeBytes / 1024 / 1024, fullName);
+                continue;
+            }
+            try {
+                final Long localSize = getLocalImageSize(fullName);
+                if (localSize != null && usedBytes + localSize > maxSizeBytes) {
+                    LOG.info("Image '{}' of {} MB doesn't fit into warm image pool budget of {} MB, it is not kept warm",
+                             fullName, localSize / 1024 / 1024, maxSizeBytes / 1024 / 1024);
+                    continue;
+                }
+                docker.pull(PullParams.create(source.getRepository())
+                                      .withTag(MoreObjects.firstNonNull(source.getTag(), LATEST_TAG))
+                                      .withRegistry(source.getRegistry())
+                                      .withAuthConfigs(authConfig.getAuthConfigs()),
+                            ProgressMonitor.DEV_NULL);
+                if (localSize == null) {
+                    pulledImages.add(fullName);
+                }
+                final long size = docker.inspectImage(fullName).getSize();
+                usedBytes += size;
+                warm.put(fullName, size);
+            } catch (ImageNotFoundException e) {
+                LOG.warn("Image '{}' of the warm pool is not found. Cause: {}", fullName, e.getLocalizedMessage());
+            } catch (Exception e) {
+                LOG.error(String.format("Failed to pull image '%s' of the warm pool. Cause: %s", fullName, e.getLocalizedMessage()), e);
+            }
+        }
+        usedBytes = evict(warm, usedBytes);
+        warmImages = new HashSet<>(warm.keySet());
+        LOG.info("Warm image pool keeps {} images of {} MB. Hit rate {}%, average time to ready of warm images {} ms, cold images {} ms",
+                 warm.size(), usedBytes / 1024 / 1024, getHitRate(), average(hitsReadyMs, hits), average(missesReadyMs, misses));
+    }
+
+    /**
+     * Records that image was prepared for a machine start.
+     *
+     * @param image
+     *         full name of the image including registry and tag
+     * @param readyMs
+     *         time in milliseconds which the image preparation took
+     */
+    public void recordImageUsage(String image, long readyMs) {
+        if (stackIds.isEmpty()) {
+            return;
+        }
+        if (warmImages.contains(image)) {
+            lastUsed.put(image, System.currentTimeMillis());
+            hits.incrementAndGet();
+            hitsReadyMs.addAndGet(readyMs);
+        } else {
+            misses.incrementAndGet();
+            missesReadyMs.addAndGet(readyMs);
+        }
+    }
+
+    /** Returns percent of the machine starts which used images kept warm by this pool. */
+    public long getHitRate() {
+        final long hitsCount = hits.get();
+        final long total = hitsCount + misses.get();
+        return total == 0 ? 0 : hitsCount * 100 / total;
+    }
+
+    /** Returns images which are kept warm by this pool. */
+    public Set<String> getWarmImages() {
+        return warmImages;
+    }
+
+    /** Returns size of the image on the docker node or null if there is no such image. */
+    private Long getLocalImageSize(String image) throws IOException {
+        try {
+            return docker.inspectImage(image).getSize();
+        } catch (DockerException e) {
+            if (e.getStatus() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes images pulled by this pool which are not kept warm anymore from the node, then removes
+     * the pulled images with the lowest priority from the node and from the given warm images
+     * until their total size fits into the budget.
+     *
+     * @param warm
+     *         sizes of warm images in the order of their priority
+     * @return total size of the left warm images
+     */
+    private long evict(Map<String, Long> warm, long usedBytes) {
+        for (String image : new ArrayList<>(pulledImages)) {
+            if (!warm.containsKey(image)) {
+                removeImage(image);
+            }
+        }
+        final List<String> candidates = new ArrayList<>(warm.keySet());
+        Collections.reverse(candidates);
+        for (Iterator<String> it = candidates.iterator(); it.hasNext() && usedBytes > maxSizeBytes; ) {
+            final String image = it.next();
+            if (pulledImages.contains(image) && removeImage(image)) {
+                usedBytes -= warm.remove(image);
+                LOG.info("Image '{}' is evicted from the warm pool to fit into budget of {} MB", image, maxSizeBytes / 1024 / 1024);
+            }
+        }
+        return usedBytes;
+    }
+
+    private boolean removeImage(String image) {
+        try {
+            docker.removeImage(image);
+        } catch (Exception e) {
+            // e.g. image is used by a container, it is removed on the next replenishment
+            LOG.warn("Failed to remove image '{}' of the warm pool. Cause: {}", image, e.getLocalizedMessage());
+            return false;
+        }
+        pulledImages.remove(image);
+        lastUsed.remove(image);
+        return true;
+    }
+
+    private Set<String> getStackImages() {
+        final Set<String> images = new LinkedHashSet<>();
+        for (String stackId : stackIds) {
+            try {
+                final StackImpl stack = stackDao.getById(stackId);
+                if (stack.getWorkspaceConfig() == null) {
+                    continue;
+                }
+                for (EnvironmentImpl environment : stack.getWorkspaceConfig().getEnvironments().values()) {
+                    for (CheServiceImpl service : environmentParser.parse(environment).getServices().values()) {
+                        if (service.getImage() != null) {
+                            images.add(service.getImage());
+                        }
+                    }
+                }
+            } catch (NotFoundException e) {
+                LOG.warn("Stack '{}' configured for the warm image pool is not found", stackId);
+            } catch (Exception e) {
+                LOG.error(String.format("Failed to get images of stack '%s'. Cause: %s", stackId, e.getLocalizedMessage()), e);
+            }
+        }
+        return images;
+    }
+
+    private static long average(AtomicLong sum, AtomicLong count) {
+        final long countValue = count.get();
+        return countValue == 0 ? 0 : sum.get() / countValue;
+    }
+}
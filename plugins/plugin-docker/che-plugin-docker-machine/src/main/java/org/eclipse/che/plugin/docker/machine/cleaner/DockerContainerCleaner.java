@@ -17,6 +17,7 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.environment.server.CheEnvironmentEngine;
 import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.DockerEventHub;
 import org.eclipse.che.plugin.docker.client.json.ContainerListEntry;
 import org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator;
 import org.slf4j.Logger;
@@ -34,6 +35,8 @@ import static org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator
 
 /**
  * Job for periodically clean up inactive docker containers and log list active containers.
+ * Containers are taken from the table of the {@link DockerEventHub}, so the job doesn't list containers
+ * with docker API while the hub receives docker events.
  *
  * @author Alexander Andrienko
  */
@@ -45,14 +48,17 @@ public class DockerContainerCleaner implements Runnable {
     // TODO replace with WorkspaceManager
     private final CheEnvironmentEngine         environmentEngine;
     private final DockerConnector              dockerConnector;
+    private final DockerEventHub               eventHub;
     private final DockerContainerNameGenerator nameGenerator;
 
     @Inject
     public DockerContainerCleaner(CheEnvironmentEngine environmentEngine,
                                   DockerConnector dockerConnector,
+                                  DockerEventHub eventHub,
                                   DockerContainerNameGenerator nameGenerator) {
         this.environmentEngine = environmentEngine;
         this.dockerConnector = dockerConnector;
+        this.eventHub = eventHub;
         this.nameGenerator = nameGenerator;
     }
 
@@ -63,7 +69,7 @@ public class DockerContainerCleaner implements Runnable {
     public void run() {
         List<String> activeContainers = new ArrayList<>();
         try {
-            for (ContainerListEntry container : dockerConnector.listContainers()) {
+            for (ContainerListEntry container : eventHub.getContainers()) {
                 String containerName = container.getNames()[0];
                 Optional<ContainerNameInfo> optional = nameGenerator.parse(containerName);
                 if (optional.isPresent()) {
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.subject.Subject;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics.CopyMetrics;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics.EndpointMetrics;
+import org.eclipse.che.plugin.docker.client.connection.UnixSocketConnectionPool;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.plugin.docker.machine.DockerApiMetricsService.MANAGE_SYSTEM_ACTION;
+import static org.eclipse.che.plugin.docker.machine.DockerApiMetricsService.SYSTEM_DOMAIN;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link DockerApiMetricsService}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class DockerApiMetricsServiceTest {
+    private static final String NODE = "/var/run/docker.sock";
+
+    @Mock
+    private DockerApiMetrics metrics;
+    @Mock
+    private SnapshotPusher   snapshotPusher;
+    @Mock
+    private Subject          subject;
+
+    private DockerApiMetricsService service;
+
+    @BeforeMethod
+    public void setUp() {
+        service = new DockerApiMetricsService(metrics, snapshotPusher);
+        final EnvironmentContext context = new EnvironmentContext();
+        context.setSubject(subject);
+        EnvironmentContext.setCurrent(context);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        EnvironmentContext.reset();
+    }
+
+    @Test
+    public void shouldReturnMetricsOfEndpointsFilteredByNodeAndEndpoint() throws Exception {
+        final EndpointMetrics start = endpointMetrics(NODE, "POST /containers/{id}/start");
+        final EndpointMetrics pull = endpointMetrics(NODE, "POST /images/create");
+        final EndpointMetrics remotePull = endpointMetrics("192.168.0.10:2375", "POST /images/create");
+        when(metrics.getMetrics()).thenReturn(asList(start, pull, remotePull));
+
+        assertEquals(service.getMetrics(null, null), asList(start, pull, remotePull));
+        assertEquals(service.getMetrics(NODE, "/images/"), singletonList(pull));
+        verify(subject, times(2)).checkPermission(SYSTEM_DOMAIN, null, MANAGE_SYSTEM_ACTION);
+    }
+
+    @Test
+    public void shouldReturnConnectionPools() throws Exception {
+        final List<UnixSocketConnectionPool> pools = singletonList(mock(UnixSocketConnectionPool.class));
+        when(metrics.getConnectionPools()).thenReturn(pools);
+
+        assertEquals(service.getConnectionPoolMetrics(), pools);
+        verify(subject).checkPermission(SYSTEM_DOMAIN, null, MANAGE_SYSTEM_ACTION);
+    }
+
+    @Test
+    public void shouldReturnCopyMetrics() throws Exception {
+        final List<CopyMetrics> copies = singletonList(mock(CopyMetrics.class));
+        when(metrics.getCopyMetrics()).thenReturn(copies);
+
+        assertEquals(service.getCopyMetrics(), copies);
+        verify(subject).checkPermission(SYSTEM_DOMAIN, null, MANAGE_SYSTEM_ACTION);
+    }
+
+    @Test
+    public void shouldReturnSnapshotMetrics() throws Exception {
+        final Map<String, Long> snapshotMetrics = singletonMap("commits", 1L);
+        when(snapshotPusher.getMetrics()).thenReturn(snapshotMetrics);
+
+        assertEquals(service.getSnapshotMetrics(), snapshotMetrics);
+        verify(subject).checkPermission(SYSTEM_DOMAIN, null, MANAGE_SYSTEM_ACTION);
+    }
+
+    @Test(expectedExceptions = ForbiddenException.class)
+    public void shouldNotReturnMetricsToUserWhoIsNotAllowedToManageSystem() throws Exception {
+        doThrow(new ForbiddenException("forbidden")).when(subject).checkPermission(SYSTEM_DOMAIN, null, MANAGE_SYSTEM_ACTION);
+
+        try {
+            service.getMetrics(null, null);
+        } finally {
+            verifyZeroInteractions(metrics);
+        }
+    }
+
+    @Test(expectedExceptions = ForbiddenException.class)
+    public void shouldNotReturnSnapshotMetricsToUserWhoIsNotAllowedToManageSystem() throws Exception {
+        doThrow(new ForbiddenException("forbidden")).when(subject).checkPermission(SYSTEM_DOMAIN, null, MANAGE_SYSTEM_ACTION);
+
+        try {
+            service.getSnapshotMetrics();
+        } finally {
+            verify(snapshotPusher, never()).getMetrics();
+        }
+    }
+
+    private static EndpointMetrics endpointMetrics(String node, String endpoint) {
+        final EndpointMetrics endpointMetrics = mock(EndpointMetrics.class);
+        when(endpointMetrics.getNode()).thenReturn(node);
+        when(endpointMetrics.getEndpoint()).thenReturn(endpoint);
+        return endpointMetrics;
+    }
+}
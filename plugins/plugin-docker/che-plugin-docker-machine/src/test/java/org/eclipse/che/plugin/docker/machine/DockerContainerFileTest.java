@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.eclipse.che.api.machine.server.exception.MachineException;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.params.GetResourceParams;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link DockerContainerFile}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class DockerContainerFileTest {
+    private static final String CONTAINER = "container123";
+    private static final String PATH      = "/var/log/process.log";
+
+    @Mock
+    private DockerConnector docker;
+
+    private DockerContainerFile file;
+
+    @BeforeMethod
+    public void setUp() {
+        file = new DockerContainerFile(docker, CONTAINER, PATH);
+    }
+
+    @Test
+    public void shouldReadLinesRange() throws Exception {
+        returnContent("line1\nline2\nline3\nline4\nline5\n");
+
+        assertEquals(file.readLines(2, 2), "line2\nline3\nline4");
+    }
+
+    @Test
+    public void shouldReadLinesUntilEndOfFile() throws Exception {
+        returnContent("line1\n\nline3\n");
+
+        assertEquals(file.readLines(1, 10), "line1\n\nline3");
+    }
+
+    @Test
+    public void shouldReturnEmptyContentWhenFileHasLessLinesThanRequested() throws Exception {
+        returnContent("line1\nline2\n");
+
+        assertEquals(file.readLines(5, 10), "");
+    }
+
+    @Test
+    public void shouldReadLinesAfterIndexedLine() throws Exception {
+        final String content = lines(1, 2500);
+        when(docker.getResource(any(GetResourceParams.class))).thenAnswer(invocation -> archive(content));
+
+        assertEquals(file.readLines(2400, 1), "line2400\nline2401");
+        // second read starts from the offset of the line 2001
+        assertEquals(file.readLines(2100, 2), "line2100\nline2101\nline2102");
+    }
+
+    @Test
+    public void shouldNotUseLineOffsetsOfModifiedFile() throws Exception {
+        final String content = lines(1, 1500);
+        // the same size, but lines are shifted by two bytes
+        final String modified = "xx" + content.substring(0, content.length() - 2);
+        when(docker.getResource(any(GetResourceParams.class))).thenReturn(archive(content, 1_000_000),
+                                                                          archive(modified, 2_000_000));
+
+        assertEquals(file.readLines(1001, 0), "line1001");
+        assertEquals(file.readLines(1001, 0), "line1001");
+    }
+
+    @Test
+    public void shouldKeepLineOffsetsWhenFileGrows() throws Exception {
+        final String content = lines(1, 1500);
+        // lines before the last seen line are not scanned again, so the broken line 5 doesn't shift numbers
+        final String grown = content.replace("line5\n", "lin\ne5") + lines(1501, 1600);
+        when(docker.getResource(any(GetResourceParams.class))).thenReturn(archive(content, 1_000_000),
+                                                                          archive(grown, 2_000_000),
+                                                                          archive(grown, 2_000_000));
+
+        assertEquals(file.readLines(1499, 0), "line1499");
+        assertEquals(file.readLines(1550, 1), "line1550\nline1551");
+        assertEquals(file.readLines(1001, 0), "line1001");
+    }
+
+    @Test
+    public void shouldFollowSymbolicLinks() throws Exception {
+        when(docker.getResource(GetResourceParams.create(CONTAINER, PATH))).thenReturn(symlink("../../tmp/logs"));
+        when(docker.getResource(GetResourceParams.create(CONTAINER, "/tmp/logs"))).thenReturn(symlink("/tmp/process.log"));
+        when(docker.getResource(GetResourceParams.create(CONTAINER, "/tmp/process.log"))).thenReturn(archive("line1\n"));
+
+        assertEquals(file.readLines(1, 1), "line1");
+    }
+
+    @Test(expectedExceptions = MachineException.class,
+          expectedExceptionsMessageRegExp = "Too many levels of symbolic links in path " + PATH)
+    public void shouldThrowExceptionWhenSymbolicLinksMakeLoop() throws Exception {
+        when(docker.getResource(any(GetResourceParams.class))).thenAnswer(invocation -> symlink(PATH));
+
+        file.readLines(1, 1);
+    }
+
+    @Test
+    public void shouldResolveTargetOfSymbolicLink() throws Exception {
+        assertEquals(DockerContainerFile.resolveLink("/var/log/app.log", "app-1.log"), "/var/log/app-1.log");
+        assertEquals(DockerContainerFile.resolveLink("/var/log/app.log", "../lib/./app/app.log"), "/var/lib/app/app.log");
+        assertEquals(DockerContainerFile.resolveLink("/var/log/app.log", "/opt/app.log"), "/opt/app.log");
+    }
+
+    @Test
+    public void shouldFollowFileFromOffset() throws Exception {
+        when(docker.getResource(any(GetResourceParams.class))).thenReturn(archive("line1\nline2\npart"),
+                                                                          archive("line1\nline2\npartial line\nline4\n"));
+
+        final DockerContainerFile.Tail first = file.readFrom(0, 1024);
+        final DockerContainerFile.Tail second = file.readFrom(first.getOffset(), 1024);
+
+        assertEquals(first.getContent(), "line1\nline2\n");
+        assertEquals(second.getContent(), "partial line\nline4\n");
+    }
+
+    @Test
+    public void shouldFollowFileFromBeginningWhenFileIsTruncated() throws Exception {
+        when(docker.getResource(any(GetResourceParams.class))).thenReturn(archive("line1\nline2\n"),
+                                                                          archive("new\n"));
+
+        final DockerContainerFile.Tail first = file.readFrom(0, 1024);
+        final DockerContainerFile.Tail second = file.readFrom(first.getOffset(), 1024);
+
+        assertEquals(second.getContent(), "new\n");
+        assertEquals(second.getOffset(), 4);
+    }
+
+    @Test
+    public void shouldReturnPartOfLineWhichIsLongerThanLimit() throws Exception {
+        returnContent("long line\n");
+
+        final DockerContainerFile.Tail tail = file.readFrom(0, 4);
+
+        assertEquals(tail.getContent(), "long");
+        assertEquals(tail.getOffset(), 4);
+    }
+
+    @Test(expectedExceptions = MachineException.class,
+          expectedExceptionsMessageRegExp = "File with path " + PATH + " is not a regular file")
+    public void shouldThrowExceptionWhenPathIsDirectory() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(bytes)) {
+            tar.putArchiveEntry(new TarArchiveEntry("log/"));
+            tar.closeArchiveEntry();
+        }
+        when(docker.getResource(any(GetResourceParams.class))).thenReturn(new ByteArrayInputStream(bytes.toByteArray()));
+
+        file.readLines(1, 10);
+    }
+
+    /** Returns tar archive with single file as docker archive API does. */
+    static InputStream archive(String content) throws IOException {
+        return archive(content, 1_000_000);
+    }
+
+    private static InputStream archive(String content, long modTime) throws IOException {
+        final byte[] data = content.getBytes(UTF_8);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(bytes)) {
+            final TarArchiveEntry entry = new TarArchiveEntry("file");
+            entry.setSize(data.length);
+            entry.setModTime(modTime);
+            tar.putArchiveEntry(entry);
+            tar.write(data);
+            tar.closeArchiveEntry();
+        }
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+
+    private static InputStream symlink(String target) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(bytes)) {
+            final TarArchiveEntry entry = new TarArchiveEntry("link", TarArchiveEntry.LF_SYMLINK);
+            entry.setLinkName(target);
+            tar.putArchiveEntry(entry);
+            tar.closeArchiveEntry();
+        }
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+
+    private void returnContent(String content) throws IOException {
+        when(docker.getResource(GetResourceParams.create(CONTAINER, PATH))).thenReturn(archive(content));
+    }
+
+    private static String lines(int from, int to) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = from; i <= to; i++) {
+            sb.append("line").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+}
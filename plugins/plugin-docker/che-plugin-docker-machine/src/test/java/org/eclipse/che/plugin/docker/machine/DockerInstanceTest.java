@@ -25,28 +25,48 @@ import org.eclipse.che.plugin.docker.client.Exec;
 import org.eclipse.che.plugin.docker.client.LogMessage;
 import org.eclipse.che.plugin.docker.client.MessageProcessor;
 import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics;
+import org.eclipse.che.plugin.docker.client.connection.DockerApiMetrics.CopyMetrics;
+import org.eclipse.che.plugin.docker.client.exception.DockerException;
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.HostConfig;
+import org.eclipse.che.plugin.docker.client.json.ImageInfo;
 import org.eclipse.che.plugin.docker.client.params.CommitParams;
 import org.eclipse.che.plugin.docker.client.params.CreateExecParams;
+import org.eclipse.che.plugin.docker.client.params.GetResourceParams;
 import org.eclipse.che.plugin.docker.client.params.PushParams;
+import org.eclipse.che.plugin.docker.client.params.PutResourceParams;
+import org.eclipse.che.plugin.docker.client.params.RemoveImageParams;
 import org.eclipse.che.plugin.docker.client.params.StartExecParams;
 import org.eclipse.che.plugin.docker.machine.node.DockerNode;
+import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static java.lang.String.format;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -82,13 +102,16 @@ public class DockerInstanceTest {
     @Mock
     private LineConsumer               outputConsumer;
 
-    private DockerInstance dockerInstance;
+    private DockerApiMetrics apiMetrics;
+    private DockerInstance   dockerInstance;
 
     @BeforeMethod
     public void setUp() throws IOException {
+        apiMetrics = new DockerApiMetrics();
         dockerInstance = getDockerInstance();
         when(dockerConnectorMock.createExec(any(CreateExecParams.class))).thenReturn(execMock);
         when(execMock.getId()).thenReturn(EXEC_ID);
+        when(dockerConnectorMock.inspectImage(anyString())).thenReturn(new ImageInfo());
         doAnswer(invoke -> {
             @SuppressWarnings("unchecked")
             MessageProcessor<LogMessage> msgProc = (MessageProcessor<LogMessage>)invoke.getArguments()[1];
@@ -103,25 +126,26 @@ public class DockerInstanceTest {
         dockerInstance.readFileContent(FILE_PATH, -1, -10);
     }
 
-    @Test(expectedExceptions = MachineException.class)
-    public void shouldThrowMachineExceptionWhenExecProblemOccurs() throws Exception {
-        when(dockerConnectorMock.createExec(any(CreateExecParams.class))).thenThrow(new IOException("File not found"));
+    @Test(expectedExceptions = MachineException.class,
+          expectedExceptionsMessageRegExp = "Error occurs while reading file " + FILE_PATH + " in docker container " + CONTAINER +
+                                            ": Internal server error")
+    public void shouldThrowMachineExceptionWhenDockerFailsToArchiveFile() throws Exception {
+        when(dockerConnectorMock.getResource(any(GetResourceParams.class))).thenThrow(new DockerException("Internal server error", 500));
 
-        dockerInstance.readFileContent(FILE_PATH, -1, 10);
+        dockerInstance.readFileContent(FILE_PATH, 1, 10);
     }
 
-    @Test(expectedExceptions = MachineException.class,
-          expectedExceptionsMessageRegExp = "File with path " + FILE_PATH + " not found")
-    public void shouldThrowFileNotFoundDuringSedCommand() throws Exception {
-        when(logMessageMock.getContent()).thenReturn("sed: can't read " + FILE_PATH + ": No such file or directory");
+    @Test(expectedExceptions = MachineException.class)
+    public void shouldThrowMachineExceptionWhenFileReadingProblemOccurs() throws Exception {
+        when(dockerConnectorMock.getResource(any(GetResourceParams.class))).thenThrow(new IOException("Connection reset"));
 
         dockerInstance.readFileContent(FILE_PATH, 1, 10);
     }
 
     @Test(expectedExceptions = MachineException.class,
           expectedExceptionsMessageRegExp = "File with path " + FILE_PATH + " not found")
-    public void shouldThrowFileNotFoundDuringCatCommand() throws Exception {
-        when(logMessageMock.getContent()).thenReturn("cat: " + FILE_PATH + ": No such file or directory");
+    public void shouldThrowFileNotFoundWhenFileDoesNotExist() throws Exception {
+        when(dockerConnectorMock.getResource(any(GetResourceParams.class))).thenThrow(new DockerException("Not found", 404));
 
         dockerInstance.readFileContent(FILE_PATH, 1, 10);
     }
@@ -129,11 +153,114 @@ public class DockerInstanceTest {
     @Test
     public void shouldFullyReadFileContent() throws Exception {
         final String content = "content";
-        when(logMessageMock.getContent()).thenReturn(content);
+        when(dockerConnectorMock.getResource(GetResourceParams.create(CONTAINER, FILE_PATH)))
+                .thenReturn(DockerContainerFileTest.archive(content + "\n"));
 
         final String res = dockerInstance.readFileContent(FILE_PATH, 1, 10);
 
-        assertEquals(res.trim(), content);
+        assertEquals(res, content);
+        verify(dockerConnectorMock, never()).createExec(any(CreateExecParams.class));
+    }
+
+    @Test
+    public void shouldReuseHandleOfTheSameFile() throws Exception {
+        assertSame(dockerInstance.getFile(FILE_PATH), dockerInstance.getFile(FILE_PATH));
+    }
+
+    @Test
+    public void shouldCopyFilesBetweenContainersThroughDocker() throws Exception {
+        final DockerInstance source = getDockerInstance(getMachine(), REGISTRY, "source_container", IMAGE, false);
+        bindContainer("source_container");
+        bindContainer(CONTAINER);
+        when(dockerConnectorMock.copyResource(any(GetResourceParams.class), any(PutResourceParams.class))).thenReturn(1024L);
+
+        dockerInstance.copy(source, "/projects/app", "/projects", true);
+
+        verify(dockerConnectorMock).copyResource(GetResourceParams.create("source_container", "/projects/app"),
+                                                 PutResourceParams.create(CONTAINER, "/projects")
+                                                                  .withNoOverwriteDirNonDir(true));
+        assertCopyRecorded("container", 1024);
+    }
+
+    @Test
+    public void shouldNotCopyFilesWhenTargetIsBoundToTheSameHostDirectory() throws Exception {
+        final Path projects = Files.createTempDirectory("projects");
+        Files.createDirectory(projects.resolve("app"));
+        final DockerInstance source = getDockerInstance(getMachine(), REGISTRY, "source_container", IMAGE, false);
+        bindContainer("source_container", projects + ":/projects");
+        bindContainer(CONTAINER, projects + ":/projects:Z");
+        source.hostPathsVisible = true;
+        dockerInstance.hostPathsVisible = true;
+
+        dockerInstance.copy(source, "/projects/app", "/projects", true);
+
+        verify(dockerConnectorMock, never()).copyResource(any(GetResourceParams.class), any(PutResourceParams.class));
+        verify(dockerConnectorMock, never()).putFiles(any(PutResourceParams.class), Matchers.<File>anyVararg());
+    }
+
+    @Test
+    public void shouldPutFilesFromHostDirectoryBoundToSourceContainer() throws Exception {
+        final Path projects = Files.createTempDirectory("projects");
+        Files.createDirectory(projects.resolve("app"));
+        final DockerInstance source = getDockerInstance(getMachine(), REGISTRY, "source_container", IMAGE, false);
+        bindContainer("source_container", projects + ":/projects");
+        bindContainer(CONTAINER);
+        source.hostPathsVisible = true;
+        when(dockerConnectorMock.putFiles(any(PutResourceParams.class), Matchers.<File>anyVararg())).thenReturn(2048L);
+
+        dockerInstance.copy(source, "/projects/app", "/home/user", false);
+
+        verify(dockerConnectorMock).putFiles(PutResourceParams.create(CONTAINER, "/home/user").withNoOverwriteDirNonDir(false),
+                                             projects.resolve("app").toFile());
+        verify(dockerConnectorMock, never()).copyResource(any(GetResourceParams.class), any(PutResourceParams.class));
+        assertCopyRecorded("host", 2048);
+    }
+
+    @Test
+    public void shouldNotReadHostDirectoryWhenServerIsNotConfiguredToSeeHostPaths() throws Exception {
+        final Path projects = Files.createTempDirectory("projects");
+        Files.createDirectory(projects.resolve("app"));
+        final DockerInstance source = getDockerInstance(getMachine(), REGISTRY, "source_container", IMAGE, false);
+        bindContainer("source_container", projects + ":/projects");
+        bindContainer(CONTAINER);
+
+        dockerInstance.copy(source, "/projects/app", "/home/user", false);
+
+        verify(dockerConnectorMock).copyResource(GetResourceParams.create("source_container", "/projects/app"),
+                                                 PutResourceParams.create(CONTAINER, "/home/user")
+                                                                  .withNoOverwriteDirNonDir(false));
+        verify(dockerConnectorMock, never()).putFiles(any(PutResourceParams.class), Matchers.<File>anyVararg());
+    }
+
+    @Test
+    public void shouldCopyFilesFromServerIntoContainer() throws Exception {
+        final File file = Files.createTempFile("file", ".txt").toFile();
+        when(dockerConnectorMock.putFiles(any(PutResourceParams.class), Matchers.<File>anyVararg())).thenReturn(512L);
+
+        dockerInstance.copy(file.getPath(), "/tmp");
+
+        verify(dockerConnectorMock).putFiles(PutResourceParams.create(CONTAINER, "/tmp"), file);
+        assertCopyRecorded("server", 512);
+    }
+
+    @Test(expectedExceptions = MachineException.class,
+          expectedExceptionsMessageRegExp = "File with path /not/existing not found")
+    public void shouldThrowExceptionWhenFileToCopyFromServerDoesNotExist() throws Exception {
+        dockerInstance.copy("/not/existing", "/tmp");
+    }
+
+    @Test
+    public void shouldResolveHostPathWithTheMostSpecificBind() throws Exception {
+        final String[] binds = {"/var/lib/che/workspaces/ws1:/projects",
+                                "/var/lib/che/workspaces/ws1/app/.m2:/projects/app/.m2:ro",
+                                "maven-repo:/home/user/.m2"};
+
+        assertEquals(DockerInstance.getHostPath(binds, "/projects"), "/var/lib/che/workspaces/ws1");
+        assertEquals(DockerInstance.getHostPath(binds, "/projects/app/src"), "/var/lib/che/workspaces/ws1/app/src");
+        assertEquals(DockerInstance.getHostPath(binds, "/projects/app/.m2/settings.xml"),
+                     "/var/lib/che/workspaces/ws1/app/.m2/settings.xml");
+        assertNull(DockerInstance.getHostPath(binds, "/projects2"));
+        assertNull(DockerInstance.getHostPath(binds, "/home/user/.m2"));
     }
 
     @Test
@@ -177,9 +304,40 @@ public class DockerInstanceTest {
 
         assertTrue(result instanceof DockerMachineSource);
         DockerMachineSource dockerMachineSource = (DockerMachineSource) result;
-        assertEquals(dockerMachineSource.getTag(), TAG);
+        assertNotNull(dockerMachineSource.getTag());
+        assertEquals(dockerMachineSource.getRepository(), dockerInstance.getSnapshotRepository());
         assertEquals(dockerMachineSource.getDigest(), digest);
         assertEquals(dockerMachineSource.getRegistry(), REGISTRY);
+        verify(dockerConnectorMock).removeImage(RemoveImageParams.create(dockerMachineSource.getLocation(false))
+                                                                 .withForce(false));
+    }
+
+    @Test
+    public void shouldSaveSnapshotsOfMachineIntoTheSameRepositoryWithDifferentTags() throws Exception {
+        dockerInstance = getDockerInstance(getMachine(), REGISTRY, CONTAINER, IMAGE, true);
+
+        final DockerMachineSource first = (DockerMachineSource)dockerInstance.saveToSnapshot();
+        final DockerMachineSource second = (DockerMachineSource)dockerInstance.saveToSnapshot();
+
+        assertEquals(first.getRepository(), second.getRepository());
+        assertNotEquals(first.getTag(), second.getTag());
+        assertTrue(first.getRepository().startsWith(USERNAME + '/' + DockerInstanceProvider.MACHINE_SNAPSHOT_PREFIX));
+    }
+
+    @Test
+    public void shouldNotWaitForPushWhenSnapshotIsPushedInBackground() throws Exception {
+        final SnapshotPusher pusher = mock(SnapshotPusher.class);
+        dockerInstance = getDockerInstance(getMachine(), REGISTRY, CONTAINER, IMAGE, true, pusher);
+
+        final DockerMachineSource result = (DockerMachineSource)dockerInstance.saveToSnapshot();
+
+        assertNull(result.getDigest());
+        verify(dockerConnectorMock).commit(any(CommitParams.class));
+        verify(pusher).push(eq(PushParams.create(result.getRepository())
+                                         .withRegistry(REGISTRY)
+                                         .withTag(result.getTag())),
+                            any(ProgressMonitor.class));
+        verify(dockerConnectorMock, never()).push(any(PushParams.class), any(ProgressMonitor.class));
     }
 
     @Test(expectedExceptions = MachineException.class)
@@ -198,6 +356,12 @@ public class DockerInstanceTest {
         dockerInstance.saveToSnapshot();
     }
 
+    private void bindContainer(String container, String... binds) throws IOException {
+        final ContainerInfo info = new ContainerInfo();
+        info.setHostConfig(new HostConfig().withBinds(binds));
+        when(dockerConnectorMock.inspectContainer(container)).thenReturn(info);
+    }
+
     private DockerInstance getDockerInstance() {
         return getDockerInstance(getMachine(), REGISTRY, CONTAINER, IMAGE, false);
     }
@@ -207,6 +371,20 @@ public class DockerInstanceTest {
                                              String container,
                                              String image,
                                              boolean snapshotUseRegistry) {
+        return getDockerInstance(machine,
+                                 registry,
+                                 container,
+                                 image,
+                                 snapshotUseRegistry,
+                                 new SnapshotPusher(dockerConnectorMock, 0, 0, 0));
+    }
+
+    private DockerInstance getDockerInstance(Machine machine,
+                                             String registry,
+                                             String container,
+                                             String image,
+                                             boolean snapshotUseRegistry,
+                                             SnapshotPusher snapshotPusher) {
         return new DockerInstance(dockerConnectorMock,
                                   registry,
                                   USERNAME,
@@ -218,7 +396,17 @@ public class DockerInstanceTest {
                                   outputConsumer,
                                   dockerInstanceStopDetectorMock,
                                   mock(DockerInstanceProcessesCleaner.class),
-                                  snapshotUseRegistry);
+                                  snapshotUseRegistry,
+                                  snapshotPusher,
+                                  apiMetrics);
+    }
+
+    private void assertCopyRecorded(String source, long bytes) {
+        final List<CopyMetrics> copies = apiMetrics.getCopyMetrics();
+        assertEquals(copies.size(), 1);
+        assertEquals(copies.get(0).getSource(), source);
+        assertEquals(copies.get(0).getCopies(), 1);
+        assertEquals(copies.get(0).getBytes(), bytes);
     }
 
     private Machine getMachine() {
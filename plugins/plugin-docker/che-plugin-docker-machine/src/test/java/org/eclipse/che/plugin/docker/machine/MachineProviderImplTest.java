@@ -15,6 +15,7 @@ import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.machine.MachineConfig;
 import org.eclipse.che.api.core.model.machine.ServerConf;
 import org.eclipse.che.api.core.util.LineConsumer;
+import org.eclipse.che.api.core.util.MessageConsumer;
 import org.eclipse.che.api.environment.server.model.CheServiceImpl;
 import org.eclipse.che.api.machine.server.model.impl.ServerConfImpl;
 import org.eclipse.che.api.machine.server.recipe.RecipeImpl;
@@ -25,6 +26,7 @@ import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
 import org.eclipse.che.plugin.docker.client.ProgressMonitor;
 import org.eclipse.che.plugin.docker.client.UserSpecificDockerRegistryCredentialsProvider;
+import org.eclipse.che.plugin.docker.client.exception.DockerException;
 import org.eclipse.che.plugin.docker.client.json.ContainerConfig;
 import org.eclipse.che.plugin.docker.client.json.ContainerCreated;
 import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
@@ -66,13 +68,16 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 @Listeners(MockitoTestNGListener.class)
 public class MachineProviderImplTest {
@@ -160,6 +165,30 @@ public class MachineProviderImplTest {
         verify(dockerConnector).pull(eq(pullParams), any(ProgressMonitor.class));
     }
 
+    @Test
+    public void shouldUseSnapshotImageLeftOnNodeWhenPullFromRegistryFails() throws Exception {
+        String repo = MACHINE_SNAPSHOT_PREFIX + "repo";
+        String tag = "latest";
+        String registry = "localhost:1234";
+        doThrow(new DockerException("manifest unknown", 404)).when(dockerConnector)
+                                                             .pull(any(PullParams.class), any(ProgressMonitor.class));
+
+        CheServiceImpl machine = createInstanceFromSnapshot(repo, tag, registry);
+
+        verify(dockerConnector).tag(TagParams.create(registry + "/" + repo + ":" + tag,
+                                                     "eclipse-che/" + machine.getContainerName()));
+        verify(dockerConnector, never()).removeImage(any(RemoveImageParams.class));
+    }
+
+    @Test(expectedExceptions = ServerException.class)
+    public void shouldFailWhenSnapshotPullFailsAndImageIsNotLeftOnNode() throws Exception {
+        doThrow(new DockerException("manifest unknown", 404)).when(dockerConnector)
+                                                             .pull(any(PullParams.class), any(ProgressMonitor.class));
+        when(dockerConnector.inspectImage(anyString())).thenThrow(new DockerException("no such image", 404));
+
+        createInstanceFromSnapshot(MACHINE_SNAPSHOT_PREFIX + "repo", "latest", "localhost:1234");
+    }
+
     @Test
     public void shouldNotPullDockerImageOnInstanceCreationFromLocalSnapshot() throws Exception {
         String repo = MACHINE_SNAPSHOT_PREFIX + "repo";
@@ -196,6 +225,67 @@ public class MachineProviderImplTest {
         verify(dockerConnector, never()).pull(any(PullParams.class), any(ProgressMonitor.class));
     }
 
+    @Test
+    public void shouldNotPullImageOnServiceStartIfItIsPrepared() throws Exception {
+        CheServiceImpl service = createService();
+        provider.prepareImages(WORKSPACE_ID, singletonMap(MACHINE_NAME, service), mock(MessageConsumer.class));
+
+        createInstanceFromRecipe(service);
+
+        verify(dockerConnector, times(1)).pull(any(PullParams.class), any(ProgressMonitor.class));
+    }
+
+    @Test
+    public void shouldPullImageOnServiceStartIfServiceImageChangedAfterPreparation() throws Exception {
+        CheServiceImpl service = createService();
+        provider.prepareImages(WORKSPACE_ID, singletonMap(MACHINE_NAME, service), mock(MessageConsumer.class));
+        service.setImage("another-image");
+
+        createInstanceFromRecipe(service);
+
+        verify(dockerConnector, times(2)).pull(any(PullParams.class), any(ProgressMonitor.class));
+    }
+
+    @Test
+    public void shouldPrepareImageOfServiceWithoutContainerName() throws Exception {
+        CheServiceImpl service = createService();
+        service.setContainerName(null);
+        provider.prepareImages(WORKSPACE_ID, singletonMap(MACHINE_NAME, service), mock(MessageConsumer.class));
+        service.setContainerName("cont_name");
+
+        createInstanceFromRecipe(service);
+
+        verify(dockerConnector, times(1)).pull(any(PullParams.class), any(ProgressMonitor.class));
+        verify(dockerConnector).tag(TagParams.create("eclipse-che/wsid_machinename", "eclipse-che/cont_name").withForce(true));
+        verify(dockerConnector).removeImage(RemoveImageParams.create("eclipse-che/wsid_machinename").withForce(false));
+    }
+
+    @Test
+    public void shouldRemovePreparedImagesWhichAreNotUsed() throws Exception {
+        provider.prepareImages(WORKSPACE_ID, singletonMap(MACHINE_NAME, createService()), mock(MessageConsumer.class));
+
+        provider.removePreparedImages(WORKSPACE_ID);
+
+        verify(dockerConnector).removeImage(RemoveImageParams.create("eclipse-che/wsid_machinename").withForce(false));
+    }
+
+    @Test
+    public void shouldRemovePreparedImagesWhenPreparationOfAnyImageFails() throws Exception {
+        CheServiceImpl invalid = createService();
+        invalid.setImage(null);
+        Map<String, CheServiceImpl> services = new HashMap<>();
+        services.put(MACHINE_NAME, createService());
+        services.put("invalid", invalid);
+
+        try {
+            provider.prepareImages(WORKSPACE_ID, services, mock(MessageConsumer.class));
+            fail("Preparation of images should fail");
+        } catch (ServerException ignored) {
+        }
+
+        verify(dockerConnector).removeImage(RemoveImageParams.create("eclipse-che/wsid_machinename").withForce(false));
+    }
+
     @Test
     public void shouldNotRemoveImageAfterRestoreFromLocalSnapshot() throws Exception {
         String repo = MACHINE_SNAPSHOT_PREFIX + "repo";
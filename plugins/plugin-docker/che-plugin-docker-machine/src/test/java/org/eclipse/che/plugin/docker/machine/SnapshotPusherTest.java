@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.json.ImageInfo;
+import org.eclipse.che.plugin.docker.client.params.PushParams;
+import org.eclipse.che.plugin.docker.client.params.RemoveImageParams;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for {@link SnapshotPusher}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class SnapshotPusherTest {
+    private static final String REGISTRY   = "localhost:5000";
+    private static final String REPOSITORY = "che/machine_snapshot_0123456789abcdef";
+    private static final String IMAGE      = REGISTRY + '/' + REPOSITORY + ":snapshot1";
+
+    private static final SnapshotPusher.ManifestRemover NOT_PUSHED = digest -> fail("Image is not pushed");
+
+    @Mock
+    private DockerConnector docker;
+
+    private SnapshotPusher pusher;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        final ImageInfo imageInfo = new ImageInfo();
+        imageInfo.setSize(1024 * 1024);
+        when(docker.inspectImage(anyString())).thenReturn(imageInfo);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (pusher != null) {
+            pusher.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldPushSnapshotSynchronouslyWhenThereAreNoThreads() throws Exception {
+        pusher = new SnapshotPusher(docker, 0, 0, 0);
+        when(docker.push(any(PushParams.class), any(ProgressMonitor.class))).thenReturn("sha256:1234");
+
+        assertEquals(pusher.push(pushParams("snapshot1"), ProgressMonitor.DEV_NULL), "sha256:1234");
+
+        verify(docker).removeImage(RemoveImageParams.create(IMAGE).withForce(false));
+        assertEquals(pusher.getMetrics().get("pushes"), Long.valueOf(1));
+        assertEquals(pusher.getMetrics().get("imageAverageSizeBytes"), Long.valueOf(1024 * 1024));
+    }
+
+    @Test
+    public void shouldPushSnapshotInBackground() throws Exception {
+        pusher = new SnapshotPusher(docker, 1, 10, 0);
+        when(docker.push(any(PushParams.class), any(ProgressMonitor.class))).thenReturn("sha256:1234");
+
+        assertNull(pusher.push(pushParams("snapshot1"), ProgressMonitor.DEV_NULL));
+
+        assertFalse(pusher.awaitPush(IMAGE));
+        verify(docker).push(pushParams("snapshot1"), ProgressMonitor.DEV_NULL);
+        verify(docker).removeImage(RemoveImageParams.create(IMAGE).withForce(false));
+    }
+
+    @Test
+    public void shouldKeepImageOnDockerNodeWhenPushFails() throws Exception {
+        pusher = new SnapshotPusher(docker, 1, 10, 0);
+        when(docker.push(any(PushParams.class), any(ProgressMonitor.class))).thenThrow(new IOException("registry is down"));
+
+        pusher.push(pushParams("snapshot1"), ProgressMonitor.DEV_NULL);
+
+        assertTrue(pusher.awaitPush(IMAGE));
+        verify(docker, never()).removeImage(any(RemoveImageParams.class));
+        assertEquals(pusher.getMetrics().get("pushFailures"), Long.valueOf(1));
+
+        assertTrue(pusher.discard(IMAGE, NOT_PUSHED));
+        verify(docker).removeImage(RemoveImageParams.create(IMAGE).withForce(false));
+    }
+
+    @Test
+    public void shouldCancelPushOfDiscardedSnapshotWhichIsNotStarted() throws Exception {
+        pusher = new SnapshotPusher(docker, 1, 10, 0);
+        final CountDownLatch pushStarted = new CountDownLatch(1);
+        final CountDownLatch pushAllowed = new CountDownLatch(1);
+        when(docker.push(any(PushParams.class), any(ProgressMonitor.class))).thenAnswer(invocation -> {
+            pushStarted.countDown();
+            pushAllowed.await();
+            return "sha256:1234";
+        });
+        pusher.push(pushParams("snapshot0"), ProgressMonitor.DEV_NULL);
+        assertTrue(pushStarted.await(10, SECONDS));
+
+        pusher.push(pushParams("snapshot1"), ProgressMonitor.DEV_NULL);
+        assertTrue(pusher.discard(IMAGE, NOT_PUSHED));
+        pushAllowed.countDown();
+
+        assertFalse(pusher.awaitPush(REGISTRY + '/' + REPOSITORY + ":snapshot0"));
+        verify(docker, times(1)).push(any(PushParams.class), any(ProgressMonitor.class));
+        verify(docker).removeImage(RemoveImageParams.create(IMAGE).withForce(false));
+        assertEquals(pusher.getMetrics().get("pushesDiscarded"), Long.valueOf(1));
+    }
+
+    @Test
+    public void shouldWaitForPushInProgressOnDiscard() throws Exception {
+        pusher = new SnapshotPusher(docker, 1, 10, 0);
+        final CountDownLatch pushStarted = new CountDownLatch(1);
+        final CountDownLatch pushAllowed = new CountDownLatch(1);
+        when(docker.push(any(PushParams.class), any(ProgressMonitor.class))).thenAnswer(invocation -> {
+            pushStarted.countDown();
+            Uninterruptibles.awaitUninterruptibly(pushAllowed);
+            return "sha256:1234";
+        });
+        pusher.push(pushParams("snapshot1"), ProgressMonitor.DEV_NULL);
+        assertTrue(pushStarted.await(10, SECONDS));
+        releaseLater(pushAllowed);
+
+        // pushed image is removed from the registry by the caller
+        assertFalse(pusher.discard(IMAGE, NOT_PUSHED));
+
+        assertEquals(pusher.getMetrics().get("pushesDiscarded"), Long.valueOf(1));
+    }
+
+    @Test
+    public void shouldRemoveManifestWhenPushOfDiscardedSnapshotSucceedsAfterDiscard() throws Exception {
+        pusher = new SnapshotPusher(docker, 1, 10, 0);
+        setField("discardTimeoutMs", 100L);
+        final CountDownLatch pushStarted = new CountDownLatch(1);
+        final CountDownLatch pushAllowed = new CountDownLatch(1);
+        when(docker.push(any(PushParams.class), any(ProgressMonitor.class))).thenAnswer(invocation -> {
+            pushStarted.countDown();
+            Uninterruptibles.awaitUninterruptibly(pushAllowed);
+            return "sha256:1234";
+        });
+        pusher.push(pushParams("snapshot1"), ProgressMonitor.DEV_NULL);
+        assertTrue(pushStarted.await(10, SECONDS));
+        final CompletableFuture<String> removedDigest = new CompletableFuture<>();
+
+        assertTrue(pusher.discard(IMAGE, removedDigest::complete));
+        pushAllowed.countDown();
+
+        assertEquals(removedDigest.get(10, SECONDS), "sha256:1234");
+        verify(docker).removeImage(RemoveImageParams.create(IMAGE).withForce(false));
+    }
+
+    @Test
+    public void shouldFailPushWhichIsScheduledAfterShutdown() throws Exception {
+        pusher = new SnapshotPusher(docker, 1, 10, 0);
+        pusher.shutdown();
+
+        assertNull(pusher.push(pushParams("snapshot1"), ProgressMonitor.DEV_NULL));
+
+        assertTrue(pusher.awaitPush(IMAGE));
+        verify(docker, never()).push(any(PushParams.class), any(ProgressMonitor.class));
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        final Field field = SnapshotPusher.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(pusher, value);
+    }
+
+    private static void releaseLater(CountDownLatch latch) {
+        final Thread thread = new Thread(() -> {
+            Uninterruptibles.sleepUninterruptibly(200, MILLISECONDS);
+            latch.countDown();
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static PushParams pushParams(String tag) {
+        return PushParams.create(REPOSITORY).withRegistry(REGISTRY).withTag(tag);
+    }
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.api.environment.server.EnvironmentParser;
+import org.eclipse.che.api.environment.server.model.CheServiceImpl;
+import org.eclipse.che.api.environment.server.model.CheServicesEnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl;
+import org.eclipse.che.api.workspace.server.spi.StackDao;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.InitialAuthConfig;
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.exception.DockerException;
+import org.eclipse.che.plugin.docker.client.json.ImageInfo;
+import org.eclipse.che.plugin.docker.client.params.PullParams;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import static java.util.Collections.singleton;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link WarmImagePool}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class WarmImagePoolTest {
+    private static final String STACK_ID = "stack123";
+
+    @Mock
+    private DockerConnector   docker;
+    @Mock
+    private InitialAuthConfig authConfig;
+    @Mock
+    private StackDao          stackDao;
+    @Mock
+    private EnvironmentParser environmentParser;
+    @Mock
+    private ImageInfo         imageInfo;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        final StackImpl stack = mock(StackImpl.class);
+        final WorkspaceConfigImpl config = mock(WorkspaceConfigImpl.class);
+        final EnvironmentImpl environment = mock(EnvironmentImpl.class);
+        when(stackDao.getById(STACK_ID)).thenReturn(stack);
+        when(stack.getWorkspaceConfig()).thenReturn(config);
+        when(config.getEnvironments()).thenReturn(ImmutableMap.of("default", environment));
+        when(environmentParser.parse(environment))
+                .thenReturn(new CheServicesEnvironmentImpl().withServices(
+                        ImmutableMap.of("dev", new CheServiceImpl().withImage("codenvy/ubuntu_jdk8:latest"),
+                                        "db", new CheServiceImpl().withImage("mysql:5.7"))));
+        when(docker.inspectImage(anyString())).thenReturn(imageInfo);
+    }
+
+    @Test
+    public void shouldPullImagesOfConfiguredStacks() throws Exception {
+        final WarmImagePool pool = new WarmImagePool(docker, authConfig, stackDao, environmentParser, STACK_ID, 1024);
+        when(imageInfo.getSize()).thenReturn(1024L);
+
+        pool.replenish();
+
+        verify(docker, times(2)).pull(any(PullParams.class), any(ProgressMonitor.class));
+        assertEquals(pool.getWarmImages().size(), 2);
+        assertTrue(pool.getWarmImages().contains("codenvy/ubuntu_jdk8:latest"));
+    }
+
+    @Test
+    public void shouldNotPullImagesWhenBudgetIsExhausted() throws Exception {
+        final WarmImagePool pool = new WarmImagePool(docker, authConfig, stackDao, environmentParser, STACK_ID, 1);
+        when(imageInfo.getSize()).thenReturn(1024L * 1024);
+
+        pool.replenish();
+
+        verify(docker).pull(any(PullParams.class), any(ProgressMonitor.class));
+        assertEquals(pool.getWarmImages(), singleton("codenvy/ubuntu_jdk8:latest"));
+    }
+
+    @Test
+    public void shouldNotPullImageWhichExceedsBudget() throws Exception {
+        final WarmImagePool pool = new WarmImagePool(docker, authConfig, stackDao, environmentParser, STACK_ID, 1);
+        when(imageInfo.getSize()).thenReturn(2L * 1024 * 1024);
+
+        pool.replenish();
+
+        verify(docker, never()).pull(any(PullParams.class), any(ProgressMonitor.class));
+        assertTrue(pool.getWarmImages().isEmpty());
+    }
+
+    @Test
+    public void shouldEvictPulledImageWithLowestPriorityWhenBudgetIsExceeded() throws Exception {
+        final WarmImagePool pool = new WarmImagePool(docker, authConfig, stackDao, environmentParser, STACK_ID, 2);
+        final ImageInfo jdkImage = mock(ImageInfo.class);
+        final ImageInfo mysqlImage = mock(ImageInfo.class);
+        when(jdkImage.getSize()).thenReturn(1024L * 1024);
+        when(mysqlImage.getSize()).thenReturn(1536L * 1024);
+        when(docker.inspectImage("codenvy/ubuntu_jdk8:latest")).thenThrow(new DockerException("not found", 404))
+                                                              .thenReturn(jdkImage);
+        when(docker.inspectImage("mysql:5.7")).thenThrow(new DockerException("not found", 404))
+                                             .thenReturn(mysqlImage);
+
+        pool.replenish();
+
+        verify(docker, times(2)).pull(any(PullParams.class), any(ProgressMonitor.class));
+        verify(docker).removeImage("mysql:5.7");
+        verify(docker, never()).removeImage("codenvy/ubuntu_jdk8:latest");
+        assertEquals(pool.getWarmImages(), singleton("codenvy/ubuntu_jdk8:latest"));
+    }
+
+    @Test
+    public void shouldKeepRecentlyUsedImagesWarmFirst() throws Exception {
+        final WarmImagePool pool = new WarmImagePool(docker, authConfig, stackDao, environmentParser, STACK_ID, 2);
+        when(imageInfo.getSize()).thenReturn(1024L * 1024);
+        pool.replenish();
+        pool.recordImageUsage("mysql:5.7", 10);
+        when(imageInfo.getSize()).thenReturn(1536L * 1024);
+
+        pool.replenish();
+
+        assertEquals(pool.getWarmImages(), singleton("mysql:5.7"));
+    }
+
+    @Test
+    public void shouldNotPullImagesWhenNoStacksConfigured() throws Exception {
+        final WarmImagePool pool = new WarmImagePool(docker, authConfig, stackDao, environmentParser, null, 1024);
+
+        pool.replenish();
+
+        verify(docker, never()).pull(any(PullParams.class), any(ProgressMonitor.class));
+    }
+
+    @Test
+    public void shouldCalculateHitRate() throws Exception {
+        final WarmImagePool pool = new WarmImagePool(docker, authConfig, stackDao, environmentParser, STACK_ID, 1024);
+        pool.replenish();
+
+        pool.recordImageUsage("codenvy/ubuntu_jdk8:latest", 10);
+        pool.recordImageUsage("codenvy/ubuntu_jdk8:latest", 10);
+        pool.recordImageUsage("mysql:5.7", 10);
+        pool.recordImageUsage("codenvy/node:latest", 1000);
+
+        assertEquals(pool.getHitRate(), 75);
+    }
+}
@@ -15,6 +15,7 @@ import org.eclipse.che.api.environment.server.CheEnvironmentEngine;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.DockerEventHub;
 import org.eclipse.che.plugin.docker.client.json.ContainerListEntry;
 import org.eclipse.che.plugin.docker.client.params.RemoveContainerParams;
 import org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator;
@@ -69,6 +70,8 @@ public class DockerContainerCleanerTest {
     @Mock
     private DockerConnector              dockerConnector;
     @Mock
+    private DockerEventHub               eventHub;
+    @Mock
     private DockerContainerNameGenerator nameGenerator;
 
     @Mock
@@ -102,7 +105,7 @@ public class DockerContainerCleanerTest {
         when(machineImpl1.getId()).thenReturn(machineId1);
         when(machineImpl1.getWorkspaceId()).thenReturn(workspaceId1);
 
-        when(dockerConnector.listContainers()).thenReturn(asList(container1, container2, container3));
+        when(eventHub.getContainers()).thenReturn(asList(container1, container2, container3));
 
         when(container1.getNames()).thenReturn(new String[] {containerName1});
         when(container1.getStatus()).thenReturn(RUNNING_STATUS);
@@ -135,7 +138,7 @@ public class DockerContainerCleanerTest {
             throws Exception {
         cleaner.run();
 
-        verify(dockerConnector).listContainers();
+        verify(eventHub).getContainers();
 
         verify(nameGenerator, times(3)).parse(anyString());
         verify(environmentEngine, times(3)).getMachine(anyString(), anyString());
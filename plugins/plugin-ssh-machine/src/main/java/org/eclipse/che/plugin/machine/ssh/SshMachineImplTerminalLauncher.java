@@ -25,6 +25,7 @@ import org.slf4j.Logger;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -72,12 +73,12 @@ public class SshMachineImplTerminalLauncher extends AbstractAgentLauncher {
     }
 
     @Override
-    public void launch(Instance machine, Agent agent) throws ServerException {
+    public CompletableFuture<Void> start(Instance machine, Agent agent) throws ServerException {
         try {
             String architecture = detectArchitecture(machine);
             machine.copy(archivePathProvider.getPath(architecture), terminalLocation);
 
-            super.launch(machine, agent);
+            return super.start(machine, agent);
         } catch (ConflictException e) {
             // should never happen
             throw new ServerException("Internal server error occurs on terminal launching.");
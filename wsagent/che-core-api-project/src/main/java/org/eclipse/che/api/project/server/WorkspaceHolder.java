@@ -140,7 +140,11 @@ public class WorkspaceHolder extends WorkspaceProjectsSyncer {
                                       .path(WorkspaceService.class).path(WorkspaceService.class, "getByKey")
                                       .build(wsId).toString();
         try {
-            return httpJsonRequestFactory.fromUrl(href).useGetMethod().request().asDto(WorkspaceDto.class);
+            return httpJsonRequestFactory.fromUrl(href)
+                                         .useGetMethod()
+                                         .preferBinaryDto()
+                                         .request()
+                                         .asDto(WorkspaceDto.class);
         } catch (IOException | ApiException e) {
             throw new ServerException(e);
         }
@@ -21,8 +21,10 @@ import org.eclipse.che.api.agent.shared.model.AgentKey;
 import org.eclipse.che.commons.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -70,6 +72,36 @@ public class AgentSorter {
         return sorted;
     }
 
+    /**
+     * Groups agents into levels respecting dependencies between them.
+     * Agents of the same level don't depend on each other and may be launched concurrently,
+     * each agent depends only on agents of the previous levels.
+     *
+     * @param agentKeys
+     *         list of agents to group
+     * @return levels of agents in launch order, agents in a level keep the order of {@link #sort(List)}
+     * @throws AgentException
+     *         if circular dependency found or agent creation failed or other unexpected error
+     * @see #sort(List)
+     */
+    public List<List<AgentKey>> sortByLevels(@Nullable List<String> agentKeys) throws AgentException {
+        final List<List<AgentKey>> levels = new ArrayList<>();
+        final Map<String, Integer> agentLevels = new HashMap<>();
+        for (AgentKey agentKey : sort(agentKeys)) {
+            // dependencies are sorted before the agent, so their levels are already known
+            int level = 0;
+            for (String dependency : agentRegistry.getAgent(agentKey).getDependencies()) {
+                level = Math.max(level, agentLevels.get(AgentKeyImpl.parse(dependency).getId()) + 1);
+            }
+            agentLevels.put(agentKey.getId(), level);
+            if (level == levels.size()) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(agentKey);
+        }
+        return levels;
+    }
+
     private void doSort(AgentKey agentKey, List<AgentKey> sorted, Set<String> pending) throws AgentException {
         String agentId = agentKey.getId();
 
@@ -17,6 +17,7 @@ import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.Command;
 import org.eclipse.che.api.core.util.AbstractLineConsumer;
+import org.eclipse.che.api.core.util.CompositeLineConsumer;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.CommandImpl;
@@ -27,6 +28,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -35,6 +39,11 @@ import static java.lang.String.format;
 /**
  * Launch agent script asynchronously over target instance and wait when it run.
  * The policy of checking if agent is run might be different for agents.
+ * Checks are scheduled by {@link AgentReadiness}, with delay growing from
+ * {@value AgentReadiness#INITIAL_PING_DELAY_MS} milliseconds up to the agent ping delay,
+ * output of the agent triggers the check out of schedule.
+ * {@link #start(Instance, Agent)} waits only for the installation of the agent, see {@link AgentInstallation},
+ * {@link #launch(Instance, Agent)} waits for the agent readiness.
  *
  * @see Agent#getScript()
  * @see AgentLaunchingChecker
@@ -64,41 +73,73 @@ public abstract class AbstractAgentLauncher implements AgentLauncher {
     @Override
     public void launch(Instance machine, Agent agent) throws ServerException {
         try {
-            final InstanceProcess process = start(machine, agent);
-            LOG.debug("Waiting for agent {} is launched. Workspace ID:{}", agent.getId(), machine.getWorkspaceId());
-
-            final long pingStartTimestamp = System.currentTimeMillis();
-            while (System.currentTimeMillis() - pingStartTimestamp < agentMaxStartTimeMs) {
-                if (agentLaunchingChecker.isLaunched(agent, process, machine)) {
-                    return;
-                } else {
-                    Thread.sleep(agentPingDelayMs);
-                }
+            start(machine, agent).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ServerException) {
+                throw (ServerException)e.getCause();
             }
+            throw new ServerException(e.getCause().getLocalizedMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException(format("Launching agent %s is interrupted", agent.getName()));
+        }
+    }
 
-            process.kill();
+    @Override
+    public CompletableFuture<Void> start(Instance machine, Agent agent) throws ServerException {
+        final AgentReadiness readiness = new AgentReadiness(AgentReadiness.INITIAL_PING_DELAY_MS, agentPingDelayMs);
+        final AgentInstallation installation = new AgentInstallation();
+        final InstanceProcess process;
+        try {
+            process = start(machine, agent, new CompositeLineConsumer(readiness.getSignalConsumer(),
+                                                                      installation.getOutputConsumer()));
         } catch (MachineException e) {
             throw new ServerException(e.getServiceError());
+        }
+        LOG.debug("Waiting for agent {} is launched. Workspace ID:{}", agent.getId(), machine.getWorkspaceId());
+
+        final CompletableFuture<Void> ready =
+                readiness.whenReady(() -> agentLaunchingChecker.isLaunched(agent, process, machine), agentMaxStartTimeMs)
+                         .thenAccept(isReady -> {
+                             if (!isReady) {
+                                 try {
+                                     process.kill();
+                                 } catch (MachineException e) {
+                                     LOG.warn(e.getLocalizedMessage());
+                                 }
+                                 final String errMsg = format("Fail launching agent %s. Workspace ID:%s",
+                                                              agent.getName(),
+                                                              machine.getWorkspaceId());
+                                 LOG.error(errMsg);
+                                 throw new CompletionException(new ServerException(errMsg));
+                             }
+                         });
+        try {
+            installation.await(ready);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new ServerException(format("Launching agent %s is interrupted", agent.getName()));
         }
-
-        final String errMsg = format("Fail launching agent %s. Workspace ID:%s", agent.getName(), machine.getWorkspaceId());
-        LOG.error(errMsg);
-        throw new ServerException(errMsg);
+        return ready;
     }
 
 
-    protected InstanceProcess start(final Instance machine, final Agent agent) throws ServerException {
-        final Command command = new CommandImpl(agent.getId(), agent.getScript(), "agent");
+    /**
+     * Starts agent script in the machine, the script prints {@link AgentInstallation#INSTALLED_MARKER}
+     * before its last command.
+     *
+     * @param outputListener
+     *         receives output of the agent process and is closed when the process terminates
+     */
+    protected InstanceProcess start(final Instance machine, final Agent agent, final LineConsumer outputListener) throws ServerException {
+        final Command command = new CommandImpl(agent.getId(), AgentInstallation.markScript(agent.getScript()), "agent");
         final InstanceProcess process = machine.createProcess(command, null);
-        final LineConsumer lineConsumer = new AbstractLineConsumer() {
+        final LineConsumer lineConsumer = new CompositeLineConsumer(new AbstractLineConsumer() {
             @Override
             public void writeLine(String line) throws IOException {
                 machine.getLogger().writeLine(line);
             }
-        };
+        }, outputListener);
 
         executor.execute(ThreadLocalPropagateContext.wrap(() -> {
             try {
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.agent.server.launcher;
+
+import org.eclipse.che.api.core.util.AbstractLineConsumer;
+import org.eclipse.che.api.core.util.LineConsumer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Detects the end of the installation phase of the agent script.
+ *
+ * <p>Agent script installs the agent, usually with the package manager of the machine, and runs it with
+ * the last command. Package managers don't allow concurrent use, so scripts of the agents of the same machine
+ * are started one by one, each after the installation of the previous one is finished, while waiting for
+ * readiness of the started agents goes on concurrently. Script prints {@link #INSTALLED_MARKER}
+ * before the last command, see {@link #markScript(String)}, installation is also considered finished when
+ * the script terminates or the agent is ready, e.g. the marker is not printed because the last command
+ * is a part of a compound command.
+ */
+public class AgentInstallation {
+    /** Line which the agent script prints when the installation is finished. */
+    public static final String INSTALLED_MARKER = "[AGENT] Installation is finished";
+
+    private final CompletableFuture<Void> installed;
+
+    public AgentInstallation() {
+        this.installed = new CompletableFuture<>();
+    }
+
+    /**
+     * Returns script which prints {@link #INSTALLED_MARKER} before the last command of the given script,
+     * the last command may span several lines joined with backslash.
+     */
+    public static String markScript(String script) {
+        int end = script.length();
+        while (end > 0 && Character.isWhitespace(script.charAt(end - 1))) {
+            end--;
+        }
+        int lastCommand = script.lastIndexOf('\n', end - 1) + 1;
+        while (lastCommand > 1 && script.charAt(lastCommand - 2) == '\\') {
+            lastCommand = script.lastIndexOf('\n', lastCommand - 2) + 1;
+        }
+        return script.substring(0, lastCommand) + markerCommand() + '\n' + script.substring(lastCommand);
+    }
+
+    /** Returns script which installs the agent with the given script and runs it with the given command. */
+    public static String markScript(String installScript, String runCommand) {
+        return installScript + '\n' + markerCommand() + '\n' + runCommand;
+    }
+
+    /** Returns consumer of the agent script output which must be closed when the script terminates. */
+    public LineConsumer getOutputConsumer() {
+        return new AbstractLineConsumer() {
+            @Override
+            public void writeLine(String line) {
+                if (line.contains(INSTALLED_MARKER)) {
+                    installed.complete(null);
+                }
+            }
+
+            @Override
+            public void close() {
+                installed.complete(null);
+            }
+        };
+    }
+
+    /**
+     * Waits until the installation is finished.
+     *
+     * @param ready
+     *         readiness of the agent, it must be completed in bounded time, installation is finished when it is done
+     * @throws InterruptedException
+     *         when waiting is interrupted
+     */
+    public void await(CompletableFuture<?> ready) throws InterruptedException {
+        ready.whenComplete((result, error) -> installed.complete(null));
+        try {
+            installed.get();
+        } catch (ExecutionException e) {
+            // never completed exceptionally
+        }
+    }
+
+    private static String markerCommand() {
+        return "echo '" + INSTALLED_MARKER + "'";
+    }
+}
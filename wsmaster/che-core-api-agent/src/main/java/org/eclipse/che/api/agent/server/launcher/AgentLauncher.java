@@ -14,6 +14,8 @@ import org.eclipse.che.api.agent.shared.model.Agent;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.machine.server.spi.Instance;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Launches {@link Agent#getScript()} on the {@link Instance}.
  *
@@ -48,4 +50,25 @@ public interface AgentLauncher {
      *      if script execution failed
      */
     void launch(Instance machine, Agent agent) throws ServerException;
+
+    /**
+     * Executes agents scripts over target machine without waiting for the agent readiness.
+     * The machine should be started.
+     *
+     * <p>Default implementation launches the agent with {@link #launch(Instance, Agent)}
+     * and returns completed future.
+     *
+     * @param machine
+     *      the machine instance
+     * @param agent
+     *      the agent
+     * @return future which is completed when the agent is ready or completed exceptionally
+     * with {@link ServerException} when the agent is not ready in time
+     * @throws ServerException
+     *      if script execution failed
+     */
+    default CompletableFuture<Void> start(Instance machine, Agent agent) throws ServerException {
+        launch(machine, agent);
+        return CompletableFuture.completedFuture(null);
+    }
 }
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.agent.server.launcher;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.util.AbstractLineConsumer;
+import org.eclipse.che.api.core.util.LineConsumer;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detects readiness of the launched agent.
+ *
+ * <p>Readiness checks are scheduled by the scheduler shared by all the agents, so no thread sleeps
+ * between checks and no thread waits for the readiness, the caller receives a future instead. Checks may block on network calls, so they are performed by a separate pool,
+ * one slow agent doesn't delay checks of the others. The first check is performed immediately,
+ * then delay between checks grows exponentially from the initial delay up to the max delay,
+ * so quickly started agent is detected almost immediately while slow agent is not checked too often.
+ *
+ * <p>Output of the agent process is used as readiness signal: an agent usually prints to its output
+ * when it starts listening, so each output line and termination of the process
+ * trigger the check right away, but not more often than once per {@value #MIN_SIGNAL_INTERVAL_MS} milliseconds.
+ *
+ * <p>Checks are performed with the context of the thread which starts checking.
+ */
+public class AgentReadiness {
+    private static final ScheduledThreadPoolExecutor SCHEDULER =
+            new ScheduledThreadPoolExecutor(1,
+                                            new ThreadFactoryBuilder().setNameFormat("AgentReadiness-%d")
+                                                                      .setDaemon(true)
+                                                                      .build());
+    // at most one check of each agent runs at once, so number of threads is limited by number of launched agents
+    private static final ExecutorService             CHECKER   =
+            Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("AgentReadiness-check-%d")
+                                                                    .setDaemon(true)
+                                                                    .build());
+
+    /** Delay after the first check of agent, it grows exponentially up to the agent ping delay. */
+    public static final long INITIAL_PING_DELAY_MS = 100;
+
+    /** Minimum interval between the last check and the check triggered by signal. */
+    static final long MIN_SIGNAL_INTERVAL_MS = 100;
+
+    static {
+        // timeouts of ready agents are cancelled, they must not stay in the queue
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    /** Checks whether agent is ready. */
+    @FunctionalInterface
+    public interface Check {
+        boolean isReady() throws Exception;
+    }
+
+    private final long                       initialDelayMs;
+    private final long                       maxDelayMs;
+    private final CompletableFuture<Boolean> ready;
+    private final AtomicBoolean              checking;
+    private final AtomicLong                 lastCheck;
+
+    private volatile Callable<Boolean> check;
+
+    /**
+     * Creates readiness of the agent.
+     *
+     * @param initialDelayMs
+     *         delay between the first and the second checks
+     * @param maxDelayMs
+     *         maximum delay between checks
+     */
+    public AgentReadiness(long initialDelayMs, long maxDelayMs) {
+        this.initialDelayMs = Math.max(1, Math.min(initialDelayMs, maxDelayMs));
+        this.maxDelayMs = Math.max(1, maxDelayMs);
+        this.ready = new CompletableFuture<>();
+        this.checking = new AtomicBoolean();
+        this.lastCheck = new AtomicLong();
+    }
+
+    /**
+     * Returns consumer of the agent process output which signals about possible readiness of the agent.
+     * Consumer must be closed when the process terminates.
+     */
+    public LineConsumer getSignalConsumer() {
+        return new AbstractLineConsumer() {
+            @Override
+            public void writeLine(String line) {
+                signal();
+            }
+
+            @Override
+            public void close() {
+                signal();
+            }
+        };
+    }
+
+    /** Requests check of the agent readiness out of the polling schedule. */
+    public void signal() {
+        if (!ready.isDone() && System.currentTimeMillis() - lastCheck.get() >= MIN_SIGNAL_INTERVAL_MS) {
+            CHECKER.execute(this::check);
+        }
+    }
+
+    /**
+     * Starts checking of the agent readiness, returns immediately.
+     *
+     * @param check
+     *         readiness check, exception thrown by the check means that agent is not ready
+     * @param timeoutMs
+     *         maximum time to wait for readiness
+     * @return future which is completed with true when agent is ready or with false
+     * when agent is not ready during the given time, it is never completed exceptionally
+     */
+    public CompletableFuture<Boolean> whenReady(Check check, long timeoutMs) {
+        this.check = ThreadLocalPropagateContext.wrap(check::isReady);
+        CHECKER.execute(() -> poll(0));
+        final ScheduledFuture<?> timeout = SCHEDULER.schedule(() -> ready.complete(false), timeoutMs, TimeUnit.MILLISECONDS);
+        ready.whenComplete((isReady, error) -> timeout.cancel(false));
+        return ready;
+    }
+
+    private void poll(long delayMs) {
+        check();
+        if (!ready.isDone()) {
+            final long nextDelayMs = delayMs == 0 ? initialDelayMs : Math.min(delayMs * 2, maxDelayMs);
+            SCHEDULER.schedule(() -> CHECKER.execute(() -> poll(nextDelayMs)), nextDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void check() {
+        final Callable<Boolean> check = this.check;
+        if (check == null || ready.isDone() || !checking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lastCheck.set(System.currentTimeMillis());
+            if (check.call()) {
+                ready.complete(true);
+            }
+        } catch (Exception ignored) {
+            // agent is not ready yet
+        } finally {
+            checking.set(false);
+        }
+    }
+}
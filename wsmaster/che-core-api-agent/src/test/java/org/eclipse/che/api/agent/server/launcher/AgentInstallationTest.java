@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.agent.server.launcher;
+
+import org.eclipse.che.api.core.util.LineConsumer;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link AgentInstallation}.
+ */
+public class AgentInstallationTest {
+    private static final String MARKER = "echo '" + AgentInstallation.INSTALLED_MARKER + "'";
+
+    @Test
+    public void shouldPrintMarkerBeforeLastCommand() throws Exception {
+        assertEquals(AgentInstallation.markScript("apt-get install foo\nfoo --run\n"),
+                     "apt-get install foo\n" + MARKER + "\nfoo --run\n");
+    }
+
+    @Test
+    public void shouldPrintMarkerBeforeLastCommandWhichSpansSeveralLines() throws Exception {
+        assertEquals(AgentInstallation.markScript("apt-get install foo\nfoo --port 22 \\\n    --run"),
+                     "apt-get install foo\n" + MARKER + "\nfoo --port 22 \\\n    --run");
+    }
+
+    @Test
+    public void shouldPrintMarkerBeforeRunCommand() throws Exception {
+        assertEquals(AgentInstallation.markScript("apt-get install foo", "foo --run"),
+                     "apt-get install foo\n" + MARKER + "\nfoo --run");
+    }
+
+    @Test
+    public void shouldFinishInstallationWhenMarkerIsPrinted() throws Exception {
+        final AgentInstallation installation = new AgentInstallation();
+        final LineConsumer output = installation.getOutputConsumer();
+        final CountDownLatch installed = awaitInBackground(installation, new CompletableFuture<>());
+
+        output.writeLine("Setting up foo");
+        assertFalse(installed.await(100, TimeUnit.MILLISECONDS));
+
+        output.writeLine(AgentInstallation.INSTALLED_MARKER);
+        assertTrue(installed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldFinishInstallationWhenScriptTerminates() throws Exception {
+        final AgentInstallation installation = new AgentInstallation();
+        final CountDownLatch installed = awaitInBackground(installation, new CompletableFuture<>());
+
+        installation.getOutputConsumer().close();
+
+        assertTrue(installed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldFinishInstallationWhenAgentIsReady() throws Exception {
+        final AgentInstallation installation = new AgentInstallation();
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+        final CountDownLatch installed = awaitInBackground(installation, ready);
+
+        ready.complete(null);
+
+        assertTrue(installed.await(5, TimeUnit.SECONDS));
+    }
+
+    private static CountDownLatch awaitInBackground(AgentInstallation installation, CompletableFuture<?> ready) {
+        final CountDownLatch installed = new CountDownLatch(1);
+        final Thread thread = new Thread(() -> {
+            try {
+                installation.await(ready);
+                installed.countDown();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return installed;
+    }
+}
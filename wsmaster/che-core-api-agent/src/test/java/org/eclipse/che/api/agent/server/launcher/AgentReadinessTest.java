@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.agent.server.launcher;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link AgentReadiness}.
+ */
+public class AgentReadinessTest {
+
+    @Test
+    public void shouldBeReadyAfterFirstSuccessfulCheck() throws Exception {
+        final AtomicInteger checks = new AtomicInteger();
+
+        final boolean ready = new AgentReadiness(1, 10).whenReady(() -> checks.incrementAndGet() == 3, 5000).get();
+
+        assertTrue(ready);
+        assertEquals(checks.get(), 3);
+    }
+
+    @Test
+    public void shouldNotBeReadyWhenCheckFailsUntilTimeout() throws Exception {
+        final boolean ready = new AgentReadiness(1, 10).whenReady(() -> {
+            throw new IllegalStateException("not ready");
+        }, 200).get();
+
+        assertFalse(ready);
+    }
+
+    @Test
+    public void shouldNotBlockCallerWhileAgentIsNotReady() throws Exception {
+        final CountDownLatch unblock = new CountDownLatch(1);
+
+        final CompletableFuture<Boolean> ready = new AgentReadiness(1, 10).whenReady(() -> unblock.await(30, TimeUnit.SECONDS), 30_000);
+
+        assertFalse(ready.isDone());
+        unblock.countDown();
+        assertTrue(ready.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldNotBeBlockedByChecksOfOtherAgents() throws Exception {
+        final CountDownLatch unblock = new CountDownLatch(1);
+        final int blockedAgents = Runtime.getRuntime().availableProcessors() + 1;
+        final CountDownLatch blocked = new CountDownLatch(blockedAgents);
+        for (int i = 0; i < blockedAgents; i++) {
+            new AgentReadiness(1, 10).whenReady(() -> {
+                blocked.countDown();
+                return unblock.await(30, TimeUnit.SECONDS);
+            }, 30_000);
+        }
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        try {
+            final long waitStart = System.currentTimeMillis();
+            final boolean ready = new AgentReadiness(1, 10).whenReady(() -> true, 5000).get();
+            final boolean timedOut = !new AgentReadiness(1, 10).whenReady(() -> unblock.await(30, TimeUnit.SECONDS), 200).get();
+
+            assertTrue(ready);
+            assertTrue(timedOut);
+            assertTrue(System.currentTimeMillis() - waitStart < 5000);
+        } finally {
+            unblock.countDown();
+        }
+    }
+
+    @Test
+    public void shouldCheckImmediatelyWhenAgentWritesOutput() throws Exception {
+        final AgentReadiness readiness = new AgentReadiness(60_000, 60_000);
+        final AtomicBoolean started = new AtomicBoolean();
+        final CountDownLatch firstCheck = new CountDownLatch(1);
+        new Thread(() -> {
+            try {
+                firstCheck.await(5, TimeUnit.SECONDS);
+                Thread.sleep(AgentReadiness.MIN_SIGNAL_INTERVAL_MS * 2);
+                started.set(true);
+                readiness.getSignalConsumer().writeLine("Server startup in 1000 ms");
+            } catch (Exception ignored) {
+            }
+        }).start();
+
+        final long waitStart = System.currentTimeMillis();
+        final boolean ready = readiness.whenReady(() -> {
+            firstCheck.countDown();
+            return started.get();
+        }, 30_000).get();
+
+        assertTrue(ready);
+        // polling would check the agent only after a minute
+        assertTrue(System.currentTimeMillis() - waitStart < 10_000);
+    }
+}
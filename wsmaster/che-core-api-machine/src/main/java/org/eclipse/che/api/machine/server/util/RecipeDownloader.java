@@ -10,6 +10,9 @@
  *******************************************************************************/
 package org.eclipse.che.api.machine.server.util;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.MachineConfig;
 import org.eclipse.che.api.core.model.machine.MachineSource;
@@ -21,15 +24,19 @@ import org.slf4j.Logger;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriBuilderException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
+import java.util.Locale;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.HOURS;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -37,16 +44,31 @@ import static org.slf4j.LoggerFactory.getLogger;
  *
  * <p>Adds user token if target url points to current CHE server.
  *
+ * <p>Recipes downloaded by {@link #getRecipe(String) location} over http(s) are cached
+ * when server provides {@code ETag} or {@code Last-Modified} header of the recipe.
+ * Cached recipe is revalidated with conditional request on each download,
+ * so changes of the recipe and access rights to it are still checked by the server,
+ * while content of the unchanged recipe is not transferred again.
+ *
  * @author Alexander Garagatyi
  */
 public class RecipeDownloader {
     private static final Logger LOG = getLogger(RecipeDownloader.class);
 
-    private final URI apiEndpoint;
+    /** Maximum summary length of the cached recipes. */
+    private static final long MAX_CACHED_RECIPES_LENGTH = 5 * 1024 * 1024;
+
+    private final URI                         apiEndpoint;
+    private final Cache<String, CachedRecipe> recipes;
 
     @Inject
     public RecipeDownloader(@Named("che.api") URI apiEndpoint) {
         this.apiEndpoint = apiEndpoint;
+        this.recipes = CacheBuilder.newBuilder()
+                                   .maximumWeight(MAX_CACHED_RECIPES_LENGTH)
+                                   .weigher((String location, CachedRecipe recipe) -> recipe.content.length())
+                                   .expireAfterAccess(24, HOURS)
+                                   .build();
     }
 
     /**
@@ -114,6 +136,10 @@ public class RecipeDownloader {
                 }
             }
             recipeUrl = targetUriBuilder.build().toURL();
+            final String protocol = recipeUrl.getProtocol().toLowerCase(Locale.ENGLISH);
+            if ("http".equals(protocol) || "https".equals(protocol)) {
+                return fetch(location, recipeUrl);
+            }
             file = IoUtil.downloadFileWithRedirect(null, "recipe", null, recipeUrl);
 
             return IoUtil.readAndCloseQuietly(new FileInputStream(file));
@@ -127,4 +153,64 @@ public class RecipeDownloader {
             }
         }
     }
+
+    /**
+     * Downloads recipe with conditional request when the recipe is cached,
+     * follows redirect the same way as {@link IoUtil#downloadFileWithRedirect(File, String, String, URL)}.
+     */
+    private String fetch(String location, URL recipeUrl) throws IOException {
+        final CachedRecipe cached = recipes.getIfPresent(location);
+        HttpURLConnection conn = openConnection(recipeUrl, cached);
+        try {
+            int status = conn.getResponseCode();
+            if (status == HttpURLConnection.HTTP_MOVED_TEMP || status == HttpURLConnection.HTTP_MOVED_PERM ||
+                status == HttpURLConnection.HTTP_SEE_OTHER) {
+                final String newUrl = conn.getHeaderField("Location");
+                conn.disconnect();
+                conn = openConnection(new URL(newUrl), cached);
+                status = conn.getResponseCode();
+            }
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                return cached.content;
+            }
+            // throws an exception describing the error when status is not successful
+            final String content = IoUtil.readAndCloseQuietly(conn.getInputStream());
+            final String eTag = conn.getHeaderField("ETag");
+            final String lastModified = conn.getHeaderField("Last-Modified");
+            if (eTag != null || lastModified != null) {
+                recipes.put(location, new CachedRecipe(content, eTag, lastModified));
+            } else {
+                recipes.invalidate(location);
+            }
+            return content;
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    private static HttpURLConnection openConnection(URL url, CachedRecipe cached) throws IOException {
+        final HttpURLConnection conn = (HttpURLConnection)url.openConnection();
+        conn.setRequestMethod(HttpMethod.GET);
+        if (cached != null) {
+            if (cached.eTag != null) {
+                conn.setRequestProperty("If-None-Match", cached.eTag);
+            }
+            if (cached.lastModified != null) {
+                conn.setRequestProperty("If-Modified-Since", cached.lastModified);
+            }
+        }
+        return conn;
+    }
+
+    private static class CachedRecipe {
+        final String content;
+        final String eTag;
+        final String lastModified;
+
+        CachedRecipe(String content, String eTag, String lastModified) {
+            this.content = content;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+    }
 }
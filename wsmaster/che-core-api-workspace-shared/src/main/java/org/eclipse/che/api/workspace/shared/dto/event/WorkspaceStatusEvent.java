@@ -22,7 +22,7 @@ import org.eclipse.che.dto.shared.DTO;
 @DTO
 public interface WorkspaceStatusEvent {
     enum EventType {
-        STARTING, RUNNING, STOPPING, STOPPED, ERROR, SNAPSHOT_CREATING, SNAPSHOT_CREATED, SNAPSHOT_CREATION_ERROR
+        QUEUED, STARTING, RUNNING, STOPPING, STOPPED, ERROR, SNAPSHOT_CREATING, SNAPSHOT_CREATED, SNAPSHOT_CREATION_ERROR
     }
 
     EventType getEventType();
@@ -42,4 +42,11 @@ public interface WorkspaceStatusEvent {
     void setError(String error);
 
     WorkspaceStatusEvent withError(String error);
+
+    /** Returns position of the workspace start in the start queue, set only for {@link EventType#QUEUED} events. */
+    Integer getQueuePosition();
+
+    void setQueuePosition(Integer queuePosition);
+
+    WorkspaceStatusEvent withQueuePosition(Integer queuePosition);
 }
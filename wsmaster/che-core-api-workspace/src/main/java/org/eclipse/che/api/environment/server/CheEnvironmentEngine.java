@@ -12,6 +12,8 @@ package org.eclipse.che.api.environment.server;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import org.eclipse.che.api.agent.server.AgentRegistry;
 import org.eclipse.che.api.agent.server.exception.AgentException;
@@ -64,6 +66,7 @@ import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Size;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.slf4j.Logger;
 
 import javax.annotation.PostConstruct;
@@ -73,14 +76,30 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import static java.lang.String.format;
@@ -101,6 +120,17 @@ public class CheEnvironmentEngine {
 
     private static final Logger LOG = getLogger(CheEnvironmentEngine.class);
 
+    /** Maximum number of machines of one environment which are started concurrently. */
+    public static final String MACHINE_START_PARALLELISM_PROPERTY = "che.workspace.machine_start_parallelism";
+    /** Maximum number of machines which are started concurrently by this Che server. */
+    public static final String MACHINE_START_THREADS_PROPERTY     = "che.workspace.machine_start_threads";
+    /** Maximum number of machines which are destroyed concurrently by this Che server. */
+    public static final String MACHINE_DESTROY_THREADS_PROPERTY   = "che.workspace.machine_destroy_threads";
+    /** Time which environment stop waits for destroy of each machine, destroy continues in background after it. */
+    public static final String MACHINE_DESTROY_TIMEOUT_PROPERTY   = "che.workspace.machine_destroy_timeout_ms";
+    /** Default value of {@link #MACHINE_DESTROY_TIMEOUT_PROPERTY}. */
+    public static final long   DEFAULT_MACHINE_DESTROY_TIMEOUT_MS = 60_000;
+
     private final Map<String, EnvironmentHolder> environments;
     private final StripedLocks                   stripedLocks;
     private final File                           machineLogsDir;
@@ -117,7 +147,29 @@ public class CheEnvironmentEngine {
     private final ContainerNameGenerator         containerNameGenerator;
     private final AgentRegistry                  agentRegistry;
 
-    private volatile boolean isPreDestroyInvoked;
+    @com.google.inject.Inject(optional = true)
+    @Named(MACHINE_START_PARALLELISM_PROPERTY)
+    private int machineStartParallelism = 3;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(MACHINE_START_THREADS_PROPERTY)
+    private int machineStartThreads = 20;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(MACHINE_DESTROY_THREADS_PROPERTY)
+    private int machineDestroyThreads = 20;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(MACHINE_DESTROY_TIMEOUT_PROPERTY)
+    private long machineDestroyTimeoutMs = DEFAULT_MACHINE_DESTROY_TIMEOUT_MS;
+
+    private final AtomicLong environmentStops       = new AtomicLong();
+    private final AtomicLong environmentStopsTimeMs = new AtomicLong();
+    private final AtomicLong environmentStopMaxMs   = new AtomicLong();
+
+    private volatile boolean         isPreDestroyInvoked;
+    private volatile ExecutorService machineStartExecutor;
+    private volatile ExecutorService machineDestroyExecutor;
 
     @Inject
     public CheEnvironmentEngine(SnapshotDao snapshotDao,
@@ -273,10 +325,34 @@ public class CheEnvironmentEngine {
      * @throws EnvironmentNotRunningException
      *         when environment is not running
      * @throws ServerException
-     *         if other error occurs
+     *         if some machine is not destroyed in time or other error occurs
+     * @see #stop(String, boolean)
      */
     public void stop(String workspaceId) throws EnvironmentNotRunningException,
                                                 ServerException {
+        stop(workspaceId, false);
+    }
+
+    /**
+     * Stops running environment of specified workspace.
+     *
+     * <p>Machines of the environment are destroyed concurrently, network of the environment
+     * is removed when all the machines are destroyed. Stop waits for destroy of each machine
+     * at most {@value #DEFAULT_MACHINE_DESTROY_TIMEOUT_MS} ms by default, see {@link #MACHINE_DESTROY_TIMEOUT_PROPERTY}.
+     * Machine which destroy is not started in this time, because the destroy threads are busy, is destroyed by
+     * the caller. If some machine is not destroyed in time, its destroy continues in background and stop fails.
+     *
+     * @param workspaceId
+     *         ID of workspace that owns environment
+     * @param force
+     *         if true stop doesn't wait for machines destroy, e.g. when server is stopping
+     * @throws EnvironmentNotRunningException
+     *         when environment is not running
+     * @throws ServerException
+     *         if some machine is not destroyed in time or other error occurs
+     */
+    public void stop(String workspaceId, boolean force) throws EnvironmentNotRunningException,
+                                                               ServerException {
         List<Instance> machinesCopy = null;
         EnvironmentHolder environmentHolder;
         try (StripedLocks.WriteLock lock = stripedLocks.acquireWriteLock(workspaceId)) {
@@ -295,10 +371,26 @@ public class CheEnvironmentEngine {
 
         // long operation - perform out of lock
         if (machinesCopy != null) {
-            destroyEnvironment(environmentHolder.networkId, machinesCopy);
+            destroyEnvironment(workspaceId, environmentHolder.networkId, machinesCopy, force);
         }
     }
 
+    /** Returns number of environment stops with all the machines destroyed. */
+    public long getEnvironmentStops() {
+        return environmentStops.get();
+    }
+
+    /** Returns average duration of environment stop in milliseconds, including machines and network destroy. */
+    public long getEnvironmentStopAverageMs() {
+        final long stops = environmentStops.get();
+        return stops == 0 ? 0 : environmentStopsTimeMs.get() / stops;
+    }
+
+    /** Returns maximum duration of environment stop in milliseconds, including machines and network destroy. */
+    public long getEnvironmentStopMaxMs() {
+        return environmentStopMaxMs.get();
+    }
+
     /**
      * Starts machine in running environment.
      *
@@ -541,11 +633,11 @@ public class CheEnvironmentEngine {
                   workspaceId,
                   environment);
 
-        List<String> servicesOrder = startStrategy.order(environment);
+        List<List<String>> startLevels = startStrategy.orderByLevels(environment);
 
         normalizeNames(environment);
 
-        EnvironmentHolder environmentHolder = new EnvironmentHolder(servicesOrder,
+        EnvironmentHolder environmentHolder = new EnvironmentHolder(startLevels,
                                                                     environment,
                                                                     messageConsumer,
                                                                     EnvStatus.STARTING,
@@ -722,6 +814,11 @@ public class CheEnvironmentEngine {
 
     /**
      * Starts all machine from machine queue of environment.
+     *
+     * <p>Machines are started level by level of dependency graph, machines of the same level
+     * don't depend on each other and are started concurrently, at most {@value #MACHINE_START_PARALLELISM_PROPERTY}
+     * machines of the environment at once. If start of any machine fails, machines of the level which are being started
+     * are awaited and then all the machines of the environment are destroyed.
      */
     private void startEnvironmentQueue(String namespace,
                                        String workspaceId,
@@ -729,11 +826,12 @@ public class CheEnvironmentEngine {
                                        String networkId,
                                        boolean recover)
             throws ServerException {
-        // Starting all machines in environment one by one by getting configs
-        // from the corresponding starting queue.
-        // Config will be null only if there are no machines left in the queue
+        // Starting all machines in environment level by level by getting names of machines
+        // from the corresponding start levels, start queue contains machines which are not started yet.
         String envName;
         MessageConsumer<MachineLogMessage> envLogger;
+        List<List<String>> startLevels;
+        Map<String, CheServiceImpl> services;
         try (StripedLocks.ReadLock lock = stripedLocks.acquireReadLock(workspaceId)) {
             EnvironmentHolder environmentHolder = environments.get(workspaceId);
             if (environmentHolder == null) {
@@ -741,120 +839,42 @@ public class CheEnvironmentEngine {
             }
             envName = environmentHolder.name;
             envLogger = environmentHolder.logger;
+            startLevels = environmentHolder.startLevels;
+            services = new HashMap<>(environmentHolder.environment.getServices());
         }
 
         try {
             machineProvider.createNetwork(networkId);
 
-            String machineName = queuePeekOrFail(workspaceId);
-            while (machineName != null) {
-                boolean isDev = devMachineName.equals(machineName);
-                // Environment start is failed when any machine start is failed, so if any error
-                // occurs during machine creation then environment start fail is reported and
-                // start resources such as queue and descriptor must be cleaned up
-                String creator = EnvironmentContext.getCurrent().getSubject().getUserId();
-
-                CheServiceImpl service;
-                try (StripedLocks.ReadLock lock = stripedLocks.acquireReadLock(workspaceId)) {
-                    EnvironmentHolder environmentHolder = environments.get(workspaceId);
-                    if (environmentHolder == null) {
-                        throw new ServerException("Environment start is interrupted.");
-                    }
-                    service = environmentHolder.environment.getServices().get(machineName);
-                }
-                // should not happen
-                if (service == null) {
-                    LOG.error("Start of machine with name {} in workspace {} failed. Machine not found in start queue",
-                              machineName, workspaceId);
-                    throw new ServerException(
-                            format("Environment of workspace with ID '%s' failed due to internal error", workspaceId));
-                }
-
-                final String finalMachineName = machineName;
-                // needed to reuse startInstance method and
-                // create machine instances by different implementation-specific providers
-                MachineStarter machineStarter = (machineLogger, machineSource) -> {
-                    CheServiceImpl serviceWithNormalizedSource = normalizeServiceSource(service, machineSource);
-                    return machineProvider.startService(namespace,
-                                                        workspaceId,
-                                                        envName,
-                                                        finalMachineName,
-                                                        isDev,
-                                                        networkId,
-                                                        serviceWithNormalizedSource,
-                                                        machineLogger);
-                };
-
-                MachineImpl machine =
-                        MachineImpl.builder()
-                                   .setConfig(MachineConfigImpl.builder()
-                                                               .setDev(isDev)
-                                                               .setLimits(new MachineLimitsImpl(
-                                                                       bytesToMB(service.getMemLimit())))
-                                                               .setType("docker")
-                                                               .setName(machineName)
-                                                               .setEnvVariables(service.getEnvironment())
-                                                               .build())
-                                   .setId(service.getId())
-                                   .setWorkspaceId(workspaceId)
-                                   .setStatus(MachineStatus.CREATING)
-                                   .setEnvName(envName)
-                                   .setOwner(creator)
-                                   .build();
-
-                Instance instance = startInstance(recover,
-                                                  envLogger,
-                                                  machine,
-                                                  machineStarter);
-
-                // Machine destroying is an expensive operation which must be
-                // performed outside of the lock, this section checks if
-                // the environment wasn't stopped while it is starting and sets
-                // polled flag to true if the environment wasn't stopped.
-                // Also polls the proceeded machine configuration from the queue
-                boolean queuePolled = false;
-                try (StripedLocks.WriteLock lock = stripedLocks.acquireWriteLock(workspaceId)) {
-                    ensurePreDestroyIsNotExecuted();
-                    EnvironmentHolder environmentHolder = environments.get(workspaceId);
-                    if (environmentHolder != null) {
-                        final Queue<String> queue = environmentHolder.startQueue;
-                        if (queue != null) {
-                            queue.poll();
-                            queuePolled = true;
-                        }
-                    }
-                }
+            // images of all the machines are pulled or built concurrently before machines start,
+            // snapshots are resolved on machine start so recovered environment is prepared there
+            if (!recover) {
+                machineProvider.prepareImages(workspaceId, services, envLogger);
+            }
 
-                // If machine config is not polled from the queue
-                // then environment was stopped and newly created machine
-                // must be destroyed
-                if (!queuePolled) {
-                    try {
-                        eventService.publish(newDto(MachineStatusEvent.class)
-                                                     .withEventType(MachineStatusEvent.EventType.DESTROYING)
-                                                     .withDev(isDev)
-                                                     .withMachineName(machineName)
-                                                     .withMachineId(instance.getId())
-                                                     .withWorkspaceId(workspaceId));
-
-                        instance.destroy();
-
-                        removeMachine(workspaceId, instance.getId());
-
-                        eventService.publish(newDto(MachineStatusEvent.class)
-                                                     .withEventType(MachineStatusEvent.EventType.DESTROYED)
-                                                     .withDev(isDev)
-                                                     .withMachineName(machineName)
-                                                     .withMachineId(instance.getId())
-                                                     .withWorkspaceId(workspaceId));
-                    } catch (MachineException e) {
-                        LOG.error(e.getLocalizedMessage(), e);
-                    }
-                    throw new ServerException("Workspace '" + workspaceId +
-                                              "' start interrupted. Workspace stopped before all its machines started");
+            // Environment start is failed when any machine start is failed, so if any error
+            // occurs during machine creation then environment start fail is reported and
+            // start resources such as queue and descriptor must be cleaned up
+            String creator = EnvironmentContext.getCurrent().getSubject().getUserId();
+
+            for (List<String> level : startLevels) {
+                ensureStartIsNotInterrupted(workspaceId);
+                List<Callable<Void>> starts = new ArrayList<>(level.size());
+                for (String machineName : level) {
+                    starts.add(() -> {
+                        startQueuedMachine(namespace,
+                                           workspaceId,
+                                           envName,
+                                           envLogger,
+                                           machineName,
+                                           devMachineName.equals(machineName),
+                                           networkId,
+                                           creator,
+                                           recover);
+                        return null;
+                    });
                 }
-
-                machineName = queuePeekOrFail(workspaceId);
+                startConcurrently(starts);
             }
         } catch (RuntimeException | ServerException e) {
             EnvironmentHolder env;
@@ -863,14 +883,219 @@ public class CheEnvironmentEngine {
             }
 
             try {
-                destroyEnvironment(env.networkId, env.machines);
+                destroyEnvironment(workspaceId, env.networkId, env.machines, false);
             } catch (Exception remEx) {
                 LOG.error(remEx.getLocalizedMessage(), remEx);
             }
             throw new ServerException(e.getLocalizedMessage(), e);
+        } finally {
+            if (!recover) {
+                try {
+                    machineProvider.removePreparedImages(workspaceId);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs given machine starts, at most {@value #MACHINE_START_PARALLELISM_PROPERTY} at once,
+     * and waits until all of them are finished. Not yet started machines are skipped after the first failure.
+     *
+     * @throws ServerException
+     *         when start of any machine fails
+     */
+    private void startConcurrently(List<Callable<Void>> starts) throws ServerException {
+        if (starts.size() == 1 || machineStartParallelism <= 1) {
+            for (Callable<Void> start : starts) {
+                callStart(start);
+            }
+            return;
+        }
+        Semaphore permits = new Semaphore(machineStartParallelism);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<Void>> futures = new ArrayList<>(starts.size());
+        Exception failure = null;
+        try {
+            for (Callable<Void> start : starts) {
+                permits.acquire();
+                if (failed.get()) {
+                    permits.release();
+                    break;
+                }
+                futures.add(getMachineStartExecutor().submit(ThreadLocalPropagateContext.wrap(() -> {
+                    try {
+                        return start.call();
+                    } catch (Exception e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        permits.release();
+                    }
+                })));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new ServerException("Start of environment machines was interrupted");
+        }
+        // machines which are being started must be awaited, otherwise they can't be destroyed on failure
+        for (Future<Void> future : futures) {
+            try {
+                Uninterruptibles.getUninterruptibly(future);
+            } catch (ExecutionException e) {
+                if (failure == null && e.getCause() instanceof Exception) {
+                    failure = (Exception)e.getCause();
+                }
+            }
+        }
+        if (failure != null) {
+            throw asServerException(failure);
+        }
+    }
+
+    private static void callStart(Callable<Void> start) throws ServerException {
+        try {
+            start.call();
+        } catch (Exception e) {
+            throw asServerException(e);
+        }
+    }
+
+    private static ServerException asServerException(Exception e) {
+        return e instanceof ServerException ? (ServerException)e : new ServerException(e.getLocalizedMessage(), e);
+    }
+
+    /**
+     * Starts machine of environment and removes it from the start queue of environment.
+     * If environment was stopped during machine start, the machine is destroyed.
+     */
+    private void startQueuedMachine(String namespace,
+                                    String workspaceId,
+                                    String envName,
+                                    MessageConsumer<MachineLogMessage> envLogger,
+                                    String machineName,
+                                    boolean isDev,
+                                    String networkId,
+                                    String creator,
+                                    boolean recover) throws ServerException {
+        CheServiceImpl service;
+        try (StripedLocks.ReadLock lock = stripedLocks.acquireReadLock(workspaceId)) {
+            EnvironmentHolder environmentHolder = environments.get(workspaceId);
+            if (environmentHolder == null) {
+                throw new ServerException("Environment start is interrupted.");
+            }
+            service = environmentHolder.environment.getServices().get(machineName);
+        }
+        // should not happen
+        if (service == null) {
+            LOG.error("Start of machine with name {} in workspace {} failed. Machine not found in start queue",
+                      machineName, workspaceId);
+            throw new ServerException(
+                    format("Environment of workspace with ID '%s' failed due to internal error", workspaceId));
+        }
+
+        // needed to reuse startInstance method and
+        // create machine instances by different implementation-specific providers
+        MachineStarter machineStarter = (machineLogger, machineSource) -> {
+            CheServiceImpl serviceWithNormalizedSource = normalizeServiceSource(service, machineSource);
+            return machineProvider.startService(namespace,
+                                                workspaceId,
+                                                envName,
+                                                machineName,
+                                                isDev,
+                                                networkId,
+                                                serviceWithNormalizedSource,
+                                                machineLogger);
+        };
+
+        MachineImpl machine =
+                MachineImpl.builder()
+                           .setConfig(MachineConfigImpl.builder()
+                                                       .setDev(isDev)
+                                                       .setLimits(new MachineLimitsImpl(
+                                                               bytesToMB(service.getMemLimit())))
+                                                       .setType("docker")
+                                                       .setName(machineName)
+                                                       .setEnvVariables(service.getEnvironment())
+                                                       .build())
+                           .setId(service.getId())
+                           .setWorkspaceId(workspaceId)
+                           .setStatus(MachineStatus.CREATING)
+                           .setEnvName(envName)
+                           .setOwner(creator)
+                           .build();
+
+        Instance instance = startInstance(recover,
+                                          envLogger,
+                                          machine,
+                                          machineStarter);
+
+        // Machine destroying is an expensive operation which must be
+        // performed outside of the lock, this section checks if
+        // the environment wasn't stopped while it is starting and sets
+        // polled flag to true if the environment wasn't stopped.
+        // Also removes the proceeded machine from the queue
+        boolean queuePolled = false;
+        try (StripedLocks.WriteLock lock = stripedLocks.acquireWriteLock(workspaceId)) {
+            ensurePreDestroyIsNotExecuted();
+            EnvironmentHolder environmentHolder = environments.get(workspaceId);
+            if (environmentHolder != null) {
+                final Queue<String> queue = environmentHolder.startQueue;
+                if (queue != null) {
+                    queue.remove(machineName);
+                    queuePolled = true;
+                }
+            }
+        }
+
+        // If machine is not polled from the queue
+        // then environment was stopped and newly created machine
+        // must be destroyed
+        if (!queuePolled) {
+            try {
+                eventService.publish(newDto(MachineStatusEvent.class)
+                                             .withEventType(MachineStatusEvent.EventType.DESTROYING)
+                                             .withDev(isDev)
+                                             .withMachineName(machineName)
+                                             .withMachineId(instance.getId())
+                                             .withWorkspaceId(workspaceId));
+
+                instance.destroy();
+
+                removeMachine(workspaceId, instance.getId());
+
+                eventService.publish(newDto(MachineStatusEvent.class)
+                                             .withEventType(MachineStatusEvent.EventType.DESTROYED)
+                                             .withDev(isDev)
+                                             .withMachineName(machineName)
+                                             .withMachineId(instance.getId())
+                                             .withWorkspaceId(workspaceId));
+            } catch (MachineException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            throw new ServerException("Workspace '" + workspaceId +
+                                      "' start interrupted. Workspace stopped before all its machines started");
         }
     }
 
+    private ExecutorService getMachineStartExecutor() {
+        ExecutorService executor = machineStartExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = machineStartExecutor;
+                if (executor == null) {
+                    machineStartExecutor = executor =
+                            Executors.newFixedThreadPool(machineStartThreads,
+                                                         new ThreadFactoryBuilder().setNameFormat("CheEnvironmentEngine-%d")
+                                                                                   .setDaemon(true)
+                                                                                   .build());
+                }
+            }
+        }
+        return executor;
+    }
+
     private Instance startInstance(boolean recover,
                                    MessageConsumer<MachineLogMessage> environmentLogger,
                                    MachineImpl machine,
@@ -1070,21 +1295,15 @@ public class CheEnvironmentEngine {
     }
 
     /**
-     * Gets head config from the queue associated with the given {@code workspaceId}.
-     *
-     * <p>Note that this method won't actually poll the queue.
-     *
-     * <p>Fails if environment start was interrupted by stop(queue doesn't exist).
+     * Fails if environment start was interrupted by stop(queue doesn't exist).
      *
-     * @return machine config which is in the queue head, or null
-     * if there are no machine configs left
      * @throws ServerException
      *         if queue doesn't exist which means that {@link #stop(String)} executed
      *         before all the machines started
      * @throws ServerException
-     *         if pre destroy has been invoked before peek config retrieved
+     *         if pre destroy has been invoked
      */
-    private String queuePeekOrFail(String workspaceId) throws ServerException {
+    private void ensureStartIsNotInterrupted(String workspaceId) throws ServerException {
         try (StripedLocks.ReadLock lock = stripedLocks.acquireReadLock(workspaceId)) {
             ensurePreDestroyIsNotExecuted();
             EnvironmentHolder environmentHolder = environments.get(workspaceId);
@@ -1092,25 +1311,96 @@ public class CheEnvironmentEngine {
                 throw new ServerException("Workspace " + workspaceId +
                                           " start interrupted. Workspace was stopped before all its machines were started");
             }
-            return environmentHolder.startQueue.peek();
         }
     }
 
     /**
-     * Destroys provided machines and associated network.
+     * Destroys provided machines concurrently, then removes associated network.
+     *
+     * @param force
+     *         if true returns immediately, machines and network are destroyed in background
+     * @throws ServerException
+     *         if some machine is not destroyed in {@link #MACHINE_DESTROY_TIMEOUT_PROPERTY},
+     *         in this case network is removed in background when all the machines are destroyed
      */
-    private void destroyEnvironment(String networkId,
-                                    List<Instance> machines) {
+    private void destroyEnvironment(String workspaceId,
+                                    String networkId,
+                                    List<Instance> machines,
+                                    boolean force) throws ServerException {
+        final long stopStart = System.currentTimeMillis();
+        final List<MachineDestroy> destroys = new ArrayList<>(machines.size());
         for (Instance machine : machines) {
+            final MachineDestroy destroy = new MachineDestroy(machine);
             try {
-                destroyMachine(machine);
-            } catch (RuntimeException | MachineException ex) {
-                LOG.error(format("Could not destroy machine '%s' of workspace '%s'",
-                                 machine.getId(),
-                                 machine.getWorkspaceId()),
-                          ex);
+                getMachineDestroyExecutor().execute(ThreadLocalPropagateContext.wrap(destroy));
+            } catch (RejectedExecutionException x) {
+                // server is stopping
+                destroy.run();
+            }
+            destroys.add(destroy);
+        }
+        final CompletableFuture<Void> networkDestroy =
+                CompletableFuture.allOf(destroys.stream()
+                                                .map(destroy -> destroy.done)
+                                                .toArray(CompletableFuture[]::new))
+                                 .thenRun(() -> {
+                                     destroyNetwork(networkId);
+                                     final long stopTime = System.currentTimeMillis() - stopStart;
+                                     environmentStops.incrementAndGet();
+                                     environmentStopsTimeMs.addAndGet(stopTime);
+                                     environmentStopMaxMs.accumulateAndGet(stopTime, Math::max);
+                                     LOG.info("Environment of workspace '{}' with {} machines is destroyed in {} ms",
+                                              workspaceId,
+                                              machines.size(),
+                                              stopTime);
+                                 });
+        if (force) {
+            return;
+        }
+
+        final List<String> notDestroyed = new ArrayList<>();
+        try {
+            for (MachineDestroy destroy : destroys) {
+                if (!destroy.await(machineDestroyTimeoutMs)) {
+                    notDestroyed.add(destroy.machine.getConfig().getName());
+                }
+            }
+            if (notDestroyed.isEmpty()) {
+                networkDestroy.get(machineDestroyTimeoutMs, TimeUnit.MILLISECONDS);
             }
+        } catch (TimeoutException e) {
+            LOG.warn("Network of workspace '{}' is not removed in {} ms, removal continues in background",
+                     workspaceId,
+                     machineDestroyTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException(format("Interrupted while waiting for destroy of environment of workspace '%s'",
+                                             workspaceId));
+        } catch (ExecutionException e) {
+            // network destroy errors are logged by destroyNetwork
+            LOG.error(e.getCause().getLocalizedMessage(), e.getCause());
+        }
+        if (!notDestroyed.isEmpty()) {
+            throw new ServerException(format("Machines %s of workspace '%s' are not destroyed in %d ms, " +
+                                             "destroy continues in background",
+                                             notDestroyed,
+                                             workspaceId,
+                                             machineDestroyTimeoutMs));
+        }
+    }
+
+    private void destroyMachineQuietly(Instance machine) {
+        try {
+            destroyMachine(machine);
+        } catch (RuntimeException | MachineException ex) {
+            LOG.error(format("Could not destroy machine '%s' of workspace '%s'",
+                             machine.getId(),
+                             machine.getWorkspaceId()),
+                      ex);
         }
+    }
+
+    private void destroyNetwork(String networkId) {
         try {
             machineProvider.destroyNetwork(networkId);
         } catch (RuntimeException | ServerException netExc) {
@@ -1118,6 +1408,29 @@ public class CheEnvironmentEngine {
         }
     }
 
+    private ExecutorService getMachineDestroyExecutor() {
+        ExecutorService executor = machineDestroyExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = machineDestroyExecutor;
+                if (executor == null) {
+                    final ThreadPoolExecutor pool =
+                            new ThreadPoolExecutor(machineDestroyThreads,
+                                                   machineDestroyThreads,
+                                                   60L,
+                                                   TimeUnit.SECONDS,
+                                                   new LinkedBlockingQueue<>(),
+                                                   new ThreadFactoryBuilder().setNameFormat("CheEnvironmentEngine-destroy-%d")
+                                                                             .setDaemon(true)
+                                                                             .build());
+                    pool.allowCoreThreadTimeOut(true);
+                    machineDestroyExecutor = executor = pool;
+                }
+            }
+        }
+        return executor;
+    }
+
     private void destroyMachine(Instance machine) throws MachineException {
         eventService.publish(newDto(MachineStatusEvent.class)
                                      .withEventType(MachineStatusEvent.EventType.DESTROYING)
@@ -1153,6 +1466,15 @@ public class CheEnvironmentEngine {
     @SuppressWarnings("unused")
     void cleanup() {
         isPreDestroyInvoked = true;
+        ExecutorService executor = machineStartExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        // running destroys are not interrupted, new ones are performed by the caller
+        executor = machineDestroyExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
         final java.io.File[] files = machineLogsDir.listFiles();
         if (files != null && files.length > 0) {
             for (java.io.File f : files) {
@@ -1242,8 +1564,72 @@ public class CheEnvironmentEngine {
         STOPPING
     }
 
+    /**
+     * Destroy of the machine which is completed in the limited time since it is started,
+     * it is performed either by the destroy executor or, if it isn't started in time, by the waiting thread.
+     */
+    private class MachineDestroy implements Runnable {
+        final Instance                machine;
+        final CompletableFuture<Void> done;
+        final CountDownLatch          started;
+        final AtomicBoolean           claimed;
+
+        volatile long startTime;
+
+        MachineDestroy(Instance machine) {
+            this.machine = machine;
+            this.done = new CompletableFuture<>();
+            this.started = new CountDownLatch(1);
+            this.claimed = new AtomicBoolean();
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                // already performed by another thread
+                return;
+            }
+            startTime = System.currentTimeMillis();
+            started.countDown();
+            try {
+                destroyMachineQuietly(machine);
+            } finally {
+                done.complete(null);
+            }
+        }
+
+        /**
+         * Waits at most {@code timeoutMs} until the destroy is started by the destroy executor,
+         * then performs the destroy in the current thread if it is still queued.
+         * When the destroy is started by the executor, waits at most {@code timeoutMs} since its start.
+         *
+         * @return true if machine is destroyed, false if destroy is not completed in time
+         */
+        boolean await(long timeoutMs) throws InterruptedException {
+            if (!started.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Destroy of machine '{}' of workspace '{}' is not started in {} ms, machine is destroyed by the caller",
+                         machine.getId(),
+                         machine.getWorkspaceId(),
+                         timeoutMs);
+                run();
+                // started is counted down right after the destroy is claimed
+                started.await();
+            }
+            try {
+                done.get(Math.max(startTime + timeoutMs - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException e) {
+                // done is never completed exceptionally, destroy errors are logged by the destroy itself
+                return true;
+            }
+        }
+    }
+
     private static class EnvironmentHolder {
         final Queue<String>                      startQueue;
+        final List<List<String>>                 startLevels;
         final CheServicesEnvironmentImpl         environment;
         final MessageConsumer<MachineLogMessage> logger;
         final String                             name;
@@ -1252,13 +1638,15 @@ public class CheEnvironmentEngine {
         List<Instance> machines;
         EnvStatus      status;
 
-        EnvironmentHolder(List<String> startQueue,
+        EnvironmentHolder(List<List<String>> startLevels,
                           CheServicesEnvironmentImpl environment,
                           MessageConsumer<MachineLogMessage> envLogger,
                           EnvStatus envStatus,
                           String name,
                           String networkId) {
-            this.startQueue = new ArrayDeque<>(startQueue);
+            this.startLevels = startLevels;
+            this.startQueue = new ConcurrentLinkedQueue<>();
+            startLevels.forEach(this.startQueue::addAll);
             this.machines = new CopyOnWriteArrayList<>();
             this.logger = envLogger;
             this.status = envStatus;
@@ -1269,6 +1657,7 @@ public class CheEnvironmentEngine {
 
         public EnvironmentHolder(EnvironmentHolder environmentHolder) {
             this.startQueue = environmentHolder.startQueue;
+            this.startLevels = environmentHolder.startLevels;
             this.machines = environmentHolder.machines;
             this.logger = environmentHolder.logger;
             this.status = environmentHolder.status;
@@ -16,12 +16,14 @@ import com.google.common.collect.Sets;
 import org.eclipse.che.api.environment.server.model.CheServiceImpl;
 import org.eclipse.che.api.environment.server.model.CheServicesEnvironmentImpl;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -45,6 +47,24 @@ public class DefaultServicesStartStrategy {
         return sortByWeight(weights);
     }
 
+    /**
+     * Resolves groups of machines in an environment which can be started concurrently.
+     *
+     * <p>Machines of each group depend only on machines of the previous groups,
+     * so groups must be started one after another in the returned order,
+     * while machines of the same group don't depend on each other.
+     *
+     * @throws IllegalArgumentException
+     *         if order of machines can not be calculated
+     */
+    public List<List<String>> orderByLevels(CheServicesEnvironmentImpl composeEnvironment) throws IllegalArgumentException {
+        Map<Integer, List<String>> levels = new TreeMap<>();
+        for (Map.Entry<String, Integer> weight : weightMachines(composeEnvironment.getServices()).entrySet()) {
+            levels.computeIfAbsent(weight.getValue(), level -> new ArrayList<>()).add(weight.getKey());
+        }
+        return new ArrayList<>(levels.values());
+    }
+
     /**
      * Returns mapping of names of machines to its weights in dependency graph.
      *
@@ -11,7 +11,10 @@
 package org.eclipse.che.api.environment.server;
 
 import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
 
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.Environment;
@@ -32,30 +35,42 @@ import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.stream.Collectors.toList;
 
 /**
  * Parses {@link Environment} into {@link CheServicesEnvironmentImpl}.
  *
+ * <p>Parsed compose recipes are cached by hash of the recipe content and content type,
+ * so recipe of a popular stack is not parsed on each start of the workspace.
+ *
  * @author Alexander Garagatyi
  */
 public class EnvironmentParser {
     private static final List<String> types = Arrays.asList("compose", "dockerimage", "dockerfile");
 
+    private static final int MAX_PARSED_RECIPES = 500;
+
     // TODO move to container related code
     protected static final String SERVER_CONF_LABEL_PREFIX          = "che:server:";
     protected static final String SERVER_CONF_LABEL_REF_SUFFIX      = ":ref";
     protected static final String SERVER_CONF_LABEL_PROTOCOL_SUFFIX = ":protocol";
     protected static final String SERVER_CONF_LABEL_PATH_SUFFIX     = ":path";
 
-    private final ComposeFileParser composeFileParser;
-    private final RecipeDownloader  recipeDownloader;
+    private final ComposeFileParser                         composeFileParser;
+    private final RecipeDownloader                          recipeDownloader;
+    private final Cache<String, CheServicesEnvironmentImpl> parsedRecipes;
 
     @Inject
     public EnvironmentParser(ComposeFileParser composeFileParser,
                              RecipeDownloader recipeDownloader) {
         this.composeFileParser = composeFileParser;
         this.recipeDownloader = recipeDownloader;
+        this.parsedRecipes = CacheBuilder.newBuilder()
+                                         .maximumSize(MAX_PARSED_RECIPES)
+                                         .expireAfterAccess(24, HOURS)
+                                         .build();
     }
 
     /**
@@ -157,9 +172,15 @@ public class EnvironmentParser {
     private CheServicesEnvironmentImpl parseCompose(EnvironmentRecipe recipe) throws ServerException {
         String recipeContent = getContentOfRecipe(recipe);
 
-        ComposeEnvironmentImpl composeEnvironment = composeFileParser.parse(recipeContent, recipe.getContentType());
-
-        return asCheEnvironment(composeEnvironment);
+        String key = Hashing.sha256().hashString(recipe.getContentType() + '\n' + recipeContent, UTF_8).toString();
+        CheServicesEnvironmentImpl parsed = parsedRecipes.getIfPresent(key);
+        if (parsed == null) {
+            ComposeEnvironmentImpl composeEnvironment = composeFileParser.parse(recipeContent, recipe.getContentType());
+            parsed = asCheEnvironment(composeEnvironment);
+            parsedRecipes.put(key, parsed);
+        }
+        // parsed environment is modified by normalization of machines, so cached one is copied
+        return new CheServicesEnvironmentImpl(parsed);
     }
 
     private CheServicesEnvironmentImpl asCheEnvironment(ComposeEnvironmentImpl composeEnvironment) {
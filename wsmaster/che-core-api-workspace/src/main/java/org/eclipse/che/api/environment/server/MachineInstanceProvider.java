@@ -11,10 +11,14 @@
 package org.eclipse.che.api.environment.server;
 
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.machine.MachineLogMessage;
 import org.eclipse.che.api.core.util.LineConsumer;
+import org.eclipse.che.api.core.util.MessageConsumer;
 import org.eclipse.che.api.environment.server.model.CheServiceImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
 
+import java.util.Map;
+
 /**
  * Starts compose services and networks.
  *
@@ -53,6 +57,38 @@ public interface MachineInstanceProvider {
                           CheServiceImpl service,
                           LineConsumer machineLogger) throws ServerException;
 
+    /**
+     * Prepares images of compose services before start of environment, e.g. pulls or builds them,
+     * so that {@link #startService} doesn't wait for it.
+     *
+     * <p>Default implementation does nothing, images are prepared on service start.
+     *
+     * @param workspaceId
+     *         ID of workspace that owns provided services
+     * @param services
+     *         services of environment mapped by names of machines
+     * @param logger
+     *         consumer of logs of images preparation
+     * @throws ServerException
+     *         if preparation of any image fails
+     */
+    default void prepareImages(String workspaceId,
+                               Map<String, CheServiceImpl> services,
+                               MessageConsumer<MachineLogMessage> logger) throws ServerException {
+    }
+
+    /**
+     * Removes images prepared by {@link #prepareImages} for the workspace which were not used by {@link #startService},
+     * e.g. when environment start fails or is interrupted by workspace stop.
+     *
+     * <p>Default implementation does nothing.
+     *
+     * @param workspaceId
+     *         ID of workspace that owns prepared images
+     */
+    default void removePreparedImages(String workspaceId) {
+    }
+
     /**
      * Creates network for compose services.
      *
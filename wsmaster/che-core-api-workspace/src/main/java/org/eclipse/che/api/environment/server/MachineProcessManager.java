@@ -99,6 +99,22 @@ public class MachineProcessManager {
                                 Command command,
                                 @Nullable String outputChannel)
             throws NotFoundException, MachineException, BadRequestException {
+        return exec(workspaceId, machineId, command, outputChannel, null);
+    }
+
+    /**
+     * Execute a command in machine like {@link #exec(String, String, Command, String)} does,
+     * additionally passing output of the process to the given listener.
+     *
+     * @param outputListener
+     *         receives output lines of the process and is closed when the process terminates
+     */
+    public InstanceProcess exec(String workspaceId,
+                                String machineId,
+                                Command command,
+                                @Nullable String outputChannel,
+                                @Nullable LineConsumer outputListener)
+            throws NotFoundException, MachineException, BadRequestException {
         requiredNotNull(machineId, "Machine ID is required");
         requiredNotNull(command, "Command is required");
         requiredNotNull(command.getCommandLine(), "Command line is required");
@@ -109,7 +125,9 @@ public class MachineProcessManager {
         final InstanceProcess instanceProcess = machine.createProcess(command, outputChannel);
         final int pid = instanceProcess.getPid();
 
-        final LineConsumer processLogger = getProcessLogger(machineId, pid, outputChannel);
+        final LineConsumer processLogger = outputListener == null ?
+                                           getProcessLogger(machineId, pid, outputChannel) :
+                                           new CompositeLineConsumer(getProcessLogger(machineId, pid, outputChannel), outputListener);
 
         executor.execute(ThreadLocalPropagateContext.wrap(() -> {
             try {
@@ -20,6 +20,7 @@ import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.MachineConfig;
 import org.eclipse.che.api.core.model.workspace.Workspace;
@@ -32,6 +33,7 @@ import org.eclipse.che.api.machine.server.model.impl.SnapshotImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
 import org.eclipse.che.api.machine.server.spi.SnapshotDao;
 import org.eclipse.che.api.workspace.server.WorkspaceRuntimes.RuntimeDescriptor;
+import org.eclipse.che.api.workspace.server.WorkspaceRuntimes.WorkspaceState;
 import org.eclipse.che.api.workspace.server.event.WorkspaceCreatedEvent;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
@@ -55,6 +57,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -67,7 +71,9 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyMap;
 import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toSet;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.RUNNING;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STARTING;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
 import static org.eclipse.che.api.workspace.shared.Constants.AUTO_CREATE_SNAPSHOT;
 import static org.eclipse.che.api.workspace.shared.Constants.AUTO_RESTORE_FROM_SNAPSHOT;
@@ -258,6 +264,62 @@ public class WorkspaceManager {
         return workspaces;
     }
 
+    /**
+     * Gets page of workspaces which given user can read.
+     *
+     * <p>Status of the workspace is defined by its runtime which is kept in memory,
+     * so filtering by status is performed by the {@link WorkspaceDao} using ids of
+     * the workspaces which have runtimes, and only workspaces of the requested page
+     * are loaded from the storage.
+     *
+     * <p>Returned workspaces have either {@link WorkspaceStatus#STOPPED} status
+     * or status defined by their runtime instances(if those exist).
+     * Status of a workspace may change after the page is fetched, so workspace
+     * of the page may have status different from the requested one.
+     *
+     * @param user
+     *         the id of the user
+     * @param status
+     *         the status of workspaces to get, or null to get workspaces with any status
+     * @param maxItems
+     *         the maximum number of workspaces to return
+     * @param skipCount
+     *         the number of workspaces to skip
+     * @return the page of workspaces
+     * @throws NullPointerException
+     *         when {@code user} is null
+     * @throws IllegalArgumentException
+     *         when {@code maxItems} or {@code skipCount} is negative
+     * @throws ServerException
+     *         when any server error occurs while getting workspaces
+     */
+    public Page<WorkspaceImpl> getWorkspaces(String user,
+                                             @Nullable WorkspaceStatus status,
+                                             int maxItems,
+                                             long skipCount) throws ServerException {
+        requireNonNull(user, "Required non-null user id");
+        final Page<WorkspaceImpl> page;
+        if (status == null) {
+            page = workspaceDao.getWorkspaces(user, maxItems, skipCount);
+        } else {
+            final Map<String, WorkspaceState> states = runtimes.getWorkspaces();
+            if (status == STOPPED) {
+                page = workspaceDao.getWorkspacesExcept(user, states.keySet(), maxItems, skipCount);
+            } else {
+                final Set<String> ids = states.entrySet()
+                                              .stream()
+                                              .filter(entry -> entry.getValue().getStatus() == status)
+                                              .map(Map.Entry::getKey)
+                                              .collect(toSet());
+                page = workspaceDao.getWorkspaces(user, ids, maxItems, skipCount);
+            }
+        }
+        for (WorkspaceImpl workspace : page.getItems()) {
+            normalizeState(workspace);
+        }
+        return page;
+    }
+
     /**
      * Gets list of workspaces which has given namespace
      *
@@ -462,6 +524,7 @@ public class WorkspaceManager {
     /**
      * Asynchronously stops the workspace,
      * creates a snapshot of it if {@code createSnapshot} is set to true.
+     * Start of the workspace which waits in the start queue is cancelled synchronously.
      *
      * @param workspaceId
      *         the id of the workspace to stop
@@ -480,6 +543,9 @@ public class WorkspaceManager {
                                                                                            ServerException {
         requireNonNull(workspaceId, "Required non-null workspace id");
         final WorkspaceImpl workspace = normalizeState(workspaceDao.get(workspaceId));
+        if (workspace.getStatus() == STARTING && runtimes.cancelQueuedStart(workspaceId)) {
+            return;
+        }
         checkWorkspaceIsRunning(workspace, "stop");
         performAsyncStop(workspace, createSnapshot);
     }
@@ -647,7 +713,14 @@ public class WorkspaceManager {
                                   rmEx.getLocalizedMessage());
                     }
                 }
-                LOG.error(ex.getLocalizedMessage(), ex);
+                if (ex instanceof CancellationException) {
+                    LOG.info("Queued start of workspace '{}:{}' with id '{}' is cancelled",
+                             workspace.getNamespace(),
+                             workspace.getConfig().getName(),
+                             workspace.getId());
+                } else {
+                    LOG.error(ex.getLocalizedMessage(), ex);
+                }
             }
         }));
     }
@@ -12,6 +12,7 @@ package org.eclipse.che.api.workspace.server;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import org.eclipse.che.api.agent.server.AgentRegistry;
 import org.eclipse.che.api.agent.server.exception.AgentException;
@@ -46,25 +47,34 @@ import org.eclipse.che.api.workspace.server.model.impl.ExtendedMachineImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
 import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
 import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent.EventType;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.slf4j.Logger;
 
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.RUNNING;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.SNAPSHOTTING;
 import static org.eclipse.che.api.machine.shared.Constants.ENVIRONMENT_OUTPUT_CHANNEL_TEMPLATE;
@@ -77,9 +87,14 @@ import static org.slf4j.LoggerFactory.getLogger;
  * <p>This component implements {@link WorkspaceStatus} contract.
  *
  * <p>All the operations performed by this component are synchronous.
+ * Except of {@link #startAsync(Workspace, String, boolean)}, starts of which are admitted by
+ * the {@link WorkspaceStartQueue} that limits number of concurrent starts.
  *
- * <p>The implementation is thread-safe and guarded by
- * eagerly initialized readwrite locks produced by {@link StripedLocks}.
+ * <p>The implementation is thread-safe. Changes of workspaces states are guarded by
+ * lazily initialized readwrite locks produced by {@link StripedLocks}, number of stripes
+ * is configured with {@value #LOCK_STRIPES_PROPERTY} property.
+ * States are immutable and published as an immutable snapshot of all the states,
+ * so reading of a state never locks, {@link StateListener listeners} receive each change of a state.
  * The component doesn't expose any api for client-side locking.
  * All the instances produced by this component are copies of the real data.
  *
@@ -96,17 +111,45 @@ public class WorkspaceRuntimes {
 
     private static final Logger LOG = getLogger(WorkspaceRuntimes.class);
 
-    @VisibleForTesting
-    final         Map<String, WorkspaceState> workspaces;
-    private final EventService                eventService;
-    private final StripedLocks                stripedLocks;
-    private final CheEnvironmentEngine        environmentEngine;
-    private final AgentSorter                 agentSorter;
-    private final AgentLauncherFactory        launcherFactory;
-    private final AgentRegistry               agentRegistry;
-    private final ExecutorService             executor;
+    public static final String MAX_STARTS_PROPERTY          = "che.workspace.start_queue.max_starts";
+    public static final String MAX_STARTS_PER_USER_PROPERTY = "che.workspace.start_queue.max_starts_per_user";
+    public static final String MAX_QUEUED_PROPERTY          = "che.workspace.start_queue.max_queued";
+    public static final String LOCK_STRIPES_PROPERTY        = "che.workspace.lock_stripes";
+    public static final String MAX_THREADS_PROPERTY         = "che.workspace.runtimes.max_threads";
+
+    private final EventService         eventService;
+    private final CheEnvironmentEngine environmentEngine;
+    private final AgentSorter          agentSorter;
+    private final AgentLauncherFactory launcherFactory;
+    private final AgentRegistry        agentRegistry;
+    private final List<StateListener>  stateListeners;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(MAX_STARTS_PROPERTY)
+    private int maxStarts = 2 * Runtime.getRuntime().availableProcessors();
+
+    @com.google.inject.Inject(optional = true)
+    @Named(MAX_STARTS_PER_USER_PROPERTY)
+    private int maxStartsPerUser = 5;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(MAX_QUEUED_PROPERTY)
+    private int maxQueued = 100;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(LOCK_STRIPES_PROPERTY)
+    private int lockStripes = 64;
 
-    private volatile boolean isPreDestroyInvoked;
+    @com.google.inject.Inject(optional = true)
+    @Named(MAX_THREADS_PROPERTY)
+    private int maxThreads = 100;
+
+    /** Immutable snapshot of the states, replaced on each change under the {@code this} monitor. */
+    private volatile Map<String, WorkspaceState> workspaces;
+    private volatile StripedLocks                stripedLocks;
+    private volatile WorkspaceStartQueue         startQueue;
+    private volatile ExecutorService             executor;
+    private volatile boolean             isPreDestroyInvoked;
 
     @Inject
     public WorkspaceRuntimes(EventService eventService,
@@ -119,13 +162,8 @@ public class WorkspaceRuntimes {
         this.agentSorter = agentSorter;
         this.launcherFactory = launcherFactory;
         this.agentRegistry = agentRegistry;
-        this.workspaces = new HashMap<>();
-        // 16 - experimental value for stripes count, it comes from default hash map size
-        this.stripedLocks = new StripedLocks(16);
-        executor = Executors.newFixedThreadPool(2 * Runtime.getRuntime().availableProcessors(),
-                                                new ThreadFactoryBuilder().setNameFormat("WorkspaceRuntimes-%d")
-                                                                          .setDaemon(false)
-                                                                          .build());
+        this.workspaces = Collections.emptyMap();
+        this.stateListeners = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -148,10 +186,7 @@ public class WorkspaceRuntimes {
      */
     public RuntimeDescriptor get(String workspaceId) throws NotFoundException,
                                                             ServerException {
-        WorkspaceState workspaceState;
-        try (StripedLocks.ReadLock lock = stripedLocks.acquireReadLock(workspaceId)) {
-            workspaceState = workspaces.get(workspaceId);
-        }
+        final WorkspaceState workspaceState = workspaces.get(workspaceId);
         if (workspaceState == null) {
             throw new NotFoundException("Workspace with id '" + workspaceId + "' is not running.");
         }
@@ -227,6 +262,15 @@ public class WorkspaceRuntimes {
      * Starts the workspace like {@link #start(Workspace, String, boolean)}
      * method does, but asynchronously. Nonetheless synchronously checks that workspace
      * doesn't have runtime and makes it {@link WorkspaceStatus#STARTING}.
+     *
+     * <p>The start is performed when the {@link WorkspaceStartQueue start queue} admits it,
+     * recovery of the workspace is admitted before regular starts.
+     * While the start waits in the queue, its position is published
+     * with {@link EventType#QUEUED} events.
+     *
+     * @throws ConflictException
+     *         when workspace is already running or the start queue is full,
+     *         in the latter case the message contains estimated time for retry
      */
     public Future<RuntimeDescriptor> startAsync(Workspace workspace,
                                                 String envName,
@@ -234,10 +278,20 @@ public class WorkspaceRuntimes {
         final EnvironmentImpl environment = copyEnv(workspace, envName);
         final String workspaceId = workspace.getId();
         initState(workspaceId, workspace.getConfig().getName(), envName);
-        return executor.submit(ThreadLocalPropagateContext.wrap(() -> {
-            doStart(environment, workspaceId, envName, recover);
-            return get(workspaceId);
-        }));
+        try {
+            return getStartQueue().submit(workspaceId,
+                                          workspace.getNamespace(),
+                                          recover ? WorkspaceStartQueue.Priority.HIGH : WorkspaceStartQueue.Priority.NORMAL,
+                                          ThreadLocalPropagateContext.wrap(() -> {
+                                              doStart(environment, workspaceId, envName, recover);
+                                              return get(workspaceId);
+                                          }));
+        } catch (ConflictException x) {
+            try (StripedLocks.WriteLock lock = getStripedLocks().acquireWriteLock(workspaceId)) {
+                setState(workspaceId, null);
+            }
+            throw x;
+        }
     }
 
     /**
@@ -245,7 +299,8 @@ public class WorkspaceRuntimes {
      *
      * <p>Stops environment in an implementation specific way.
      * During the stop of the workspace its runtime is accessible with {@link WorkspaceStatus#STOPPING stopping} status.
-     * Workspace may be stopped only if its status is {@link WorkspaceStatus#RUNNING}.
+     * Workspace may be stopped only if its status is {@link WorkspaceStatus#RUNNING}, or if it is
+     * {@link WorkspaceStatus#STARTING} and its start waits in the queue, see {@link #cancelQueuedStart(String)}.
      *
      * @param workspaceId
      *         identifier of workspace which should be stopped
@@ -255,6 +310,7 @@ public class WorkspaceRuntimes {
      *         when any error occurs during workspace stopping
      * @throws ConflictException
      *         when running workspace status is different from {@link WorkspaceStatus#RUNNING}
+     *         and it is not a queued start
      * @see CheEnvironmentEngine#stop(String)
      * @see WorkspaceStatus#STOPPING
      */
@@ -263,7 +319,10 @@ public class WorkspaceRuntimes {
         // The double check is required as it is still possible to get unlucky timing
         // between locking and stopping workspace.
         ensurePreDestroyIsNotExecuted();
-        try (StripedLocks.WriteLock lock = stripedLocks.acquireWriteLock(workspaceId)) {
+        if (cancelQueuedStart(workspaceId)) {
+            return;
+        }
+        try (StripedLocks.WriteLock lock = getStripedLocks().acquireWriteLock(workspaceId)) {
             ensurePreDestroyIsNotExecuted();
             WorkspaceState workspaceState = workspaces.get(workspaceId);
             if (workspaceState == null) {
@@ -276,7 +335,7 @@ public class WorkspaceRuntimes {
                                workspaceState.status));
             }
 
-            workspaceState.status = WorkspaceStatus.STOPPING;
+            setState(workspaceId, workspaceState.withStatus(WorkspaceStatus.STOPPING));
         }
 
         publishWorkspaceEvent(EventType.STOPPING, workspaceId, null);
@@ -286,8 +345,8 @@ public class WorkspaceRuntimes {
         } catch (ServerException | RuntimeException e) {
             error = e.getLocalizedMessage();
         } finally {
-            try (StripedLocks.WriteLock lock = stripedLocks.acquireWriteLock(workspaceId)) {
-                workspaces.remove(workspaceId);
+            try (StripedLocks.WriteLock lock = getStripedLocks().acquireWriteLock(workspaceId)) {
+                setState(workspaceId, null);
             }
         }
         if (error == null) {
@@ -297,6 +356,31 @@ public class WorkspaceRuntimes {
         }
     }
 
+    /**
+     * Cancels the start of the workspace if it waits in the {@link WorkspaceStartQueue start queue},
+     * the workspace is removed from runtimes and {@link EventType#STOPPED} event is published.
+     * Starts which are already performed are not affected.
+     *
+     * @param workspaceId
+     *         identifier of the starting workspace
+     * @return {@code true} if the start is cancelled, {@code false} if it is not queued
+     */
+    public boolean cancelQueuedStart(String workspaceId) {
+        final WorkspaceStartQueue queue = startQueue;
+        if (queue == null) {
+            return false;
+        }
+        try (StripedLocks.WriteLock lock = getStripedLocks().acquireWriteLock(workspaceId)) {
+            final WorkspaceState workspaceState = workspaces.get(workspaceId);
+            if (workspaceState == null || workspaceState.status != WorkspaceStatus.STARTING || !queue.cancel(workspaceId)) {
+                return false;
+            }
+            setState(workspaceId, null);
+        }
+        publishWorkspaceEvent(EventType.STOPPED, workspaceId, null);
+        return true;
+    }
+
     /**
      * Returns true if workspace was started and its status is
      * {@link WorkspaceStatus#RUNNING running}, {@link WorkspaceStatus#STARTING starting}
@@ -324,9 +408,7 @@ public class WorkspaceRuntimes {
      * @return true if workspace is running, otherwise false
      */
     public boolean hasRuntime(String workspaceId) {
-        try (StripedLocks.ReadLock lock = stripedLocks.acquireReadLock(workspaceId)) {
-            return workspaces.containsKey(workspaceId);
-        }
+        return workspaces.containsKey(workspaceId);
     }
 
     /**
@@ -349,15 +431,13 @@ public class WorkspaceRuntimes {
                                                                      ConflictException,
                                                                      NotFoundException {
 
-        try (StripedLocks.ReadLock lock = stripedLocks.acquireReadLock(workspaceId)) {
-            getRunningState(workspaceId);
-        }
+        getRunningState(workspaceId);
 
         List<String> agents = Collections.singletonList("org.eclipse.che.terminal");
         Instance instance = environmentEngine.startMachine(workspaceId, machineConfig, agents);
         launchAgents(instance, agents);
 
-        try (StripedLocks.WriteLock lock = stripedLocks.acquireWriteLock(workspaceId)) {
+        try (StripedLocks.WriteLock lock = getStripedLocks().acquireWriteLock(workspaceId)) {
             WorkspaceState workspaceState = workspaces.get(workspaceId);
             if (workspaceState == null || workspaceState.status != RUNNING) {
                 try {
@@ -384,8 +464,8 @@ public class WorkspaceRuntimes {
      * @see WorkspaceStatus#SNAPSHOTTING
      */
     public void beginSnapshotting(String workspaceId) throws NotFoundException, ConflictException {
-        try (StripedLocks.WriteLock ignored = stripedLocks.acquireWriteLock(workspaceId)) {
-            getRunningState(workspaceId).status = SNAPSHOTTING;
+        try (StripedLocks.WriteLock ignored = getStripedLocks().acquireWriteLock(workspaceId)) {
+            setState(workspaceId, getRunningState(workspaceId).withStatus(SNAPSHOTTING));
         }
     }
 
@@ -399,10 +479,10 @@ public class WorkspaceRuntimes {
      * @see WorkspaceStatus#SNAPSHOTTING
      */
     public void finishSnapshotting(String workspaceId) {
-        try (StripedLocks.WriteLock ignored = stripedLocks.acquireWriteLock(workspaceId)) {
+        try (StripedLocks.WriteLock ignored = getStripedLocks().acquireWriteLock(workspaceId)) {
             final WorkspaceState state = workspaces.get(workspaceId);
             if (state != null && state.status == SNAPSHOTTING) {
-                state.status = RUNNING;
+                setState(workspaceId, state.withStatus(RUNNING));
             }
         }
     }
@@ -426,11 +506,9 @@ public class WorkspaceRuntimes {
     public void stopMachine(String workspaceId, String machineId) throws NotFoundException,
                                                                          ServerException,
                                                                          ConflictException {
-        try (StripedLocks.ReadLock lock = stripedLocks.acquireReadLock(workspaceId)) {
-            WorkspaceState workspaceState = workspaces.get(workspaceId);
-            if (workspaceState == null || workspaceState.status != RUNNING) {
-                throw new ConflictException(format("Environment of workspace '%s' is not running", workspaceId));
-            }
+        final WorkspaceState workspaceState = workspaces.get(workspaceId);
+        if (workspaceState == null || workspaceState.status != RUNNING) {
+            throw new ConflictException(format("Environment of workspace '%s' is not running", workspaceId));
         }
         environmentEngine.stopMachine(workspaceId, machineId);
     }
@@ -458,11 +536,9 @@ public class WorkspaceRuntimes {
                                                              ServerException,
                                                              ConflictException {
 
-        try (StripedLocks.ReadLock lock = stripedLocks.acquireReadLock(workspaceId)) {
-            WorkspaceState workspaceState = workspaces.get(workspaceId);
-            if (workspaceState == null || !(workspaceState.status == SNAPSHOTTING || workspaceState.status == RUNNING)) {
-                throw new ConflictException(format("Environment of workspace '%s' is not running or snapshotting", workspaceId));
-            }
+        final WorkspaceState workspaceState = workspaces.get(workspaceId);
+        if (workspaceState == null || !(workspaceState.status == SNAPSHOTTING || workspaceState.status == RUNNING)) {
+            throw new ConflictException(format("Environment of workspace '%s' is not running or snapshotting", workspaceId));
         }
         return environmentEngine.saveSnapshot(namespace, workspaceId, machineId);
     }
@@ -498,9 +574,26 @@ public class WorkspaceRuntimes {
 
     /**
      * Returns all workspaces with statuses of its active environment.
+     *
+     * <p>Returned map is an immutable snapshot which is not affected by further changes of the states,
+     * it is not copied on each call.
      */
     public Map<String, WorkspaceState> getWorkspaces() {
-        return new HashMap<>(workspaces);
+        return workspaces;
+    }
+
+    /**
+     * Adds listener which receives each change of the workspaces states.
+     * Listener is called under the lock of the changed workspace,
+     * so it must not perform long running operations.
+     */
+    public void addStateListener(StateListener listener) {
+        stateListeners.add(requireNonNull(listener, "Required non-null listener"));
+    }
+
+    /** Removes listener of the workspaces states changes. */
+    public void removeStateListener(StateListener listener) {
+        stateListeners.remove(listener);
     }
 
     private MessageConsumer<MachineLogMessage> getEnvironmentLogger(String workspaceId) throws ServerException {
@@ -517,14 +610,23 @@ public class WorkspaceRuntimes {
     /**
      * Removes all workspaces from the in-memory storage, while
      * {@link CheEnvironmentEngine} is responsible for environment destroying.
+     * Workspaces which wait in the start queue are not started and become stopped.
      */
     @PreDestroy
     @VisibleForTesting
     void cleanup() {
         isPreDestroyInvoked = true;
 
-        try (StripedLocks.WriteAllLock lock = stripedLocks.acquireWriteAllLock()) {
+        final WorkspaceStartQueue queue = startQueue;
+        final List<String> cancelled = queue == null ? Collections.emptyList() : queue.cancelQueued();
+
+        final ExecutorService executor = getExecutor();
+        try (StripedLocks.WriteAllLock lock = getStripedLocks().acquireWriteAllLock()) {
             for (Map.Entry<String, WorkspaceState> workspace : workspaces.entrySet()) {
+                if (cancelled.contains(workspace.getKey())) {
+                    // environment of the queued start is not started
+                    continue;
+                }
                 if (workspace.getValue().status.equals(RUNNING) ||
                     workspace.getValue().status.equals(WorkspaceStatus.STARTING)) {
                     executor.execute(() -> {
@@ -537,10 +639,15 @@ public class WorkspaceRuntimes {
                 }
             }
 
-            workspaces.clear();
+            for (String workspaceId : workspaces.keySet()) {
+                setState(workspaceId, null);
+            }
 
             executor.shutdown();
         }
+        for (String workspaceId : cancelled) {
+            publishWorkspaceEvent(EventType.STOPPED, workspaceId, null);
+        }
         try {
             if (!executor.awaitTermination(50, TimeUnit.SECONDS)) {
                 executor.shutdownNow();
@@ -554,6 +661,101 @@ public class WorkspaceRuntimes {
         }
     }
 
+    private WorkspaceStartQueue getStartQueue() {
+        WorkspaceStartQueue queue = startQueue;
+        if (queue == null) {
+            synchronized (this) {
+                queue = startQueue;
+                if (queue == null) {
+                    startQueue = queue = new WorkspaceStartQueue(maxStarts,
+                                                                 maxStartsPerUser,
+                                                                 maxQueued,
+                                                                 getExecutor(),
+                                                                 this::publishQueuePosition);
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Executor of starts and stops is created lazily as its size is injected after construction.
+     * Number of threads is limited by {@link #MAX_THREADS_PROPERTY}, when all of them are busy the task
+     * waits in the queue, tasks of this executor never wait for each other.
+     */
+    private ExecutorService getExecutor() {
+        ExecutorService pool = executor;
+        if (pool == null) {
+            synchronized (this) {
+                pool = executor;
+                if (pool == null) {
+                    final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(maxThreads,
+                                                                                 maxThreads,
+                                                                                 60L,
+                                                                                 TimeUnit.SECONDS,
+                                                                                 new LinkedBlockingQueue<>(),
+                                                                                 new ThreadFactoryBuilder()
+                                                                                         .setNameFormat("WorkspaceRuntimes-%d")
+                                                                                         .setDaemon(false)
+                                                                                         .build(),
+                                                                                 (task, rejectedBy) -> {
+                                                                                     throw new RejectedExecutionException(
+                                                                                             "Workspace runtimes are stopped");
+                                                                                 });
+                    threadPool.allowCoreThreadTimeOut(true);
+                    executor = pool = threadPool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /** Locks are created lazily as number of stripes is injected after construction. */
+    private StripedLocks getStripedLocks() {
+        StripedLocks locks = stripedLocks;
+        if (locks == null) {
+            synchronized (this) {
+                locks = stripedLocks;
+                if (locks == null) {
+                    stripedLocks = locks = new StripedLocks(lockStripes);
+                }
+            }
+        }
+        return locks;
+    }
+
+    /**
+     * Publishes new state of the workspace and notifies listeners about the change.
+     * Must be called under the write lock of the workspace.
+     *
+     * @param state
+     *         new state of the workspace, or null to remove the state
+     */
+    private void setState(String workspaceId, @Nullable WorkspaceState state) {
+        final WorkspaceState previous;
+        synchronized (this) {
+            final Map<String, WorkspaceState> updated = new HashMap<>(workspaces);
+            previous = state == null ? updated.remove(workspaceId) : updated.put(workspaceId, state);
+            workspaces = Collections.unmodifiableMap(updated);
+        }
+        if (!Objects.equals(previous, state)) {
+            for (StateListener listener : stateListeners) {
+                try {
+                    listener.onStateChanged(workspaceId, previous, state);
+                } catch (RuntimeException x) {
+                    LOG.error(x.getLocalizedMessage(), x);
+                }
+            }
+        }
+    }
+
+    private void publishQueuePosition(String workspaceId, int position) {
+        eventService.publish(newDto(WorkspaceStatusEvent.class)
+                                     .withEventType(EventType.QUEUED)
+                                     .withWorkspaceId(workspaceId)
+                                     .withQueuePosition(position));
+    }
+
     @VisibleForTesting
     void publishWorkspaceEvent(EventType type, String workspaceId, String error) {
         eventService.publish(newDto(WorkspaceStatusEvent.class)
@@ -581,26 +783,77 @@ public class WorkspaceRuntimes {
         return state;
     }
 
+    /**
+     * Launches agents in the machine respecting dependencies between them.
+     * Agents which don't depend on each other are installed one by one, as their scripts
+     * use the package manager of the machine, while their readiness is awaited concurrently,
+     * launch time of each agent is written to the machine logs.
+     */
     protected void launchAgents(Instance instance, List<String> agents) throws ServerException {
         try {
-            for (AgentKey agentKey : agentSorter.sort(agents)) {
-                LOG.info("Launching '{}' agent at workspace {}", agentKey.getId(), instance.getWorkspaceId());
-
-                Agent agent = agentRegistry.getAgent(agentKey);
-                AgentLauncher launcher = launcherFactory.find(agentKey.getId(), instance.getConfig().getType());
-                launcher.launch(instance, agent);
+            for (List<AgentKey> level : agentSorter.sortByLevels(agents)) {
+                final List<CompletableFuture<Void>> launches = new ArrayList<>(level.size());
+                ServerException failure = null;
+                for (AgentKey agentKey : level) {
+                    try {
+                        launches.add(startAgent(instance, agentKey));
+                    } catch (ServerException e) {
+                        failure = e;
+                        break;
+                    }
+                }
+                // all the started agents of the level are awaited, the first failure is rethrown
+                for (Future<Void> launch : launches) {
+                    try {
+                        Uninterruptibles.getUninterruptibly(launch);
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = e.getCause() instanceof ServerException ? (ServerException)e.getCause()
+                                                                              : new MachineException(e.getCause().getLocalizedMessage(),
+                                                                                                     e.getCause());
+                        }
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
             }
         } catch (AgentException e) {
             throw new MachineException(e.getMessage(), e);
         }
     }
 
+    /** Returns when the agent is installed, the returned future is completed when the agent is ready. */
+    private CompletableFuture<Void> startAgent(Instance instance, AgentKey agentKey) throws ServerException {
+        LOG.info("Launching '{}' agent at workspace {}", agentKey.getId(), instance.getWorkspaceId());
+        final long launchStart = System.currentTimeMillis();
+        final CompletableFuture<Void> ready;
+        try {
+            Agent agent = agentRegistry.getAgent(agentKey);
+            AgentLauncher launcher = launcherFactory.find(agentKey.getId(), instance.getConfig().getType());
+            ready = launcher.start(instance, agent);
+        } catch (AgentException e) {
+            throw new MachineException(e.getMessage(), e);
+        }
+        return ready.whenComplete((result, error) -> {
+            if (error != null) {
+                return;
+            }
+            final long launchTime = System.currentTimeMillis() - launchStart;
+            LOG.info("Agent '{}' is launched at workspace {} in {} ms", agentKey.getId(), instance.getWorkspaceId(), launchTime);
+            try {
+                instance.getLogger().writeLine(format("[AGENT] Agent '%s' is launched in %d ms", agentKey.getId(), launchTime));
+            } catch (IOException ignored) {
+            }
+        });
+    }
+
     /**
      * Initializes workspace in {@link WorkspaceStatus#STARTING} status,
      * saves the state or throws an appropriate exception if the workspace is already initialized.
      */
     private void initState(String workspaceId, String workspaceName, String envName) throws ConflictException, ServerException {
-        try (StripedLocks.WriteLock ignored = stripedLocks.acquireWriteLock(workspaceId)) {
+        try (StripedLocks.WriteLock ignored = getStripedLocks().acquireWriteLock(workspaceId)) {
             ensurePreDestroyIsNotExecuted();
             final WorkspaceState state = workspaces.get(workspaceId);
             if (state != null) {
@@ -608,7 +861,7 @@ public class WorkspaceRuntimes {
                                                    workspaceName,
                                                    state.status));
             }
-            workspaces.put(workspaceId, new WorkspaceState(WorkspaceStatus.STARTING, envName));
+            setState(workspaceId, new WorkspaceState(WorkspaceStatus.STARTING, envName));
         }
     }
 
@@ -626,9 +879,8 @@ public class WorkspaceRuntimes {
                                                               getEnvironmentLogger(workspaceId));
             launchAgents(environment, machines);
 
-            try (StripedLocks.WriteLock lock = stripedLocks.acquireWriteLock(workspaceId)) {
-                WorkspaceState workspaceState = workspaces.get(workspaceId);
-                workspaceState.status = WorkspaceStatus.RUNNING;
+            try (StripedLocks.WriteLock lock = getStripedLocks().acquireWriteLock(workspaceId)) {
+                setState(workspaceId, workspaces.get(workspaceId).withStatus(WorkspaceStatus.RUNNING));
             }
             // Event publication should be performed outside of the lock
             // as it may take some time to notify subscribers
@@ -642,8 +894,8 @@ public class WorkspaceRuntimes {
             }
             String environmentStartError = "Start of environment " + envName +
                                            " failed. Error: " + e.getLocalizedMessage();
-            try (StripedLocks.WriteLock lock = stripedLocks.acquireWriteLock(workspaceId)) {
-                workspaces.remove(workspaceId);
+            try (StripedLocks.WriteLock lock = getStripedLocks().acquireWriteLock(workspaceId)) {
+                setState(workspaceId, null);
             }
             publishWorkspaceEvent(EventType.ERROR,
                                   workspaceId,
@@ -676,15 +928,37 @@ public class WorkspaceRuntimes {
         return new EnvironmentImpl(environment);
     }
 
+    /** Listener of workspaces states changes, changes of the same workspace are received in order. */
+    @FunctionalInterface
+    public interface StateListener {
+        /**
+         * Called when state of the workspace is changed.
+         *
+         * @param workspaceId
+         *         the id of the workspace
+         * @param previous
+         *         the state before the change, or null when the workspace runtime is created
+         * @param current
+         *         the state after the change, or null when the workspace runtime is removed
+         */
+        void onStateChanged(String workspaceId, @Nullable WorkspaceState previous, @Nullable WorkspaceState current);
+    }
+
+    /** Immutable state of the workspace runtime. */
     public static class WorkspaceState {
-        private WorkspaceStatus status;
-        private String          activeEnv;
+        private final WorkspaceStatus status;
+        private final String          activeEnv;
 
         public WorkspaceState(WorkspaceStatus status, String activeEnv) {
             this.status = status;
             this.activeEnv = activeEnv;
         }
 
+        /** Returns copy of this state with the given status. */
+        public WorkspaceState withStatus(WorkspaceStatus status) {
+            return new WorkspaceState(status, activeEnv);
+        }
+
         public String getActiveEnv() {
             return activeEnv;
         }
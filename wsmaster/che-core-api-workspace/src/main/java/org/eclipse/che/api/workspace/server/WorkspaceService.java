@@ -25,6 +25,7 @@ import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.rest.Service;
@@ -184,24 +185,33 @@ public class WorkspaceService extends Service {
                   response = WorkspaceDto.class,
                   responseContainer = "List")
     @ApiResponses({@ApiResponse(code = 200, message = "The workspaces successfully fetched"),
+                   @ApiResponse(code = 400, message = "Paging parameters or workspace status are not valid"),
                    @ApiResponse(code = 500, message = "Internal server error occurred during workspaces fetching")})
-    public List<WorkspaceDto> getWorkspaces(@ApiParam("The number of the items to skip")
-                                            @DefaultValue("0")
-                                            @QueryParam("skipCount")
-                                            Integer skipCount,
-                                            @ApiParam("The limit of the items in the response, default is 30")
-                                            @DefaultValue("30")
-                                            @QueryParam("maxItems")
-                                            Integer maxItems,
-                                            @ApiParam("Workspace status")
-                                            @QueryParam("status")
-                                            String status) throws ServerException, BadRequestException {
-        //TODO add maxItems & skipCount to manager
-        return workspaceManager.getWorkspaces(EnvironmentContext.getCurrent().getSubject().getUserId())
-                               .stream()
-                               .filter(ws -> status == null || status.equalsIgnoreCase(ws.getStatus().toString()))
-                               .map(workspace -> linksInjector.injectLinks(asDto(workspace), getServiceContext()))
-                               .collect(toList());
+    public Response getWorkspaces(@ApiParam("The number of the items to skip")
+                                  @DefaultValue("0")
+                                  @QueryParam("skipCount")
+                                  Integer skipCount,
+                                  @ApiParam("The limit of the items in the response, all the items are returned by default")
+                                  @QueryParam("maxItems")
+                                  Integer maxItems,
+                                  @ApiParam("Workspace status")
+                                  @QueryParam("status")
+                                  String status) throws ServerException, BadRequestException {
+        if (skipCount < 0) {
+            throw new BadRequestException("The number of items to skip can't be negative");
+        }
+        if (maxItems != null && maxItems <= 0) {
+            throw new BadRequestException("The number of items to return must be positive");
+        }
+        // clients which don't page (e.g. dashboard) get all the workspaces
+        final Page<WorkspaceImpl> page = workspaceManager.getWorkspaces(EnvironmentContext.getCurrent().getSubject().getUserId(),
+                                                                        parseStatus(status),
+                                                                        maxItems == null ? Integer.MAX_VALUE : maxItems,
+                                                                        skipCount);
+        return Response.ok()
+                       .entity(page.getItems(workspace -> linksInjector.injectLinks(asDto(workspace), getServiceContext())))
+                       .header("Link", createLinkHeader(page))
+                       .build();
     }
 
     @GET
@@ -727,6 +737,17 @@ public class WorkspaceService extends Service {
         }
     }
 
+    private static WorkspaceStatus parseStatus(String status) throws BadRequestException {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return WorkspaceStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException x) {
+            throw new BadRequestException(format("Workspace status '%s' is not valid", status));
+        }
+    }
+
     /*
      * Validate composite key.
      *
@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.workspace.server;
+
+import org.eclipse.che.api.core.ConflictException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.lang.String.format;
+
+/**
+ * Admission control for workspace starts.
+ *
+ * <p>At most {@code maxStarts} starts are performed at once and at most {@code maxStartsPerUser}
+ * of them belong to the same user. Other starts wait in the queue ordered by {@link Priority}
+ * and then by submission time, a start of the user who reached the limit is skipped
+ * until one of the user's starts is finished. When the queue is full new starts are rejected
+ * with an estimation of the time after which the start may be retried.
+ *
+ * <p>Listener is notified about position of each queued start when it changes.
+ */
+class WorkspaceStartQueue {
+
+    /** Priority of a start, starts with higher priority leave the queue first. */
+    enum Priority {
+        /** Recovery of the workspace which was running before. */
+        HIGH,
+        /** Regular start. */
+        NORMAL
+    }
+
+    /** Receives position of queued start, positions start from 1. */
+    @FunctionalInterface
+    interface PositionListener {
+        void onPositionChanged(String workspaceId, int position);
+    }
+
+    /** Used for retry estimation while no start is finished. */
+    private static final long DEFAULT_START_DURATION_MS = 60_000;
+
+    private final int                  maxStarts;
+    private final int                  maxStartsPerUser;
+    private final int                  maxQueued;
+    private final Executor             executor;
+    private final PositionListener     positionListener;
+    private final TreeSet<QueuedStart> queue;
+    private final Map<String, Integer> userStarts;
+
+    private int  runningStarts;
+    private long sequence;
+    private long finishedStarts;
+    private long finishedStartsDurationMs;
+
+    WorkspaceStartQueue(int maxStarts,
+                        int maxStartsPerUser,
+                        int maxQueued,
+                        Executor executor,
+                        PositionListener positionListener) {
+        this.maxStarts = maxStarts;
+        this.maxStartsPerUser = maxStartsPerUser;
+        this.maxQueued = maxQueued;
+        this.executor = executor;
+        this.positionListener = positionListener;
+        this.queue = new TreeSet<>(Comparator.comparing((QueuedStart start) -> start.priority)
+                                             .thenComparingLong(start -> start.sequence));
+        this.userStarts = new HashMap<>();
+    }
+
+    /**
+     * Queues the start and performs it when limits allow.
+     *
+     * @param workspaceId
+     *         id of the starting workspace
+     * @param user
+     *         owner of the workspace, starts of the same user are limited
+     * @param priority
+     *         priority of the start
+     * @param start
+     *         action which starts the workspace
+     * @return future of the start result
+     * @throws ConflictException
+     *         when the queue is full
+     */
+    <T> Future<T> submit(String workspaceId, String user, Priority priority, Callable<T> start) throws ConflictException {
+        final FutureTask<T> task = new FutureTask<>(start);
+        final List<QueuedStart> admitted;
+        synchronized (this) {
+            if (queue.size() >= maxQueued) {
+                throw new ConflictException(format("Could not start workspace '%s' because %d workspaces are waiting for start. " +
+                                                   "Retry in %d seconds",
+                                                   workspaceId,
+                                                   queue.size(),
+                                                   estimateRetrySeconds()));
+            }
+            queue.add(new QueuedStart(workspaceId, user, priority, sequence++, task));
+            admitted = admit();
+        }
+        execute(admitted);
+        notifyPositions();
+        return task;
+    }
+
+    /** Returns position of the workspace start in the queue starting from 1, or 0 when it is not queued. */
+    synchronized int getPosition(String workspaceId) {
+        int position = 1;
+        for (QueuedStart start : queue) {
+            if (start.workspaceId.equals(workspaceId)) {
+                return position;
+            }
+            position++;
+        }
+        return 0;
+    }
+
+    /**
+     * Cancels the start of the workspace if it waits in the queue, the start which is performed now is not affected.
+     *
+     * @return {@code true} if the start is removed from the queue and cancelled, otherwise {@code false}
+     */
+    boolean cancel(String workspaceId) {
+        QueuedStart cancelled = null;
+        synchronized (this) {
+            for (Iterator<QueuedStart> it = queue.iterator(); it.hasNext(); ) {
+                final QueuedStart start = it.next();
+                if (start.workspaceId.equals(workspaceId)) {
+                    it.remove();
+                    cancelled = start;
+                    break;
+                }
+            }
+        }
+        if (cancelled == null) {
+            return false;
+        }
+        cancelled.task.cancel(false);
+        notifyPositions();
+        return true;
+    }
+
+    /**
+     * Cancels all the starts which wait in the queue, starts which are performed now are not affected.
+     *
+     * @return ids of the workspaces which starts are cancelled
+     */
+    List<String> cancelQueued() {
+        final List<QueuedStart> cancelled;
+        synchronized (this) {
+            cancelled = new ArrayList<>(queue);
+            queue.clear();
+        }
+        final List<String> workspaceIds = new ArrayList<>(cancelled.size());
+        for (QueuedStart start : cancelled) {
+            start.task.cancel(false);
+            workspaceIds.add(start.workspaceId);
+        }
+        return workspaceIds;
+    }
+
+    /** Returns number of starts waiting in the queue. */
+    synchronized int getQueued() {
+        return queue.size();
+    }
+
+    /** Returns number of starts which are performed now. */
+    synchronized int getRunning() {
+        return runningStarts;
+    }
+
+    private void execute(List<QueuedStart> admitted) {
+        for (QueuedStart start : admitted) {
+            try {
+                executor.execute(() -> {
+                    final long startTime = System.currentTimeMillis();
+                    try {
+                        start.task.run();
+                    } finally {
+                        finish(start, System.currentTimeMillis() - startTime);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                start.task.cancel(false);
+                finish(start, 0);
+            }
+        }
+    }
+
+    private void finish(QueuedStart start, long durationMs) {
+        final List<QueuedStart> admitted;
+        synchronized (this) {
+            runningStarts--;
+            userStarts.computeIfPresent(start.user, (user, starts) -> starts == 1 ? null : starts - 1);
+            if (durationMs > 0) {
+                finishedStarts++;
+                finishedStartsDurationMs += durationMs;
+            }
+            admitted = admit();
+        }
+        execute(admitted);
+        notifyPositions();
+    }
+
+    /** Removes starts which may be performed now from the queue, must be called under the lock. */
+    private List<QueuedStart> admit() {
+        final List<QueuedStart> admitted = new ArrayList<>();
+        for (QueuedStart start : new ArrayList<>(queue)) {
+            if (runningStarts >= maxStarts) {
+                break;
+            }
+            if (userStarts.getOrDefault(start.user, 0) < maxStartsPerUser) {
+                queue.remove(start);
+                userStarts.merge(start.user, 1, Integer::sum);
+                runningStarts++;
+                admitted.add(start);
+            }
+        }
+        return admitted;
+    }
+
+    private void notifyPositions() {
+        final Map<String, Integer> changed = new HashMap<>();
+        synchronized (this) {
+            int position = 1;
+            for (QueuedStart start : queue) {
+                if (start.notifiedPosition != position) {
+                    start.notifiedPosition = position;
+                    changed.put(start.workspaceId, position);
+                }
+                position++;
+            }
+        }
+        changed.forEach(positionListener::onPositionChanged);
+    }
+
+    private long estimateRetrySeconds() {
+        final long averageDurationMs = finishedStarts == 0 ? DEFAULT_START_DURATION_MS : finishedStartsDurationMs / finishedStarts;
+        return Math.max(1, averageDurationMs * (queue.size() / maxStarts + 1) / 1000);
+    }
+
+    private static class QueuedStart {
+        final String        workspaceId;
+        final String        user;
+        final Priority      priority;
+        final long          sequence;
+        final FutureTask<?> task;
+
+        int notifiedPosition;
+
+        QueuedStart(String workspaceId, String user, Priority priority, long sequence, FutureTask<?> task) {
+            this.workspaceId = workspaceId;
+            this.user = user;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.task = task;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import com.google.inject.persist.Transactional;
 import org.eclipse.che.account.event.BeforeAccountRemovedEvent;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.jdbc.jpa.DuplicateKeyException;
 import org.eclipse.che.api.core.jdbc.jpa.event.CascadeRemovalEventSubscriber;
@@ -33,9 +34,13 @@ import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
+import javax.persistence.TypedQuery;
 import java.util.List;
+import java.util.Set;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
+import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -151,6 +156,72 @@ public class JpaWorkspaceDao implements WorkspaceDao {
         }
     }
 
+    @Override
+    @Transactional
+    public Page<WorkspaceImpl> getWorkspaces(String userId, int maxItems, long skipCount) throws ServerException {
+        requireNonNull(userId, "Required non-null user id");
+        checkPagingArguments(maxItems, skipCount);
+        // TODO respect userId when workers become a part of che
+        try {
+            final EntityManager manager = this.manager.get();
+            return getPage(manager.createNamedQuery("Workspace.getAllOrdered", WorkspaceImpl.class),
+                           manager.createNamedQuery("Workspace.getTotalCount", Long.class),
+                           maxItems,
+                           skipCount);
+        } catch (RuntimeException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
+    @Override
+    @Transactional
+    public Page<WorkspaceImpl> getWorkspaces(String userId, Set<String> ids, int maxItems, long skipCount) throws ServerException {
+        requireNonNull(userId, "Required non-null user id");
+        requireNonNull(ids, "Required non-null ids");
+        checkPagingArguments(maxItems, skipCount);
+        if (ids.isEmpty()) {
+            // 'IN' doesn't accept empty collection
+            return new Page<>(emptyList(), skipCount, maxItems, 0);
+        }
+        // TODO respect userId when workers become a part of che
+        try {
+            final EntityManager manager = this.manager.get();
+            return getPage(manager.createNamedQuery("Workspace.getByIds", WorkspaceImpl.class).setParameter("ids", ids),
+                           manager.createNamedQuery("Workspace.getByIdsCount", Long.class).setParameter("ids", ids),
+                           maxItems,
+                           skipCount);
+        } catch (RuntimeException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
+    @Override
+    @Transactional
+    public Page<WorkspaceImpl> getWorkspacesExcept(String userId,
+                                                   Set<String> excludedIds,
+                                                   int maxItems,
+                                                   long skipCount) throws ServerException {
+        requireNonNull(userId, "Required non-null user id");
+        requireNonNull(excludedIds, "Required non-null excluded ids");
+        if (excludedIds.isEmpty()) {
+            // 'NOT IN' doesn't accept empty collection
+            return getWorkspaces(userId, maxItems, skipCount);
+        }
+        checkPagingArguments(maxItems, skipCount);
+        // TODO respect userId when workers become a part of che
+        try {
+            final EntityManager manager = this.manager.get();
+            return getPage(manager.createNamedQuery("Workspace.getAllExceptIds", WorkspaceImpl.class)
+                                  .setParameter("ids", excludedIds),
+                           manager.createNamedQuery("Workspace.getAllExceptIdsCount", Long.class)
+                                  .setParameter("ids", excludedIds),
+                           maxItems,
+                           skipCount);
+        } catch (RuntimeException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
     @Transactional
     protected void doCreate(WorkspaceImpl workspace) {
         if (workspace.getConfig() != null) {
@@ -179,6 +250,25 @@ public class JpaWorkspaceDao implements WorkspaceDao {
         return manager.get().merge(update);
     }
 
+    private static Page<WorkspaceImpl> getPage(TypedQuery<WorkspaceImpl> query,
+                                               TypedQuery<Long> countQuery,
+                                               int maxItems,
+                                               long skipCount) {
+        // callers are transactional, so both queries run in the same transaction, but with read committed isolation
+        // a workspace created or removed between them may be counted and not listed or vice versa, that is acceptable
+        // as total count is used only to build links to other pages and clients re-request pages anyway
+        final List<WorkspaceImpl> list = query.setMaxResults(maxItems)
+                                              .setFirstResult((int)skipCount)
+                                              .getResultList();
+        return new Page<>(list, skipCount, maxItems, countQuery.getSingleResult());
+    }
+
+    private static void checkPagingArguments(int maxItems, long skipCount) {
+        checkArgument(maxItems >= 0, "The number of items to return can't be negative.");
+        checkArgument(skipCount >= 0 && skipCount <= Integer.MAX_VALUE,
+                      "The number of items to skip can't be negative or greater than " + Integer.MAX_VALUE);
+    }
+
     @Singleton
     public static class RemoveWorkspaceBeforeAccountRemovedEventSubscriber
             extends CascadeRemovalEventSubscriber<BeforeAccountRemovedEvent> {
@@ -11,7 +11,9 @@
 package org.eclipse.che.api.workspace.server.launcher;
 
 import org.eclipse.che.api.agent.server.WsAgentPingRequestFactory;
+import org.eclipse.che.api.agent.server.launcher.AgentInstallation;
 import org.eclipse.che.api.agent.server.launcher.AgentLauncher;
+import org.eclipse.che.api.agent.server.launcher.AgentReadiness;
 import org.eclipse.che.api.agent.shared.model.Agent;
 import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.BadRequestException;
@@ -19,6 +21,7 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonResponse;
+import org.eclipse.che.api.core.util.CompositeLineConsumer;
 import org.eclipse.che.api.environment.server.MachineProcessManager;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.CommandImpl;
@@ -33,6 +36,9 @@ import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static org.eclipse.che.api.workspace.shared.Constants.WS_AGENT_PROCESS_NAME;
@@ -84,6 +90,21 @@ public class WsAgentLauncherImpl implements AgentLauncher {
 
     @Override
     public void launch(Instance machine, Agent agent) throws ServerException {
+        try {
+            start(machine, agent).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ServerException) {
+                throw (ServerException)e.getCause();
+            }
+            throw new ServerException(e.getCause().getLocalizedMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Ws agent pinging is interrupted");
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> start(Instance machine, Agent agent) throws ServerException {
         final HttpJsonRequest wsAgentPingRequest;
         try {
             wsAgentPingRequest = createPingRequest(machine);
@@ -91,7 +112,7 @@ public class WsAgentLauncherImpl implements AgentLauncher {
             throw new MachineException(e.getServiceError());
         }
 
-        String script = agent.getScript() + "\n" + firstNonNull(wsAgentRunCommand, DEFAULT_WS_AGENT_RUN_COMMAND);
+        String script = AgentInstallation.markScript(agent.getScript(), firstNonNull(wsAgentRunCommand, DEFAULT_WS_AGENT_RUN_COMMAND));
 
         final String wsAgentPingUrl = wsAgentPingRequest.getUrl();
         try {
@@ -100,10 +121,15 @@ public class WsAgentLauncherImpl implements AgentLauncher {
             // client side for track this command
             CommandImpl command = new CommandImpl(getAgentId(), script, WS_AGENT_PROCESS_NAME);
 
+            // ws agent output (e.g. tomcat startup message) triggers ping out of schedule
+            final AgentReadiness readiness = new AgentReadiness(AgentReadiness.INITIAL_PING_DELAY_MS, wsAgentPingDelayMs);
+            final AgentInstallation installation = new AgentInstallation();
             machineProcessManagerProvider.get().exec(machine.getWorkspaceId(),
                                                      machine.getId(),
                                                      command,
-                                                     getWsAgentProcessOutputChannel(machine.getWorkspaceId()));
+                                                     getWsAgentProcessOutputChannel(machine.getWorkspaceId()),
+                                                     new CompositeLineConsumer(readiness.getSignalConsumer(),
+                                                                               installation.getOutputConsumer()));
 
             final long pingStartTimestamp = System.currentTimeMillis();
             LOG.debug("Starts pinging ws agent. Workspace ID:{}. Url:{}. Timestamp:{}",
@@ -111,21 +137,29 @@ public class WsAgentLauncherImpl implements AgentLauncher {
                       wsAgentPingUrl,
                       pingStartTimestamp);
 
-            while (System.currentTimeMillis() - pingStartTimestamp < wsAgentMaxStartTimeMs) {
-                if (pingWsAgent(wsAgentPingRequest)) {
-                    return;
-                } else {
-                    Thread.sleep(wsAgentPingDelayMs);
-                }
-            }
+            final CompletableFuture<Void> ready =
+                    readiness.whenReady(() -> pingWsAgent(wsAgentPingRequest), wsAgentMaxStartTimeMs)
+                             .thenAccept(isReady -> {
+                                 if (!isReady) {
+                                     LOG.error("Fail pinging ws agent. Workspace ID:{}. Url:{}. Timestamp:{}",
+                                               machine.getWorkspaceId(),
+                                               wsAgentPingUrl,
+                                               System.currentTimeMillis());
+                                     throw new CompletionException(new ServerException(pingTimedOutErrorMessage));
+                                 }
+                                 LOG.debug("Ws agent is ready in {} ms. Workspace ID:{}",
+                                           System.currentTimeMillis() - pingStartTimestamp,
+                                           machine.getWorkspaceId());
+                             });
+            // ws agent is installed with the package manager, like the other agents of the machine
+            installation.await(ready);
+            return ready;
         } catch (BadRequestException | ServerException | NotFoundException e) {
             throw new ServerException(e.getServiceError());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new ServerException("Ws agent pinging is interrupted");
         }
-        LOG.error("Fail pinging ws agent. Workspace ID:{}. Url:{}. Timestamp:{}", machine.getWorkspaceId(), wsAgentPingUrl);
-        throw new ServerException(pingTimedOutErrorMessage);
     }
 
     public static String getWsAgentProcessOutputChannel(String workspaceId) {
@@ -60,7 +60,19 @@ import java.util.Objects;
                 @NamedQuery(name = "Workspace.getByName",
                             query = "SELECT w FROM Workspace w WHERE w.account.name = :namespace AND w.name = :name"),
                 @NamedQuery(name = "Workspace.getAll",
-                            query = "SELECT w FROM Workspace w")
+                            query = "SELECT w FROM Workspace w"),
+                @NamedQuery(name = "Workspace.getAllOrdered",
+                            query = "SELECT w FROM Workspace w ORDER BY w.id"),
+                @NamedQuery(name = "Workspace.getTotalCount",
+                            query = "SELECT COUNT(w) FROM Workspace w"),
+                @NamedQuery(name = "Workspace.getByIds",
+                            query = "SELECT w FROM Workspace w WHERE w.id IN :ids ORDER BY w.id"),
+                @NamedQuery(name = "Workspace.getByIdsCount",
+                            query = "SELECT COUNT(w) FROM Workspace w WHERE w.id IN :ids"),
+                @NamedQuery(name = "Workspace.getAllExceptIds",
+                            query = "SELECT w FROM Workspace w WHERE w.id NOT IN :ids ORDER BY w.id"),
+                @NamedQuery(name = "Workspace.getAllExceptIdsCount",
+                            query = "SELECT COUNT(w) FROM Workspace w WHERE w.id NOT IN :ids")
         }
 )
 @EntityListeners({WorkspaceEntityListener.class, WorkspaceImpl.SyncNameOnUpdateAndPersistEventListener.class})
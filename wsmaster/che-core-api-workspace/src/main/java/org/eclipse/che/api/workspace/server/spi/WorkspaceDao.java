@@ -12,10 +12,12 @@ package org.eclipse.che.api.workspace.server.spi;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Defines data access object contract for {@link WorkspaceImpl}.
@@ -142,4 +144,71 @@ public interface WorkspaceDao {
      *         when any other error occurs during workspaces fetching
      */
     List<WorkspaceImpl> getWorkspaces(String userId) throws ServerException;
+
+    /**
+     * Gets page of workspaces which user can read.
+     * Workspaces are ordered by id, so sequential pages don't intersect.
+     *
+     * @param userId
+     *         id of user
+     * @param maxItems
+     *         the maximum number of workspaces to return
+     * @param skipCount
+     *         the number of workspaces to skip
+     * @return page of workspaces which user can read
+     * @throws NullPointerException
+     *         when {@code userId} is null
+     * @throws IllegalArgumentException
+     *         when {@code maxItems} or {@code skipCount} is negative
+     * @throws ServerException
+     *         when any other error occurs during workspaces fetching
+     */
+    Page<WorkspaceImpl> getWorkspaces(String userId, int maxItems, long skipCount) throws ServerException;
+
+    /**
+     * Gets page of workspaces which user can read and whose ids are among the given ones.
+     * Workspaces are ordered by id, so sequential pages don't intersect.
+     *
+     * @param userId
+     *         id of user
+     * @param ids
+     *         ids of workspaces to return
+     * @param maxItems
+     *         the maximum number of workspaces to return
+     * @param skipCount
+     *         the number of workspaces to skip
+     * @return page of workspaces which user can read, empty page when {@code ids} is empty
+     * @throws NullPointerException
+     *         when either {@code userId} or {@code ids} is null
+     * @throws IllegalArgumentException
+     *         when {@code maxItems} or {@code skipCount} is negative
+     * @throws ServerException
+     *         when any other error occurs during workspaces fetching
+     */
+    Page<WorkspaceImpl> getWorkspaces(String userId, Set<String> ids, int maxItems, long skipCount) throws ServerException;
+
+    /**
+     * Gets page of workspaces which user can read except of workspaces with the given ids.
+     * Workspaces are ordered by id, so sequential pages don't intersect.
+     *
+     * @param userId
+     *         id of user
+     * @param excludedIds
+     *         ids of workspaces which must not be returned
+     * @param maxItems
+     *         the maximum number of workspaces to return
+     * @param skipCount
+     *         the number of workspaces to skip
+     * @return page of workspaces which user can read
+     * @throws NullPointerException
+     *         when either {@code userId} or {@code excludedIds} is null
+     * @throws IllegalArgumentException
+     *         when {@code maxItems} or {@code skipCount} is negative
+     * @throws ServerException
+     *         when any other error occurs during workspaces fetching
+     */
+    Page<WorkspaceImpl> getWorkspacesExcept(String userId,
+                                            Set<String> excludedIds,
+                                            int maxItems,
+                                            long skipCount) throws ServerException;
 }
@@ -15,6 +15,7 @@ import org.eclipse.che.api.agent.shared.model.Agent;
 import org.eclipse.che.api.agent.shared.model.AgentKey;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.machine.MachineLogMessage;
 import org.eclipse.che.api.core.model.machine.MachineStatus;
@@ -55,6 +56,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -62,6 +64,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -73,12 +76,14 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -86,6 +91,7 @@ import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 /**
  * @author Alexander Garagatyi
@@ -653,9 +659,76 @@ public class CheEnvironmentEngineTest {
         engine.stop(instance.getWorkspaceId());
 
         // then
-        InOrder inOrder = inOrder(instances.toArray());
         for (Instance instance1 : instances) {
+            verify(instance1).destroy();
+        }
+    }
+
+    @Test
+    public void shouldDestroyNetworkAfterAllMachinesOnEnvStop() throws Exception {
+        // given
+        List<Instance> instances = startEnv();
+        Instance instance = instances.get(0);
+
+        // when
+        engine.stop(instance.getWorkspaceId());
+
+        // then
+        for (Instance instance1 : instances) {
+            InOrder inOrder = inOrder(instance1, machineProvider);
             inOrder.verify(instance1).destroy();
+            inOrder.verify(machineProvider).destroyNetwork(anyString());
+        }
+        assertEquals(engine.getEnvironmentStops(), 1);
+    }
+
+    @Test
+    public void shouldNotWaitForMachinesDestroyOnForcedEnvStop() throws Exception {
+        // given
+        List<Instance> instances = startEnv();
+        Instance instance = instances.get(0);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(instance).destroy();
+
+        // when
+        engine.stop(instance.getWorkspaceId(), true);
+
+        // then
+        verify(machineProvider, never()).destroyNetwork(anyString());
+        release.countDown();
+        verify(machineProvider, timeout(2000)).destroyNetwork(anyString());
+    }
+
+    @Test
+    public void shouldDestroyMachineByCallerWhenDestroyIsNotStartedInTime() throws Exception {
+        // given
+        setField("machineDestroyThreads", 1);
+        setField("machineDestroyTimeoutMs", 500L);
+        List<Instance> instances = startEnv();
+        assertTrue(instances.size() > 1, "This test requires at least 2 instances in environment");
+        Instance hanging = instances.get(0);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(hanging).destroy();
+
+        // when
+        try {
+            engine.stop(hanging.getWorkspaceId());
+            fail("Stop must fail while machine is not destroyed");
+        } catch (ServerException e) {
+            assertTrue(e.getMessage().contains(hanging.getConfig().getName()));
+        } finally {
+            release.countDown();
+        }
+
+        // then
+        for (Instance instance : instances.subList(1, instances.size())) {
+            verify(instance).destroy();
         }
     }
 
@@ -974,6 +1047,12 @@ public class CheEnvironmentEngineTest {
         assertEquals(serviceToNormalizeLinks.getLinks().get(0), containerNameToLink + ':' + AliasToServiceToLink);
     }
 
+    private void setField(String name, Object value) throws Exception {
+        Field field = CheEnvironmentEngine.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(engine, value);
+    }
+
     private List<Instance> startEnv() throws Exception {
         EnvironmentImpl env = createEnv();
         return startEnv(env);
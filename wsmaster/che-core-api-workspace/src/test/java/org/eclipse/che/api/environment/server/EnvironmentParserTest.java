@@ -23,9 +23,9 @@ import org.eclipse.che.api.workspace.server.model.impl.EnvironmentRecipeImpl;
 import org.eclipse.che.api.workspace.server.model.impl.ExtendedMachineImpl;
 import org.eclipse.che.api.workspace.server.model.impl.ServerConf2Impl;
 import org.eclipse.che.commons.annotation.Nullable;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
@@ -48,6 +48,7 @@ import static org.eclipse.che.api.environment.server.EnvironmentParser.SERVER_CO
 import static org.eclipse.che.api.environment.server.EnvironmentParser.SERVER_CONF_LABEL_REF_SUFFIX;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -69,9 +70,13 @@ public class EnvironmentParserTest {
     @Mock
     RecipeDownloader recipeDownloader;
 
-    @InjectMocks
     EnvironmentParser parser;
 
+    @BeforeMethod
+    public void setUp() {
+        parser = new EnvironmentParser(composeFileParser, recipeDownloader);
+    }
+
     @Test
     public void shouldReturnEnvTypesCoveredByTests() throws Exception {
         // when
@@ -266,6 +271,33 @@ public class EnvironmentParserTest {
         verify(composeFileParser).parse(eq("content"), eq("application/x-yaml"));
     }
 
+    @Test
+    public void shouldNotParseTheSameComposeRecipeTwice() throws Exception {
+        // given
+        HashMap<String, ExtendedMachineImpl> machines = new HashMap<>();
+        machines.put("machine1", new ExtendedMachineImpl(emptyList(),
+                                                         emptyMap(),
+                                                         singletonMap("memoryLimitBytes", "101010")));
+        EnvironmentImpl environment = new EnvironmentImpl(new EnvironmentRecipeImpl("compose",
+                                                                                    "application/x-yaml",
+                                                                                    "content",
+                                                                                    null),
+                                                          machines);
+        CheServicesEnvironmentImpl parsed = new CheServicesEnvironmentImpl();
+        parsed.getServices().put("machine1", createCheService(true));
+        when(composeFileParser.parse(eq("content"), eq("application/x-yaml"))).thenReturn(toCompose(parsed));
+
+        // when
+        CheServicesEnvironmentImpl first = parser.parse(environment);
+        first.getServices().get("machine1").setImage("modified");
+        CheServicesEnvironmentImpl second = parser.parse(environment);
+
+        // then
+        verify(composeFileParser, times(1)).parse(eq("content"), eq("application/x-yaml"));
+        assertEquals(second.getServices().get("machine1").getImage(), parsed.getServices().get("machine1").getImage());
+        assertEquals(second.getServices().get("machine1").getMemLimit(), (Long)101010L);
+    }
+
     @Test
     public void shouldOverrideMemoryLimitFromExtendedMachineInComposeEnv() throws Exception {
         HashMap<String, ExtendedMachineImpl> machines = new HashMap<>();
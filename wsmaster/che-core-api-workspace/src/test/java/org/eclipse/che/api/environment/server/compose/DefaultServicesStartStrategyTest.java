@@ -86,6 +86,26 @@ public class DefaultServicesStartStrategyTest {
         assertTrue(actual.contains("fifth"));
     }
 
+    @Test
+    public void shouldGroupIndependentServicesIntoLevels() throws Exception {
+        // given
+        CheServicesEnvironmentImpl composeEnvironment = new CheServicesEnvironmentImpl();
+        composeEnvironment.getServices().put("db", new CheServiceImpl());
+        composeEnvironment.getServices().put("cache", new CheServiceImpl());
+        composeEnvironment.getServices().put("broker", new CheServiceImpl().withLinks(singletonList("cache:redis")));
+        composeEnvironment.getServices().put("app", new CheServiceImpl().withDependsOn(asList("db", "broker")));
+        composeEnvironment.getServices().put("dev-machine", new CheServiceImpl().withVolumesFrom(singletonList("db:ro")));
+
+        // when
+        List<List<String>> actual = strategy.orderByLevels(composeEnvironment);
+
+        // then
+        assertEquals(actual.size(), 3);
+        assertEqualsNoOrder(actual.get(0).toArray(), new String[] {"db", "cache"});
+        assertEqualsNoOrder(actual.get(1).toArray(), new String[] {"broker", "dev-machine"});
+        assertEquals(actual.get(2), singletonList("app"));
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class,
           expectedExceptionsMessageRegExp = "Launch order of machines '.*, .*' can't be evaluated")
     public void shouldFailIfCircularDependencyFound() throws Exception {
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.workspace.server;
+
+import org.eclipse.che.account.spi.AccountImpl;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.machine.server.model.impl.CommandImpl;
+import org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentRecipeImpl;
+import org.eclipse.che.api.workspace.server.model.impl.ExtendedMachineImpl;
+import org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl;
+import org.eclipse.che.api.workspace.server.model.impl.SourceStorageImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.shared.dto.WorkspaceDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+/**
+ * Compares size and encode/decode time of JSON and binary formats of DTOs
+ * which are the most frequently sent between Che servers.
+ *
+ * <p>It is not a test and is not run during the build, launch it with {@link #main(String[])}
+ * from test classpath. Sizes of encoded DTOs are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DtoFormatBenchmark {
+
+    private DtoFactory            dtoFactory;
+    private WorkspaceDto          workspace;
+    private MachineStatusEvent    event;
+    private ByteArrayOutputStream out;
+    private byte[]                workspaceJson;
+    private byte[]                workspaceBinary;
+    private byte[]                eventJson;
+    private byte[]                eventBinary;
+
+    @Setup
+    public void setUp() throws IOException {
+        dtoFactory = DtoFactory.getInstance();
+        out = new ByteArrayOutputStream(64 * 1024);
+        workspace = createWorkspace();
+        event = newDto(MachineStatusEvent.class).withEventType(MachineStatusEvent.EventType.RUNNING)
+                                                .withDev(true)
+                                                .withMachineId("machinesa6nxrnn0jnjf3jj")
+                                                .withMachineName("dev-machine")
+                                                .withWorkspaceId("workspace8k2aoxvkdtvn6kcq");
+        workspaceJson = encodeJson(workspace);
+        workspaceBinary = encodeBinary(workspace);
+        eventJson = encodeJson(event);
+        eventBinary = encodeBinary(event);
+        System.out.printf("%nWorkspaceDto: json %d bytes, binary %d bytes%n", workspaceJson.length, workspaceBinary.length);
+        System.out.printf("MachineStatusEvent: json %d bytes, binary %d bytes%n", eventJson.length, eventBinary.length);
+    }
+
+    @Benchmark
+    public int encodeWorkspaceJson() throws IOException {
+        return encodeJson(workspace).length;
+    }
+
+    @Benchmark
+    public int encodeWorkspaceBinary() throws IOException {
+        return encodeBinary(workspace).length;
+    }
+
+    @Benchmark
+    public WorkspaceDto decodeWorkspaceJson() throws IOException {
+        return dtoFactory.createDtoFromJson(new InputStreamReader(new ByteArrayInputStream(workspaceJson), UTF_8), WorkspaceDto.class);
+    }
+
+    @Benchmark
+    public WorkspaceDto decodeWorkspaceBinary() throws IOException {
+        return dtoFactory.createDtoFromBinary(new ByteArrayInputStream(workspaceBinary), WorkspaceDto.class);
+    }
+
+    @Benchmark
+    public int encodeMachineStatusEventJson() throws IOException {
+        return encodeJson(event).length;
+    }
+
+    @Benchmark
+    public int encodeMachineStatusEventBinary() throws IOException {
+        return encodeBinary(event).length;
+    }
+
+    @Benchmark
+    public MachineStatusEvent decodeMachineStatusEventJson() throws IOException {
+        return dtoFactory.createDtoFromJson(new InputStreamReader(new ByteArrayInputStream(eventJson), UTF_8), MachineStatusEvent.class);
+    }
+
+    @Benchmark
+    public MachineStatusEvent decodeMachineStatusEventBinary() throws IOException {
+        return dtoFactory.createDtoFromBinary(new ByteArrayInputStream(eventBinary), MachineStatusEvent.class);
+    }
+
+    private byte[] encodeJson(Object dto) throws IOException {
+        out.reset();
+        final Writer writer = new OutputStreamWriter(out, UTF_8);
+        dtoFactory.toJson(dto, writer);
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private byte[] encodeBinary(Object dto) throws IOException {
+        out.reset();
+        dtoFactory.toBinary(dto, out);
+        return out.toByteArray();
+    }
+
+    private static WorkspaceDto createWorkspace() {
+        final List<CommandImpl> commands = new ArrayList<>();
+        final List<ProjectConfigImpl> projects = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            commands.add(new CommandImpl("build-" + i, "mvn clean install -f ${current.project.path}/module-" + i, "mvn"));
+            final Map<String, List<String>> attributes = new HashMap<>();
+            attributes.put("language", singletonList("java"));
+            attributes.put("maven.artifactId", singletonList("project-" + i));
+            final ProjectConfigImpl project = new ProjectConfigImpl();
+            project.setName("project-" + i);
+            project.setPath("/project-" + i);
+            project.setType("maven");
+            project.setAttributes(attributes);
+            project.setSource(new SourceStorageImpl("git", "https://github.com/che-samples/project-" + i + ".git", null));
+            projects.add(project);
+        }
+        final ExtendedMachineImpl devMachine = new ExtendedMachineImpl(singletonList("org.eclipse.che.ws-agent"),
+                                                                       null,
+                                                                       singletonMap("memoryLimitBytes", "2147483648"));
+        final EnvironmentImpl environment =
+                new EnvironmentImpl(new EnvironmentRecipeImpl("dockerimage", null, null, "codenvy/ubuntu_jdk8"),
+                                    singletonMap("dev-machine", devMachine));
+        final WorkspaceConfigImpl config = WorkspaceConfigImpl.builder()
+                                                              .setName("dev-workspace")
+                                                              .setDefaultEnv("default")
+                                                              .setEnvironments(singletonMap("default", environment))
+                                                              .setCommands(commands)
+                                                              .setProjects(projects)
+                                                              .build();
+        return DtoConverter.asDto(WorkspaceImpl.builder()
+                                               .generateId()
+                                               .setConfig(config)
+                                               .setAccount(new AccountImpl("account123", "user", "personal"))
+                                               .setStatus(WorkspaceStatus.STOPPED)
+                                               .build());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DtoFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -14,6 +14,7 @@ import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.spi.AccountImpl;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.MachineStatus;
 import org.eclipse.che.api.core.model.workspace.WorkspaceConfig;
@@ -29,6 +30,7 @@ import org.eclipse.che.api.machine.server.model.impl.MachineSourceImpl;
 import org.eclipse.che.api.machine.server.model.impl.SnapshotImpl;
 import org.eclipse.che.api.machine.server.spi.SnapshotDao;
 import org.eclipse.che.api.workspace.server.WorkspaceRuntimes.RuntimeDescriptor;
+import org.eclipse.che.api.workspace.server.WorkspaceRuntimes.WorkspaceState;
 import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
 import org.eclipse.che.api.workspace.server.model.impl.EnvironmentRecipeImpl;
 import org.eclipse.che.api.workspace.server.model.impl.ExtendedMachineImpl;
@@ -61,6 +63,7 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.RUNNING;
@@ -75,6 +78,8 @@ import static org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEven
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
@@ -252,6 +257,39 @@ public class WorkspaceManagerTest {
         assertFalse(res2.isTemporary(), "Workspace must be permanent");
     }
 
+    @Test
+    public void shouldGetPageOfWorkspacesWithGivenRuntimeStatus() throws Exception {
+        final WorkspaceImpl running = workspaceManager.createWorkspace(createConfig(), NAMESPACE);
+        final WorkspaceImpl starting = workspaceManager.createWorkspace(createConfig(), NAMESPACE_2);
+        final Map<String, WorkspaceState> states = new HashMap<>();
+        states.put(running.getId(), new WorkspaceState(RUNNING, running.getConfig().getDefaultEnv()));
+        states.put(starting.getId(), new WorkspaceState(STARTING, starting.getConfig().getDefaultEnv()));
+        when(runtimes.getWorkspaces()).thenReturn(states);
+        when(runtimes.get(running.getId())).thenReturn(createDescriptor(running, RUNNING));
+        when(workspaceDao.getWorkspaces(NAMESPACE, singleton(running.getId()), 30, 0))
+                .thenReturn(new Page<>(singletonList(running), 0, 30, 1));
+
+        final Page<WorkspaceImpl> page = workspaceManager.getWorkspaces(NAMESPACE, RUNNING, 30, 0);
+
+        assertEquals(page.getItems(), singletonList(running));
+        assertEquals(page.getItems().get(0).getStatus(), RUNNING);
+        verify(workspaceDao, never()).getWorkspaces(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void shouldGetPageOfStoppedWorkspacesExcludingWorkspacesWithRuntimes() throws Exception {
+        final WorkspaceImpl stopped = workspaceManager.createWorkspace(createConfig(), NAMESPACE);
+        final Map<String, WorkspaceState> states = singletonMap("running-id", new WorkspaceState(RUNNING, "env"));
+        when(runtimes.getWorkspaces()).thenReturn(states);
+        when(workspaceDao.getWorkspacesExcept(NAMESPACE, singleton("running-id"), 30, 0))
+                .thenReturn(new Page<>(singletonList(stopped), 0, 30, 1));
+
+        final Page<WorkspaceImpl> page = workspaceManager.getWorkspaces(NAMESPACE, STOPPED, 30, 0);
+
+        assertEquals(page.getItems(), singletonList(stopped));
+        assertEquals(page.getItems().get(0).getStatus(), STOPPED);
+    }
+
     @Test
     public void shouldBeAbleToGetWorkspacesByNamespace() throws Exception {
         // given
@@ -624,6 +662,20 @@ public class WorkspaceManagerTest {
         verify(runtimes, timeout(2000)).beginSnapshotting(workspace.getId());
     }
 
+    @Test
+    public void shouldCancelQueuedStartWhenStoppingStartingWorkspace() throws Exception {
+        final WorkspaceImpl workspace = workspaceManager.createWorkspace(createConfig(), NAMESPACE);
+        final RuntimeDescriptor descriptor = createDescriptor(workspace, STARTING);
+        when(workspaceDao.get(workspace.getId())).thenReturn(workspace);
+        when(runtimes.get(any())).thenReturn(descriptor);
+        when(runtimes.cancelQueuedStart(workspace.getId())).thenReturn(true);
+
+        workspaceManager.stopWorkspace(workspace.getId());
+
+        verify(runtimes).cancelQueuedStart(workspace.getId());
+        verify(runtimes, never()).stop(any());
+    }
+
     @Test(expectedExceptions = ConflictException.class,
           expectedExceptionsMessageRegExp = "Could not stop the workspace " +
                                             "'.*' because its status is 'STARTING'.")
@@ -13,7 +13,11 @@ package org.eclipse.che.api.workspace.server;
 import org.eclipse.che.account.spi.AccountImpl;
 import org.eclipse.che.api.agent.server.AgentRegistry;
 import org.eclipse.che.api.agent.server.impl.AgentSorter;
+import org.eclipse.che.api.agent.server.launcher.AgentLauncher;
 import org.eclipse.che.api.agent.server.launcher.AgentLauncherFactory;
+import org.eclipse.che.api.agent.server.model.impl.AgentKeyImpl;
+import org.eclipse.che.api.agent.shared.model.Agent;
+import org.eclipse.che.api.agent.shared.model.AgentKey;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
@@ -22,6 +26,7 @@ import org.eclipse.che.api.core.model.machine.MachineConfig;
 import org.eclipse.che.api.core.model.workspace.Environment;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.environment.server.CheEnvironmentEngine;
 import org.eclipse.che.api.environment.server.NoOpMachineInstance;
 import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
@@ -46,12 +51,19 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
@@ -72,6 +84,7 @@ import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 /**
@@ -266,6 +279,62 @@ public class WorkspaceRuntimesTest {
         assertFalse(runtimes.hasRuntime(workspace.getId()));
     }
 
+    @Test
+    public void shouldNotifyStateListenersAboutEachStateChange() throws Exception {
+        WorkspaceImpl workspace = createWorkspace();
+        List<String> changes = new ArrayList<>();
+        runtimes.addStateListener((workspaceId, previous, current) -> changes.add(
+                format("%s->%s",
+                       previous == null ? null : previous.getStatus(),
+                       current == null ? null : current.getStatus())));
+
+        runtimes.start(workspace, workspace.getConfig().getDefaultEnv(), false);
+        runtimes.stop(workspace.getId());
+
+        assertEquals(changes, asList("null->STARTING", "STARTING->RUNNING", "RUNNING->STOPPING", "STOPPING->null"));
+    }
+
+    @Test
+    public void shouldNotAffectReturnedStatesSnapshotWithFurtherChanges() throws Exception {
+        WorkspaceImpl workspace = createWorkspace();
+        Map<String, WorkspaceRuntimes.WorkspaceState> before = runtimes.getWorkspaces();
+
+        runtimes.start(workspace, workspace.getConfig().getDefaultEnv(), false);
+
+        assertTrue(before.isEmpty());
+        assertEquals(runtimes.getWorkspaces().get(workspace.getId()).getStatus(), RUNNING);
+    }
+
+    @Test
+    public void shouldCancelQueuedStartOnStop() throws Exception {
+        setField("maxStarts", 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Instance> machines = asList(createMachine(true), createMachine(false));
+        when(environmentEngine.start(anyString(),
+                                     anyString(),
+                                     any(Environment.class),
+                                     anyBoolean(),
+                                     any()))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await();
+                    return machines;
+                });
+        WorkspaceImpl queued = createWorkspace("queued123");
+        runtimes.startAsync(createWorkspace(), ENV_NAME, false);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        Future<RuntimeDescriptor> queuedStart = runtimes.startAsync(queued, ENV_NAME, false);
+
+        runtimes.stop(queued.getId());
+        release.countDown();
+
+        assertTrue(queuedStart.isCancelled());
+        assertFalse(runtimes.hasRuntime(queued.getId()));
+        verify(runtimes).publishWorkspaceEvent(EventType.STOPPED, queued.getId(), null);
+        verify(environmentEngine, never()).start(eq(queued.getId()), anyString(), any(Environment.class), anyBoolean(), any());
+    }
+
     @Test(expectedExceptions = NotFoundException.class,
           expectedExceptionsMessageRegExp = "Workspace with id 'workspace123' is not running.")
     public void shouldThrowNotFoundExceptionWhenStoppingWorkspaceWhichDoesNotHaveRuntime() throws Exception {
@@ -643,6 +712,43 @@ public class WorkspaceRuntimesTest {
         runtimes.start(workspace, workspace.getConfig().getDefaultEnv(), false);
     }
 
+    @Test
+    public void shouldInstallAgentsOfTheSameLevelOneByOneAndAwaitTheirReadinessConcurrently() throws Exception {
+        final Instance machine = createMachine(true);
+        final AgentKey agentKey1 = AgentKeyImpl.parse("agent1");
+        final AgentKey agentKey2 = AgentKeyImpl.parse("agent2");
+        when(agentSorter.sortByLevels(any())).thenReturn(singletonList(asList(agentKey1, agentKey2)));
+        final Agent agent1 = mock(Agent.class);
+        final Agent agent2 = mock(Agent.class);
+        when(agentRegistry.getAgent(agentKey1)).thenReturn(agent1);
+        when(agentRegistry.getAgent(agentKey2)).thenReturn(agent2);
+        final AgentLauncher launcher = mock(AgentLauncher.class);
+        when(launcherFactory.find(anyString(), anyString())).thenReturn(launcher);
+        final AtomicInteger installing = new AtomicInteger();
+        final AtomicInteger maxInstalling = new AtomicInteger();
+        final CompletableFuture<Void> agent1Ready = new CompletableFuture<>();
+        final CompletableFuture<Void> agent2Ready = new CompletableFuture<>();
+        doAnswer(invocation -> {
+            final int current = installing.incrementAndGet();
+            maxInstalling.accumulateAndGet(current, Math::max);
+            Thread.sleep(50);
+            installing.decrementAndGet();
+            if (invocation.getArguments()[1] == agent1) {
+                return agent1Ready;
+            }
+            // second agent is installed before the first one is ready
+            agent1Ready.complete(null);
+            agent2Ready.complete(null);
+            return agent2Ready;
+        }).when(launcher).start(any(Instance.class), any(Agent.class));
+
+        runtimes.launchAgents(machine, asList("agent1", "agent2"));
+
+        verify(launcher).start(machine, agent1);
+        verify(launcher).start(machine, agent2);
+        assertEquals(maxInstalling.get(), 1);
+    }
+
     private static Instance createMachine(boolean isDev) {
         return createMachine(createConfig(isDev));
     }
@@ -667,6 +773,10 @@ public class WorkspaceRuntimesTest {
     }
 
     private static WorkspaceImpl createWorkspace() {
+        return createWorkspace(WORKSPACE_ID);
+    }
+
+    private static WorkspaceImpl createWorkspace(String id) {
         EnvironmentImpl environment = new EnvironmentImpl(null,
                                                           null);
         WorkspaceConfigImpl wsConfig = WorkspaceConfigImpl.builder()
@@ -674,7 +784,13 @@ public class WorkspaceRuntimesTest {
                                                           .setEnvironments(singletonMap(ENV_NAME, environment))
                                                           .setDefaultEnv(ENV_NAME)
                                                           .build();
-        return new WorkspaceImpl(WORKSPACE_ID, new AccountImpl("accountId", "user123", "test"), wsConfig);
+        return new WorkspaceImpl(id, new AccountImpl("accountId", "user123", "test"), wsConfig);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = WorkspaceRuntimes.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(runtimes, value);
     }
 
     private static class TestMachineInstance extends NoOpMachineInstance {
@@ -690,5 +806,10 @@ public class WorkspaceRuntimesTest {
         public MachineRuntimeInfoImpl getRuntime() {
             return runtime;
         }
+
+        @Override
+        public LineConsumer getLogger() {
+            return LineConsumer.DEV_NULL;
+        }
     }
 }
@@ -12,12 +12,14 @@ package org.eclipse.che.api.workspace.server;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.jayway.restassured.response.Response;
 
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.account.spi.AccountImpl;
 import org.eclipse.che.api.agent.server.WsAgentHealthChecker;
+import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.model.machine.MachineStatus;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
 import org.eclipse.che.api.core.model.workspace.WorkspaceConfig;
@@ -25,6 +27,7 @@ import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.rest.ApiExceptionMapper;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
+import org.eclipse.che.api.core.util.PagingUtil;
 import org.eclipse.che.api.environment.server.MachineProcessManager;
 import org.eclipse.che.api.environment.server.MachineServiceLinksInjector;
 import org.eclipse.che.api.machine.server.model.impl.CommandImpl;
@@ -274,7 +277,10 @@ public class WorkspaceServiceTest {
     public void shouldGetWorkspaces() throws Exception {
         final WorkspaceImpl workspace1 = createWorkspace(createConfigDto());
         final WorkspaceImpl workspace2 = createWorkspace(createConfigDto(), STARTING);
-        when(wsManager.getWorkspaces(USER_ID)).thenReturn(asList(workspace1, workspace2));
+        when(wsManager.getWorkspaces(USER_ID, null, Integer.MAX_VALUE, 0)).thenReturn(new Page<>(asList(workspace1, workspace2),
+                                                                                               0,
+                                                                                               Integer.MAX_VALUE,
+                                                                                               2));
 
         final Response response = given().auth()
                                          .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
@@ -282,6 +288,7 @@ public class WorkspaceServiceTest {
                                          .get(SECURE_PATH + "/workspace");
 
         assertEquals(response.getStatusCode(), 200);
+        assertNotNull(response.getHeader("Link"));
         assertEquals(unwrapDtoList(response, WorkspaceDto.class).stream()
                                                                 .map(ws -> new WorkspaceImpl(ws, TEST_ACCOUNT))
                                                                 .collect(toList()),
@@ -308,9 +315,11 @@ public class WorkspaceServiceTest {
 
     @Test
     public void shouldGetWorkspacesByStatus() throws Exception {
-        final WorkspaceImpl workspace1 = createWorkspace(createConfigDto());
         final WorkspaceImpl workspace2 = createWorkspace(createConfigDto(), STARTING);
-        when(wsManager.getWorkspaces(USER_ID)).thenReturn(asList(workspace1, workspace2));
+        when(wsManager.getWorkspaces(USER_ID, STARTING, Integer.MAX_VALUE, 0)).thenReturn(new Page<>(singletonList(workspace2),
+                                                                                                   0,
+                                                                                                   Integer.MAX_VALUE,
+                                                                                                   1));
 
         final Response response = given().auth()
                                          .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
@@ -324,6 +333,36 @@ public class WorkspaceServiceTest {
                      singletonList(workspace2));
     }
 
+    @Test
+    public void shouldGetWorkspacesPage() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace(createConfigDto());
+        when(wsManager.getWorkspaces(USER_ID, null, 1, 1)).thenReturn(new Page<>(singletonList(workspace), 1, 1, 3));
+
+        final Response response = given().auth()
+                                         .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+                                         .when()
+                                         .get(SECURE_PATH + "/workspace?skipCount=1&maxItems=1");
+
+        assertEquals(response.getStatusCode(), 200);
+        assertEquals(unwrapDtoList(response, WorkspaceDto.class).stream()
+                                                                .map(ws -> new WorkspaceImpl(ws, TEST_ACCOUNT))
+                                                                .collect(toList()),
+                     singletonList(workspace));
+        final Map<String, String> links = PagingUtil.parseLinkHeader(response.getHeader("Link"));
+        assertEquals(links.keySet(), ImmutableSet.of("first", "prev", "next", "last"));
+    }
+
+    @Test
+    public void shouldRespond400WhenGettingWorkspacesWithUnknownStatus() throws Exception {
+        final Response response = given().auth()
+                                         .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+                                         .when()
+                                         .get(SECURE_PATH + "/workspace?status=sleeping");
+
+        assertEquals(response.getStatusCode(), 400);
+        assertEquals(unwrapError(response), "Workspace status 'sleeping' is not valid");
+    }
+
     @Test
     public void shouldUpdateTheWorkspace() throws Exception {
         final WorkspaceImpl workspace = createWorkspace(createConfigDto());
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.workspace.server;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.workspace.server.WorkspaceStartQueue.Priority;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link WorkspaceStartQueue}.
+ */
+public class WorkspaceStartQueueTest {
+    private ExecutorService      executor;
+    private CountDownLatch       release;
+    private List<String>         started;
+    private Map<String, Integer> positions;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        release = new CountDownLatch(1);
+        started = new CopyOnWriteArrayList<>();
+        positions = new ConcurrentHashMap<>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldLimitNumberOfConcurrentStarts() throws Exception {
+        final WorkspaceStartQueue queue = new WorkspaceStartQueue(2, 10, 10, executor, positions::put);
+
+        queue.submit("ws1", "user1", Priority.NORMAL, blockingStart("ws1"));
+        queue.submit("ws2", "user2", Priority.NORMAL, blockingStart("ws2"));
+        final Future<String> third = queue.submit("ws3", "user3", Priority.NORMAL, blockingStart("ws3"));
+
+        assertEquals(queue.getRunning(), 2);
+        assertEquals(queue.getQueued(), 1);
+        assertEquals(queue.getPosition("ws3"), 1);
+        assertEquals(positions.get("ws3"), (Integer)1);
+
+        release.countDown();
+        assertEquals(third.get(5, TimeUnit.SECONDS), "ws3");
+    }
+
+    @Test
+    public void shouldLimitNumberOfConcurrentStartsOfTheSameUser() throws Exception {
+        final WorkspaceStartQueue queue = new WorkspaceStartQueue(2, 1, 10, executor, positions::put);
+
+        queue.submit("ws1", "user1", Priority.NORMAL, blockingStart("ws1"));
+        queue.submit("ws2", "user1", Priority.NORMAL, blockingStart("ws2"));
+        queue.submit("ws3", "user2", Priority.NORMAL, blockingStart("ws3"));
+
+        assertEquals(queue.getRunning(), 2);
+        assertEquals(queue.getPosition("ws2"), 1);
+        assertEquals(queue.getPosition("ws3"), 0);
+    }
+
+    @Test
+    public void shouldAdmitStartsWithHigherPriorityFirst() throws Exception {
+        final WorkspaceStartQueue queue = new WorkspaceStartQueue(1, 10, 10, executor, positions::put);
+
+        final Future<String> first = queue.submit("ws1", "user1", Priority.NORMAL, blockingStart("ws1"));
+        queue.submit("ws2", "user2", Priority.NORMAL, blockingStart("ws2"));
+        final Future<String> recover = queue.submit("ws3", "user3", Priority.HIGH, blockingStart("ws3"));
+
+        assertEquals(queue.getPosition("ws3"), 1);
+        assertEquals(queue.getPosition("ws2"), 2);
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        recover.get(5, TimeUnit.SECONDS);
+        assertEquals(started.subList(0, 2), asList("ws1", "ws3"));
+    }
+
+    @Test(expectedExceptions = ConflictException.class,
+          expectedExceptionsMessageRegExp = ".* 1 workspaces are waiting for start. Retry in \\d+ seconds")
+    public void shouldRejectStartWithRetryHintWhenQueueIsFull() throws Exception {
+        final WorkspaceStartQueue queue = new WorkspaceStartQueue(1, 10, 1, executor, positions::put);
+        queue.submit("ws1", "user1", Priority.NORMAL, blockingStart("ws1"));
+        queue.submit("ws2", "user2", Priority.NORMAL, blockingStart("ws2"));
+
+        queue.submit("ws3", "user3", Priority.NORMAL, blockingStart("ws3"));
+    }
+
+    @Test
+    public void shouldCancelQueuedStarts() throws Exception {
+        final WorkspaceStartQueue queue = new WorkspaceStartQueue(1, 10, 10, executor, positions::put);
+        queue.submit("ws1", "user1", Priority.NORMAL, blockingStart("ws1"));
+        final Future<String> queued = queue.submit("ws2", "user2", Priority.NORMAL, blockingStart("ws2"));
+
+        assertEquals(queue.cancelQueued(), singletonList("ws2"));
+
+        assertTrue(queued.isCancelled());
+        assertEquals(queue.getQueued(), 0);
+    }
+
+    @Test
+    public void shouldCancelQueuedStartOfWorkspace() throws Exception {
+        final WorkspaceStartQueue queue = new WorkspaceStartQueue(1, 10, 10, executor, positions::put);
+        queue.submit("ws1", "user1", Priority.NORMAL, blockingStart("ws1"));
+        final Future<String> cancelled = queue.submit("ws2", "user2", Priority.NORMAL, blockingStart("ws2"));
+        queue.submit("ws3", "user3", Priority.NORMAL, blockingStart("ws3"));
+
+        assertTrue(queue.cancel("ws2"));
+
+        assertTrue(cancelled.isCancelled());
+        assertEquals(queue.getPosition("ws3"), 1);
+        assertEquals(positions.get("ws3"), (Integer)1);
+    }
+
+    @Test
+    public void shouldNotCancelStartWhichIsPerformed() throws Exception {
+        final WorkspaceStartQueue queue = new WorkspaceStartQueue(1, 10, 10, executor, positions::put);
+        final Future<String> running = queue.submit("ws1", "user1", Priority.NORMAL, blockingStart("ws1"));
+
+        assertFalse(queue.cancel("ws1"));
+
+        release.countDown();
+        assertEquals(running.get(5, TimeUnit.SECONDS), "ws1");
+    }
+
+    private Callable<String> blockingStart(String workspaceId) {
+        return () -> {
+            started.add(workspaceId);
+            release.await();
+            return workspaceId;
+        };
+    }
+}
@@ -11,6 +11,7 @@
 package org.eclipse.che.api.workspace.server.launcher;
 
 import org.eclipse.che.api.agent.server.WsAgentPingRequestFactory;
+import org.eclipse.che.api.agent.server.launcher.AgentInstallation;
 import org.eclipse.che.api.agent.shared.model.Agent;
 import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -20,6 +21,7 @@ import org.eclipse.che.api.core.model.machine.Server;
 import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.HttpJsonResponse;
+import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.environment.server.MachineProcessManager;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.CommandImpl;
@@ -115,9 +117,11 @@ public class WsAgentLauncherImplTest {
         verify(machineProcessManager).exec(eq(WORKSPACE_ID),
                                            eq(MACHINE_ID),
                                            eq(new CommandImpl("org.eclipse.che.ws-agent",
-                                                              "script\n" + WsAgentLauncherImpl.DEFAULT_WS_AGENT_RUN_COMMAND,
+                                                              AgentInstallation.markScript("script",
+                                                                                           WsAgentLauncherImpl.DEFAULT_WS_AGENT_RUN_COMMAND),
                                                               WS_AGENT_PROCESS_NAME)),
-                                           eq(WsAgentLauncherImpl.getWsAgentProcessOutputChannel(WORKSPACE_ID)));
+                                           eq(WsAgentLauncherImpl.getWsAgentProcessOutputChannel(WORKSPACE_ID)),
+                                           any(LineConsumer.class));
 
     }
 
@@ -170,7 +174,8 @@ public class WsAgentLauncherImplTest {
         when(machineProcessManager.exec(anyString(),
                                         anyString(),
                                         any(Command.class),
-                                        anyString()))
+                                        anyString(),
+                                        any(LineConsumer.class)))
                 .thenThrow(new NotFoundException("Test exception"));
 
         wsAgentLauncher.launch(machine, agent);
@@ -178,7 +183,8 @@ public class WsAgentLauncherImplTest {
         verify(machineProcessManager).exec(anyString(),
                                            anyString(),
                                            any(Command.class),
-                                           anyString());
+                                           anyString(),
+                                           any(LineConsumer.class));
     }
 
     @Test(expectedExceptions = ServerException.class, expectedExceptionsMessageRegExp = "Test exception")
@@ -186,7 +192,8 @@ public class WsAgentLauncherImplTest {
         when(machineProcessManager.exec(anyString(),
                                         anyString(),
                                         any(Command.class),
-                                        anyString()))
+                                        anyString(),
+                                        any(LineConsumer.class)))
                 .thenThrow(new MachineException("Test exception"));
 
         wsAgentLauncher.launch(machine, agent);
@@ -194,7 +201,8 @@ public class WsAgentLauncherImplTest {
         verify(machineProcessManager).exec(anyString(),
                                            anyString(),
                                            any(Command.class),
-                                           anyString());
+                                           anyString(),
+                                           any(LineConsumer.class));
     }
 
     @Test(expectedExceptions = ServerException.class, expectedExceptionsMessageRegExp = "Test exception")
@@ -202,7 +210,8 @@ public class WsAgentLauncherImplTest {
         when(machineProcessManager.exec(anyString(),
                                         anyString(),
                                         any(Command.class),
-                                        anyString()))
+                                        anyString(),
+                                        any(LineConsumer.class)))
                 .thenThrow(new BadRequestException("Test exception"));
 
         wsAgentLauncher.launch(machine, agent);
@@ -210,7 +219,8 @@ public class WsAgentLauncherImplTest {
         verify(machineProcessManager).exec(anyString(),
                                            anyString(),
                                            any(Command.class),
-                                           anyString());
+                                           anyString(),
+                                           any(LineConsumer.class));
     }
 
     @Test(expectedExceptions = ServerException.class,
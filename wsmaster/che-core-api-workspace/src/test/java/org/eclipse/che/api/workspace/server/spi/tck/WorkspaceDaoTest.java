@@ -16,6 +16,7 @@ import com.google.common.collect.ImmutableMap;
 import org.eclipse.che.account.spi.AccountImpl;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.machine.server.model.impl.CommandImpl;
 import org.eclipse.che.api.workspace.server.event.WorkspaceRemovedEvent;
@@ -45,6 +46,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonMap;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -138,6 +140,52 @@ public class WorkspaceDaoTest {
         workspaceDao.getByNamespace(null);
     }
 
+    @Test
+    public void shouldGetWorkspacesPage() throws Exception {
+        final Page<WorkspaceImpl> page = workspaceDao.getWorkspaces("user123", 2, 1);
+
+        assertEquals(page.getItems(), asList(workspaces[1], workspaces[2]));
+        assertEquals(page.getTotalItemsCount(), COUNT_OF_WORKSPACES);
+    }
+
+    @Test
+    public void shouldGetWorkspacesPageByIds() throws Exception {
+        final Page<WorkspaceImpl> page = workspaceDao.getWorkspaces("user123",
+                                                                    new HashSet<>(asList(workspaces[3].getId(),
+                                                                                         workspaces[1].getId(),
+                                                                                         "non-existing")),
+                                                                    30,
+                                                                    0);
+
+        assertEquals(page.getItems(), asList(workspaces[1], workspaces[3]));
+        assertEquals(page.getTotalItemsCount(), 2);
+    }
+
+    @Test
+    public void shouldReturnEmptyPageWhenGettingWorkspacesByEmptyIds() throws Exception {
+        final Page<WorkspaceImpl> page = workspaceDao.getWorkspaces("user123", emptySet(), 30, 0);
+
+        assertTrue(page.isEmpty());
+        assertEquals(page.getTotalItemsCount(), 0);
+    }
+
+    @Test
+    public void shouldGetWorkspacesPageExceptOfGivenIds() throws Exception {
+        final Page<WorkspaceImpl> page = workspaceDao.getWorkspacesExcept("user123",
+                                                                          new HashSet<>(asList(workspaces[0].getId(),
+                                                                                               workspaces[2].getId())),
+                                                                          30,
+                                                                          0);
+
+        assertEquals(page.getItems(), asList(workspaces[1], workspaces[3], workspaces[4]));
+        assertEquals(page.getTotalItemsCount(), COUNT_OF_WORKSPACES - 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldThrowIllegalArgumentExceptionWhenGettingWorkspacesPageWithNegativeSkipCount() throws Exception {
+        workspaceDao.getWorkspaces("user123", 30, -1);
+    }
+
     @Test
     public void shouldGetWorkspaceByNameAndNamespace() throws Exception {
         final WorkspaceImpl workspace = workspaces[0];
@@ -16,6 +16,7 @@ import com.google.common.reflect.TypeToken;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.Recipe;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
@@ -37,8 +38,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
+import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -163,6 +168,47 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
         return new ArrayList<>(workspaces.values());
     }
 
+    @Override
+    public Page<WorkspaceImpl> getWorkspaces(String userId, int maxItems, long skipCount) throws ServerException {
+        requireNonNull(userId, "Required non-null user id");
+        return getPage(ws -> true, maxItems, skipCount);
+    }
+
+    @Override
+    public Page<WorkspaceImpl> getWorkspaces(String userId, Set<String> ids, int maxItems, long skipCount) throws ServerException {
+        requireNonNull(userId, "Required non-null user id");
+        requireNonNull(ids, "Required non-null ids");
+        return getPage(ws -> ids.contains(ws.getId()), maxItems, skipCount);
+    }
+
+    @Override
+    public Page<WorkspaceImpl> getWorkspacesExcept(String userId,
+                                                   Set<String> excludedIds,
+                                                   int maxItems,
+                                                   long skipCount) throws ServerException {
+        requireNonNull(userId, "Required non-null user id");
+        requireNonNull(excludedIds, "Required non-null excluded ids");
+        return getPage(ws -> !excludedIds.contains(ws.getId()), maxItems, skipCount);
+    }
+
+    private synchronized Page<WorkspaceImpl> getPage(Predicate<WorkspaceImpl> filter, int maxItems, long skipCount) {
+        checkArgument(maxItems >= 0, "The number of items to return can't be negative.");
+        checkArgument(skipCount >= 0, "The number of items to skip can't be negative.");
+        final List<WorkspaceImpl> matched = workspaces.values()
+                                                      .stream()
+                                                      .filter(filter)
+                                                      .sorted(comparing(WorkspaceImpl::getId))
+                                                      .collect(toList());
+        return new Page<>(matched.stream()
+                                 .skip(skipCount)
+                                 .limit(maxItems)
+                                 .map(ws -> new WorkspaceImpl(ws, ws.getAccount()))
+                                 .collect(toList()),
+                          skipCount,
+                          maxItems,
+                          matched.size());
+    }
+
     private Optional<WorkspaceImpl> find(String name, String owner) {
         return workspaces.values()
                          .stream()